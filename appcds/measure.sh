@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+# ============================================
+# 对比有无AppCDS归档时的启动耗时和内存
+# ============================================
+# 用法：appcds/measure.sh <模块> [入口类] [次数，默认5]
+#
+# 每种方式运行N次（先各跑一次预热文件缓存，不计入），输出：
+# - 耗时：从启动JVM到进程退出的墙上时间（ms）
+# - RSS：进程的峰值常驻内存（/proc/<pid>/status中的VmHWM，KB），运行期间轮询读取
+set -euo pipefail
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+MODULE=${1:?"用法: $0 <模块> [入口类] [次数]"}
+MODULE_DIR=$ROOT/$MODULE
+MAIN=${2:-$(sed -n 's:.*<cds.mainClass>\(.*\)</cds.mainClass>.*:\1:p' "$MODULE_DIR/pom.xml")}
+RUNS=${3:-5}
+JAR=$MODULE_DIR/target/$MODULE-1.0-SNAPSHOT.jar
+ARCHIVE=$MODULE_DIR/target/app-cds.jsa
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+if [ ! -f "$JAR" ] || [ ! -f "$ARCHIVE" ]; then
+    echo "找不到 $JAR 或 $ARCHIVE，请先执行 mvn -P appcds package" >&2
+    exit 1
+fi
+cd "$MODULE_DIR"
+
+# 运行一次，输出"耗时ms 峰值RSS(KB)"
+run_once() {
+    local start end pid hwm=0 key value _
+    start=$(date +%s%N)
+    "$JAVA" "$@" >/dev/null 2>&1 &
+    pid=$!
+    while kill -0 "$pid" 2>/dev/null; do
+        # 用内建read读取，避免每次轮询都fork子进程干扰计时
+        while read -r key value _; do
+            if [ "$key" = "VmHWM:" ]; then
+                hwm=$value
+            fi
+        done < "/proc/$pid/status" 2>/dev/null || true
+        sleep 0.01
+    done
+    wait "$pid" || true
+    end=$(date +%s%N)
+    echo "$(( (end - start) / 1000000 )) $hwm"
+}
+
+measure() {
+    local label=$1 total_ms=0 total_rss=0 ms rss i
+    shift
+    run_once "$@" > /dev/null
+    for ((i = 0; i < RUNS; i++)); do
+        read -r ms rss < <(run_once "$@")
+        total_ms=$((total_ms + ms))
+        total_rss=$((total_rss + rss))
+    done
+    printf "%-10s 平均耗时 %6d ms   平均峰值RSS %7d KB\n" "$label" $((total_ms / RUNS)) $((total_rss / RUNS))
+}
+
+echo "$MODULE ($MAIN)，各运行 $RUNS 次"
+measure "无归档" -Xshare:auto -cp "$JAR" "$MAIN"
+measure "AppCDS" -XX:SharedArchiveFile="$ARCHIVE" -cp "$JAR" "$MAIN"
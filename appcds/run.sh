@@ -0,0 +1,45 @@
+#!/usr/bin/env bash
+# ============================================
+# 使用AppCDS归档启动模块
+# ============================================
+# 用法：appcds/run.sh <模块> [入口类] [程序参数...]
+#   appcds/run.sh day01
+#   appcds/run.sh day03_transaction com.coder.AppForStartupProfile
+#
+# 先执行 mvn -P appcds package 生成 target/模块.jar、target/lib 和 target/app-cds.jsa
+# 入口类默认取模块pom中的cds.mainClass（即训练时使用的入口）
+# 类路径必须与训练时完全一致（同一个jar的绝对路径），java也必须是生成归档的同一个JDK（JAVA_HOME）
+# 归档不存在或不匹配时JVM会静默回退到普通启动（-Xshare:auto），加 -Xlog:cds 可查看原因
+set -euo pipefail
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+MODULE=${1:?"用法: $0 <模块> [入口类] [程序参数...]"}
+shift
+MODULE_DIR=$ROOT/$MODULE
+JAR=$MODULE_DIR/target/$MODULE-1.0-SNAPSHOT.jar
+ARCHIVE=$MODULE_DIR/target/app-cds.jsa
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+MAIN=${1:-}
+if [ $# -gt 0 ]; then
+    shift
+fi
+if [ -z "$MAIN" ]; then
+    MAIN=$(sed -n 's:.*<cds.mainClass>\(.*\)</cds.mainClass>.*:\1:p' "$MODULE_DIR/pom.xml")
+fi
+
+if [ ! -f "$JAR" ]; then
+    echo "找不到 $JAR，请先执行 mvn -P appcds package" >&2
+    exit 1
+fi
+
+CDS_OPTS=()
+if [ -f "$ARCHIVE" ]; then
+    CDS_OPTS=(-XX:SharedArchiveFile="$ARCHIVE")
+else
+    echo "找不到 $ARCHIVE，不使用AppCDS启动" >&2
+fi
+
+# 与训练运行相同的工作目录（模块目录）
+cd "$MODULE_DIR"
+exec "$JAVA" ${CDS_OPTS[@]+"${CDS_OPTS[@]}"} -cp "$JAR" "$MAIN" "$@"
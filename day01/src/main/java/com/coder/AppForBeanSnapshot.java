@@ -0,0 +1,113 @@
+package com.coder;
+
+import com.coder.context.SnapshotXmlApplicationContext;
+import com.coder.service.BookService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * BeanDefinition快照示例
+ *
+ * 第一部分：用SnapshotXmlApplicationContext加载applicationContext.xml两次
+ * - 第一次：解析XML，生成target/bean-snapshots下的快照文件
+ * - 第二次：XML内容没变，直接读快照，跳过DOM解析和XSD校验
+ * 修改applicationContext.xml后再运行，哈希不匹配，会自动重新解析并覆盖快照
+ *
+ * 第二部分：生成一个含N组bookDao/bookService的XML（参数1，默认2000组），交替测量"解析XML"和"读快照"的加载耗时
+ * - Bean都设为lazy-init，refresh时不创建，测到的只是BeanDefinition的加载
+ * - 解析XML的耗时包含写快照
+ *
+ * 运行：java com.coder.AppForBeanSnapshot [组数] [轮数]
+ */
+public class AppForBeanSnapshot {
+    public static void main(String[] args) throws IOException {
+        System.out.println("========== applicationContext.xml ==========");
+        for (int i = 1; i <= 2; i++) {
+            SnapshotXmlApplicationContext ctx = new SnapshotXmlApplicationContext("applicationContext.xml");
+            System.out.println("第" + i + "次启动：" + (ctx.isLoadedFromSnapshot() ? "快照" : "XML")
+                    + "，加载BeanDefinition耗时" + millis(ctx.getLoadNanos()) + " ms");
+            BookService bookService = (BookService) ctx.getBean("bookService");
+            bookService.save();
+            ctx.close();
+        }
+
+        int beans = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Path dir = Paths.get("target", "bean-snapshot-demo");
+        Path xml = generateXml(dir.resolve("synthetic.xml"), beans);
+        System.setProperty("bean.snapshot.dir", dir.resolve("snapshots").toString());
+        String location = xml.toUri().toString();
+
+        System.out.println("========== " + beans * 2 + "个Bean，" + rounds + "轮 ==========");
+        long[] xmlNanos = new long[rounds];
+        long[] snapshotNanos = new long[rounds];
+        for (int i = 0; i < rounds; i++) {
+            deleteSnapshots(dir.resolve("snapshots"));
+            SnapshotXmlApplicationContext parsed = new SnapshotXmlApplicationContext(location);
+            xmlNanos[i] = parsed.getLoadNanos();
+            parsed.close();
+
+            SnapshotXmlApplicationContext cached = new SnapshotXmlApplicationContext(location);
+            if (!cached.isLoadedFromSnapshot()) {
+                throw new IllegalStateException("第二次启动没有使用快照");
+            }
+            snapshotNanos[i] = cached.getLoadNanos();
+            cached.close();
+        }
+        // 前几轮包含类加载和JIT，取中位数
+        Arrays.sort(xmlNanos);
+        Arrays.sort(snapshotNanos);
+        long xmlMedian = xmlNanos[rounds / 2];
+        long snapshotMedian = snapshotNanos[rounds / 2];
+        System.out.println("解析XML（中位数）：" + millis(xmlMedian) + " ms");
+        System.out.println("读取快照（中位数）：" + millis(snapshotMedian) + " ms");
+        System.out.println(String.format("加速比：%.1fx", (double) xmlMedian / snapshotMedian));
+    }
+
+    /**
+     * 每个Bean与applicationContext.xml中的bookDao/bookService写法相同：value属性 + ref引用
+     */
+    private static Path generateXml(Path file, int beans) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            out.write("<beans xmlns=\"http://www.springframework.org/schema/beans\"\n"
+                    + "       xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n"
+                    + "       xsi:schemaLocation=\"http://www.springframework.org/schema/beans "
+                    + "http://www.springframework.org/schema/beans/spring-beans.xsd\"\n"
+                    + "       default-lazy-init=\"true\">\n");
+            for (int i = 0; i < beans; i++) {
+                out.write("    <bean id=\"bookDao" + i + "\" class=\"com.coder.dao.impl.BookDaoImpl\">\n"
+                        + "        <property name=\"databaseName\" value=\"mysql" + i + "\"/>\n"
+                        + "        <property name=\"connectionNum\" value=\"" + (i % 100) + "\"/>\n"
+                        + "    </bean>\n");
+                out.write("    <bean id=\"bookService" + i + "\" class=\"com.coder.service.impl.BookServiceImpl\">\n"
+                        + "        <property name=\"bookDao\" ref=\"bookDao" + i + "\"/>\n"
+                        + "    </bean>\n");
+            }
+            out.write("</beans>\n");
+        }
+        return file;
+    }
+
+    private static void deleteSnapshots(Path dir) throws IOException {
+        if (Files.isDirectory(dir)) {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,98 @@
+package com.coder;
+
+import com.coder.dao.OrderDao;
+import com.coder.dao.ReportDao;
+import com.coder.scope.PoolStats;
+import com.coder.scope.PooledScope;
+import com.coder.service.ReportService;
+import org.springframework.beans.factory.support.ScopeNotActiveException;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * 自定义pooled作用域示例（配置见pooledScope.xml）
+ *
+ * 1. 任务之外获取pooled的Bean会抛出异常，与request作用域在请求之外使用相同
+ * 2. 同一任务内多次调用使用同一个对象，不同任务之间复用池中的对象
+ * 3. 8个线程并发执行任务，reportDao最多4个对象：借不到的线程等待归还（背压），
+ *    使用orderDao的任务占用超过200ms，等待的任务超时失败
+ * 4. 空闲超过1秒的对象被淘汰，调用destroy-method
+ */
+public class AppForPooledScope {
+    public static void main(String[] args) throws Exception {
+        ClassPathXmlApplicationContext ctx = new ClassPathXmlApplicationContext("pooledScope.xml");
+        PooledScope pooledScope = ctx.getBean(PooledScope.class);
+        ReportService reportService = ctx.getBean(ReportService.class);
+        ReportDao reportDao = ctx.getBean("reportDao", ReportDao.class);
+        OrderDao orderDao = ctx.getBean("orderDao", OrderDao.class);
+
+        System.out.println("========== 1. 任务之外调用 ==========");
+        try {
+            reportService.report(1, 100);
+        } catch (ScopeNotActiveException e) {
+            System.out.println("【预期的异常】" + e.getCause().getMessage());
+        }
+
+        System.out.println("========== 2. 同一任务内 / 不同任务间 ==========");
+        for (int i = 1; i <= 2; i++) {
+            int taskNo = i;
+            pooledScope.run(() -> {
+                System.out.println("任务" + taskNo + "：" + reportService.report(taskNo, 1234.5));
+                // reportDao是代理，toString转发给当前任务借到的对象
+                System.out.println("任务" + taskNo + "第一次使用的对象：" + reportDao);
+                System.out.println("任务" + taskNo + "第二次使用的对象：" + reportDao);
+            });
+        }
+        printStats(pooledScope);
+
+        System.out.println("========== 3. 8个线程并发 ==========");
+        ThreadPoolTaskExecutor executor = ctx.getBean(ThreadPoolTaskExecutor.class);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            long orderId = 1000 + i;
+            futures.add(executor.submit(() -> {
+                reportService.report(orderId, orderId * 1.5);
+                if (orderId % 2 == 0) {
+                    orderDao.save();
+                    sleep(250);
+                }
+                sleep(20);
+            }));
+        }
+        int failed = 0;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                failed++;
+            }
+        }
+        System.out.println("32个任务完成，其中" + failed + "个等待对象池超时");
+        printStats(pooledScope);
+
+        System.out.println("========== 4. 空闲淘汰 ==========");
+        sleep(1600);
+        printStats(pooledScope);
+
+        ctx.close();
+    }
+
+    private static void printStats(PooledScope pooledScope) {
+        for (PoolStats stats : pooledScope.getStats()) {
+            System.out.println("【对象池】" + stats);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
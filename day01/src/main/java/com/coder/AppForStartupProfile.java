@@ -0,0 +1,30 @@
+package com.coder;
+
+import com.coder.startup.StartupProfiler;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+/**
+ * 容器启动耗时分析
+ *
+ * 与new ClassPathXmlApplicationContext("applicationContext.xml")的启动过程相同，
+ * 只是先挂上StartupProfiler再refresh（构造方法第二个参数false表示暂不刷新），启动完成后输出：
+ * - 阶段时间线：XML解析加载BeanDefinition、各个后处理器
+ * - 最慢的Bean及其实例化/注入/初始化耗时（静态工厂、实例工厂、FactoryBean创建的Bean都在其中）
+ * - target/startup-profile/day01.collapsed火焰图数据
+ *
+ * 回归检查：-Dstartup.max-millis=... 或 -Dstartup.baseline-file=... （详见StartupProfiler）
+ */
+public class AppForStartupProfile {
+    public static void main(String[] args) throws Exception {
+        StartupProfiler profiler = new StartupProfiler();
+        ClassPathXmlApplicationContext ctx =
+                new ClassPathXmlApplicationContext(new String[]{"applicationContext.xml"}, false, null);
+        profiler.attach(ctx);
+        ctx.refresh();
+        try {
+            profiler.report("day01");
+        } finally {
+            ctx.close();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.coder.benchmark;
+
+import com.coder.dao.ReportDao;
+import com.coder.scope.PoolStats;
+import com.coder.scope.PooledScope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 作用域基准测试（JMH）：prototype vs pooled
+ *
+ * 每次操作模拟一个任务：获取ReportDao并格式化一条记录
+ * - prototype：getBean("reportDaoPrototype")，每次都实例化并执行init-method
+ * - pooled：在pooledScope.run中通过作用域代理调用，任务开始时借出、结束时归还
+ *
+ * 4个线程并发，池大小为4，借出基本不需要等待；结束时打印池的命中率
+ *
+ * 运行方式：执行main方法，可通过参数指定线程数，如 ScopeBenchmark 8（超过池大小时会出现等待）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ScopeBenchmark {
+
+    private ClassPathXmlApplicationContext ctx;
+    private PooledScope pooledScope;
+    private ReportDao pooledReportDao;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = new ClassPathXmlApplicationContext("pooledScope.xml");
+        pooledScope = ctx.getBean(PooledScope.class);
+        pooledReportDao = ctx.getBean("reportDao", ReportDao.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (PoolStats stats : pooledScope.getStats()) {
+            System.out.println("【对象池】" + stats);
+        }
+        ctx.close();
+    }
+
+    @Benchmark
+    public String prototype() {
+        ReportDao reportDao = ctx.getBean("reportDaoPrototype", ReportDao.class);
+        return reportDao.format(42, 1234.5);
+    }
+
+    @Benchmark
+    public String pooled() throws Exception {
+        return pooledScope.call(() -> pooledReportDao.format(42, 1234.5));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.include(ScopeBenchmark.class.getSimpleName());
+        if (args.length > 0) {
+            builder.threads(Integer.parseInt(args[0]));
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,377 @@
+package com.coder.context;
+
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+import org.springframework.beans.factory.support.ManagedSet;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BeanDefinition的二进制快照
+ *
+ * XML解析的产物就是一组BeanDefinition（类名、作用域、属性值、构造参数……），把它们按固定顺序写成二进制，
+ * 下次启动直接读回来注册，就省去了DOM解析和XSD校验
+ *
+ * 文件格式（DataOutputStream，字符串为modified UTF-8）：
+ * <pre>
+ * int    MAGIC
+ * short  VERSION
+ * byte[] 32字节XML内容的SHA-256
+ * int    Bean数量
+ * 每个Bean：名称、别名、BeanDefinition的各个字段、构造参数、属性值
+ * </pre>
+ * 值按类型标记（TAG_*）递归编码：字符串、TypedStringValue、ref、idref、list、set、map等
+ *
+ * 只支持XML中常见的写法，遇到下列情况抛出UnsupportedException，调用方应回退为每次解析XML：
+ * - 不是纯粹的GenericBeanDefinition（如component-scan扫描出的Bean，结果取决于类路径而不是XML）
+ * - 内部Bean、lookup-method/replaced-method、qualifier、自定义属性
+ * - 无法编码的属性值类型（props等）
+ */
+public final class BeanDefinitionSnapshot {
+
+    private static final int MAGIC = 0x42445350; // "BDSP"
+    private static final short VERSION = 1;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_TYPED_STRING = 2;
+    private static final byte TAG_REF = 3;
+    private static final byte TAG_IDREF = 4;
+    private static final byte TAG_LIST = 5;
+    private static final byte TAG_SET = 6;
+    private static final byte TAG_MAP = 7;
+    private static final byte TAG_BOOLEAN = 8;
+    private static final byte TAG_INT = 9;
+    private static final byte TAG_STRING_ARRAY = 10;
+
+    private BeanDefinitionSnapshot() {
+    }
+
+    /**
+     * 快照中的定义无法编码
+     */
+    public static class UnsupportedException extends Exception {
+        public UnsupportedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * 把注册表中的所有BeanDefinition写入快照
+     */
+    public static void write(BeanDefinitionRegistry registry, byte[] hash, DataOutputStream out)
+            throws IOException, UnsupportedException {
+        String[] names = registry.getBeanDefinitionNames();
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.write(hash);
+        out.writeInt(names.length);
+        for (String name : names) {
+            BeanDefinition bd = registry.getBeanDefinition(name);
+            if (bd.getClass() != GenericBeanDefinition.class) {
+                throw new UnsupportedException(name + "：不是XML直接定义的Bean（" + bd.getClass().getSimpleName() + "）");
+            }
+            GenericBeanDefinition gbd = (GenericBeanDefinition) bd;
+            if (gbd.hasMethodOverrides() || !gbd.getQualifiers().isEmpty() || gbd.attributeNames().length > 0) {
+                throw new UnsupportedException(name + "：使用了lookup-method/replaced-method、qualifier或自定义属性");
+            }
+            out.writeUTF(name);
+            writeStrings(out, registry.getAliases(name));
+            writeDefinition(out, gbd, name);
+        }
+    }
+
+    private static void writeDefinition(DataOutputStream out, GenericBeanDefinition bd, String name)
+            throws IOException, UnsupportedException {
+        writeNullable(out, bd.getBeanClassName());
+        writeNullable(out, bd.getParentName());
+        writeNullable(out, bd.getScope());
+        out.writeByte(bd.getLazyInit() == null ? -1 : bd.getLazyInit() ? 1 : 0);
+        out.writeBoolean(bd.isAbstract());
+        out.writeBoolean(bd.isPrimary());
+        out.writeBoolean(bd.isAutowireCandidate());
+        out.writeBoolean(bd.isEnforceInitMethod());
+        out.writeBoolean(bd.isEnforceDestroyMethod());
+        out.writeBoolean(bd.isLenientConstructorResolution());
+        out.writeBoolean(bd.isNonPublicAccessAllowed());
+        out.writeByte(bd.getAutowireMode());
+        out.writeByte(bd.getDependencyCheck());
+        out.writeByte(bd.getRole());
+        writeStrings(out, bd.getDependsOn());
+        writeNullable(out, bd.getFactoryBeanName());
+        writeNullable(out, bd.getFactoryMethodName());
+        writeNullable(out, bd.getInitMethodName());
+        writeNullable(out, bd.getDestroyMethodName());
+        writeNullable(out, bd.getDescription());
+
+        ConstructorArgumentValues args = bd.getConstructorArgumentValues();
+        out.writeInt(args.getIndexedArgumentValues().size());
+        for (Map.Entry<Integer, ConstructorArgumentValues.ValueHolder> entry : args.getIndexedArgumentValues().entrySet()) {
+            out.writeInt(entry.getKey());
+            writeHolder(out, entry.getValue(), name);
+        }
+        List<ConstructorArgumentValues.ValueHolder> generic = args.getGenericArgumentValues();
+        out.writeInt(generic.size());
+        for (ConstructorArgumentValues.ValueHolder holder : generic) {
+            writeHolder(out, holder, name);
+        }
+
+        PropertyValue[] properties = bd.getPropertyValues().getPropertyValues();
+        out.writeInt(properties.length);
+        for (PropertyValue pv : properties) {
+            out.writeUTF(pv.getName());
+            writeValue(out, pv.getValue(), name);
+        }
+    }
+
+    private static void writeHolder(DataOutputStream out, ConstructorArgumentValues.ValueHolder holder, String name)
+            throws IOException, UnsupportedException {
+        writeNullable(out, holder.getName());
+        writeNullable(out, holder.getType());
+        writeValue(out, holder.getValue(), name);
+    }
+
+    private static void writeValue(DataOutputStream out, Object value, String name)
+            throws IOException, UnsupportedException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(TAG_STRING);
+            out.writeUTF((String) value);
+        } else if (value instanceof TypedStringValue) {
+            TypedStringValue typed = (TypedStringValue) value;
+            out.writeByte(TAG_TYPED_STRING);
+            writeNullable(out, typed.getValue());
+            writeNullable(out, typed.getTargetTypeName());
+        } else if (value instanceof RuntimeBeanReference) {
+            RuntimeBeanReference ref = (RuntimeBeanReference) value;
+            out.writeByte(TAG_REF);
+            out.writeUTF(ref.getBeanName());
+            out.writeBoolean(ref.isToParent());
+        } else if (value instanceof RuntimeBeanNameReference) {
+            out.writeByte(TAG_IDREF);
+            out.writeUTF(((RuntimeBeanNameReference) value).getBeanName());
+        } else if (value instanceof ManagedList || value instanceof ManagedSet) {
+            boolean list = value instanceof ManagedList;
+            out.writeByte(list ? TAG_LIST : TAG_SET);
+            writeNullable(out, list ? ((ManagedList<?>) value).getElementTypeName()
+                    : ((ManagedSet<?>) value).getElementTypeName());
+            Collection<?> elements = (Collection<?>) value;
+            out.writeInt(elements.size());
+            for (Object element : elements) {
+                writeValue(out, element, name);
+            }
+        } else if (value instanceof ManagedMap) {
+            ManagedMap<?, ?> map = (ManagedMap<?, ?>) value;
+            out.writeByte(TAG_MAP);
+            writeNullable(out, map.getKeyTypeName());
+            writeNullable(out, map.getValueTypeName());
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey(), name);
+                writeValue(out, entry.getValue(), name);
+            }
+        } else if (value instanceof Boolean) {
+            out.writeByte(TAG_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TAG_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof String[]) {
+            out.writeByte(TAG_STRING_ARRAY);
+            writeStrings(out, (String[]) value);
+        } else {
+            throw new UnsupportedException(name + "：不支持的属性值类型" + value.getClass().getName());
+        }
+    }
+
+    /**
+     * 校验文件头中的哈希，匹配时把快照中的定义注册到registry
+     *
+     * @return 注册的Bean数量；哈希不匹配（XML已修改）或不是快照文件时返回-1，此时registry没有任何改动
+     */
+    public static int read(DataInputStream in, byte[] expectedHash, BeanDefinitionRegistry registry)
+            throws IOException {
+        if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+            return -1;
+        }
+        byte[] hash = new byte[expectedHash.length];
+        in.readFully(hash);
+        if (!Arrays.equals(hash, expectedHash)) {
+            return -1;
+        }
+        // 先完整读出再注册，文件损坏时不会留下注册了一半的注册表
+        int count = in.readInt();
+        List<Object[]> definitions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            String[] aliases = readStrings(in);
+            definitions.add(new Object[]{name, aliases, readDefinition(in)});
+        }
+        for (Object[] definition : definitions) {
+            String name = (String) definition[0];
+            registry.registerBeanDefinition(name, (BeanDefinition) definition[2]);
+            for (String alias : (String[]) definition[1]) {
+                registry.registerAlias(name, alias);
+            }
+        }
+        return count;
+    }
+
+    private static AbstractBeanDefinition readDefinition(DataInputStream in) throws IOException {
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClassName(readNullable(in));
+        bd.setParentName(readNullable(in));
+        bd.setScope(readNullable(in));
+        byte lazy = in.readByte();
+        if (lazy >= 0) {
+            bd.setLazyInit(lazy == 1);
+        }
+        bd.setAbstract(in.readBoolean());
+        bd.setPrimary(in.readBoolean());
+        bd.setAutowireCandidate(in.readBoolean());
+        bd.setEnforceInitMethod(in.readBoolean());
+        bd.setEnforceDestroyMethod(in.readBoolean());
+        bd.setLenientConstructorResolution(in.readBoolean());
+        bd.setNonPublicAccessAllowed(in.readBoolean());
+        bd.setAutowireMode(in.readByte());
+        bd.setDependencyCheck(in.readByte());
+        bd.setRole(in.readByte());
+        String[] dependsOn = readStrings(in);
+        bd.setDependsOn(dependsOn.length == 0 ? null : dependsOn);
+        bd.setFactoryBeanName(readNullable(in));
+        bd.setFactoryMethodName(readNullable(in));
+        bd.setInitMethodName(readNullable(in));
+        bd.setDestroyMethodName(readNullable(in));
+        bd.setDescription(readNullable(in));
+
+        ConstructorArgumentValues args = new ConstructorArgumentValues();
+        int indexed = in.readInt();
+        for (int i = 0; i < indexed; i++) {
+            args.addIndexedArgumentValue(in.readInt(), readHolder(in));
+        }
+        int generic = in.readInt();
+        for (int i = 0; i < generic; i++) {
+            args.addGenericArgumentValue(readHolder(in));
+        }
+        bd.setConstructorArgumentValues(args);
+
+        int propertyCount = in.readInt();
+        MutablePropertyValues properties = new MutablePropertyValues();
+        for (int i = 0; i < propertyCount; i++) {
+            properties.addPropertyValue(new PropertyValue(in.readUTF(), readValue(in)));
+        }
+        bd.setPropertyValues(properties);
+        return bd;
+    }
+
+    private static ConstructorArgumentValues.ValueHolder readHolder(DataInputStream in) throws IOException {
+        String name = readNullable(in);
+        String type = readNullable(in);
+        ConstructorArgumentValues.ValueHolder holder = new ConstructorArgumentValues.ValueHolder(readValue(in));
+        holder.setName(name);
+        holder.setType(type);
+        return holder;
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_STRING:
+                return in.readUTF();
+            case TAG_TYPED_STRING: {
+                TypedStringValue typed = new TypedStringValue(readNullable(in));
+                typed.setTargetTypeName(readNullable(in));
+                return typed;
+            }
+            case TAG_REF: {
+                String beanName = in.readUTF();
+                return new RuntimeBeanReference(beanName, in.readBoolean());
+            }
+            case TAG_IDREF:
+                return new RuntimeBeanNameReference(in.readUTF());
+            case TAG_LIST: {
+                ManagedList<Object> list = new ManagedList<>();
+                list.setElementTypeName(readNullable(in));
+                int size = in.readInt();
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case TAG_SET: {
+                ManagedSet<Object> set = new ManagedSet<>();
+                set.setElementTypeName(readNullable(in));
+                int size = in.readInt();
+                for (int i = 0; i < size; i++) {
+                    set.add(readValue(in));
+                }
+                return set;
+            }
+            case TAG_MAP: {
+                ManagedMap<Object, Object> map = new ManagedMap<>();
+                map.setKeyTypeName(readNullable(in));
+                map.setValueTypeName(readNullable(in));
+                int size = in.readInt();
+                for (int i = 0; i < size; i++) {
+                    map.put(readValue(in), readValue(in));
+                }
+                return map;
+            }
+            case TAG_BOOLEAN:
+                return in.readBoolean();
+            case TAG_INT:
+                return in.readInt();
+            case TAG_STRING_ARRAY:
+                return readStrings(in);
+            default:
+                throw new IOException("快照文件已损坏：未知的值类型" + tag);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        int length = values == null ? 0 : values.length;
+        out.writeInt(length);
+        for (int i = 0; i < length; i++) {
+            out.writeUTF(values[i]);
+        }
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+        String[] values = new String[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readUTF();
+        }
+        return values;
+    }
+}
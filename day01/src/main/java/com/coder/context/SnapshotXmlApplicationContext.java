@@ -0,0 +1,188 @@
+package com.coder.context;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 带BeanDefinition快照的XML容器
+ *
+ * ClassPathXmlApplicationContext每次启动都要用DOM解析applicationContext.xml，并按XSD校验，
+ * 而XML没有修改时，解析出来的BeanDefinition每次都完全一样
+ *
+ * 这个容器在加载BeanDefinition时：
+ * 1. 计算所有XML文件内容的SHA-256
+ * 2. 快照文件存在且哈希一致：直接从快照读取BeanDefinition注册，跳过XML解析
+ * 3. 否则照常解析XML，再把结果写成快照（第一次运行或XML修改后自动重新生成）
+ *
+ * 快照无法表示的配置（component-scan、import的其他文件、内部Bean等，见BeanDefinitionSnapshot）
+ * 不生成快照，每次都解析XML，行为与ClassPathXmlApplicationContext完全相同
+ *
+ * 快照目录：-Dbean.snapshot.dir，默认target/bean-snapshots
+ *
+ * 使用方式（与ClassPathXmlApplicationContext相同）：
+ * <pre>
+ * ApplicationContext ctx = new SnapshotXmlApplicationContext("applicationContext.xml");
+ * </pre>
+ */
+public class SnapshotXmlApplicationContext extends ClassPathXmlApplicationContext {
+
+    private boolean loadedFromSnapshot;
+
+    private long loadNanos;
+
+    public SnapshotXmlApplicationContext(String... configLocations) throws BeansException {
+        super(configLocations, false, null);
+        refresh();
+    }
+
+    @Override
+    protected void loadBeanDefinitions(DefaultListableBeanFactory beanFactory) throws BeansException, IOException {
+        long start = System.nanoTime();
+        Resource[] resources = resolveResources();
+        byte[] hash = hash(resources);
+        Path snapshot = snapshotFile();
+
+        loadedFromSnapshot = readSnapshot(snapshot, hash, beanFactory);
+        if (!loadedFromSnapshot) {
+            super.loadBeanDefinitions(beanFactory);
+            writeSnapshot(snapshot, hash, beanFactory, resources);
+        }
+        loadNanos = System.nanoTime() - start;
+    }
+
+    private Resource[] resolveResources() throws IOException {
+        String[] locations = getConfigLocations();
+        if (locations == null) {
+            return new Resource[0];
+        }
+        List<Resource> resources = new ArrayList<>();
+        for (String location : locations) {
+            for (Resource resource : getResources(location)) {
+                resources.add(resource);
+            }
+        }
+        return resources.toArray(new Resource[0]);
+    }
+
+    /**
+     * 哈希覆盖每个配置位置及其文件内容，位置或内容任何变化都会使快照失效
+     */
+    private byte[] hash(Resource[] resources) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[8192];
+        for (Resource resource : resources) {
+            digest.update(resource.getDescription().getBytes(StandardCharsets.UTF_8));
+            try (InputStream in = resource.getInputStream()) {
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, n);
+                }
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * 文件名取配置位置的哈希前缀，不同的XML组合各有一个快照，互不覆盖
+     */
+    private Path snapshotFile() {
+        String locations = String.join(",", getConfigLocations() == null ? new String[0] : getConfigLocations());
+        String name = Integer.toHexString(locations.hashCode()) + ".bds";
+        return Paths.get(System.getProperty("bean.snapshot.dir", "target/bean-snapshots"), name);
+    }
+
+    private boolean readSnapshot(Path snapshot, byte[] hash, DefaultListableBeanFactory beanFactory) {
+        if (!Files.isRegularFile(snapshot)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            int count = BeanDefinitionSnapshot.read(in, hash, beanFactory);
+            if (count < 0) {
+                System.out.println("【BeanDefinition快照】XML已修改，重新解析：" + snapshot);
+                return false;
+            }
+            System.out.println("【BeanDefinition快照】从快照加载" + count + "个BeanDefinition，跳过XML解析");
+            return true;
+        } catch (IOException e) {
+            // 快照损坏：BeanDefinitionSnapshot.read先完整读取再注册，此时注册表没有改动，直接回退解析XML
+            System.out.println("【BeanDefinition快照】快照读取失败（" + e.getMessage() + "），重新解析XML");
+            return false;
+        }
+    }
+
+    private void writeSnapshot(Path snapshot, byte[] hash, DefaultListableBeanFactory beanFactory, Resource[] resources) {
+        // import进来的文件不在哈希范围内，它们修改后快照无法感知，这种情况不生成快照
+        Set<String> rootDescriptions = new HashSet<>();
+        for (Resource resource : resources) {
+            rootDescriptions.add(resource.getDescription());
+        }
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition bd = beanFactory.getBeanDefinition(name);
+            if (bd.getResourceDescription() != null && !rootDescriptions.contains(bd.getResourceDescription())) {
+                System.out.println("【BeanDefinition快照】" + name + "来自" + bd.getResourceDescription()
+                        + "，不在快照哈希范围内，不生成快照");
+                return;
+            }
+        }
+
+        try {
+            Files.createDirectories(snapshot.getParent());
+            // 先写临时文件再原子替换，并发启动的进程不会读到写了一半的快照
+            Path tmp = Files.createTempFile(snapshot.getParent(), snapshot.getFileName().toString(), ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    BeanDefinitionSnapshot.write(beanFactory, hash, out);
+                }
+                Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                System.out.println("【BeanDefinition快照】已生成快照：" + snapshot.toAbsolutePath());
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (BeanDefinitionSnapshot.UnsupportedException e) {
+            System.out.println("【BeanDefinition快照】" + e.getMessage() + "，不生成快照");
+        } catch (IOException e) {
+            // 快照只是加速手段，写入失败不影响容器启动
+            System.out.println("【BeanDefinition快照】快照写入失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 本次启动的BeanDefinition是否来自快照
+     */
+    public boolean isLoadedFromSnapshot() {
+        return loadedFromSnapshot;
+    }
+
+    /**
+     * 加载BeanDefinition的耗时（含计算哈希），单位纳秒
+     */
+    public long getLoadNanos() {
+        return loadNanos;
+    }
+}
@@ -0,0 +1,5 @@
+package com.coder.dao;
+
+public interface ReportDao {
+    String format(long orderId, double amount);
+}
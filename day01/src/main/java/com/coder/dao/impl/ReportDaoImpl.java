@@ -0,0 +1,45 @@
+package com.coder.dao.impl;
+
+import com.coder.dao.ReportDao;
+
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * ReportDao实现类 - 创建成本高、又不是线程安全的对象，用于演示pooled作用域
+ *
+ * - DecimalFormat、SimpleDateFormat：构造时要解析格式串、加载区域数据，且不能多线程共享
+ * - 64K字符的输出缓冲区
+ * 配成singleton会有线程安全问题，配成prototype每次获取都要重新创建，适合池化复用
+ */
+public class ReportDaoImpl implements ReportDao {
+    private DecimalFormat amountFormat;
+    private SimpleDateFormat dateFormat;
+    private StringBuilder buffer;
+
+    /**
+     * init-method：创建格式化器和缓冲区
+     */
+    public void init() {
+        amountFormat = new DecimalFormat("#,##0.00");
+        dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        buffer = new StringBuilder(64 * 1024);
+    }
+
+    /**
+     * destroy-method：对象被池淘汰或容器关闭时调用
+     */
+    public void close() {
+        buffer = null;
+    }
+
+    @Override
+    public String format(long orderId, double amount) {
+        buffer.setLength(0);
+        buffer.append("订单").append(orderId)
+                .append(" 金额：").append(amountFormat.format(amount))
+                .append(" 时间：").append(dateFormat.format(new Date()));
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,155 @@
+package com.coder.scope;
+
+import org.springframework.beans.factory.ObjectFactory;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个Bean的对象池
+ *
+ * - 空闲对象放在ConcurrentLinkedDeque中（CAS实现，无锁）
+ *   归还放到队头、借出从队头取（后进先出，刚用过的对象缓存更热），淘汰从队尾检查（最久未用的）
+ * - 借出数量由Semaphore限制在maxSize以内：有许可时tryAcquire只是一次CAS，
+ *   许可用完时才阻塞等待，超时抛出异常，避免无限制地创建对象（背压）
+ * - 存活对象数 = 借出 + 空闲 ≤ maxSize
+ */
+final class BeanPool {
+
+    /**
+     * 池中的一个对象及其销毁回调
+     */
+    static final class Entry {
+        final Object bean;
+        final Runnable destructionCallback;
+        volatile long idleSinceNanos;
+
+        Entry(Object bean, Runnable destructionCallback) {
+            this.bean = bean;
+            this.destructionCallback = destructionCallback;
+        }
+    }
+
+    private final String beanName;
+    private final int maxSize;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<Entry> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger live = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile boolean closed;
+
+    BeanPool(String beanName, int maxSize) {
+        this.beanName = beanName;
+        this.maxSize = maxSize;
+        this.permits = new Semaphore(maxSize);
+    }
+
+    /**
+     * 借出一个对象：优先复用空闲对象，没有则通过creator新建
+     *
+     * @throws IllegalStateException 等待timeoutNanos后仍没有可借的对象
+     */
+    Entry borrow(ObjectFactory<Entry> creator, long timeoutNanos) {
+        if (closed) {
+            throw new IllegalStateException("对象池" + beanName + "已关闭");
+        }
+        if (!permits.tryAcquire()) {
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("等待对象池" + beanName + "时被中断", e);
+            }
+            if (!acquired) {
+                timeouts.increment();
+                throw new IllegalStateException("对象池" + beanName + "已借出" + maxSize + "个对象，等待"
+                        + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms后仍没有归还");
+            }
+        }
+
+        Entry entry = idle.pollFirst();
+        if (entry != null) {
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        try {
+            entry = creator.getObject();
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+        live.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * 归还对象，池已关闭时直接销毁
+     */
+    void giveBack(Entry entry) {
+        if (closed) {
+            destroy(entry);
+        } else {
+            entry.idleSinceNanos = System.nanoTime();
+            idle.offerFirst(entry);
+        }
+        permits.release();
+    }
+
+    /**
+     * 对象被Scope.remove移出，不再归还到池中，由调用方负责销毁
+     */
+    void detach() {
+        live.decrementAndGet();
+        permits.release();
+    }
+
+    /**
+     * 从队尾开始淘汰空闲超过idleTimeoutNanos的对象
+     */
+    void evictIdle(long idleTimeoutNanos) {
+        long now = System.nanoTime();
+        Entry oldest;
+        while ((oldest = idle.peekLast()) != null && now - oldest.idleSinceNanos >= idleTimeoutNanos) {
+            // 与借出并发时，对象可能刚被取走，移除失败说明已经不空闲了
+            if (idle.removeLastOccurrence(oldest)) {
+                destroy(oldest);
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * 关闭对象池并销毁空闲对象；借出中的对象在归还时销毁
+     */
+    void close() {
+        closed = true;
+        Entry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            destroy(entry);
+        }
+    }
+
+    private void destroy(Entry entry) {
+        live.decrementAndGet();
+        if (entry.destructionCallback != null) {
+            try {
+                entry.destructionCallback.run();
+            } catch (RuntimeException e) {
+                System.out.println("【pooled作用域】销毁" + beanName + "失败：" + e);
+            }
+        }
+    }
+
+    PoolStats stats() {
+        return new PoolStats(beanName, maxSize, hits.sum(), misses.sum(), timeouts.sum(), evictions.sum(),
+                live.get(), idle.size());
+    }
+}
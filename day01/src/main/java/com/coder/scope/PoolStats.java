@@ -0,0 +1,78 @@
+package com.coder.scope;
+
+/**
+ * 某个Bean对象池的统计快照
+ *
+ * - hits：借出时池中有空闲对象，直接复用
+ * - misses：池中没有空闲对象，新建了一个
+ * - timeouts：借出的对象已达上限，等待超时（背压）
+ * - evictions：空闲太久被淘汰销毁的对象数
+ * - live：当前存活的对象数（借出 + 空闲）
+ */
+public class PoolStats {
+    private final String beanName;
+    private final int maxSize;
+    private final long hits;
+    private final long misses;
+    private final long timeouts;
+    private final long evictions;
+    private final int live;
+    private final int idle;
+
+    PoolStats(String beanName, int maxSize, long hits, long misses, long timeouts, long evictions, int live, int idle) {
+        this.beanName = beanName;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.timeouts = timeouts;
+        this.evictions = evictions;
+        this.live = live;
+        this.idle = idle;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public int getLive() {
+        return live;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * 命中率：借出请求中复用已有对象的比例
+     */
+    public double getHitRate() {
+        long borrows = hits + misses;
+        return borrows == 0 ? 0 : (double) hits / borrows;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s：上限%d，存活%d（空闲%d），命中%d，未命中%d，命中率%.1f%%，超时%d，淘汰%d",
+                beanName, maxSize, live, idle, hits, misses, getHitRate() * 100, timeouts, evictions);
+    }
+}
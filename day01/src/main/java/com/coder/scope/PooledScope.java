@@ -0,0 +1,271 @@
+package com.coder.scope;
+
+import org.springframework.aop.scope.ScopedProxyUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.Scope;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 自定义作用域：pooled - 对象池
+ *
+ * prototype作用域每次获取都新建对象（实例化、属性注入、init-method），创建成本高的对象适合池化：
+ * - 每个Bean一个对象池，最多maxSize个对象
+ * - 一个"任务"内第一次使用时从池中借出，同一任务内多次获取都是同一个对象；任务结束时归还
+ * - 池中对象都被借出时，等待borrowTimeoutMillis，超时抛出IllegalStateException（背压）
+ *   get中抛出的IllegalStateException会被容器包装为ScopeNotActiveException
+ * - 空闲超过idleTimeoutMillis的对象由后台线程淘汰，并执行destroy-method
+ *
+ * 任务的边界：
+ * - pooledScope.run(() -> ...) / call(() -> ...)
+ * - pooledScope作为TaskDecorator设置到ThreadPoolTaskExecutor上，每个提交的任务自动成为一个pooled任务
+ * - 任务可以嵌套，最外层结束时才归还
+ *
+ * 配合&lt;aop:scoped-proxy/&gt;使用：注入到其他Bean中的是代理对象，每次方法调用时代理从作用域中取当前任务借到的对象，
+ * 所以单例Bean也可以安全地依赖pooled的Bean
+ *
+ * XML配置：
+ * <pre>
+ * &lt;bean id="pooledScope" class="com.coder.scope.PooledScope"&gt;
+ *     &lt;property name="maxSize" value="4"/&gt;
+ * &lt;/bean&gt;
+ * &lt;bean class="org.springframework.beans.factory.config.CustomScopeConfigurer"&gt;
+ *     &lt;property name="scopes"&gt;&lt;map&gt;&lt;entry key="pooled" value-ref="pooledScope"/&gt;&lt;/map&gt;&lt;/property&gt;
+ * &lt;/bean&gt;
+ * &lt;bean id="reportDao" class="..." scope="pooled"&gt;&lt;aop:scoped-proxy proxy-target-class="false"/&gt;&lt;/bean&gt;
+ * </pre>
+ */
+public class PooledScope implements Scope, TaskDecorator, InitializingBean, DisposableBean {
+
+    /**
+     * 当前线程进行中的任务：嵌套层数和已借出的对象
+     */
+    private static final class Task {
+        final long id;
+        int depth;
+        final Map<String, BeanPool.Entry> borrowed = new LinkedHashMap<>();
+
+        Task(long id) {
+            this.id = id;
+        }
+    }
+
+    private final ConcurrentMap<String, BeanPool> pools = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Task> currentTask = new ThreadLocal<>();
+
+    /** 创建对象期间，Spring通过registerDestructionCallback登记的销毁回调 */
+    private final ThreadLocal<Runnable> creatingCallback = new ThreadLocal<>();
+
+    private final AtomicLong taskIds = new AtomicLong();
+
+    private int maxSize = 8;
+
+    private Map<String, Integer> maxSizes = new HashMap<>();
+
+    private long borrowTimeoutMillis = 1000;
+
+    private long idleTimeoutMillis = 60_000;
+
+    private ScheduledExecutorService evictor;
+
+    /**
+     * 每个Bean默认的池大小
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 单独指定某些Bean的池大小，key为Bean名称
+     */
+    public void setMaxSizes(Map<String, Integer> maxSizes) {
+        this.maxSizes = maxSizes;
+    }
+
+    public void setBorrowTimeoutMillis(long borrowTimeoutMillis) {
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+    }
+
+    /**
+     * 空闲淘汰时间，0表示不淘汰
+     */
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (idleTimeoutMillis > 0) {
+            evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "pooled-scope-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(100, idleTimeoutMillis / 2);
+            long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+            evictor.scheduleWithFixedDelay(() -> {
+                for (BeanPool pool : pools.values()) {
+                    pool.evictIdle(idleTimeoutNanos);
+                }
+            }, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 开始一个任务（可嵌套），必须与end成对调用
+     */
+    public void begin() {
+        Task task = currentTask.get();
+        if (task == null) {
+            task = new Task(taskIds.incrementAndGet());
+            currentTask.set(task);
+        }
+        task.depth++;
+    }
+
+    /**
+     * 结束任务，最外层结束时归还本任务借出的所有对象
+     */
+    public void end() {
+        Task task = currentTask.get();
+        if (task == null) {
+            throw new IllegalStateException("当前线程没有进行中的pooled任务");
+        }
+        if (--task.depth > 0) {
+            return;
+        }
+        currentTask.remove();
+        for (Map.Entry<String, BeanPool.Entry> borrowed : task.borrowed.entrySet()) {
+            pools.get(borrowed.getKey()).giveBack(borrowed.getValue());
+        }
+    }
+
+    public void run(Runnable runnable) {
+        begin();
+        try {
+            runnable.run();
+        } finally {
+            end();
+        }
+    }
+
+    public <T> T call(Callable<T> callable) throws Exception {
+        begin();
+        try {
+            return callable.call();
+        } finally {
+            end();
+        }
+    }
+
+    /**
+     * TaskDecorator：线程池中执行的每个任务自动成为一个pooled任务
+     */
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return () -> run(runnable);
+    }
+
+    @Override
+    public Object get(String name, ObjectFactory<?> objectFactory) {
+        Task task = currentTask.get();
+        if (task == null) {
+            throw new IllegalStateException("获取pooled作用域的Bean[" + name
+                    + "]必须在pooled任务中（pooledScope.run/call，或使用pooledScope作为TaskDecorator的线程池）");
+        }
+        BeanPool.Entry entry = task.borrowed.get(name);
+        if (entry == null) {
+            BeanPool pool = pools.computeIfAbsent(name, this::createPool);
+            entry = pool.borrow(() -> create(objectFactory), TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis));
+            task.borrowed.put(name, entry);
+        }
+        return entry.bean;
+    }
+
+    private BeanPool createPool(String name) {
+        String originalName = ScopedProxyUtils.isScopedTarget(name) ? ScopedProxyUtils.getOriginalBeanName(name) : name;
+        return new BeanPool(originalName, maxSizes.getOrDefault(originalName, maxSize));
+    }
+
+    /**
+     * 创建对象时Spring会在同一线程上回调registerDestructionCallback，先记下来再与对象一起放进池
+     */
+    private BeanPool.Entry create(ObjectFactory<?> objectFactory) {
+        creatingCallback.remove();
+        try {
+            Object bean = objectFactory.getObject();
+            return new BeanPool.Entry(bean, creatingCallback.get());
+        } finally {
+            creatingCallback.remove();
+        }
+    }
+
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback) {
+        creatingCallback.set(callback);
+    }
+
+    /**
+     * 把对象从当前任务中移出，不再归还到池中
+     */
+    @Override
+    public Object remove(String name) {
+        Task task = currentTask.get();
+        BeanPool.Entry entry = task == null ? null : task.borrowed.remove(name);
+        if (entry == null) {
+            return null;
+        }
+        pools.get(name).detach();
+        return entry.bean;
+    }
+
+    @Override
+    public Object resolveContextualObject(String key) {
+        return null;
+    }
+
+    @Override
+    public String getConversationId() {
+        Task task = currentTask.get();
+        return task == null ? null : "pooled-task-" + task.id;
+    }
+
+    /**
+     * 各个Bean对象池的统计
+     */
+    public List<PoolStats> getStats() {
+        List<PoolStats> stats = new ArrayList<>();
+        for (BeanPool pool : pools.values()) {
+            stats.add(pool.stats());
+        }
+        return stats;
+    }
+
+    /**
+     * 容器关闭时停止淘汰线程，销毁所有空闲对象
+     */
+    @Override
+    public void destroy() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        for (BeanPool pool : pools.values()) {
+            pool.close();
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.coder.service;
+
+public interface ReportService {
+    String report(long orderId, double amount);
+}
@@ -0,0 +1,22 @@
+package com.coder.service.impl;
+
+import com.coder.dao.ReportDao;
+import com.coder.service.ReportService;
+
+/**
+ * ReportService实现类 - 单例Bean依赖pooled作用域的ReportDao
+ *
+ * 注入的reportDao是作用域代理，每次调用时才从对象池借出当前任务使用的ReportDao
+ */
+public class ReportServiceImpl implements ReportService {
+    private ReportDao reportDao;
+
+    public void setReportDao(ReportDao reportDao) {
+        this.reportDao = reportDao;
+    }
+
+    @Override
+    public String report(long orderId, double amount) {
+        return reportDao.format(orderId, amount);
+    }
+}
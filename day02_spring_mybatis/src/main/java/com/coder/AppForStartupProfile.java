@@ -0,0 +1,31 @@
+package com.coder;
+
+import com.coder.config.SpringConfig;
+import com.coder.startup.StartupProfiler;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * 容器启动耗时分析
+ *
+ * 与new AnnotationConfigApplicationContext(SpringConfig.class)的启动过程相同，
+ * 只是先挂上StartupProfiler再refresh，启动完成后输出：
+ * - 阶段时间线：@ComponentScan包扫描、@PropertySource加载、MapperScannerConfigurer、Druid数据源创建
+ * - 最慢的Bean及其实例化/注入/初始化耗时
+ * - target/startup-profile/day02_spring_mybatis.collapsed火焰图数据
+ *
+ * 回归检查：-Dstartup.max-millis=... 或 -Dstartup.baseline-file=... （详见StartupProfiler）
+ */
+public class AppForStartupProfile {
+    public static void main(String[] args) throws Exception {
+        StartupProfiler profiler = new StartupProfiler();
+        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+        profiler.attach(ctx);
+        ctx.register(SpringConfig.class);
+        ctx.refresh();
+        try {
+            profiler.report("day02_spring_mybatis");
+        } finally {
+            ctx.close();
+        }
+    }
+}
@@ -9,5 +9,7 @@ public class App {
         ApplicationContext context = new AnnotationConfigApplicationContext(SpringConfig.class);
         BookDao bookDao = (BookDao) context.getBean("bookDao");
         bookDao.save();
+        // 关闭容器时LatencyReporter会输出耗时统计
+        ((AnnotationConfigApplicationContext) context).close();
     }
 }
@@ -0,0 +1,29 @@
+package com.coder.aop;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 耗时统计注解
+ *
+ * 标注在方法上，由TimingAspect拦截并把每次调用的耗时（纳秒）记录到对应的LatencyHistogram中
+ *
+ * 使用方式：
+ * - @Timed                  指标名默认为"类名.方法名"，例如BookImpl.update
+ * - @Timed("book.update")   显式指定指标名，多个方法可以共用同一个直方图
+ *
+ * 注意：Spring AOP基于代理，只有通过代理对象调用的方法才会被统计（类内部this调用不生效）
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Timed {
+
+    /**
+     * 指标名称，为空时使用"类名.方法名"
+     */
+    String value() default "";
+}
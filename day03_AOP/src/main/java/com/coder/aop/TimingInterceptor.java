@@ -0,0 +1,35 @@
+package com.coder.aop;
+
+import com.coder.metrics.LatencyRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * 耗时统计拦截器 - 用于"可配置切入点"
+ *
+ * @Timed需要修改源码加注解，而有些类（例如第三方类、暂时不想改动的DAO）只能通过切入点表达式匹配
+ * TimingConfig会把本拦截器和timing.pointcut配置的表达式组合成一个Advisor注册到容器中
+ *
+ * 记录逻辑与TimingAspect相同，两者共用同一个LatencyRegistry
+ */
+public class TimingInterceptor implements MethodInterceptor {
+
+    private final LatencyRegistry registry;
+
+    public TimingInterceptor(LatencyRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Object target = invocation.getThis();
+            Class<?> targetClass = target != null ? target.getClass() : invocation.getMethod().getDeclaringClass();
+            registry.histogram(targetClass, invocation.getMethod(), m -> null).record(elapsed);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.coder.benchmark;
+
+import com.coder.aop.MyAdvice;
+import com.coder.dao.BookDao;
+import com.coder.dao.impl.BookImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MyAdvice不同应用方式的开销对比（JMH）
+ *
+ * 同一个切入点 execution(void com.coder.dao.BookDao.update()) 的四种执行方式：
+ * - noAdvice：直接调用未织入的BookImpl，作为基准
+ * - jdkProxy：Spring AOP的JDK动态代理（基于接口），每次调用都要走反射拦截器链
+ * - cglibProxy：Spring AOP的CGLIB代理（基于子类），同样要走拦截器链
+ * - woven：ajc编译期织入，通知代码直接内联在BookImpl.update()中
+ *
+ * 编译期织入会改写BookImpl本身的字节码，同一次构建里不可能同时存在"织入"和"未织入"的BookImpl，
+ * 因此需要分两次构建运行：
+ * - mvn compile                   -> 运行 noAdvice、jdkProxy、cglibProxy
+ * - mvn -P aspectj-weave compile  -> 运行 woven
+ * main方法会自动检测当前是哪种构建，只运行对应的基准方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdviceModeBenchmark {
+
+    /** 是否为编译期织入构建，static final常量会被JIT折叠，不影响测量 */
+    private static final boolean WOVEN = isWoven();
+
+    private BookDao plain;
+    private BookDao jdkProxy;
+    private BookDao cglibProxy;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // MyAdvice和BookImpl都会打印，重定向到空输出流，避免IO开销掩盖通知本身的开销
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        plain = new BookImpl();
+        if (!WOVEN) {
+            jdkProxy = createProxy(false);
+            cglibProxy = createProxy(true);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void noAdvice() {
+        requireMode(false);
+        plain.update();
+    }
+
+    @Benchmark
+    public void jdkProxy() {
+        jdkProxy.update();
+    }
+
+    @Benchmark
+    public void cglibProxy() {
+        cglibProxy.update();
+    }
+
+    @Benchmark
+    public void woven() {
+        requireMode(true);
+        plain.update();
+    }
+
+    /**
+     * 使用与@EnableAspectJAutoProxy相同的机制（AspectJProxyFactory）创建代理
+     *
+     * @param proxyTargetClass true使用CGLIB子类代理，false使用JDK接口代理
+     */
+    private static BookDao createProxy(boolean proxyTargetClass) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new BookImpl());
+        factory.setProxyTargetClass(proxyTargetClass);
+        factory.addAspect(MyAdvice.class);
+        return factory.getProxy();
+    }
+
+    /**
+     * 判断当前构建是否为编译期织入：ajc会给切面类生成静态方法aspectOf()
+     */
+    static boolean isWoven() {
+        try {
+            MyAdvice.class.getMethod("aspectOf");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static void requireMode(boolean woven) {
+        if (WOVEN != woven) {
+            throw new IllegalStateException("当前构建" + (woven ? "未" : "已") + "开启aspectj-weave，无法运行此基准方法");
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String benchmarks = WOVEN ? "woven" : "(noAdvice|jdkProxy|cglibProxy)";
+        Options options = new OptionsBuilder()
+                .include(AdviceModeBenchmark.class.getSimpleName() + "\\." + benchmarks + "$")
+                .build();
+        new Runner(options).run();
+    }
+}
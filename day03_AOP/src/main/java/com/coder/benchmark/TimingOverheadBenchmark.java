@@ -0,0 +1,111 @@
+package com.coder.benchmark;
+
+import com.coder.aop.TimingAspect;
+import com.coder.dao.BookDao;
+import com.coder.dao.impl.BookImpl;
+import com.coder.metrics.LatencyRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TimingAspect开销基准测试（JMH）
+ *
+ * 对比同一个BookImpl：
+ * - unadvised：直接调用原始对象
+ * - advised：通过织入了TimingAspect的代理调用（与容器中的代理方式相同）
+ *
+ * 两者之差就是"代理 + 计时 + 直方图记录"的开销，要求不超过OVERHEAD_BUDGET_NANOS
+ * BookImpl的方法会打印到控制台，测试期间把System.out重定向到空输出流，避免IO掩盖切面开销
+ *
+ * 运行方式：执行main方法（JMH会fork独立的JVM），超出预算时以退出码1结束，可以接入CI检查
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimingOverheadBenchmark {
+
+    /** 切面开销预算：每次调用最多增加500纳秒 */
+    public static final double OVERHEAD_BUDGET_NANOS = 500;
+
+    private BookDao unadvised;
+    private BookDao advised;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        unadvised = new BookImpl();
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(new BookImpl());
+        factory.addAspect(new TimingAspect(new LatencyRegistry()));
+        advised = factory.getProxy();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void unadvised() {
+        unadvised.update();
+    }
+
+    @Benchmark
+    public void advised() {
+        advised.update();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TimingOverheadBenchmark.class.getSimpleName())
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        double unadvisedScore = 0;
+        double advisedScore = 0;
+        for (RunResult result : results) {
+            String label = result.getParams().getBenchmark();
+            double score = result.getPrimaryResult().getScore();
+            if (label.endsWith(".unadvised")) {
+                unadvisedScore = score;
+            } else if (label.endsWith(".advised")) {
+                advisedScore = score;
+            }
+        }
+
+        double overhead = advisedScore - unadvisedScore;
+        System.out.printf("切面开销：%.1f ns/op（预算 %.0f ns/op）%n", overhead, OVERHEAD_BUDGET_NANOS);
+        if (overhead > OVERHEAD_BUDGET_NANOS) {
+            System.out.println("【失败】TimingAspect开销超出预算！");
+            System.exit(1);
+        }
+        System.out.println("【通过】TimingAspect开销在预算之内");
+    }
+}
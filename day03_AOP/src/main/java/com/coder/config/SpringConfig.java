@@ -3,9 +3,11 @@ package com.coder.config;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
 
 @Configuration
 @ComponentScan("com.coder")
 @EnableAspectJAutoProxy
+@Import(TimingConfig.class)
 public class SpringConfig {
 }
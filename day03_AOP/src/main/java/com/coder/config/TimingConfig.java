@@ -0,0 +1,43 @@
+package com.coder.config;
+
+import com.coder.aop.TimingInterceptor;
+import com.coder.metrics.LatencyRegistry;
+import com.coder.metrics.LatencyReporter;
+import org.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * 耗时统计配置类
+ *
+ * 注意：此类不需要加@Configuration注解，因为它会被SpringConfig通过@Import导入
+ *
+ * 配置项（timing.properties）：
+ * - timing.pointcut：可配置的切入点表达式，匹配到的方法按"类名.方法名"记录耗时
+ * - timing.report-interval-seconds：报告周期（秒），0表示只在容器关闭时输出
+ */
+@PropertySource("classpath:timing.properties")
+public class TimingConfig {
+
+    /**
+     * 可配置切入点对应的Advisor
+     *
+     * AspectJExpressionPointcutAdvisor = 切入点表达式 + 通知（这里是TimingInterceptor）
+     * @EnableAspectJAutoProxy开启的自动代理会同时识别@Aspect切面和容器中的Advisor Bean
+     */
+    @Bean
+    public AspectJExpressionPointcutAdvisor timingAdvisor(LatencyRegistry registry,
+                                                         @Value("${timing.pointcut}") String pointcut) {
+        AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+        advisor.setExpression(pointcut);
+        advisor.setAdvice(new TimingInterceptor(registry));
+        return advisor;
+    }
+
+    @Bean
+    public LatencyReporter latencyReporter(LatencyRegistry registry,
+                                           @Value("${timing.report-interval-seconds:60}") long intervalSeconds) {
+        return new LatencyReporter(registry, intervalSeconds);
+    }
+}
@@ -1,14 +1,19 @@
 package com.coder.dao.impl;
 
+import com.coder.aop.Timed;
 import com.coder.dao.BookDao;
+import org.springframework.stereotype.Repository;
 
+@Repository("bookDao")
 public class BookImpl implements BookDao {
     @Override
+    @Timed
     public void save() {
         System.out.println("save");
     }
 
     @Override
+    @Timed
     public void update() {
         System.out.println("update");
     }
@@ -0,0 +1,80 @@
+package com.coder.metrics;
+
+/**
+ * 直方图快照
+ *
+ * 由LatencyHistogram.snapshot()生成，生成后不再变化，可以在任意线程中读取
+ * 分位数按"桶的上界"返回，并且不会超过真实的最大值
+ */
+public class HistogramSnapshot {
+
+    private final String name;
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(String name, long[] counts, long count, long sum, long max) {
+        this.name = name;
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * 计算分位数
+     *
+     * @param percentile 百分位，例如50、99、99.9
+     * @return 对应的耗时（纳秒），没有数据时返回0
+     */
+    public long valueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValueAt(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long getP50() {
+        return valueAtPercentile(50);
+    }
+
+    public long getP99() {
+        return valueAtPercentile(99);
+    }
+
+    public long getP999() {
+        return valueAtPercentile(99.9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s count=%d mean=%.1fus p50=%.1fus p99=%.1fus p999=%.1fus max=%.1fus",
+                name, count, getMean() / 1000.0, getP50() / 1000.0, getP99() / 1000.0,
+                getP999() / 1000.0, max / 1000.0);
+    }
+}
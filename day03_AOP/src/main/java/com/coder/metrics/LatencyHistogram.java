@@ -0,0 +1,126 @@
+package com.coder.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 延迟直方图（HDR风格，无锁、记录时零分配）
+ *
+ * 桶的划分方式（对数-线性）：
+ * - 小于128ns的值每个纳秒一个桶，精确记录
+ * - 更大的值按2的幂分段，每段再线性切分为64个子桶
+ * - 因此任意值的相对误差不超过1/64（约1.6%），和HdrHistogram保留两位有效数字的精度相当
+ *
+ * 并发设计：
+ * - 内部按CPU核数拆分为多个Stripe（条带），每个线程按线程ID固定写入其中一个条带
+ * - 不同线程大概率写入不同的AtomicLongArray，避免所有线程CAS同一个计数器
+ * - 记录路径只有数组下标计算和一次getAndIncrement，不创建任何对象
+ * - 读取（snapshot）时把所有条带的计数合并，读取频率低，分配对象没有关系
+ */
+public class LatencyHistogram {
+
+    /** 精确区间的位数：[0, 128)纳秒内每个值一个桶 */
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;
+
+    /** 可记录的最大值，超过的耗时按此值记录（10分钟，对方法耗时来说足够） */
+    private static final long HIGHEST_TRACKABLE = TimeUnit.MINUTES.toNanos(10);
+
+    private static final int BUCKET_COUNT = indexOf(HIGHEST_TRACKABLE) + 1;
+
+    private final String name;
+    private final Stripe[] stripes;
+    private final int mask;
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+        int n = Integer.highestOneBit(Math.min(64, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+        this.stripes = new Stripe[n];
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = n - 1;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时（纳秒），负数按0处理
+     */
+    public void record(long nanos) {
+        long value = nanos < 0 ? 0 : Math.min(nanos, HIGHEST_TRACKABLE);
+        long id = Thread.currentThread().getId();
+        Stripe stripe = stripes[(int) (id ^ (id >>> 16)) & mask];
+        stripe.counts.getAndIncrement(indexOf(value));
+        stripe.sum.getAndAdd(value);
+        long max = stripe.max.get();
+        // 只有刷新最大值时才需要CAS，绝大多数调用直接跳过
+        while (value > max && !stripe.max.compareAndSet(max, value)) {
+            max = stripe.max.get();
+        }
+    }
+
+    /**
+     * 生成当前统计快照
+     *
+     * @param reset 为true时读取的同时清零，用于周期性输出"本周期内"的分位数
+     * @return 快照对象
+     */
+    public HistogramSnapshot snapshot(boolean reset) {
+        long[] merged = new long[BUCKET_COUNT];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (Stripe stripe : stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                long c = reset ? stripe.counts.getAndSet(i, 0) : stripe.counts.get(i);
+                merged[i] += c;
+                count += c;
+            }
+            sum += reset ? stripe.sum.getAndSet(0) : stripe.sum.get();
+            max = Math.max(max, reset ? stripe.max.getAndSet(0) : stripe.max.get());
+        }
+        return new HistogramSnapshot(name, merged, count, sum, max);
+    }
+
+    /**
+     * 计算值所在的桶下标
+     *
+     * - value < 128：下标就是value本身
+     * - 否则：取最高位得到分段号exp，value右移exp位后落在[64, 128)，下标 = exp * 64 + 子桶号
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exp = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS + 1;
+        return exp * SUB_BUCKET_HALF + (int) (value >>> exp);
+    }
+
+    /**
+     * 桶下标对应的最大值（桶内所有值都不超过它），用于计算分位数
+     */
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int exp = index / SUB_BUCKET_HALF - 1;
+        long subBucket = index % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return ((subBucket + 1) << exp) - 1;
+    }
+
+    /**
+     * 一个写入条带，内部三个原子变量各自独立，计数数组按桶下标直接寻址
+     */
+    private static final class Stripe {
+        final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+        final AtomicLong sum = new AtomicLong();
+        final AtomicLong max = new AtomicLong();
+    }
+}
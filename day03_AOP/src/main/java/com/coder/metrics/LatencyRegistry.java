@@ -0,0 +1,72 @@
+package com.coder.metrics;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * 延迟直方图注册中心
+ *
+ * - 按指标名保存LatencyHistogram，同名指标共用一个直方图
+ * - 额外按"目标类 + Method"缓存查找结果，切面在热点路径上不需要拼接字符串
+ *   （JDK代理拿到的是接口方法，同一个接口方法可能对应多个实现类，所以要先按目标类区分）
+ */
+@Component
+public class LatencyRegistry {
+
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, LatencyHistogram>> methodCache =
+            new ConcurrentHashMap<>();
+
+    /**
+     * 按名称获取直方图，不存在时创建
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /**
+     * 按方法获取直方图，第一次调用时才计算指标名
+     *
+     * @param targetClass 目标对象的类型
+     * @param method      被拦截的方法（JDK代理时是接口方法）
+     * @param namer       指标名解析函数，参数是目标类上的具体方法，返回空时使用"类名.方法名"
+     */
+    public LatencyHistogram histogram(Class<?> targetClass, Method method, Function<Method, String> namer) {
+        ConcurrentMap<Method, LatencyHistogram> byMethod = methodCache.get(targetClass);
+        if (byMethod == null) {
+            byMethod = methodCache.computeIfAbsent(targetClass, c -> new ConcurrentHashMap<>());
+        }
+        LatencyHistogram histogram = byMethod.get(method);
+        if (histogram == null) {
+            histogram = byMethod.computeIfAbsent(method, m -> {
+                String name = namer.apply(AopUtils.getMostSpecificMethod(m, targetClass));
+                if (name == null || name.isEmpty()) {
+                    name = targetClass.getSimpleName() + "." + m.getName();
+                }
+                return histogram(name);
+            });
+        }
+        return histogram;
+    }
+
+    /**
+     * 生成所有指标的快照
+     *
+     * @param reset 是否在读取的同时清零
+     */
+    public List<HistogramSnapshot> snapshots(boolean reset) {
+        List<HistogramSnapshot> result = new ArrayList<>();
+        for (LatencyHistogram histogram : histograms.values()) {
+            result.add(histogram.snapshot(reset));
+        }
+        return result;
+    }
+}
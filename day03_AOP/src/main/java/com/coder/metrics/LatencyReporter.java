@@ -0,0 +1,63 @@
+package com.coder.metrics;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 延迟报告器
+ *
+ * 按固定周期生成所有直方图的快照（读取后清零），打印本周期内的p50/p99/p999和最大值
+ *
+ * 生命周期：
+ * - afterPropertiesSet()：容器创建Bean后启动后台定时线程（守护线程，不阻止JVM退出）
+ * - destroy()：容器关闭时停止定时线程，并把最后一个周期的数据输出
+ *
+ * intervalSeconds <= 0 时不启动定时线程，只在容器关闭时输出一次
+ */
+public class LatencyReporter implements InitializingBean, DisposableBean {
+
+    private final LatencyRegistry registry;
+    private final long intervalSeconds;
+    private ScheduledExecutorService scheduler;
+
+    public LatencyReporter(LatencyRegistry registry, long intervalSeconds) {
+        this.registry = registry;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (intervalSeconds <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "latency-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(this::report, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 输出一次报告，没有调用记录的指标不打印
+     */
+    public void report() {
+        for (HistogramSnapshot snapshot : registry.snapshots(true)) {
+            if (snapshot.getCount() > 0) {
+                System.out.println("【耗时统计】" + snapshot);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        report();
+    }
+}
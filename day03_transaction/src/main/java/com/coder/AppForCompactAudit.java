@@ -0,0 +1,56 @@
+package com.coder;
+
+import com.coder.account.AccountIdResolver;
+import com.coder.audit.TransferAudit;
+import com.coder.config.SpringConfig;
+import com.coder.dao.TransferAuditDao;
+import com.coder.domain.TransferLog;
+import com.coder.service.AccountService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * 紧凑审计模式演示（配置见audit.properties）
+ *
+ * 不修改配置文件，以系统属性选择审计方式，默认compact，传入参数"rows"时使用逐行日志，便于对比耗时：
+ * 1. 张三向李四连续转账200次，输出平均每笔耗时
+ *    - rows：每笔4个事务（主事务 + 3个日志事务），5条语句
+ *    - compact：每笔2个事务（审计记录的插入 + 主事务），4条语句
+ * 2. compact模式下，通过视图transfer_audit_log把最近3笔转账还原为原来的逐行日志格式
+ *
+ * 运行前准备：MySQL中执行init.sql、init_log.sql和init_audit.sql
+ */
+public class AppForCompactAudit {
+
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "compact";
+        System.setProperty("audit.mode", mode);
+        // 每个事务的语句统计会刷屏，关闭
+        System.setProperty("budget.report-transactions", "false");
+
+        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(SpringConfig.class);
+        // 有两个AccountService实现，按名称获取
+        AccountService accountService = ctx.getBean("accountServiceImpl", AccountService.class);
+        ctx.getBean(AccountIdResolver.class).load();
+        System.out.println("========== 审计方式：" + ctx.getBean(TransferAudit.class).getClass().getSimpleName()
+                + " ==========");
+
+        // 1. 连续转账
+        int transfers = 200;
+        long start = System.nanoTime();
+        for (int i = 0; i < transfers; i++) {
+            accountService.transferWithLogRequiresNew("张三", "李四", 0.01);
+        }
+        long micros = (System.nanoTime() - start) / 1000;
+        System.out.println("【审计】" + transfers + "笔转账，平均每笔" + micros / transfers + "微秒");
+
+        // 2. 还原为逐行格式
+        if ("compact".equals(mode)) {
+            System.out.println("========== 最近3笔转账（还原为逐行日志） ==========");
+            for (TransferLog log : ctx.getBean(TransferAuditDao.class).selectRecentLogs(3)) {
+                System.out.println("  #" + log.getId() + " " + log.getCreateTime() + " " + log.getStatus() + " "
+                        + log.getMessage());
+            }
+        }
+        ctx.close();
+    }
+}
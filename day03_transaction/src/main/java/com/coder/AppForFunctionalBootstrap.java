@@ -0,0 +1,36 @@
+package com.coder;
+
+import com.coder.config.FunctionalBootstrap;
+import com.coder.service.AccountService;
+import org.springframework.context.support.GenericApplicationContext;
+
+/**
+ * 函数式注册启动演示
+ *
+ * 与App相同的转账业务，但容器由FunctionalBootstrap创建：
+ * - 没有@ComponentScan类路径扫描，没有@Configuration的CGLIB代理
+ * - Mapper在启动时直接登记，不经过MapperScannerConfigurer
+ * 两种方式的冷启动耗时对比见com.coder.benchmark.BootstrapBenchmark
+ *
+ * 运行前准备与App相同（MySQL、init.sql、jdbc.properties）
+ */
+public class AppForFunctionalBootstrap {
+
+    public static void main(String[] args) {
+        long start = System.nanoTime();
+        GenericApplicationContext ctx = FunctionalBootstrap.create();
+        System.out.println("========== 容器初始化完成，耗时 " + (System.nanoTime() - start) / 1_000_000
+                + " ms，共 " + ctx.getBeanDefinitionCount() + " 个Bean ==========\n");
+
+        // 只注册了AccountServiceImpl一个实现，可以直接按类型获取
+        AccountService accountService = ctx.getBean(AccountService.class);
+        try {
+            accountService.transfer("张三", "李四", 100.0);
+            System.out.println("\n预期结果：张三有900元，李四有2100元");
+        } catch (Exception e) {
+            System.err.println("【转账失败】" + e.getMessage() + "，事务已回滚");
+        } finally {
+            ctx.close();
+        }
+    }
+}
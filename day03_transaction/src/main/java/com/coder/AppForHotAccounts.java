@@ -0,0 +1,93 @@
+package com.coder;
+
+import com.coder.account.AccountIdResolver;
+import com.coder.account.AccountNotFoundException;
+import com.coder.config.SpringConfig;
+import com.coder.hot.HotAccountTracker;
+import com.coder.service.AccountService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 热点账户检测演示（配置见hot.properties）
+ *
+ * 1. 开20个演示账户（已存在时跳过）
+ * 2. 3个线程（转账舱壁的并发数）持续转账12秒：一半的转账涉及张三，其余在演示账户之间随机
+ * 3. 窗口长度改为5秒，期间每个窗口结束时输出一次前几名，张三排在最前面
+ * 4. 最后从JMX（与JConsole看到的相同）读取上一个窗口的结果，并输出当前窗口的结果
+ *
+ * 运行前准备：MySQL中执行init.sql
+ */
+public class AppForHotAccounts {
+
+    private static final int ACCOUNTS = 20;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("hot.window-seconds", "5");
+        System.setProperty("hot.report-n", "5");
+        // 每个事务的语句统计会刷屏，关闭
+        System.setProperty("budget.report-transactions", "false");
+
+        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(SpringConfig.class);
+        AccountService accountService = ctx.getBean("accountServiceImpl", AccountService.class);
+        AccountIdResolver resolver = ctx.getBean(AccountIdResolver.class);
+        resolver.load();
+
+        // 1. 演示账户；transfer按id更新余额，报告中显示为"账户#id"
+        for (int i = 0; i < ACCOUNTS; i++) {
+            try {
+                resolver.resolve(account(i));
+            } catch (AccountNotFoundException e) {
+                accountService.openAccount(account(i), 10000.0);
+            }
+        }
+        System.out.println("【热点账户】张三的id为" + resolver.resolve("张三"));
+
+        // 2. 并发转账，金额很小，张三的余额不会用完
+        long deadline = System.currentTimeMillis() + 12000;
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        for (int t = 0; t < 3; t++) {
+            pool.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.currentTimeMillis() < deadline) {
+                    String from = account(random.nextInt(ACCOUNTS));
+                    String to = account(random.nextInt(ACCOUNTS));
+                    if (random.nextBoolean()) {
+                        if (random.nextBoolean()) {
+                            from = "张三";
+                        } else {
+                            to = "张三";
+                        }
+                    }
+                    if (!from.equals(to)) {
+                        accountService.transfer(from, to, 0.01);
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+
+        // 3. 从JMX读取上一个窗口的结果
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        String[] lastWindow = (String[]) server.getAttribute(
+                new ObjectName("com.coder:type=HotAccounts,name=accountDao"), "LastWindow");
+        System.out.println("【热点账户】JMX中上一个窗口的前" + lastWindow.length + "个账户：");
+        for (String line : lastWindow) {
+            System.out.println("  " + line);
+        }
+        System.out.println(ctx.getBean(HotAccountTracker.class));
+        ctx.close();
+    }
+
+    private static String account(int i) {
+        return String.format("热点演示-%02d", i);
+    }
+}
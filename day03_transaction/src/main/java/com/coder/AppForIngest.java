@@ -0,0 +1,100 @@
+package com.coder;
+
+import com.coder.account.AccountIdResolver;
+import com.coder.account.AccountNotFoundException;
+import com.coder.config.SpringConfig;
+import com.coder.ingest.IngestReport;
+import com.coder.ingest.TransferFileIngester;
+import com.coder.service.AccountService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+/**
+ * 批量转账文件导入演示（配置见ingest.properties）
+ *
+ * 1. 开立200个员工账户（已存在的跳过）
+ * 2. 生成代发工资文件：张三向员工转账，每1000行夹带几行错误数据（账户名拼错、金额非法、字段缺失）
+ * 3. 导入文件，错误行写入拒绝文件，输出导入结果
+ *
+ * 用法：AppForIngest [任务ID] [行数]，默认payroll-demo、200000
+ * - 文件和拒绝文件生成在临时目录中，同一个任务ID重复运行时复用同一个文件
+ * - 导入中途结束进程后以相同的任务ID再次运行，从检查点继续；已完成的任务直接跳过
+ *
+ * 运行前准备：MySQL中执行init.sql和init_ingest.sql
+ */
+public class AppForIngest {
+
+    private static final int EMPLOYEES = 200;
+
+    public static void main(String[] args) throws IOException {
+        String jobId = args.length > 0 ? args[0] : "payroll-demo";
+        int lines = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+        // 每个事务的语句统计会刷屏，关闭
+        System.setProperty("budget.report-transactions", "false");
+
+        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(SpringConfig.class);
+        // 有两个AccountService实现，按名称获取
+        AccountService accountService = ctx.getBean("accountServiceImpl", AccountService.class);
+        AccountIdResolver resolver = ctx.getBean(AccountIdResolver.class);
+        resolver.load();
+
+        // 1. 员工账户
+        for (int i = 0; i < EMPLOYEES; i++) {
+            try {
+                resolver.resolve(employee(i));
+            } catch (AccountNotFoundException e) {
+                accountService.openAccount(employee(i), 0.0);
+            }
+        }
+
+        // 2. 代发工资文件
+        Path dir = Paths.get(System.getProperty("java.io.tmpdir"));
+        Path file = dir.resolve(jobId + ".csv");
+        Path rejectFile = dir.resolve(jobId + ".rejects.csv");
+        if (!Files.exists(file)) {
+            generate(file, lines);
+        }
+        System.out.println("【导入文件】" + file + "（" + Files.size(file) + "字节）");
+
+        // 3. 导入
+        IngestReport report = ctx.getBean(TransferFileIngester.class).ingest(jobId, file, rejectFile);
+        System.out.println(report);
+        System.out.println("【拒绝文件】" + rejectFile + "，前5行：");
+        try (Stream<String> rejected = Files.lines(rejectFile, StandardCharsets.UTF_8)) {
+            rejected.limit(5).forEach(line -> System.out.println("  " + line));
+        }
+        ctx.close();
+    }
+
+    private static void generate(Path file, int lines) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("from,to,amount\n");
+            for (int i = 1; i <= lines; i++) {
+                switch (i % 1000) {
+                    case 100:
+                        out.write("张三,员工-999999,1.00\n");
+                        break;
+                    case 200:
+                        out.write("张三," + employee(i) + ",-1\n");
+                        break;
+                    case 300:
+                        out.write("张三," + employee(i) + "\n");
+                        break;
+                    default:
+                        out.write("张三," + employee(i) + ",0.01\n");
+                }
+            }
+        }
+    }
+
+    private static String employee(int i) {
+        return String.format("员工-%06d", i % EMPLOYEES);
+    }
+}
@@ -0,0 +1,94 @@
+package com.coder;
+
+import com.coder.account.AccountIdResolver;
+import com.coder.config.SpringConfig;
+import com.coder.ledger.BalanceStore;
+import com.coder.ledger.InsufficientBalanceException;
+import com.coder.ledger.LedgerCompactor;
+import com.coder.service.AccountService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 账本模式演示（配置见ledger.properties）
+ *
+ * 不修改配置文件，直接以系统属性切换到账本模式（系统属性优先于配置文件），
+ * 传入参数"balance"时使用原地更新模式，便于对比两种方式的耗时：
+ * 1. 多个线程并发向同一个账户（李四）转账：原地更新时所有转账在李四这一行上排队，账本模式下只是追加分录
+ * 2. 转出超过余额：账本模式开启余额检查时抛出InsufficientBalanceException，事务回滚
+ * 3. 手动执行一次压缩，余额不变，快照之后需要累加的分录变少
+ *
+ * 运行前准备：MySQL中执行init.sql和init_ledger.sql
+ */
+public class AppForLedger {
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "ledger";
+        System.setProperty("ledger.mode", mode);
+        // 演示中手动压缩，不启动定期任务；延迟设为0，立即合并全部分录
+        System.setProperty("ledger.compaction-interval-seconds", "0");
+        System.setProperty("ledger.compaction-lag-seconds", "0");
+        // 每个事务的语句统计会刷屏，关闭
+        System.setProperty("budget.report-transactions", "false");
+
+        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(SpringConfig.class);
+        // 有两个AccountService实现，按名称获取
+        AccountService accountService = ctx.getBean("accountServiceImpl", AccountService.class);
+        AccountIdResolver resolver = ctx.getBean(AccountIdResolver.class);
+        BalanceStore balanceStore = ctx.getBean(BalanceStore.class);
+        System.out.println("========== 余额存储：" + balanceStore.getClass().getSimpleName() + "，加载账户"
+                + resolver.load() + "个 ==========");
+
+        int zhangsan = resolver.resolve("张三");
+        int lisi = resolver.resolve("李四");
+        printBalances(balanceStore, zhangsan, lisi);
+
+        // 1. 并发转入同一个账户
+        int threads = 8;
+        int transfersPerThread = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < transfersPerThread; i++) {
+                    accountService.transfer("张三", "李四", 0.01);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("========== " + threads + "个线程共转账" + threads * transfersPerThread + "次，耗时"
+                + millis + "ms ==========");
+        printBalances(balanceStore, zhangsan, lisi);
+
+        // 2. 转出超过余额
+        try {
+            accountService.transfer("张三", "李四", 1_000_000.0);
+            System.out.println("【透支】没有开启余额检查（或使用原地更新模式），转账成功，张三余额为负");
+        } catch (InsufficientBalanceException e) {
+            System.out.println("【余额检查】" + e.getMessage() + "，事务已回滚");
+        }
+        printBalances(balanceStore, zhangsan, lisi);
+
+        // 3. 压缩
+        if ("ledger".equals(mode)) {
+            ctx.getBean(LedgerCompactor.class).compact();
+            System.out.println("========== 压缩后 ==========");
+            printBalances(balanceStore, zhangsan, lisi);
+        }
+        ctx.close();
+    }
+
+    private static void printBalances(BalanceStore balanceStore, int zhangsan, int lisi) {
+        System.out.printf("【余额】张三：%.2f 元，李四：%.2f 元%n", balanceStore.balance(zhangsan), balanceStore.balance(lisi));
+    }
+}
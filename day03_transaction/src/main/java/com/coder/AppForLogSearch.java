@@ -0,0 +1,101 @@
+package com.coder;
+
+import com.coder.config.SpringConfig;
+import com.coder.dao.TransferLogDao;
+import com.coder.domain.TransferLog;
+import com.coder.domain.TransferLogPage;
+import com.coder.domain.TransferLogQuery;
+import com.coder.service.TransferLogService;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 账户转账历史查询演示
+ *
+ * 1. 连续翻页，输出每一页的耗时：键集分页每页只读本页的索引项，第50页与第1页耗时相近
+ * 2. 对同一个查询执行EXPLAIN，查看执行计划。期望看到（MySQL 8）：
+ *    - 两个子查询分别使用idx_log_from_time、idx_log_to_time，type为ref或range
+ *    - Extra为Using where; Using index（只读索引）和Backward index scan（倒序扫描），没有Using filesort
+ *    - 最外层只对合并后的前LIMIT条按主键回表（eq_ref）
+ *
+ * 用法：AppForLogSearch [账户名]，默认acct-0000001
+ *
+ * 运行前准备：MySQL中执行init_log.sql和init_log_search.sql，再CALL fill_transfer_log(10)生成1000万条日志
+ */
+public class AppForLogSearch {
+
+    public static void main(String[] args) throws Exception {
+        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(SpringConfig.class);
+        TransferLogService transferLogService = ctx.getBean(TransferLogService.class);
+
+        TransferLogQuery query = new TransferLogQuery();
+        query.setAccount(args.length > 0 ? args[0] : "acct-0000001");
+        query.setStatus("SUCCESS");
+        query.setMinAmount(10.0);
+        query.setLimit(20);
+
+        // 1. 翻页
+        TransferLogPage page = null;
+        for (int pageNo = 1; pageNo <= 50; pageNo++) {
+            long start = System.nanoTime();
+            page = transferLogService.searchLogs(query);
+            long micros = (System.nanoTime() - start) / 1000;
+            if (pageNo == 1 || pageNo % 10 == 0 || !page.hasMore()) {
+                System.out.println("【转账历史】第" + pageNo + "页：" + page.getLogs().size() + "条，耗时" + micros + "微秒");
+            }
+            if (pageNo == 1) {
+                for (TransferLog log : page.getLogs()) {
+                    System.out.println("  " + log.getCreateTime() + " #" + log.getId() + " " + log.getFromAccount()
+                            + " -> " + log.getToAccount() + " " + log.getAmount() + " " + log.getStatus());
+                }
+            }
+            if (!page.hasMore()) {
+                break;
+            }
+            query.after(page);
+        }
+
+        // 2. 执行计划（以最后一页的翻页条件为例）
+        System.out.println("========== EXPLAIN ==========");
+        explain(ctx, query);
+        ctx.close();
+    }
+
+    /**
+     * 取出MyBatis为这组条件生成的SQL和参数，在前面加上EXPLAIN执行
+     */
+    private static void explain(AnnotationConfigApplicationContext ctx, TransferLogQuery query) throws Exception {
+        MappedStatement statement = ctx.getBean(SqlSessionFactory.class).getConfiguration()
+                .getMappedStatement(TransferLogDao.class.getName() + ".search");
+        Map<String, Object> parameter = new HashMap<>();
+        parameter.put("q", query);
+        BoundSql boundSql = statement.getBoundSql(parameter);
+        System.out.println(boundSql.getSql().replaceAll("\\s+", " "));
+
+        try (Connection connection = ctx.getBean(DataSource.class).getConnection();
+             PreparedStatement ps = connection.prepareStatement("EXPLAIN " + boundSql.getSql())) {
+            new DefaultParameterHandler(statement, parameter, boundSql).setParameters(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                while (rs.next()) {
+                    StringBuilder row = new StringBuilder();
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        row.append(meta.getColumnLabel(i)).append('=').append(rs.getString(i)).append("  ");
+                    }
+                    System.out.println(row);
+                }
+            }
+        }
+    }
+}
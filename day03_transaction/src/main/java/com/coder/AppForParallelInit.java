@@ -0,0 +1,38 @@
+package com.coder;
+
+import com.coder.config.SpringConfig;
+import com.coder.context.ParallelSingletonBeanFactory;
+import com.coder.service.AccountService;
+import org.mybatis.spring.mapper.MapperFactoryBean;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * 并行初始化单例演示
+ *
+ * 把ParallelSingletonBeanFactory传给AnnotationConfigApplicationContext即可启用，配置类不需要任何改动：
+ * - 互不依赖的单例（数据源、追踪组件、舱壁注册中心……）在bean-init线程池中同时创建
+ * - MapperFactoryBean共享同一个MyBatis Configuration（内部是非线程安全的HashMap），登记为互斥类型
+ *
+ * 参数：并行线程数，默认4。与串行启动的耗时对比可使用AppForStartupProfile
+ */
+public class AppForParallelInit {
+
+    public static void main(String[] args) {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+
+        ParallelSingletonBeanFactory beanFactory = new ParallelSingletonBeanFactory(threads);
+        beanFactory.addSerialType(MapperFactoryBean.class);
+
+        long start = System.nanoTime();
+        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(beanFactory);
+        ctx.register(SpringConfig.class);
+        ctx.refresh();
+        System.out.println("========== 容器初始化完成，耗时 " + (System.nanoTime() - start) / 1_000_000 + " ms ==========");
+
+        // 事务代理必须照常生成：Advisor在并行阶段之前已经创建好
+        AccountService accountService = ctx.getBean("accountServiceImpl", AccountService.class);
+        System.out.println("accountServiceImpl是否为AOP代理：" + AopUtils.isAopProxy(accountService));
+        ctx.close();
+    }
+}
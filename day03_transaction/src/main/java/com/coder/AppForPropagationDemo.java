@@ -143,11 +143,11 @@ public class AppForPropagationDemo {
             System.out.println("  暂无记录");
         } else {
             System.out.println("  共 " + logs.size() + " 条记录：");
-            System.out.println("  ┌────┬──────────┬──────────┬────────┬─────────┬─────────────────────────┐");
-            System.out.println("  │ ID │  转出方   │  转入方   │  金额  │  状态   │         时间            │");
-            System.out.println("  ├────┼──────────┼──────────┼────────┼─────────┼─────────────────────────┤");
+            System.out.println("  ┌─────────────────────┬──────────┬──────────┬────────┬─────────┬─────────────────────────┐");
+            System.out.println("  │         ID          │  转出方   │  转入方   │  金额  │  状态   │         时间            │");
+            System.out.println("  ├─────────────────────┼──────────┼──────────┼────────┼─────────┼─────────────────────────┤");
             for (TransferLog log : logs) {
-                System.out.printf("  │ %2d │ %8s │ %8s │ %6.1f │ %7s │ %s |%n",
+                System.out.printf("  │ %19d │ %8s │ %8s │ %6.1f │ %7s │ %s |%n",
                         log.getId(),
                         log.getFromAccount(),
                         log.getToAccount(),
@@ -155,7 +155,7 @@ public class AppForPropagationDemo {
                         log.getStatus(),
                         log.getCreateTime());
             }
-            System.out.println("  └────┴──────────┴──────────┴────────┴─────────┴─────────────────────────┘");
+            System.out.println("  └─────────────────────┴──────────┴──────────┴────────┴─────────┴─────────────────────────┘");
         }
         System.out.println();
     }
@@ -0,0 +1,41 @@
+package com.coder;
+
+import com.coder.config.SpringConfig;
+import com.coder.reconcile.ReconcileReport;
+import com.coder.reconcile.Reconciler;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.time.LocalDate;
+
+/**
+ * 对账演示（配置见reconcile.properties）
+ *
+ * 用法：
+ * - AppForReconcile baseline        以当前余额建立基线
+ * - AppForReconcile run [批次号]     执行对账，批次号默认为当天日期；中途中断（Ctrl+C）后
+ *                                    以相同的批次号再次执行，从检查点继续
+ *
+ * 典型流程：建立基线 -> 运行AppForTransactionPropagation等产生转账日志的程序 -> 对账
+ * 只有写了"转账完成"日志的转账才计入期望余额，AccountService.transfer（不写日志）会表现为差异
+ *
+ * 运行前准备：MySQL中执行init.sql、init_log.sql和init_reconcile.sql
+ */
+public class AppForReconcile {
+
+    public static void main(String[] args) {
+        // 每页一个事务，逐个输出语句统计会刷屏，关闭
+        System.setProperty("budget.report-transactions", "false");
+        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(SpringConfig.class);
+        Reconciler reconciler = ctx.getBean(Reconciler.class);
+
+        String command = args.length > 0 ? args[0] : "run";
+        if ("baseline".equals(command)) {
+            reconciler.captureBaseline();
+        } else {
+            String runId = args.length > 1 ? args[1] : LocalDate.now().toString();
+            ReconcileReport report = reconciler.run(runId);
+            System.out.println(report);
+        }
+        ctx.close();
+    }
+}
@@ -0,0 +1,70 @@
+package com.coder;
+
+import com.coder.config.SpringConfig;
+import com.coder.dao.ScheduleDao;
+import com.coder.domain.ScheduledTransfer;
+import com.coder.schedule.TransferScheduler;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 定时转账演示（配置见schedule.properties）
+ *
+ * 1. 新建几个计划：2~6秒后到期的一次性转账、每3秒一次的定期转账、一个随后取消的计划、一个余额不足的计划
+ * 2. 等待15秒，调度器按时执行；余额不足的计划2秒后重试一次，仍失败则标记为FAILED
+ * 3. 输出每个计划的状态
+ *
+ * 以系统属性切换到账本模式（ledger.mode=ledger）：原地更新模式的转账不检查余额，余额不足的计划也会成功；
+ * 账本模式开启余额检查时抛出InsufficientBalanceException，计划才会失败
+ *
+ * 重启恢复：在等待期间结束进程，再次运行时，上次已过期未执行的计划在启动后立即执行，已执行的不会重复
+ *
+ * 运行前准备：MySQL中执行init.sql、init_ledger.sql和init_schedule.sql
+ */
+public class AppForSchedule {
+
+    public static void main(String[] args) throws InterruptedException {
+        System.setProperty("schedule.enabled", "true");
+        System.setProperty("schedule.load-interval-seconds", "1");
+        System.setProperty("schedule.max-attempts", "2");
+        System.setProperty("schedule.retry-delay-seconds", "2");
+        // 余额不足的计划依赖账本模式的余额检查（原地更新模式不检查余额）
+        System.setProperty("ledger.mode", "ledger");
+        System.setProperty("ledger.check-balance", "true");
+        // 每个事务的语句统计会刷屏，关闭
+        System.setProperty("budget.report-transactions", "false");
+
+        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(SpringConfig.class);
+        TransferScheduler scheduler = ctx.getBean(TransferScheduler.class);
+        ScheduleDao scheduleDao = ctx.getBean(ScheduleDao.class);
+
+        // 1. 新建计划
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 2; i <= 6; i++) {
+            ids.add(scheduler.schedule("张三", "李四", 1.0, now.plusSeconds(i)));
+        }
+        ids.add(scheduler.schedule("李四", "张三", 10.0, now.plusSeconds(1), 3));
+        long cancelled = scheduler.schedule("张三", "李四", 100.0, now.plusSeconds(4));
+        ids.add(cancelled);
+        // 余额不足：超过张三的余额，两次执行都抛出InsufficientBalanceException，最终为FAILED
+        ids.add(scheduler.schedule("张三", "李四", 1000000.0, now.plusSeconds(3)));
+        System.out.println("【定时转账】取消计划" + cancelled + "：" + scheduler.cancel(cancelled));
+
+        // 2. 等待执行
+        Thread.sleep(15000);
+
+        // 3. 各计划的状态
+        for (Long id : ids) {
+            ScheduledTransfer schedule = scheduleDao.selectById(id);
+            System.out.println("  #" + id + " " + schedule.getFromAccount() + " -> " + schedule.getToAccount() + " "
+                    + schedule.getAmount() + " " + schedule.getState() + " 执行" + schedule.getExecutions() + "次"
+                    + (schedule.isRepeating() ? " 下一次" + schedule.getDueAt() : "")
+                    + (schedule.getMessage() == null ? "" : " " + schedule.getMessage()));
+        }
+        ctx.close();
+    }
+}
@@ -0,0 +1,45 @@
+package com.coder;
+
+import com.coder.config.SpringConfig;
+import com.coder.service.AccountService;
+import com.coder.stat.SqlStats;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * SQL统计演示（配置见stat.properties）
+ *
+ * 执行若干次转账后立即输出一次统计，可以看到：
+ * - 合并后的SQL：outMoney/inMoney/insert各一行，执行次数等于转账次数
+ * - 每条SQL的总耗时、最大耗时、影响行数和耗时分布
+ * - 借连接等待次数和耗时（并发线程数超过连接池maxActive时才会出现）
+ * 统计同时写入logs/druid-stat.log，并每隔stat.dump-interval-seconds秒定期输出
+ *
+ * 运行时可用jconsole连接本进程，在MBean页签的com.coder -> SqlStats中查看同样的数据
+ * 传入参数"wait"时输出后不退出，方便用jconsole查看
+ *
+ * 运行前准备：与App相同，需要MySQL及init.sql、init_log.sql中的表
+ */
+public class AppForSqlStats {
+
+    public static void main(String[] args) throws Exception {
+        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(SpringConfig.class);
+        // 有两个AccountService实现，按名称获取
+        AccountService accountService = ctx.getBean("accountServiceImpl", AccountService.class);
+
+        int transfers = 20;
+        for (int i = 0; i < transfers; i++) {
+            accountService.transfer("张三", "李四", 1.0);
+            accountService.transfer("李四", "张三", 1.0);
+        }
+        System.out.println("========== 已执行" + transfers * 2 + "次转账 ==========");
+
+        SqlStats sqlStats = ctx.getBean(SqlStats.class);
+        System.out.println(sqlStats.dumpNow());
+
+        if (args.length > 0 && "wait".equals(args[0])) {
+            System.out.println("按回车退出（可用jconsole查看com.coder:type=SqlStats）");
+            System.in.read();
+        }
+        ctx.close();
+    }
+}
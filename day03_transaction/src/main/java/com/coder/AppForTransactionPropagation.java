@@ -119,24 +119,22 @@ public class AppForTransactionPropagation {
         System.out.println("\n" + "=".repeat(70));
         System.out.println("教学总结");
         System.out.println("=".repeat(70));
-        System.out.println("""
-                
-                REQUIRED传播行为：
-                - 日志记录与主业务在同一个事务中
-                - 主业务成功 → 日志提交
-                - 主业务失败 → 日志回滚（数据库无记录）
-                - 适用场景：业务强关联的操作
-                
-                REQUIRES_NEW传播行为：
-                - 日志记录在独立的事务中执行
-                - 主业务成功 → 日志提交
-                - 主业务失败 → 日志仍保留（数据库有记录）
-                - 适用场景：审计日志、操作记录
-                
-                核心原理：
-                - REQUIRED：加入现有事务，同生共死
-                - REQUIRES_NEW：挂起现有事务，创建新事务，独立提交
-                """);
+        System.out.println();
+        System.out.println("REQUIRED传播行为：");
+        System.out.println("- 日志记录与主业务在同一个事务中");
+        System.out.println("- 主业务成功 → 日志提交");
+        System.out.println("- 主业务失败 → 日志回滚（数据库无记录）");
+        System.out.println("- 适用场景：业务强关联的操作");
+        System.out.println();
+        System.out.println("REQUIRES_NEW传播行为：");
+        System.out.println("- 日志记录在独立的事务中执行");
+        System.out.println("- 主业务成功 → 日志提交");
+        System.out.println("- 主业务失败 → 日志仍保留（数据库有记录）");
+        System.out.println("- 适用场景：审计日志、操作记录");
+        System.out.println();
+        System.out.println("核心原理：");
+        System.out.println("- REQUIRED：加入现有事务，同生共死");
+        System.out.println("- REQUIRES_NEW：挂起现有事务，创建新事务，独立提交");
 
         // 关闭容器
         ((AnnotationConfigApplicationContext) ctx).close();
@@ -0,0 +1,59 @@
+package com.coder.account;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定期重新加载账户 - 让其他节点新开的账户通过布隆过滤器
+ *
+ * 布隆过滤器只知道加载时数据库中的账户和本进程开的账户；其他节点开的账户在过滤器中"一定不存在"，
+ * AccountCheckAspect和AccountIdResolver都会直接拒绝，直到下一次AccountIdResolver.load()。
+ * 这里定期调用load()，把这段时间限制在一个间隔以内
+ *
+ * 只在AccountIdResolver已经加载过之后才重新加载：从未解析过账户的进程（如没有数据库的启动）不会访问数据库
+ */
+public class AccountFilterReloader implements DisposableBean {
+
+    private final AccountIdResolver resolver;
+
+    private ScheduledExecutorService scheduler;
+
+    public AccountFilterReloader(AccountIdResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * 启动定期重新加载（后台守护线程）
+     */
+    public synchronized void start(long intervalSeconds) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "account-filter-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            if (!resolver.isLoaded()) {
+                return;
+            }
+            try {
+                resolver.load();
+            } catch (RuntimeException e) {
+                // 加载失败时继续使用原来的过滤器，下次再试
+                System.out.println("【账户过滤器】重新加载失败：" + e.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
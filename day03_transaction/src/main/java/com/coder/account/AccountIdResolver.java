@@ -0,0 +1,150 @@
+package com.coder.account;
+
+import com.coder.dao.AccountDao;
+import com.coder.domain.Account;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 账户名解析器 - 在内存中把账户名转换为主键id，使转账的UPDATE按主键执行
+ *
+ * - 第一次解析时从数据库加载全部账户（SELECT id, name），之后的解析不访问数据库；
+ *   不在容器启动时加载，是为了让没有数据库的启动（如BootstrapBenchmark）不受影响，
+ *   需要提前加载时调用load()
+ * - 缓存中没有的名称先查布隆过滤器（AccountNameFilter）：一定不存在的直接抛出AccountNotFoundException；
+ *   可能存在的（如其他进程新开的账户）回查一次数据库并登记，仍然没有则抛出AccountNotFoundException
+ * - 加载全部账户时同时重建布隆过滤器；AccountFilterReloader定期重新加载，其他节点新开的账户在一个间隔内就能通过检查
+ * - 本进程开户时通过registerAfterCommit登记：布隆过滤器立即登记、提交后再登记一次，id缓存在事务提交后才登记，
+ *   回滚的开户不会进入缓存
+ */
+@Component
+public class AccountIdResolver {
+
+    private final AccountDao accountDao;
+
+    private final AccountNameFilter nameFilter;
+
+    private volatile NameIdMap ids;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder filtered = new LongAdder();
+
+    public AccountIdResolver(AccountDao accountDao, AccountNameFilter nameFilter) {
+        this.accountDao = accountDao;
+        this.nameFilter = nameFilter;
+    }
+
+    /**
+     * 从数据库加载全部账户，重复调用会重新加载
+     *
+     * @return 加载的账户数
+     */
+    public synchronized int load() {
+        nameFilter.beginRebuild();
+        List<Account> accounts = accountDao.selectIdAndName();
+        NameIdMap map = new NameIdMap(accounts.size());
+        List<String> names = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            map.put(account.getName(), account.getId());
+            names.add(account.getName());
+        }
+        nameFilter.finishRebuild(names);
+        ids = map;
+        return accounts.size();
+    }
+
+    private NameIdMap ids() {
+        NameIdMap map = ids;
+        if (map == null) {
+            synchronized (this) {
+                if (ids == null) {
+                    load();
+                }
+                map = ids;
+            }
+        }
+        return map;
+    }
+
+    /**
+     * 账户名 -> 账户id
+     *
+     * @throws AccountNotFoundException 账户不存在
+     */
+    public int resolve(String name) {
+        NameIdMap map = ids();
+        int id = map.get(name);
+        if (id != NameIdMap.MISSING) {
+            hits.increment();
+            return id;
+        }
+        if (!nameFilter.mightContain(name)) {
+            // 一定不存在，省掉回查数据库
+            filtered.increment();
+            throw new AccountNotFoundException(name);
+        }
+        misses.increment();
+        Integer found = accountDao.selectIdByName(name);
+        if (found == null) {
+            throw new AccountNotFoundException(name);
+        }
+        map.put(name, found);
+        return found;
+    }
+
+    /**
+     * 登记新开的账户：布隆过滤器立即登记；id缓存在事务中时等提交后登记，否则立即登记
+     *
+     * 提交后布隆过滤器再登记一次：如果在"登记"与"提交"之间有一次load()，它从数据库读不到未提交的账户，
+     * 开始重建也晚于第一次登记，新的位数组中没有这个名称，只靠第一次登记会被一直误判为不存在
+     */
+    public void registerAfterCommit(Account account) {
+        nameFilter.put(account.getName());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ids().put(account.getName(), account.getId());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                nameFilter.put(account.getName());
+                ids().put(account.getName(), account.getId());
+            }
+        });
+    }
+
+    /**
+     * 是否已经从数据库加载过
+     */
+    public boolean isLoaded() {
+        return ids != null;
+    }
+
+    public int size() {
+        NameIdMap map = ids;
+        return map == null ? 0 : map.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * 被布隆过滤器直接判定为不存在、没有回查数据库的次数
+     */
+    public long getFiltered() {
+        return filtered.sum();
+    }
+}
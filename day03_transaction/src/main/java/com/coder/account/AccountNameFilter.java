@@ -0,0 +1,180 @@
+package com.coder.account;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 账户名布隆过滤器 - 在内存中判断一个账户名"一定不存在"还是"可能存在"
+ *
+ * 原理：一个m位的位数组和k个哈希函数，登记名称时把k个位置置1；
+ * 查询时只要有一个位置是0，这个名称一定没有登记过；全是1则可能存在（有一定的误判率）
+ * 100万个账户、误判率1%时约占1.2MB，远小于保存全部名称
+ *
+ * 使用方式：
+ * - AccountIdResolver加载账户时重建（beginRebuild/finishRebuild），重建完成前mightContain总是返回true，不拒绝任何名称
+ * - 本进程开户时在INSERT的同时登记（put），不等事务提交：开户回滚只会留下一个误判，不会漏掉新账户；
+ *   提交后再登记一次，覆盖登记与提交之间发生的重建（重建读不到未提交的账户）
+ * - 其他进程新开的账户要等下一次AccountIdResolver.load()后才能通过检查，
+ *   AccountFilterReloader每account.filter.reload-seconds秒重新加载一次
+ *
+ * k个哈希值由一个64位哈希的高低两半组合得到（h1 + i * h2），不需要计算k次哈希
+ */
+public class AccountNameFilter {
+
+    private final boolean enabled;
+
+    private final int expectedAccounts;
+
+    private final double falsePositiveRate;
+
+    /** 为null表示还没有建立，所有名称都视为可能存在 */
+    private volatile Bits bits;
+
+    /** 重建期间登记的名称，重建完成时补进新的位数组 */
+    private List<String> addedDuringRebuild;
+
+    /**
+     * @param enabled           为false时不建立过滤器，mightContain总是返回true
+     * @param expectedAccounts  预计账户数，实际账户更多时按实际数量建立
+     * @param falsePositiveRate 误判率
+     */
+    public AccountNameFilter(boolean enabled, int expectedAccounts, double falsePositiveRate) {
+        this.enabled = enabled;
+        this.expectedAccounts = expectedAccounts;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * 开始重建：之后put的名称会被记录下来，避免在"从数据库读取全部名称"与"替换位数组"之间登记的名称丢失
+     */
+    public synchronized void beginRebuild() {
+        addedDuringRebuild = new ArrayList<>();
+    }
+
+    /**
+     * 用全部账户名建立新的位数组并替换
+     */
+    public synchronized void finishRebuild(Collection<String> names) {
+        List<String> added = addedDuringRebuild;
+        addedDuringRebuild = null;
+        if (!enabled) {
+            return;
+        }
+        Bits rebuilt = new Bits(Math.max(expectedAccounts, names.size()), falsePositiveRate);
+        names.forEach(rebuilt::add);
+        if (added != null) {
+            added.forEach(rebuilt::add);
+        }
+        bits = rebuilt;
+    }
+
+    /**
+     * 登记一个账户名
+     */
+    public synchronized void put(String name) {
+        if (addedDuringRebuild != null) {
+            addedDuringRebuild.add(name);
+        }
+        Bits current = bits;
+        if (current != null) {
+            current.add(name);
+        }
+    }
+
+    /**
+     * @return false表示一定不存在；true表示可能存在（或过滤器尚未建立）
+     */
+    public boolean mightContain(String name) {
+        Bits current = bits;
+        return current == null || current.mightContain(name);
+    }
+
+    public boolean isReady() {
+        return bits != null;
+    }
+
+    /**
+     * 位数组大小（位），未建立时为0
+     */
+    public long getBitSize() {
+        Bits current = bits;
+        return current == null ? 0 : current.size;
+    }
+
+    public int getHashCount() {
+        Bits current = bits;
+        return current == null ? 0 : current.hashes;
+    }
+
+    /**
+     * 位数组：long数组按位存放，并发登记时用CAS置位
+     */
+    private static final class Bits {
+
+        final AtomicLongArray words;
+        final long size;
+        final int hashes;
+
+        /**
+         * m = -n·ln(p) / (ln2)²，k = m/n·ln2
+         */
+        Bits(int expected, double fpp) {
+            int n = Math.max(1, expected);
+            long m = Math.max(64, (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2))));
+            this.words = new AtomicLongArray((int) ((m + 63) >>> 6));
+            this.size = (long) words.length() << 6;
+            this.hashes = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        }
+
+        void add(String name) {
+            long hash = hash(name);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long bit = index(h1 + i * h2);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long old;
+                while (((old = words.get(word)) & mask) == 0 && !words.compareAndSet(word, old, old | mask)) {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+
+        boolean mightContain(String name) {
+            long hash = hash(name);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long bit = index(h1 + i * h2);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long index(int combined) {
+            // 组合结果可能为负，取反后再取模
+            return (combined < 0 ? ~combined : combined) % size;
+        }
+
+        /**
+         * 64位FNV-1a哈希，再做一次混合使高低位都充分参与
+         */
+        private static long hash(String name) {
+            long h = 0xcbf29ce484222325L;
+            for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+                h ^= b & 0xff;
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.coder.account;
+
+/**
+ * 账户不存在异常
+ *
+ * 继承IllegalArgumentException，原来捕获IllegalArgumentException（"账户不存在"）的调用方不需要修改；
+ * 是运行时异常，在事务中抛出时事务回滚
+ */
+public class AccountNotFoundException extends IllegalArgumentException {
+
+    public AccountNotFoundException(Object account) {
+        super("账户不存在：" + account);
+    }
+}
@@ -0,0 +1,127 @@
+package com.coder.account;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 账户名 -> 账户id 的开放寻址哈希表（线性探测）
+ *
+ * 与HashMap&lt;String, Integer&gt;相比：
+ * - 键和值分别放在String[]和int[]两个数组里，没有Entry/Node对象，id不装箱
+ * - 查找只访问两个连续数组，缓存友好；不支持删除（账户不会被删除）
+ *
+ * 并发：读多写少，读不加锁
+ * - 写入串行（synchronized），先写值再以release语义写键；读以acquire语义读键，
+ *   读到键就一定能读到对应的值
+ * - 扩容时构造新表，写完后通过volatile字段整体替换，读线程看到的要么是旧表要么是完整的新表
+ */
+public final class NameIdMap {
+
+    /** 查找不到时的返回值（账户id从1开始自增） */
+    public static final int MISSING = -1;
+
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(String[].class);
+
+    private static final class Table {
+        final String[] keys;
+        final int[] values;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new String[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+        }
+    }
+
+    private volatile Table table;
+
+    private int size;
+
+    /**
+     * @param expectedSize 预计的账户数，表容量为其2倍向上取2的幂，负载因子不超过0.5
+     */
+    public NameIdMap(int expectedSize) {
+        table = new Table(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(int size) {
+        int capacity = Integer.highestOneBit(Math.max(size, 8) * 2 - 1) << 1;
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("容量过大：" + size);
+        }
+        return capacity;
+    }
+
+    /**
+     * String的hashCode低位分布较差，扰动后再取掩码
+     */
+    private static int slot(String name, int mask) {
+        int h = name.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * @return 账户id，不存在时返回MISSING
+     */
+    public int get(String name) {
+        Table t = table;
+        for (int i = slot(name, t.mask); ; i = (i + 1) & t.mask) {
+            String key = (String) KEYS.getAcquire(t.keys, i);
+            if (key == null) {
+                return MISSING;
+            }
+            if (key == name || key.equals(name)) {
+                return t.values[i];
+            }
+        }
+    }
+
+    /**
+     * 登记账户，已存在时覆盖id。名称会被intern，与其他地方的同名字符串共用一份
+     */
+    public synchronized void put(String name, int id) {
+        if ((size + 1) * 2 > table.keys.length) {
+            table = rehash(table, table.keys.length * 2);
+        }
+        if (insert(table, name.intern(), id)) {
+            size++;
+        }
+    }
+
+    private static boolean insert(Table t, String name, int id) {
+        for (int i = slot(name, t.mask); ; i = (i + 1) & t.mask) {
+            String key = t.keys[i];
+            if (key == null) {
+                t.values[i] = id;
+                KEYS.setRelease(t.keys, i, name);
+                return true;
+            }
+            if (key.equals(name)) {
+                t.values[i] = id;
+                return false;
+            }
+        }
+    }
+
+    private static Table rehash(Table old, int capacity) {
+        Table t = new Table(capacity);
+        for (int i = 0; i < old.keys.length; i++) {
+            if (old.keys[i] != null) {
+                insert(t, old.keys[i], old.values[i]);
+            }
+        }
+        return t;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 表容量（槽位数）
+     */
+    public int capacity() {
+        return table.keys.length;
+    }
+}
@@ -0,0 +1,57 @@
+package com.coder.aop;
+
+import com.coder.account.AccountNameFilter;
+import com.coder.account.AccountNotFoundException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 账户存在性预检切面
+ *
+ * 拦截所有标注了@CheckAccounts的方法，参数中的账户名在布隆过滤器中一定不存在时直接拒绝
+ *
+ * 过滤器只包含上次加载时的账户和本进程开的账户：其他节点新开的账户在下一次重新加载
+ * （AccountFilterReloader，间隔见account.filter.reload-seconds）之前会被拒绝，多节点部署时应调小间隔
+ *
+ * @Order(Ordered.HIGHEST_PRECEDENCE + 4) - 位于语句预算切面内层、事务拦截器外层：
+ * 被拒绝的调用不会开启事务，也就不会从连接池借连接
+ */
+@Component
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 4)
+public class AccountCheckAspect {
+
+    private final AccountNameFilter filter;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public AccountCheckAspect(AccountNameFilter filter) {
+        this.filter = filter;
+    }
+
+    @Around("@annotation(check)")
+    public Object check(ProceedingJoinPoint pjp, CheckAccounts check) throws Throwable {
+        Object[] args = pjp.getArgs();
+        for (int index : check.params()) {
+            Object name = args[index];
+            if (name instanceof String && !filter.mightContain((String) name)) {
+                rejected.increment();
+                throw new AccountNotFoundException(name);
+            }
+        }
+        return pjp.proceed();
+    }
+
+    /**
+     * 被预检拒绝的调用次数
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,47 @@
+package com.coder.aop;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 微批处理注解
+ *
+ * 标注在"单条处理"的方法上，由BatchedAspect把多个线程并发发起的单条调用攒成一批，
+ * 再调用同一个Bean上的批量方法一次性处理，调用方代码不需要任何修改
+ *
+ * 批量方法的约定：
+ * - 与单条方法在同一个Bean上，方法名由batchMethod指定
+ * - 只有一个参数，类型为List<Object[]>：每个元素是一次单条调用的参数数组，顺序与调用到达顺序一致
+ * - 返回void（每个调用方得到null），或者返回与参数等长的List（每个调用方得到对应位置的结果）
+ *
+ * 触发条件（满足任意一个即执行一批）：
+ * - 攒够maxBatchSize条：由凑满这一批的调用线程直接执行
+ * - 第一条到达后经过maxDelayMillis：由第一条的调用线程执行；没有其他调用方在提交时不等待，立即执行
+ *
+ * 注意：调用方线程会阻塞等待本批执行完毕，因此适合"独立事务"的操作（如REQUIRES_NEW日志），
+ * 不能用于需要加入调用方当前事务（REQUIRED）的方法——批量方法可能在另一个调用方的线程中执行，
+ * 总是在它自己的事务中
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Batched {
+
+    /**
+     * 批量方法名
+     */
+    String batchMethod();
+
+    /**
+     * 每批最多条数
+     */
+    int maxBatchSize() default 32;
+
+    /**
+     * 第一条调用最多等待的时间（毫秒），只在有其他调用方正在提交时等待
+     */
+    long maxDelayMillis() default 2;
+}
@@ -0,0 +1,97 @@
+package com.coder.aop;
+
+import com.coder.batch.MicroBatcher;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 微批处理切面
+ *
+ * 拦截标注了@Batched的方法，把调用交给对应的MicroBatcher攒批执行
+ *
+ * @Order(Ordered.HIGHEST_PRECEDENCE + 1) - 位于事务拦截器外层（仅次于舱壁）
+ * - 单条调用在这里就被截住，不会为每一条单独开启REQUIRES_NEW事务
+ * - 批量方法通过代理调用，由它自己的@Transactional开启一次事务
+ *
+ * 批量执行失败后逐条重试时，会再次经过本切面，此时通过DIRECT标记直接放行
+ */
+@Component
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class BatchedAspect implements DisposableBean {
+
+    /** 当前线程正在逐条重试，不再进入批处理 */
+    private static final ThreadLocal<Boolean> DIRECT = new ThreadLocal<>();
+
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, MicroBatcher>> batchers = new ConcurrentHashMap<>();
+
+    @Around("@annotation(com.coder.aop.Batched)")
+    public Object batch(ProceedingJoinPoint pjp) throws Throwable {
+        if (DIRECT.get() != null) {
+            return pjp.proceed();
+        }
+        return batcher(pjp).submit(pjp.getArgs());
+    }
+
+    private MicroBatcher batcher(ProceedingJoinPoint pjp) {
+        Class<?> targetClass = pjp.getTarget().getClass();
+        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+        ConcurrentMap<Method, MicroBatcher> byMethod = batchers.get(targetClass);
+        if (byMethod == null) {
+            byMethod = batchers.computeIfAbsent(targetClass, c -> new ConcurrentHashMap<>());
+        }
+        MicroBatcher batcher = byMethod.get(method);
+        if (batcher == null) {
+            batcher = byMethod.computeIfAbsent(method, m -> create(pjp.getThis(), m, targetClass));
+        }
+        return batcher;
+    }
+
+    private MicroBatcher create(Object proxy, Method method, Class<?> targetClass) {
+        Method specific = AopUtils.getMostSpecificMethod(method, targetClass);
+        Batched batched = AnnotationUtils.findAnnotation(specific, Batched.class);
+        // 在代理实现的接口/类上查找批量方法，通过代理调用才能让批量方法上的事务注解生效
+        Method batchMethod = ReflectionUtils.findMethod(proxy.getClass(), batched.batchMethod(), List.class);
+        if (batchMethod == null) {
+            throw new IllegalStateException(targetClass.getSimpleName() + "中找不到批量方法 "
+                    + batched.batchMethod() + "(List<Object[]>)");
+        }
+        String name = targetClass.getSimpleName() + "." + method.getName();
+        return new MicroBatcher(name, proxy, method, batchMethod, batched.maxBatchSize(),
+                batched.maxDelayMillis(), BatchedAspect::invokeDirectly);
+    }
+
+    private static Object invokeDirectly(Object proxy, Method method, Object[] args) throws Throwable {
+        DIRECT.set(Boolean.TRUE);
+        try {
+            return method.invoke(proxy, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } finally {
+            DIRECT.remove();
+        }
+    }
+
+    /**
+     * 容器关闭时把还在缓冲区中的调用执行完，避免调用方一直阻塞
+     */
+    @Override
+    public void destroy() {
+        batchers.values().forEach(byMethod -> byMethod.values().forEach(MicroBatcher::flush));
+    }
+}
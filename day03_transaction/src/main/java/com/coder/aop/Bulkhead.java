@@ -0,0 +1,48 @@
+package com.coder.aop;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 舱壁（并发隔离）注解
+ *
+ * 标注在方法上，由BulkheadAspect限制该方法（或同一分组的所有方法）同时执行的线程数
+ *
+ * 为什么需要它：
+ * - Druid连接池的连接数是有限的（默认maxActive=8）
+ * - 流量突增时，所有线程都会挤在getConnection()上排队，短暂的高峰会变成数秒的尾延迟
+ * - 舱壁在"拿连接之前"就限制并发：超出的调用在有界队列里排队，队列满了直接快速失败
+ *
+ * 参数可以被bulkhead.properties中的配置覆盖：
+ * - bulkhead.{分组名}.max-concurrent
+ * - bulkhead.{分组名}.max-queue
+ * - bulkhead.{分组名}.max-wait-millis
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+
+    /**
+     * 分组名，同名的方法共用一组许可；为空时使用"类名.方法名"
+     */
+    String value() default "";
+
+    /**
+     * 最大并发执行数
+     */
+    int maxConcurrent() default 4;
+
+    /**
+     * 最大排队数，超过后直接拒绝
+     */
+    int maxQueue() default 16;
+
+    /**
+     * 排队的最长等待时间（毫秒），超时后拒绝
+     */
+    long maxWaitMillis() default 1000;
+}
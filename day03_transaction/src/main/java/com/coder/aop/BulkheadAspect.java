@@ -0,0 +1,46 @@
+package com.coder.aop;
+
+import com.coder.bulkhead.BulkheadLimiter;
+import com.coder.bulkhead.BulkheadRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 舱壁切面
+ *
+ * 拦截所有标注了@Bulkhead的方法：先获取许可，执行完毕（无论成功还是异常）后归还许可
+ *
+ * @Order(Ordered.HIGHEST_PRECEDENCE) - 切面优先级最高，位于事务拦截器的外层
+ * - 事务拦截器在开启事务时就会从连接池获取连接
+ * - 舱壁必须在它之前执行：排队的线程还没有开启事务，不占用任何连接
+ * - 被拒绝的调用直接抛出BulkheadFullException，事务根本不会开启
+ */
+@Component
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class BulkheadAspect {
+
+    private final BulkheadRegistry registry;
+
+    public BulkheadAspect(BulkheadRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("@annotation(com.coder.aop.Bulkhead)")
+    public Object limit(ProceedingJoinPoint pjp) throws Throwable {
+        MethodSignature signature = (MethodSignature) pjp.getSignature();
+        BulkheadLimiter limiter = registry.limiter(signature.getMethod(), pjp.getTarget().getClass());
+
+        limiter.acquire();
+        try {
+            return pjp.proceed();
+        } finally {
+            limiter.release();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.coder.aop;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 账户存在性预检注解
+ *
+ * 标注在以账户名为参数的方法上，由AccountCheckAspect在事务开始之前用布隆过滤器（AccountNameFilter）检查这些参数：
+ * 一定不存在的账户直接抛出AccountNotFoundException，不借连接、不开事务
+ * 过滤器只能排除"一定不存在"的名称，可能存在的名称仍由方法内的解析和影响行数检查把关
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CheckAccounts {
+
+    /**
+     * 账户名参数的位置（从0开始），默认为前两个参数（转出方、转入方）
+     */
+    int[] params() default {0, 1};
+}
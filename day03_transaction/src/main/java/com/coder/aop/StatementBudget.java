@@ -0,0 +1,26 @@
+package com.coder.aop;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 语句预算注解
+ *
+ * 标注在方法上，由StatementBudgetAspect统计方法执行期间发出的Mapper语句（包括REQUIRES_NEW事务中的）
+ * - 超出预算时输出警告
+ * - 严格模式（budget.strict=true）下，执行超出预算的语句前抛出StatementBudgetExceededException，
+ *   测试中开启，语句数一旦增加（如循环里逐条查询）测试就会失败
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+
+    /**
+     * 方法最多执行的Mapper语句数
+     */
+    int max();
+}
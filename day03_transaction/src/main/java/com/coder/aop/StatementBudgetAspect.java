@@ -0,0 +1,41 @@
+package com.coder.aop;
+
+import com.coder.budget.StatementMonitor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 语句预算切面
+ *
+ * 拦截所有标注了@StatementBudget的方法，在方法执行期间压入一个预算范围，
+ * StatementBudgetInterceptor执行的每条语句都会计入，方法结束时检查是否超出预算
+ *
+ * @Order(Ordered.HIGHEST_PRECEDENCE + 3) - 位于链路追踪切面内层、事务拦截器外层，
+ * 方法内开启的事务（包括提交）都在预算范围内
+ */
+@Component
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class StatementBudgetAspect {
+
+    private final StatementMonitor monitor;
+
+    public StatementBudgetAspect(StatementMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @Around("@annotation(budget)")
+    public Object budget(ProceedingJoinPoint pjp, StatementBudget budget) throws Throwable {
+        String name = pjp.getTarget().getClass().getSimpleName() + "." + pjp.getSignature().getName();
+        StatementMonitor.BudgetScope scope = monitor.enter(name, budget.max());
+        try {
+            return pjp.proceed();
+        } finally {
+            monitor.exit(scope);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.coder.aop;
+
+import com.coder.trace.Span;
+import com.coder.trace.Tracer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 链路追踪切面 - 为服务层方法记录Span
+ *
+ * 拦截com.coder.service包下的所有public方法，Span名为"实现类.方法名"
+ * 服务方法是链路的入口：当前线程没有链路时，在这里按采样率决定是否开启新链路
+ *
+ * 为什么拦截整个服务层，而不是@annotation(Transactional)：
+ * - 本模块的@Transactional大多标注在接口方法上，AspectJ的@annotation匹配的是实现类方法，会漏掉
+ * - 事务本身的边界由TracingTransactionManager记录，这里只负责服务方法这一层
+ *
+ * @Order(Ordered.HIGHEST_PRECEDENCE + 2) - 位于舱壁和微批切面内层、事务拦截器外层
+ * - 舱壁排队的时间不计入（它属于限流，不属于这次调用本身）
+ * - 开启事务（借连接）发生在本切面之内，会成为服务Span的子Span
+ */
+@Component
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class TracingAspect {
+
+    private final Tracer tracer;
+
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, String>> names = new ConcurrentHashMap<>();
+
+    public TracingAspect(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Around("execution(public * com.coder.service..*(..))")
+    public Object trace(ProceedingJoinPoint pjp) throws Throwable {
+        Span span = tracer.startSpan(spanName(pjp));
+        try {
+            return pjp.proceed();
+        } catch (Throwable ex) {
+            span.error(ex);
+            throw ex;
+        } finally {
+            span.finish();
+        }
+    }
+
+    private String spanName(ProceedingJoinPoint pjp) {
+        Class<?> targetClass = pjp.getTarget().getClass();
+        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+        ConcurrentMap<Method, String> byMethod = names.get(targetClass);
+        if (byMethod == null) {
+            byMethod = names.computeIfAbsent(targetClass, c -> new ConcurrentHashMap<>());
+        }
+        String name = byMethod.get(method);
+        if (name == null) {
+            name = byMethod.computeIfAbsent(method, m -> targetClass.getSimpleName() + "." + m.getName());
+        }
+        return name;
+    }
+}
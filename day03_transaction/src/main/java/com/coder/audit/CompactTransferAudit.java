@@ -0,0 +1,75 @@
+package com.coder.audit;
+
+import com.coder.dao.TransferAuditDao;
+import com.coder.domain.TransferAuditRecord;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * 紧凑审计（audit.mode=compact）：每笔转账在transfer_audit中一行
+ *
+ * 各步骤的写入方式：
+ * - start：INSERT，在独立事务（REQUIRES_NEW）中提交，转账回滚也留下STARTED记录
+ * - debited：只在内存中记下时间，不访问数据库
+ * - completed：按主键UPDATE为COMPLETED（同时写入debited_at），加入转账自己的事务：
+ *   余额变化和"已完成"一起提交或一起回滚，提交失败时记录停在STARTED，不会出现"已完成但钱没动"
+ * - failed：按主键UPDATE为FAILED，在独立事务中提交（转账的事务正在回滚）
+ *
+ * 成功的转账：1次INSERT + 1次UPDATE，只有1个额外的事务；逐行模式是3次INSERT、3个事务
+ */
+public class CompactTransferAudit implements TransferAudit {
+
+    private final TransferAuditDao transferAuditDao;
+
+    private final TransactionTemplate independent;
+
+    public CompactTransferAudit(TransferAuditDao transferAuditDao, PlatformTransactionManager transactionManager) {
+        this.transferAuditDao = transferAuditDao;
+        this.independent = new TransactionTemplate(transactionManager);
+        this.independent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.independent.setName("CompactTransferAudit");
+    }
+
+    @Override
+    public TransferAuditRecord start(String from, String to, Double amount) {
+        TransferAuditRecord record = new TransferAuditRecord();
+        record.setFromAccount(from);
+        record.setToAccount(to);
+        record.setAmount(amount);
+        record.setState(TransferAuditRecord.STARTED);
+        record.setStartedAt(LocalDateTime.now());
+        independent.executeWithoutResult(status -> transferAuditDao.insert(record));
+        System.out.println("【紧凑审计】转账" + record.getId() + "开始（独立事务已提交）");
+        return record;
+    }
+
+    @Override
+    public void debited(TransferAuditRecord record) {
+        record.setDebitedAt(LocalDateTime.now());
+    }
+
+    @Override
+    public void completed(TransferAuditRecord record) {
+        record.setState(TransferAuditRecord.COMPLETED);
+        record.setCompletedAt(LocalDateTime.now());
+        requireStarted(transferAuditDao.complete(record), record);
+    }
+
+    @Override
+    public void failed(TransferAuditRecord record, String reason) {
+        record.setState(TransferAuditRecord.FAILED);
+        record.setMessage(reason);
+        record.setFailedAt(LocalDateTime.now());
+        independent.executeWithoutResult(status -> requireStarted(transferAuditDao.fail(record), record));
+        System.out.println("【紧凑审计】转账" + record.getId() + "失败（独立事务已提交）：" + reason);
+    }
+
+    private static void requireStarted(int rows, TransferAuditRecord record) {
+        if (rows == 0) {
+            throw new IllegalStateException("转账审计记录" + record.getId() + "不是STARTED状态，无法改为" + record.getState());
+        }
+    }
+}
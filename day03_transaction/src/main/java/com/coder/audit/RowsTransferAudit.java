@@ -0,0 +1,66 @@
+package com.coder.audit;
+
+import com.coder.domain.TransferAuditRecord;
+import com.coder.service.TransferLogService;
+
+import java.time.LocalDateTime;
+
+/**
+ * 逐行日志（audit.mode=rows）
+ *
+ * 每个步骤调用一次TransferLogService.logTransferRequiresNew，向transfer_log插入一行并在独立事务中提交：
+ * 成功的转账3行、3个事务，失败的转账3到4行
+ * 审计记录只在内存中传递参数，不写transfer_audit
+ */
+public class RowsTransferAudit implements TransferAudit {
+
+    public static final String STARTED_MESSAGE = "转账开始 - 记录审计日志";
+
+    public static final String DEBITED_MESSAGE = "转出成功 - 等待转入";
+
+    public static final String FAILED_MESSAGE_PREFIX = "转账失败：";
+
+    private final TransferLogService transferLogService;
+
+    public RowsTransferAudit(TransferLogService transferLogService) {
+        this.transferLogService = transferLogService;
+    }
+
+    @Override
+    public TransferAuditRecord start(String from, String to, Double amount) {
+        TransferAuditRecord record = new TransferAuditRecord();
+        record.setFromAccount(from);
+        record.setToAccount(to);
+        record.setAmount(amount);
+        record.setState(TransferAuditRecord.STARTED);
+        record.setStartedAt(LocalDateTime.now());
+        log(record, "SUCCESS", STARTED_MESSAGE);
+        return record;
+    }
+
+    @Override
+    public void debited(TransferAuditRecord record) {
+        record.setDebitedAt(LocalDateTime.now());
+        log(record, "SUCCESS", DEBITED_MESSAGE);
+    }
+
+    @Override
+    public void completed(TransferAuditRecord record) {
+        record.setState(TransferAuditRecord.COMPLETED);
+        record.setCompletedAt(LocalDateTime.now());
+        log(record, "SUCCESS", TransferLogService.COMPLETED_MESSAGE);
+    }
+
+    @Override
+    public void failed(TransferAuditRecord record, String reason) {
+        record.setState(TransferAuditRecord.FAILED);
+        record.setMessage(reason);
+        record.setFailedAt(LocalDateTime.now());
+        log(record, "FAILED", FAILED_MESSAGE_PREFIX + reason);
+    }
+
+    private void log(TransferAuditRecord record, String status, String message) {
+        transferLogService.logTransferRequiresNew(record.getFromAccount(), record.getToAccount(), record.getAmount(),
+                status, message);
+    }
+}
@@ -0,0 +1,39 @@
+package com.coder.audit;
+
+import com.coder.domain.TransferAuditRecord;
+
+/**
+ * 转账审计方式（由audit.mode选择，见AuditConfig）
+ *
+ * - RowsTransferAudit：逐行日志，每个步骤向transfer_log插入一行，每行一个独立事务（原来的方式）
+ * - CompactTransferAudit：每笔转账在transfer_audit中一行，开始时插入，之后按主键更新状态
+ *
+ * 调用顺序：start -> debited -> completed，中途出错时 start -> (debited) -> failed
+ * start在独立事务中提交，转账回滚也会留下记录
+ */
+public interface TransferAudit {
+
+    /**
+     * 转账开始
+     *
+     * @return 本笔转账的审计记录，传给后续方法
+     */
+    TransferAuditRecord start(String from, String to, Double amount);
+
+    /**
+     * 转出完成
+     */
+    void debited(TransferAuditRecord record);
+
+    /**
+     * 转账完成
+     */
+    void completed(TransferAuditRecord record);
+
+    /**
+     * 转账失败，在独立事务中记录，不随转账回滚
+     *
+     * @param reason 失败原因
+     */
+    void failed(TransferAuditRecord record, String reason);
+}
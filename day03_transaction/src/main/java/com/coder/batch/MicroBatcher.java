@@ -0,0 +1,197 @@
+package com.coder.batch;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个@Batched方法的微批处理器
+ *
+ * 执行流程：
+ * 1. 调用线程把参数放入缓冲区，然后阻塞等待自己的CompletableFuture
+ * 2. 缓冲区凑满maxBatchSize，或者正在提交的调用方都已在缓冲区中（不会再有人来凑批）时，
+ *    放入最后一条的线程取走整批并直接执行批量方法；只有一个调用方时就是它自己，不等待
+ * 3. 否则放入空缓冲区的调用成为这一批的"领头"，最多等待maxDelay：
+ *    期间被凑满的线程取走则直接拿到结果，超时则由领头线程自己取走执行
+ *    每一批都在某个调用方自己的线程中执行，没有共用的后台线程：慢的批次只拖住这一批的调用方，
+ *    不会让其他批、其他@Batched方法排在它后面
+ * 4. 批量方法成功：按位置把结果交给每个调用方
+ *    批量方法失败：逐条调用原始单条方法，每个调用方得到自己的结果或异常，
+ *    一条坏数据不会连累同一批的其他调用
+ */
+public class MicroBatcher {
+
+    private final String name;
+    private final Object proxy;
+    private final Method singleMethod;
+    private final Method batchMethod;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final SingleInvoker singleInvoker;
+
+    /** 正在submit中的调用方个数（含等待结果的），都已在缓冲区中时不必再等 */
+    private final AtomicInteger active = new AtomicInteger();
+
+    private List<Call> buffer;
+
+    /**
+     * @param proxy         Spring代理对象，批量方法通过它调用，@Transactional等注解才能生效
+     * @param singleMethod  原始单条方法
+     * @param batchMethod   批量方法
+     * @param singleInvoker 批量失败后逐条重试时使用，需要绕过批处理直接执行单条方法
+     */
+    public MicroBatcher(String name, Object proxy, Method singleMethod, Method batchMethod,
+                        int maxBatchSize, long maxDelayMillis, SingleInvoker singleInvoker) {
+        this.name = name;
+        this.proxy = proxy;
+        this.singleMethod = singleMethod;
+        this.batchMethod = batchMethod;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.singleInvoker = singleInvoker;
+        this.buffer = new ArrayList<>(this.maxBatchSize);
+    }
+
+    /**
+     * 提交一次单条调用，阻塞到它所在的批次执行完毕
+     *
+     * @return 该调用自己的结果
+     * @throws Throwable 该调用自己的异常
+     */
+    public Object submit(Object[] args) throws Throwable {
+        Call call = new Call(args);
+        active.incrementAndGet();
+        try {
+            List<Call> joined;
+            boolean leader;
+            List<Call> full = null;
+            synchronized (this) {
+                buffer.add(call);
+                joined = buffer;
+                leader = buffer.size() == 1;
+                // 凑满，或者正在提交的调用方都已在缓冲区中，再等也不会有人来
+                if (buffer.size() >= maxBatchSize || buffer.size() >= active.get()) {
+                    full = takeBuffer();
+                }
+            }
+            if (full != null) {
+                execute(full);
+            } else if (leader) {
+                lead(call, joined);
+            }
+            return call.result.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    /**
+     * 领头调用：需要时等待其他调用凑批，最终保证这一批被执行
+     *
+     * 被中断时不再等待，仍然执行这一批，否则同一批的其他调用方会一直阻塞
+     */
+    private void lead(Call call, List<Call> joined) {
+        if (active.get() > 1) {
+            try {
+                call.result.get(maxDelayNanos, TimeUnit.NANOSECONDS);
+                return;
+            } catch (ExecutionException e) {
+                return;
+            } catch (TimeoutException e) {
+                // 没有凑满，由领头线程执行
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<Call> calls = null;
+        synchronized (this) {
+            // 等待期间可能已被凑满的线程取走，这时缓冲区已是下一批
+            if (buffer == joined) {
+                calls = takeBuffer();
+            }
+        }
+        if (calls != null) {
+            execute(calls);
+        }
+    }
+
+    /**
+     * 立即执行缓冲区中已有的调用（容器关闭时调用）
+     */
+    public void flush() {
+        List<Call> calls;
+        synchronized (this) {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            calls = takeBuffer();
+        }
+        execute(calls);
+    }
+
+    private List<Call> takeBuffer() {
+        List<Call> calls = buffer;
+        buffer = new ArrayList<>(maxBatchSize);
+        return calls;
+    }
+
+    private void execute(List<Call> calls) {
+        List<Object[]> argsList = new ArrayList<>(calls.size());
+        for (Call call : calls) {
+            argsList.add(call.args);
+        }
+        Object results;
+        try {
+            results = batchMethod.invoke(proxy, argsList);
+        } catch (Throwable e) {
+            Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+            System.out.println("【微批处理】" + name + " 批量执行失败（" + cause + "），改为逐条执行" + calls.size() + "条");
+            executeOneByOne(calls);
+            return;
+        }
+        if (results instanceof List && ((List<?>) results).size() != calls.size()) {
+            IllegalStateException error = new IllegalStateException("批量方法" + batchMethod.getName()
+                    + "返回了" + ((List<?>) results).size() + "条结果，实际提交" + calls.size() + "条");
+            calls.forEach(call -> call.result.completeExceptionally(error));
+            return;
+        }
+        for (int i = 0; i < calls.size(); i++) {
+            calls.get(i).result.complete(results instanceof List ? ((List<?>) results).get(i) : null);
+        }
+    }
+
+    private void executeOneByOne(List<Call> calls) {
+        for (Call call : calls) {
+            try {
+                call.result.complete(singleInvoker.invoke(proxy, singleMethod, call.args));
+            } catch (Throwable t) {
+                call.result.completeExceptionally(t);
+            }
+        }
+    }
+
+    /**
+     * 绕过批处理直接执行单条方法
+     */
+    @FunctionalInterface
+    public interface SingleInvoker {
+        Object invoke(Object proxy, Method method, Object[] args) throws Throwable;
+    }
+
+    private static final class Call {
+        final Object[] args;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Call(Object[] args) {
+            this.args = args;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.coder.benchmark;
+
+import com.coder.account.AccountIdResolver;
+import com.coder.config.FunctionalBootstrap;
+import com.coder.dao.AccountDao;
+import com.coder.domain.Account;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 账户更新吞吐量基准测试（JMH）：按名称更新 vs 按主键更新
+ *
+ * 每次操作是一条自动提交的UPDATE（不开启Spring事务），随机选择一个账户加0.01元：
+ * - byName：UPDATE ... WHERE name = ?，InnoDB先查name唯一索引得到主键，再查聚簇索引
+ * - byId：AccountIdResolver在内存中解析出id，UPDATE ... WHERE id = ?，只查聚簇索引
+ *
+ * 结果单位为每秒更新次数。账户数越多、二级索引越难完全留在缓冲池中，差距越明显
+ *
+ * 运行前准备：需要MySQL及init.sql中的account表；第一次运行时自动插入bench-前缀的测试账户
+ * 运行方式：执行main方法，可通过参数指定账户数，如 AccountUpdateBenchmark 100000
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class AccountUpdateBenchmark {
+
+    @Param("10000")
+    private int accounts;
+
+    private GenericApplicationContext ctx;
+    private AccountDao accountDao;
+    private AccountIdResolver accountIdResolver;
+    private String[] names;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = FunctionalBootstrap.create();
+        accountDao = ctx.getBean(AccountDao.class);
+        accountIdResolver = ctx.getBean(AccountIdResolver.class);
+        accountIdResolver.load();
+
+        names = new String[accounts];
+        int created = 0;
+        for (int i = 0; i < accounts; i++) {
+            names[i] = String.format("bench-%07d", i);
+            if (accountDao.selectIdByName(names[i]) == null) {
+                Account account = new Account();
+                account.setName(names[i]);
+                account.setMoney(0.0);
+                accountDao.insert(account);
+                created++;
+            }
+        }
+        System.out.println("【基准准备】测试账户" + accounts + "个，本次新建" + created + "个，已加载"
+                + accountIdResolver.load() + "个账户名");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println("【账户名解析】命中" + accountIdResolver.getHits() + "次，回查数据库"
+                + accountIdResolver.getMisses() + "次");
+        ctx.close();
+    }
+
+    private String randomName() {
+        return names[ThreadLocalRandom.current().nextInt(names.length)];
+    }
+
+    @Benchmark
+    public void byName() {
+        accountDao.inMoney(randomName(), 0.01);
+    }
+
+    @Benchmark
+    public void byId() {
+        accountDao.inMoneyById(accountIdResolver.resolve(randomName()), 0.01);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.include(AccountUpdateBenchmark.class.getSimpleName());
+        if (args.length > 0) {
+            builder.param("accounts", args[0]);
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,66 @@
+package com.coder.benchmark;
+
+import com.coder.config.FunctionalBootstrap;
+import com.coder.config.SpringConfig;
+import com.coder.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 冷启动基准测试（JMH）：注解方式 vs 函数式注册
+ *
+ * 关心的是短生命周期JVM的"第一次"启动，类加载、注解解析、CGLIB生成类都只发生一次，
+ * 所以使用SingleShotTime模式：
+ * - 不预热，每个JVM只测量一次
+ * - 每次都fork全新的JVM（默认10次），取平均值和误差
+ *
+ * 每次测量都包含：创建并刷新容器、获取AccountService（触发代理）、关闭容器
+ * 不需要数据库：Druid在第一次获取连接时才真正建立连接
+ *
+ * 运行方式：执行main方法，可通过参数指定fork次数，如 BootstrapBenchmark 20
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class BootstrapBenchmark {
+
+    @Benchmark
+    public AccountService annotation() {
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(SpringConfig.class)) {
+            // 注解方式下有两个AccountService实现，按名称获取
+            return ctx.getBean("accountServiceImpl", AccountService.class);
+        }
+    }
+
+    @Benchmark
+    public AccountService functional() {
+        try (GenericApplicationContext ctx = FunctionalBootstrap.create()) {
+            return ctx.getBean(AccountService.class);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.include(BootstrapBenchmark.class.getSimpleName());
+        if (args.length > 0) {
+            builder.forks(Integer.parseInt(args[0]));
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,160 @@
+package com.coder.benchmark;
+
+import com.coder.config.FunctionalBootstrap;
+import com.coder.id.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 转账日志插入吞吐量基准测试（JMH）：自增主键 vs 本地生成的时间有序ID
+ *
+ * 两张结构与transfer_log相同的测试表，只有主键不同：
+ * - bench_log_auto：BIGINT AUTO_INCREMENT，批量插入后用getGeneratedKeys取回每行的ID
+ * - bench_log_snowflake：BIGINT，插入前由SnowflakeIdGenerator生成ID，不需要取回
+ * 都带有init_log_search.sql中的两个二级索引
+ *
+ * 每次操作是一条自动提交的多行INSERT（batchSize行），多个线程并发写入，模拟多个节点同时写审计日志。
+ * 结果单位为每秒INSERT语句数，乘以batchSize即每秒行数。
+ * 同一台机器上的一个进程无法体现多个节点之间的争用，这里只对比单个节点内并发写入的差异
+ *
+ * 运行前准备：需要MySQL；测试表在第一次运行时自动创建，每轮开始前清空
+ * 运行方式：执行main方法，可通过参数指定每条INSERT的行数，如 LogInsertBenchmark 50
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class LogInsertBenchmark {
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private GenericApplicationContext ctx;
+    private DataSource dataSource;
+    private SnowflakeIdGenerator idGenerator;
+    private String autoSql;
+    private String snowflakeSql;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = FunctionalBootstrap.create();
+        dataSource = ctx.getBean(DataSource.class);
+        idGenerator = ctx.getBean(SnowflakeIdGenerator.class);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute(createTableSql("bench_log_auto", "id BIGINT PRIMARY KEY AUTO_INCREMENT"));
+        jdbc.execute(createTableSql("bench_log_snowflake", "id BIGINT PRIMARY KEY"));
+        jdbc.execute("TRUNCATE TABLE bench_log_auto");
+        jdbc.execute("TRUNCATE TABLE bench_log_snowflake");
+        autoSql = insertSql("bench_log_auto", "(from_account, to_account, amount, status, message)", "(?, ?, ?, ?, ?)");
+        snowflakeSql = insertSql("bench_log_snowflake", "(id, from_account, to_account, amount, status, message)",
+                "(?, ?, ?, ?, ?, ?)");
+    }
+
+    private static String createTableSql(String table, String id) {
+        return "CREATE TABLE IF NOT EXISTS " + table + " (" + id + ", "
+                + "from_account VARCHAR(50) NOT NULL, to_account VARCHAR(50) NOT NULL, "
+                + "amount DOUBLE NOT NULL, status VARCHAR(20) NOT NULL, message VARCHAR(500), "
+                + "create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "INDEX " + table + "_from_time (from_account, create_time, id, status, amount), "
+                + "INDEX " + table + "_to_time (to_account, create_time, id, status, amount))";
+    }
+
+    private String insertSql(String table, String columns, String row) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(' ').append(columns).append(" VALUES ");
+        for (int i = 0; i < batchSize; i++) {
+            sql.append(i == 0 ? "" : ", ").append(row);
+        }
+        return sql.toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        System.out.println("【基准结果】bench_log_auto " + jdbc.queryForObject("SELECT COUNT(*) FROM bench_log_auto", Long.class)
+                + "行，bench_log_snowflake " + jdbc.queryForObject("SELECT COUNT(*) FROM bench_log_snowflake", Long.class)
+                + "行；" + idGenerator);
+        ctx.close();
+    }
+
+    @Benchmark
+    public void autoIncrement(Blackhole blackhole) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(autoSql, Statement.RETURN_GENERATED_KEYS)) {
+            int index = 1;
+            for (int i = 0; i < batchSize; i++) {
+                index = setRow(ps, index);
+            }
+            ps.executeUpdate();
+            // 自增主键：插入后才知道ID，要从结果中逐个取回
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                while (keys.next()) {
+                    blackhole.consume(keys.getLong(1));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void snowflake() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(snowflakeSql)) {
+            int index = 1;
+            for (int i = 0; i < batchSize; i++) {
+                ps.setLong(index++, idGenerator.nextId());
+                index = setRow(ps, index);
+            }
+            ps.executeUpdate();
+        }
+    }
+
+    private static int setRow(PreparedStatement ps, int index) throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ps.setString(index++, String.format("acct-%07d", random.nextInt(10000)));
+        ps.setString(index++, String.format("acct-%07d", random.nextInt(10000)));
+        ps.setDouble(index++, random.nextInt(100000) / 100.0);
+        ps.setString(index++, "SUCCESS");
+        ps.setString(index++, "转账完成 - 全部成功");
+        return index;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.include(LogInsertBenchmark.class.getSimpleName());
+        if (args.length > 0) {
+            builder.param("batchSize", args[0]);
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,14 @@
+package com.coder.budget;
+
+/**
+ * 语句预算超出异常
+ *
+ * 严格模式（budget.strict=true，测试时使用）下，方法即将执行超出@StatementBudget预算的语句时抛出
+ * 在语句执行之前、事务之内抛出，超出预算的方法所在的事务会回滚
+ */
+public class StatementBudgetExceededException extends RuntimeException {
+
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
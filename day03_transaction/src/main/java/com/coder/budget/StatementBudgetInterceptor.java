@@ -0,0 +1,88 @@
+package com.coder.budget;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * MyBatis拦截器 - 为StatementMonitor提供语句、往返和行数
+ *
+ * 拦截两层：
+ * - Executor的update/query：逻辑语句，即一次Mapper方法调用，记录语句id和影响/返回行数
+ *   （query的4参数和6参数重载都拦截，原因见TracingMybatisInterceptor）
+ * - StatementHandler的update/query：真正执行JDBC语句，每次是一次数据库往返；
+ *   一级缓存命中的查询不会走到这里
+ * - Executor.flushStatements：显式刷新BATCH执行器时，每个BatchResult是一次executeBatch往返
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class,
+                        CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "flushStatements", args = {}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class}),
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class})
+})
+public class StatementBudgetInterceptor implements Interceptor {
+
+    private final StatementMonitor monitor;
+
+    public StatementBudgetInterceptor(StatementMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (invocation.getTarget() instanceof StatementHandler) {
+            monitor.roundTrips(1);
+            return invocation.proceed();
+        }
+        if ("flushStatements".equals(invocation.getMethod().getName())) {
+            Object result = invocation.proceed();
+            List<?> batches = (List<?>) result;
+            monitor.roundTrips(batches.size());
+            long rows = 0;
+            for (Object batch : batches) {
+                for (int count : ((BatchResult) batch).getUpdateCounts()) {
+                    rows += Math.max(count, 0);
+                }
+            }
+            if (rows > 0) {
+                monitor.afterStatement(rows);
+            }
+            return result;
+        }
+
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        monitor.beforeStatement(ms.getId());
+        Object result = invocation.proceed();
+        if (result instanceof List) {
+            monitor.afterStatement(((List<?>) result).size());
+        } else if (result instanceof Integer) {
+            int rows = (Integer) result;
+            if (rows == BatchExecutor.BATCH_UPDATE_RETURN_VALUE) {
+                // BATCH执行器只是把语句加入批次，影响的行数要等flushStatements
+                monitor.batchedStatement(ms.getId());
+            } else {
+                monitor.afterStatement(rows);
+            }
+        }
+        return result;
+    }
+}
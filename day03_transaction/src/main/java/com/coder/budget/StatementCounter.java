@@ -0,0 +1,124 @@
+package com.coder.budget;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 语句计数器 - 一个事务或一次@StatementBudget方法调用内的统计
+ *
+ * - statements：执行的Mapper语句数（逻辑语句）
+ * - roundTrips：与数据库的往返次数（实际执行的JDBC语句 + 提交/回滚），一级缓存命中的查询不产生往返
+ * - rows：update影响的行数 + query返回的行数
+ * - 每条语句的执行次数：同一条语句达到阈值时记为N+1嫌疑；由BATCH执行器合并发送的语句不算
+ *
+ * 只在一个线程内使用（事务和方法调用都绑定在线程上），不需要同步
+ */
+public class StatementCounter {
+
+    private final String name;
+
+    private int statements;
+
+    private int roundTrips;
+
+    private long rows;
+
+    private final Map<String, Integer> perStatement = new LinkedHashMap<>();
+
+    private final List<String> nPlusOneSuspects = new ArrayList<>();
+
+    /** 经BATCH执行器执行过的语句，多次执行只是加入批次，往返次数很少 */
+    private final Set<String> batchedStatements = new HashSet<>();
+
+    public StatementCounter(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 记录一条语句
+     *
+     * @param nPlusOneThreshold 同一条语句执行到这个次数时记为N+1嫌疑（只记一次）
+     */
+    void statement(String statementId, int nPlusOneThreshold) {
+        statements++;
+        int count = perStatement.merge(statementId, 1, Integer::sum);
+        if (count == nPlusOneThreshold) {
+            nPlusOneSuspects.add(statementId);
+        }
+    }
+
+    void roundTrips(int count) {
+        roundTrips += count;
+    }
+
+    void rows(long count) {
+        rows += count;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getRoundTrips() {
+        return roundTrips;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public Map<String, Integer> getPerStatement() {
+        return perStatement;
+    }
+
+    void batched(String statementId) {
+        batchedStatements.add(statementId);
+    }
+
+    public List<String> getNPlusOneSuspects() {
+        if (batchedStatements.isEmpty()) {
+            return nPlusOneSuspects;
+        }
+        List<String> suspects = new ArrayList<>(nPlusOneSuspects);
+        suspects.removeAll(batchedStatements);
+        return suspects;
+    }
+
+    /**
+     * 如"语句5条，往返9次，行5 [AccountDao.outMoney×1, TransferLogDao.insert×3]"
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("语句").append(statements).append("条，往返").append(roundTrips).append("次，行").append(rows);
+        if (!perStatement.isEmpty()) {
+            sb.append(" [");
+            boolean first = true;
+            for (Map.Entry<String, Integer> entry : perStatement.entrySet()) {
+                if (!first) {
+                    sb.append(", ");
+                }
+                sb.append(shortName(entry.getKey())).append("×").append(entry.getValue());
+                first = false;
+            }
+            sb.append("]");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * com.coder.dao.AccountDao.outMoney -> AccountDao.outMoney
+     */
+    static String shortName(String statementId) {
+        int method = statementId.lastIndexOf('.');
+        int type = method > 0 ? statementId.lastIndexOf('.', method - 1) : -1;
+        return type >= 0 ? statementId.substring(type + 1) : statementId;
+    }
+}
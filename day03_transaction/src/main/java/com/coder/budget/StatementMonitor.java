@@ -0,0 +1,193 @@
+package com.coder.budget;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * 语句监控 - 按事务和按@StatementBudget方法统计语句数、往返次数和行数
+ *
+ * 两种统计范围同时生效：
+ * - 事务：第一次执行语句时向当前事务注册一个TransactionCounter（TransactionSynchronization），
+ *   事务结束时输出统计。REQUIRES_NEW开启的新事务会挂起外层事务的同步器，所以各自独立计数
+ * - 预算：StatementBudgetAspect进入@StatementBudget方法时压入一个BudgetScope，
+ *   方法内的所有语句（包括REQUIRES_NEW事务中的）都计入，嵌套的预算方法同时计入外层
+ *
+ * 超出预算时：
+ * - 默认只在方法结束时输出警告
+ * - 严格模式（budget.strict=true，测试中用-Dbudget.strict=true开启）在执行超出预算的那条语句之前
+ *   抛出StatementBudgetExceededException，语句不会执行，所在事务回滚
+ *
+ * N+1检测：同一条Mapper语句在一个事务或预算方法内执行达到n-plus-one-threshold次时，
+ * 结束时输出"N+1嫌疑"，通常意味着循环里逐条查询/更新，应改为批量语句或IN查询；
+ * 经BATCH执行器执行的语句多次调用也只有少数几次往返，不报告
+ */
+public class StatementMonitor {
+
+    /**
+     * 一次@StatementBudget方法调用
+     */
+    public static final class BudgetScope extends StatementCounter {
+        private final int max;
+
+        BudgetScope(String name, int max) {
+            super(name);
+            this.max = max;
+        }
+
+        public int getMax() {
+            return max;
+        }
+    }
+
+    /**
+     * 一个事务内的统计，事务结束时输出
+     */
+    private final class TransactionCounter extends StatementCounter implements TransactionSynchronization {
+
+        TransactionCounter(String name) {
+            super(name);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            // 提交或回滚本身也是一次往返，同时计入所在的预算方法
+            roundTrips(1);
+            for (BudgetScope scope : scopes.get()) {
+                scope.roundTrips(1);
+            }
+            if (reportTransactions) {
+                System.out.println("【语句统计】事务" + getName() + (status == STATUS_COMMITTED ? "提交" : "回滚")
+                        + "：" + summary());
+            }
+            reportNPlusOne(this);
+        }
+    }
+
+    private final ThreadLocal<Deque<BudgetScope>> scopes = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final boolean strict;
+
+    private final int nPlusOneThreshold;
+
+    private final boolean reportTransactions;
+
+    /**
+     * @param strict             超出预算时抛出异常（否则只警告）
+     * @param nPlusOneThreshold  同一条语句执行多少次记为N+1嫌疑
+     * @param reportTransactions 每个事务结束时输出统计
+     */
+    public StatementMonitor(boolean strict, int nPlusOneThreshold, boolean reportTransactions) {
+        this.strict = strict;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.reportTransactions = reportTransactions;
+    }
+
+    /**
+     * 即将执行一条Mapper语句
+     *
+     * @throws StatementBudgetExceededException 严格模式下超出预算
+     */
+    void beforeStatement(String statementId) {
+        if (strict) {
+            for (BudgetScope scope : scopes.get()) {
+                if (scope.getStatements() >= scope.max) {
+                    throw new StatementBudgetExceededException(scope.getName() + "的语句预算为" + scope.max
+                            + "条，即将执行第" + (scope.getStatements() + 1) + "条："
+                            + StatementCounter.shortName(statementId) + "（已执行：" + scope.summary() + "）");
+                }
+            }
+        }
+        forEachCounter(counter -> counter.statement(statementId, nPlusOneThreshold));
+    }
+
+    /**
+     * 语句执行完成，update为影响行数，query为返回行数
+     */
+    void afterStatement(long rows) {
+        forEachCounter(counter -> counter.rows(rows));
+    }
+
+    /**
+     * 语句由BATCH执行器加入了批次，还没有执行：行数在flushStatements时由afterStatement记录，
+     * 也不计入N+1嫌疑
+     */
+    void batchedStatement(String statementId) {
+        forEachCounter(counter -> counter.batched(statementId));
+    }
+
+    /**
+     * 实际发往数据库的JDBC执行
+     */
+    void roundTrips(int count) {
+        forEachCounter(counter -> counter.roundTrips(count));
+    }
+
+    /**
+     * 当前线程上需要计数的范围：所有预算方法 + 当前事务
+     */
+    private void forEachCounter(Consumer<StatementCounter> action) {
+        for (BudgetScope scope : scopes.get()) {
+            action.accept(scope);
+        }
+        StatementCounter transaction = currentTransaction();
+        if (transaction != null) {
+            action.accept(transaction);
+        }
+    }
+
+    private StatementCounter currentTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        // 同步器列表只包含当前事务的（外层事务的已被挂起），找到本事务的计数器
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof TransactionCounter) {
+                return (TransactionCounter) synchronization;
+            }
+        }
+        // 事务名为"全限定类名.方法名"，只保留"类名.方法名"
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        TransactionCounter counter = new TransactionCounter(name == null ? "(未命名)" : StatementCounter.shortName(name));
+        TransactionSynchronizationManager.registerSynchronization(counter);
+        return counter;
+    }
+
+    /**
+     * 进入@StatementBudget方法
+     */
+    public BudgetScope enter(String name, int max) {
+        BudgetScope scope = new BudgetScope(name, max);
+        scopes.get().push(scope);
+        return scope;
+    }
+
+    /**
+     * 离开@StatementBudget方法，超出预算时输出警告
+     */
+    public void exit(BudgetScope scope) {
+        Deque<BudgetScope> stack = scopes.get();
+        stack.remove(scope);
+        if (stack.isEmpty()) {
+            scopes.remove();
+        }
+        if (scope.getStatements() > scope.max) {
+            System.out.println("【语句预算】" + scope.getName() + "超出预算：预算" + scope.max + "条，实际" + scope.summary());
+        }
+        reportNPlusOne(scope);
+    }
+
+    private void reportNPlusOne(StatementCounter counter) {
+        for (String statementId : counter.getNPlusOneSuspects()) {
+            System.out.println("【N+1嫌疑】" + StatementCounter.shortName(statementId) + "在" + counter.getName()
+                    + "中执行了" + counter.getPerStatement().get(statementId) + "次，考虑改为批量语句或IN查询");
+        }
+    }
+
+    public boolean isStrict() {
+        return strict;
+    }
+}
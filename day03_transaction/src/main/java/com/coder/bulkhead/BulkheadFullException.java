@@ -0,0 +1,14 @@
+package com.coder.bulkhead;
+
+/**
+ * 舱壁拒绝异常
+ *
+ * 排队已满、等待超时或等待期间线程被中断时抛出
+ * 继承RuntimeException：在@Transactional方法外层抛出，事务根本不会开启，也就不会占用连接
+ */
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
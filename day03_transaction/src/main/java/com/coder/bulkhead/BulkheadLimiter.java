@@ -0,0 +1,171 @@
+package com.coder.bulkhead;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 舱壁许可计数器（公平、无锁）
+ *
+ * 工作方式：
+ * 1. 快速路径：没有线程在排队并且还有空闲许可时，直接CAS占用一个许可，不加锁、不入队
+ * 2. 排队路径：许可用完后进入FIFO等待队列（ConcurrentLinkedQueue），队列长度超过maxQueue直接拒绝
+ * 3. 释放许可时，由释放线程把许可"直接交给"队头的等待线程，而不是放回计数器让大家去抢
+ *    这样后来的线程不会插队，排队的线程按先来后到获得许可（公平）
+ * 4. 等待超时或被中断的线程把自己标记为CANCELLED，之后即使被分配到许可也会归还
+ *
+ * 统计指标：当前执行数（active）、当前排队数（queued）、累计拒绝数（rejected）
+ */
+public class BulkheadLimiter {
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int CANCELLED = 2;
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    public BulkheadLimiter(String name, int maxConcurrent, int maxQueue, long maxWaitMillis) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("舱壁[" + name + "]的maxConcurrent必须大于0");
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = Math.max(0, maxQueue);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    }
+
+    /**
+     * 获取许可，获取不到时抛出BulkheadFullException
+     * 获取成功后必须在finally中调用release()
+     */
+    public void acquire() {
+        // 快速路径：只有队列为空时才允许直接抢许可，保证不插队
+        if (waiters.isEmpty() && tryAcquirePermit()) {
+            return;
+        }
+        if (queued.incrementAndGet() > maxQueue) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw new BulkheadFullException("舱壁[" + name + "]排队已满（maxQueue=" + maxQueue + "）");
+        }
+        Waiter waiter = new Waiter(Thread.currentThread());
+        waiters.offer(waiter);
+        try {
+            // 入队前后可能恰好有许可被释放，此时释放线程看到的是空队列，这里主动分配一次避免丢失唤醒
+            dispatch();
+            awaitGrant(waiter);
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * 归还许可，并把它交给下一个等待者
+     */
+    public void release() {
+        active.decrementAndGet();
+        dispatch();
+    }
+
+    private void awaitGrant(Waiter waiter) {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (waiter.state.get() == WAITING) {
+            long remaining = deadline - System.nanoTime();
+            boolean interrupted = Thread.interrupted();
+            if (remaining <= 0 || interrupted) {
+                if (waiter.state.compareAndSet(WAITING, CANCELLED)) {
+                    waiters.remove(waiter);
+                    rejected.increment();
+                    if (interrupted) {
+                        Thread.currentThread().interrupt();
+                        throw new BulkheadFullException("舱壁[" + name + "]等待许可时线程被中断");
+                    }
+                    throw new BulkheadFullException("舱壁[" + name + "]等待许可超时（"
+                            + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + "ms）");
+                }
+                // CAS失败说明在超时的同一时刻已经被分配了许可，按获取成功处理
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+
+    /**
+     * 只要队列中有等待者并且还有空闲许可，就把许可逐个交给队头
+     */
+    private void dispatch() {
+        while (!waiters.isEmpty() && tryAcquirePermit()) {
+            Waiter next = waiters.poll();
+            if (next != null && next.state.compareAndSet(WAITING, GRANTED)) {
+                LockSupport.unpark(next.thread);
+            } else {
+                // 队列被其他线程取空，或者队头已取消：许可没有交出去，归还后继续循环
+                active.decrementAndGet();
+            }
+        }
+    }
+
+    private boolean tryAcquirePermit() {
+        for (;;) {
+            int current = active.get();
+            if (current >= maxConcurrent) {
+                return false;
+            }
+            if (active.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxQueue() {
+        return maxQueue;
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s active=%d/%d queued=%d/%d rejected=%d",
+                name, getActive(), maxConcurrent, getQueued(), maxQueue, getRejected());
+    }
+
+    private static final class Waiter {
+        final Thread thread;
+        final AtomicInteger state = new AtomicInteger(WAITING);
+
+        Waiter(Thread thread) {
+            this.thread = thread;
+        }
+    }
+}
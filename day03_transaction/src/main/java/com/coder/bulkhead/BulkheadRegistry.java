@@ -0,0 +1,83 @@
+package com.coder.bulkhead;
+
+import com.coder.aop.Bulkhead;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 舱壁注册中心
+ *
+ * - 按分组名保存BulkheadLimiter，同一分组的方法共用一组许可
+ * - 分组第一次使用时创建，参数优先读取配置文件，没有配置时使用@Bulkhead注解上的值
+ * - 容器关闭时打印各分组的统计信息
+ */
+@Component
+public class BulkheadRegistry implements DisposableBean {
+
+    private final Environment environment;
+
+    private final ConcurrentMap<String, BulkheadLimiter> limiters = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, BulkheadLimiter>> methodCache =
+            new ConcurrentHashMap<>();
+
+    public BulkheadRegistry(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * 获取方法对应的舱壁，结果按"目标类 + 方法"缓存
+     *
+     * @param method      被调用的方法（JDK代理时是接口方法）
+     * @param targetClass 目标类，@Bulkhead标注在它的方法上
+     */
+    public BulkheadLimiter limiter(Method method, Class<?> targetClass) {
+        ConcurrentMap<Method, BulkheadLimiter> byMethod = methodCache.get(targetClass);
+        if (byMethod == null) {
+            byMethod = methodCache.computeIfAbsent(targetClass, c -> new ConcurrentHashMap<>());
+        }
+        BulkheadLimiter limiter = byMethod.get(method);
+        if (limiter == null) {
+            limiter = byMethod.computeIfAbsent(method, m -> {
+                Method specific = AopUtils.getMostSpecificMethod(m, targetClass);
+                Bulkhead bulkhead = AnnotationUtils.findAnnotation(specific, Bulkhead.class);
+                String group = bulkhead.value().isEmpty()
+                        ? targetClass.getSimpleName() + "." + m.getName()
+                        : bulkhead.value();
+                return limiters.computeIfAbsent(group, g -> create(g, bulkhead));
+            });
+        }
+        return limiter;
+    }
+
+    private BulkheadLimiter create(String group, Bulkhead bulkhead) {
+        String prefix = "bulkhead." + group + ".";
+        int maxConcurrent = environment.getProperty(prefix + "max-concurrent", Integer.class, bulkhead.maxConcurrent());
+        int maxQueue = environment.getProperty(prefix + "max-queue", Integer.class, bulkhead.maxQueue());
+        long maxWaitMillis = environment.getProperty(prefix + "max-wait-millis", Long.class, bulkhead.maxWaitMillis());
+        return new BulkheadLimiter(group, maxConcurrent, maxQueue, maxWaitMillis);
+    }
+
+    /**
+     * 所有分组的舱壁，用于查看active/queued/rejected指标
+     */
+    public List<BulkheadLimiter> getLimiters() {
+        return new ArrayList<>(limiters.values());
+    }
+
+    @Override
+    public void destroy() {
+        for (BulkheadLimiter limiter : limiters.values()) {
+            System.out.println("【舱壁统计】" + limiter);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.coder.config;
+
+import com.coder.account.AccountFilterReloader;
+import com.coder.account.AccountIdResolver;
+import com.coder.account.AccountNameFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 账户名布隆过滤器配置类（配置见account-filter.properties）
+ *
+ * 过滤器由AccountIdResolver在加载账户时建立，AccountCheckAspect和AccountIdResolver用它提前拒绝不存在的账户；
+ * AccountFilterReloader定期重新加载，使其他节点新开的账户能够通过
+ *
+ * 注意：此类不需要加@Configuration注解，因为它会被SpringConfig通过@Import导入
+ */
+public class AccountFilterConfig {
+
+    /**
+     * @param enabled           是否启用
+     * @param expectedAccounts  预计账户数
+     * @param falsePositiveRate 误判率
+     */
+    @Bean
+    public AccountNameFilter accountNameFilter(@Value("${account.filter.enabled}") boolean enabled,
+                                               @Value("${account.filter.expected-accounts}") int expectedAccounts,
+                                               @Value("${account.filter.false-positive-rate}") double falsePositiveRate) {
+        return new AccountNameFilter(enabled, expectedAccounts, falsePositiveRate);
+    }
+
+    /**
+     * @param reloadSeconds 重新加载账户的间隔（秒），0表示不重新加载；过滤器关闭时也不启动
+     */
+    @Bean
+    public AccountFilterReloader accountFilterReloader(AccountIdResolver accountIdResolver,
+                                                       @Value("${account.filter.enabled}") boolean enabled,
+                                                       @Value("${account.filter.reload-seconds}") long reloadSeconds) {
+        AccountFilterReloader reloader = new AccountFilterReloader(accountIdResolver);
+        if (enabled && reloadSeconds > 0) {
+            reloader.start(reloadSeconds);
+        }
+        return reloader;
+    }
+}
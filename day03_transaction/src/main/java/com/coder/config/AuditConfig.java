@@ -0,0 +1,47 @@
+package com.coder.config;
+
+import com.coder.audit.CompactTransferAudit;
+import com.coder.audit.RowsTransferAudit;
+import com.coder.audit.TransferAudit;
+import com.coder.dao.TransferAuditDao;
+import com.coder.service.TransferLogService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * 转账审计配置类（配置见audit.properties）
+ *
+ * - audit.mode=rows：RowsTransferAudit，每个步骤向transfer_log插入一行
+ * - audit.mode=compact：CompactTransferAudit，每笔转账在transfer_audit中一行，按主键更新状态
+ *
+ * 注意：此类不需要加@Configuration注解，因为它会被SpringConfig通过@Import导入
+ */
+public class AuditConfig {
+
+    static final String MODE_ROWS = "rows";
+
+    static final String MODE_COMPACT = "compact";
+
+    @Bean
+    public TransferAudit transferAudit(@Value("${audit.mode}") String mode, TransferLogService transferLogService,
+                                       TransferAuditDao transferAuditDao, PlatformTransactionManager transactionManager) {
+        return createTransferAudit(mode, transferLogService, transferAuditDao, transactionManager);
+    }
+
+    /**
+     * 与FunctionalBootstrap共用的选择逻辑
+     */
+    static TransferAudit createTransferAudit(String mode, TransferLogService transferLogService,
+                                             TransferAuditDao transferAuditDao,
+                                             PlatformTransactionManager transactionManager) {
+        switch (mode) {
+            case MODE_ROWS:
+                return new RowsTransferAudit(transferLogService);
+            case MODE_COMPACT:
+                return new CompactTransferAudit(transferAuditDao, transactionManager);
+            default:
+                throw new IllegalArgumentException("audit.mode只能是rows或compact：" + mode);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.coder.config;
+
+import com.coder.budget.StatementBudgetInterceptor;
+import com.coder.budget.StatementMonitor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 语句预算配置类
+ *
+ * - StatementMonitor：按事务和按@StatementBudget方法统计语句数、往返次数、行数，检测N+1
+ * - StatementBudgetInterceptor：由MybatisConfig注册为MyBatis插件，向StatementMonitor报告每条语句
+ * - StatementBudgetAspect（com.coder.aop，组件扫描注册）：处理@StatementBudget
+ *
+ * 注意：此类不需要加@Configuration注解，因为它会被SpringConfig通过@Import导入
+ */
+public class BudgetConfig {
+
+    /**
+     * @param strict             超出预算时抛出异常，测试中用-Dbudget.strict=true开启（系统属性优先于配置文件）
+     * @param nPlusOneThreshold  同一条语句在一个事务内执行多少次记为N+1嫌疑
+     * @param reportTransactions 每个事务结束时输出语句统计
+     */
+    @Bean
+    public StatementMonitor statementMonitor(@Value("${budget.strict}") boolean strict,
+                                             @Value("${budget.n-plus-one-threshold}") int nPlusOneThreshold,
+                                             @Value("${budget.report-transactions}") boolean reportTransactions) {
+        return new StatementMonitor(strict, nPlusOneThreshold, reportTransactions);
+    }
+
+    @Bean
+    public StatementBudgetInterceptor statementBudgetInterceptor(StatementMonitor statementMonitor) {
+        return new StatementBudgetInterceptor(statementMonitor);
+    }
+}
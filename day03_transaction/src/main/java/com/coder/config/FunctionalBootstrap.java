@@ -0,0 +1,502 @@
+package com.coder.config;
+
+import com.alibaba.druid.filter.stat.StatFilter;
+import com.alibaba.druid.pool.DruidDataSource;
+import com.coder.account.AccountFilterReloader;
+import com.coder.account.AccountIdResolver;
+import com.coder.account.AccountNameFilter;
+import com.coder.aop.AccountCheckAspect;
+import com.coder.aop.BatchedAspect;
+import com.coder.aop.BulkheadAspect;
+import com.coder.aop.StatementBudgetAspect;
+import com.coder.aop.TracingAspect;
+import com.coder.audit.TransferAudit;
+import com.coder.budget.StatementBudgetInterceptor;
+import com.coder.budget.StatementMonitor;
+import com.coder.bulkhead.BulkheadRegistry;
+import com.coder.dao.AccountDao;
+import com.coder.dao.IngestDao;
+import com.coder.dao.LedgerDao;
+import com.coder.dao.ReconcileDao;
+import com.coder.dao.ScheduleDao;
+import com.coder.dao.TransferAuditDao;
+import com.coder.dao.TransferLogDao;
+import com.coder.domain.Account;
+import com.coder.domain.AccountDelta;
+import com.coder.domain.IngestCheckpoint;
+import com.coder.domain.ReconcileAccount;
+import com.coder.domain.ReconcileCheckpoint;
+import com.coder.domain.ReconcileDiscrepancy;
+import com.coder.domain.ScheduledTransfer;
+import com.coder.domain.TransferAuditRecord;
+import com.coder.domain.TransferLog;
+import com.coder.domain.TransferLogPage;
+import com.coder.domain.TransferLogQuery;
+import com.coder.hot.HotAccountInterceptor;
+import com.coder.hot.HotAccountTracker;
+import com.coder.id.SnowflakeIdGenerator;
+import com.coder.ingest.TransferFileIngester;
+import com.coder.lane.TransferLanes;
+import com.coder.ledger.BalanceStore;
+import com.coder.ledger.LedgerCompactor;
+import com.coder.reconcile.Reconciler;
+import com.coder.schedule.TransferScheduler;
+import com.coder.service.AccountService;
+import com.coder.service.TransferLogService;
+import com.coder.service.impl.AccountServiceImpl;
+import com.coder.service.impl.TransferLogServiceImpl;
+import com.coder.stat.RollingFileStatLogger;
+import com.coder.stat.SqlStats;
+import com.coder.trace.Tracer;
+import com.coder.trace.TracingDruidFilter;
+import com.coder.trace.TracingMybatisInterceptor;
+import com.coder.trace.TracingTransactionManager;
+import com.coder.trace.ZipkinFileExporter;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.springframework.aop.aspectj.annotation.AnnotationAwareAspectJAutoProxyCreator;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionCustomizer;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.jmx.export.annotation.AnnotationMBeanExporter;
+import org.springframework.jmx.support.RegistrationPolicy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.BeanFactoryTransactionAttributeSourceAdvisor;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 函数式注册启动方式 - SpringConfig的"免扫描"版本
+ *
+ * 注解方式启动时，容器需要：
+ * - 扫描com.coder包下所有class文件，逐个解析注解（@ComponentScan）
+ * - 用CGLIB为SpringConfig生成子类（@Configuration代理），解析@Import、@Bean、@PropertySource
+ * - MapperScannerConfigurer再扫描一次com.coder.dao，SqlSessionFactoryBean扫描类型别名包
+ * - 处理@Autowired时反射查找每个类的注解字段
+ * 这些都发生在每次JVM启动时，短生命周期的批处理JVM上占了运行时间的大头
+ *
+ * 这里用GenericApplicationContext.registerBean(名称, 类型, Supplier)逐个登记Bean：
+ * - Bean由Supplier直接new出来，依赖通过构造方法/setter传入，不需要任何注解处理器
+ * - MyBatis的Configuration手动构建，addMapper在启动时就登记好全部Mapper，不做包扫描
+ * - Mapper对象直接从SqlSessionTemplate获取，与MapperFactoryBean创建的代理行为一致（使用Spring管理的事务）
+ *
+ * 注册的Bean与注解方式一一对应（只有AccountServiceImplWithError不注册，它只用于异常演示），
+ * @Transactional、@Bulkhead、@Batched和链路追踪仍然生效：
+ * - 事务：手动登记AnnotationTransactionAttributeSource、TransactionInterceptor及其Advisor
+ * - 切面：登记AnnotationAwareAspectJAutoProxyCreator，它只检查已登记的Bean，不扫描类路径
+ * - SQL统计：StatFilter、统计日志，以及导出SqlStats的AnnotationMBeanExporter（对应@EnableMBeanExport）
+ * - 语句预算：StatementMonitor及其MyBatis插件，@StatementBudget由登记的StatementBudgetAspect处理
+ * - 余额存储：按ledger.mode选择的BalanceStore和账本压缩任务
+ * - 对账：Reconciler
+ * - 转账通道：TransferLanes
+ * - 账户名布隆过滤器：AccountNameFilter及其定期重新加载任务，@CheckAccounts由登记的AccountCheckAspect处理
+ * - 转账审计：按audit.mode选择的TransferAudit
+ * - 批量导入：TransferFileIngester
+ * - 定时转账：TransferScheduler
+ * - ID生成：transfer_log的主键生成器SnowflakeIdGenerator
+ * - 热点账户：HotAccountTracker及其MyBatis插件，由上面的AnnotationMBeanExporter导出到JMX
+ *
+ * 使用方式：
+ * <pre>
+ * GenericApplicationContext ctx = FunctionalBootstrap.create();
+ * AccountService accountService = ctx.getBean(AccountService.class);
+ * </pre>
+ */
+public final class FunctionalBootstrap {
+
+    /** 与SpringConfig上@PropertySource加载的配置文件相同 */
+    private static final String[] PROPERTY_FILES = {
+            "classpath:jdbc.properties", "classpath:bulkhead.properties", "classpath:trace.properties",
+            "classpath:stat.properties", "classpath:budget.properties", "classpath:ledger.properties",
+            "classpath:reconcile.properties", "classpath:lanes.properties", "classpath:account-filter.properties",
+            "classpath:audit.properties", "classpath:ingest.properties", "classpath:schedule.properties",
+            "classpath:id.properties", "classpath:hot.properties"
+    };
+
+    /** 基础设施Bean（事务拦截器、代理创建器等），不参与业务Bean的自动代理 */
+    private static final BeanDefinitionCustomizer INFRASTRUCTURE =
+            bd -> bd.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+
+    private FunctionalBootstrap() {
+    }
+
+    /**
+     * 创建并刷新容器
+     */
+    public static GenericApplicationContext create() {
+        GenericApplicationContext ctx = new GenericApplicationContext();
+        loadProperties(ctx.getEnvironment());
+        registerTracing(ctx);
+        registerStats(ctx);
+        registerBudget(ctx);
+        registerHotAccounts(ctx);
+        registerDataAccess(ctx);
+        registerLedger(ctx);
+        registerReconcile(ctx);
+        registerIds(ctx);
+        registerServices(ctx);
+        registerLanes(ctx);
+        registerIngest(ctx);
+        registerSchedule(ctx);
+        registerAop(ctx);
+        ctx.refresh();
+        return ctx;
+    }
+
+    private static void loadProperties(ConfigurableEnvironment environment) {
+        try {
+            for (String location : PROPERTY_FILES) {
+                environment.getPropertySources().addLast(new ResourcePropertySource(location));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("加载配置文件失败", e);
+        }
+    }
+
+    /**
+     * 对应TraceConfig
+     */
+    private static void registerTracing(GenericApplicationContext ctx) {
+        ConfigurableEnvironment env = ctx.getEnvironment();
+        ctx.registerBean("zipkinFileExporter", ZipkinFileExporter.class, () -> new ZipkinFileExporter(
+                env.getRequiredProperty("trace.output-file"),
+                env.getRequiredProperty("trace.service-name"),
+                env.getRequiredProperty("trace.queue-capacity", Integer.class)));
+        ctx.registerBean("tracer", Tracer.class, () -> new Tracer(
+                env.getRequiredProperty("trace.sample-rate", Double.class),
+                ctx.getBean(ZipkinFileExporter.class)));
+        ctx.registerBean("tracingDruidFilter", TracingDruidFilter.class,
+                () -> new TracingDruidFilter(ctx.getBean(Tracer.class)));
+        ctx.registerBean("tracingMybatisInterceptor", TracingMybatisInterceptor.class,
+                () -> new TracingMybatisInterceptor(ctx.getBean(Tracer.class)));
+    }
+
+    /**
+     * 对应StatConfig
+     */
+    private static void registerStats(GenericApplicationContext ctx) {
+        ConfigurableEnvironment env = ctx.getEnvironment();
+        ctx.registerBean("statFilter", StatFilter.class, () -> {
+            StatFilter statFilter = new StatFilter();
+            statFilter.setMergeSql(env.getRequiredProperty("stat.merge-sql", Boolean.class));
+            statFilter.setSlowSqlMillis(env.getRequiredProperty("stat.slow-sql-millis", Long.class));
+            statFilter.setLogSlowSql(env.getRequiredProperty("stat.log-slow-sql", Boolean.class));
+            return statFilter;
+        });
+        ctx.registerBean("statLogger", RollingFileStatLogger.class, () -> new RollingFileStatLogger(
+                env.getRequiredProperty("stat.dump-file"),
+                env.getRequiredProperty("stat.dump-max-file-size-mb", Long.class) * 1024 * 1024,
+                env.getRequiredProperty("stat.dump-max-files", Integer.class),
+                env.getRequiredProperty("stat.dump-interval-seconds", Long.class) * 1000,
+                env.getRequiredProperty("stat.slow-sql-millis", Long.class)));
+        ctx.registerBean("sqlStats", SqlStats.class, () -> new SqlStats(
+                (DruidDataSource) ctx.getBean(DataSource.class), ctx.getBean(RollingFileStatLogger.class)));
+        ctx.registerBean("mbeanExporter", AnnotationMBeanExporter.class, () -> {
+            AnnotationMBeanExporter exporter = new AnnotationMBeanExporter();
+            exporter.setRegistrationPolicy(RegistrationPolicy.IGNORE_EXISTING);
+            return exporter;
+        }, INFRASTRUCTURE);
+    }
+
+    /**
+     * 对应BudgetConfig
+     */
+    private static void registerBudget(GenericApplicationContext ctx) {
+        ConfigurableEnvironment env = ctx.getEnvironment();
+        ctx.registerBean("statementMonitor", StatementMonitor.class, () -> new StatementMonitor(
+                env.getRequiredProperty("budget.strict", Boolean.class),
+                env.getRequiredProperty("budget.n-plus-one-threshold", Integer.class),
+                env.getRequiredProperty("budget.report-transactions", Boolean.class)));
+        ctx.registerBean("statementBudgetInterceptor", StatementBudgetInterceptor.class,
+                () -> new StatementBudgetInterceptor(ctx.getBean(StatementMonitor.class)));
+    }
+
+    /**
+     * 对应HotAccountConfig
+     */
+    private static void registerHotAccounts(GenericApplicationContext ctx) {
+        ConfigurableEnvironment env = ctx.getEnvironment();
+        ctx.registerBean("hotAccountTracker", HotAccountTracker.class, () -> {
+            HotAccountTracker tracker = new HotAccountTracker(
+                    env.getRequiredProperty("hot.enabled", Boolean.class),
+                    env.getRequiredProperty("hot.width", Integer.class),
+                    env.getRequiredProperty("hot.depth", Integer.class),
+                    env.getRequiredProperty("hot.top-k", Integer.class),
+                    env.getRequiredProperty("hot.report-n", Integer.class),
+                    env.getRequiredProperty("hot.window-seconds", Long.class),
+                    env.getRequiredProperty("hot.log", Boolean.class));
+            tracker.start();
+            return tracker;
+        });
+        ctx.registerBean("hotAccountInterceptor", HotAccountInterceptor.class,
+                () -> new HotAccountInterceptor(ctx.getBean(HotAccountTracker.class)));
+    }
+
+    /**
+     * 对应JdbcConfig、MybatisConfig和MapperScannerConfigurer扫描出的Mapper
+     */
+    private static void registerDataAccess(GenericApplicationContext ctx) {
+        ConfigurableEnvironment env = ctx.getEnvironment();
+        ctx.registerBean("dataSource", DataSource.class, () -> {
+            DruidDataSource ds = new DruidDataSource();
+            ds.setDriverClassName(env.getRequiredProperty("jdbc.driver"));
+            ds.setUrl(env.getRequiredProperty("jdbc.url"));
+            ds.setUsername(env.getRequiredProperty("jdbc.username"));
+            ds.setPassword(env.getRequiredProperty("jdbc.password"));
+            ds.setProxyFilters(Arrays.asList(ctx.getBean(TracingDruidFilter.class), ctx.getBean(StatFilter.class)));
+            RollingFileStatLogger statLogger = ctx.getBean(RollingFileStatLogger.class);
+            ds.setStatLogger(statLogger);
+            ds.setTimeBetweenLogStatsMillis(statLogger.getIntervalMillis());
+            return ds;
+        }, bd -> bd.setDestroyMethodName("close"));
+
+        ctx.registerBean("transactionManager", PlatformTransactionManager.class, () -> {
+            TracingTransactionManager transactionManager = new TracingTransactionManager(ctx.getBean(Tracer.class));
+            transactionManager.setDataSource(ctx.getBean(DataSource.class));
+            return transactionManager;
+        });
+
+        ctx.registerBean("sqlSessionFactory", SqlSessionFactory.class, () -> {
+            // SpringManagedTransactionFactory：MyBatis从Spring事务同步管理器中获取当前事务的连接
+            Environment environment = new Environment("functional",
+                    new SpringManagedTransactionFactory(), ctx.getBean(DataSource.class));
+            Configuration configuration = new Configuration(environment);
+            // 替代setTypeAliasesPackage("com.coder.domain")的包扫描
+            configuration.getTypeAliasRegistry().registerAlias(Account.class);
+            configuration.getTypeAliasRegistry().registerAlias(TransferLog.class);
+            configuration.getTypeAliasRegistry().registerAlias(AccountDelta.class);
+            configuration.getTypeAliasRegistry().registerAlias(ReconcileAccount.class);
+            configuration.getTypeAliasRegistry().registerAlias(ReconcileCheckpoint.class);
+            configuration.getTypeAliasRegistry().registerAlias(ReconcileDiscrepancy.class);
+            configuration.getTypeAliasRegistry().registerAlias(TransferLogQuery.class);
+            configuration.getTypeAliasRegistry().registerAlias(TransferLogPage.class);
+            configuration.getTypeAliasRegistry().registerAlias(TransferAuditRecord.class);
+            configuration.getTypeAliasRegistry().registerAlias(IngestCheckpoint.class);
+            configuration.getTypeAliasRegistry().registerAlias(ScheduledTransfer.class);
+            // 替代MapperScannerConfigurer的包扫描：直接登记Mapper接口，启动时解析其中的SQL注解
+            configuration.addMapper(AccountDao.class);
+            configuration.addMapper(TransferLogDao.class);
+            configuration.addMapper(LedgerDao.class);
+            configuration.addMapper(ReconcileDao.class);
+            configuration.addMapper(TransferAuditDao.class);
+            configuration.addMapper(IngestDao.class);
+            configuration.addMapper(ScheduleDao.class);
+            configuration.addInterceptor(ctx.getBean(TracingMybatisInterceptor.class));
+            configuration.addInterceptor(ctx.getBean(StatementBudgetInterceptor.class));
+            configuration.addInterceptor(ctx.getBean(HotAccountInterceptor.class));
+            return new SqlSessionFactoryBuilder().build(configuration);
+        });
+
+        ctx.registerBean("sqlSessionTemplate", SqlSessionTemplate.class,
+                () -> new SqlSessionTemplate(ctx.getBean(SqlSessionFactory.class)));
+        ctx.registerBean("accountDao", AccountDao.class,
+                () -> ctx.getBean(SqlSessionTemplate.class).getMapper(AccountDao.class));
+        ctx.registerBean("transferLogDao", TransferLogDao.class,
+                () -> ctx.getBean(SqlSessionTemplate.class).getMapper(TransferLogDao.class));
+        ctx.registerBean("ledgerDao", LedgerDao.class,
+                () -> ctx.getBean(SqlSessionTemplate.class).getMapper(LedgerDao.class));
+        ctx.registerBean("reconcileDao", ReconcileDao.class,
+                () -> ctx.getBean(SqlSessionTemplate.class).getMapper(ReconcileDao.class));
+        ctx.registerBean("transferAuditDao", TransferAuditDao.class,
+                () -> ctx.getBean(SqlSessionTemplate.class).getMapper(TransferAuditDao.class));
+        ctx.registerBean("ingestDao", IngestDao.class,
+                () -> ctx.getBean(SqlSessionTemplate.class).getMapper(IngestDao.class));
+        ctx.registerBean("scheduleDao", ScheduleDao.class,
+                () -> ctx.getBean(SqlSessionTemplate.class).getMapper(ScheduleDao.class));
+    }
+
+    /**
+     * 对应LedgerConfig
+     */
+    private static void registerLedger(GenericApplicationContext ctx) {
+        ConfigurableEnvironment env = ctx.getEnvironment();
+        String mode = env.getRequiredProperty("ledger.mode");
+        ctx.registerBean("balanceStore", BalanceStore.class, () -> LedgerConfig.createBalanceStore(mode,
+                env.getRequiredProperty("ledger.check-balance", Boolean.class),
+                ctx.getBean(AccountDao.class), ctx.getBean(LedgerDao.class)));
+        ctx.registerBean("ledgerCompactor", LedgerCompactor.class, () -> {
+            LedgerCompactor compactor = new LedgerCompactor(ctx.getBean(LedgerDao.class),
+                    env.getRequiredProperty("ledger.compaction-lag-seconds", Long.class));
+            long intervalSeconds = env.getRequiredProperty("ledger.compaction-interval-seconds", Long.class);
+            if (LedgerConfig.MODE_LEDGER.equals(mode) && intervalSeconds > 0) {
+                compactor.start(intervalSeconds);
+            }
+            return compactor;
+        });
+    }
+
+    /**
+     * 对应ReconcileConfig
+     */
+    private static void registerReconcile(GenericApplicationContext ctx) {
+        ConfigurableEnvironment env = ctx.getEnvironment();
+        ctx.registerBean("reconciler", Reconciler.class, () -> new Reconciler(
+                ctx.getBean(ReconcileDao.class), ctx.getBean(BalanceStore.class), ctx.getBean(TransferAudit.class),
+                ctx.getBean(PlatformTransactionManager.class),
+                env.getRequiredProperty("reconcile.range-size", Integer.class),
+                env.getRequiredProperty("reconcile.page-size", Integer.class),
+                env.getRequiredProperty("reconcile.parallelism", Integer.class),
+                env.getRequiredProperty("reconcile.max-pages-per-second", Integer.class),
+                env.getRequiredProperty("reconcile.tolerance", Double.class)));
+    }
+
+    /**
+     * 对应IdConfig
+     */
+    private static void registerIds(GenericApplicationContext ctx) {
+        ConfigurableEnvironment env = ctx.getEnvironment();
+        ctx.registerBean("transferLogIdGenerator", SnowflakeIdGenerator.class, () -> new SnowflakeIdGenerator(
+                env.getRequiredProperty("id.node-id", Integer.class),
+                env.getRequiredProperty("id.max-lead-millis", Long.class)));
+    }
+
+    /**
+     * 对应AccountFilterConfig、AuditConfig、@Service标注的两个业务类和@Component标注的AccountIdResolver（Bean名称与组件扫描生成的相同）
+     */
+    private static void registerServices(GenericApplicationContext ctx) {
+        ConfigurableEnvironment env = ctx.getEnvironment();
+        ctx.registerBean("accountNameFilter", AccountNameFilter.class, () -> new AccountNameFilter(
+                env.getRequiredProperty("account.filter.enabled", Boolean.class),
+                env.getRequiredProperty("account.filter.expected-accounts", Integer.class),
+                env.getRequiredProperty("account.filter.false-positive-rate", Double.class)));
+        ctx.registerBean("accountIdResolver", AccountIdResolver.class,
+                () -> new AccountIdResolver(ctx.getBean(AccountDao.class), ctx.getBean(AccountNameFilter.class)));
+        ctx.registerBean("accountFilterReloader", AccountFilterReloader.class, () -> {
+            AccountFilterReloader reloader = new AccountFilterReloader(ctx.getBean(AccountIdResolver.class));
+            long reloadSeconds = env.getRequiredProperty("account.filter.reload-seconds", Long.class);
+            if (env.getRequiredProperty("account.filter.enabled", Boolean.class) && reloadSeconds > 0) {
+                reloader.start(reloadSeconds);
+            }
+            return reloader;
+        });
+        ctx.registerBean("transferLogServiceImpl", TransferLogServiceImpl.class, () -> {
+            TransferLogServiceImpl service = new TransferLogServiceImpl();
+            service.setTransferLogDao(ctx.getBean(TransferLogDao.class));
+            service.setTransferLogIdGenerator(ctx.getBean(SnowflakeIdGenerator.class));
+            return service;
+        });
+        ctx.registerBean("transferAudit", TransferAudit.class, () -> AuditConfig.createTransferAudit(
+                env.getRequiredProperty("audit.mode"), ctx.getBean(TransferLogService.class),
+                ctx.getBean(TransferAuditDao.class), ctx.getBean(PlatformTransactionManager.class)));
+        ctx.registerBean("accountServiceImpl", AccountServiceImpl.class, () -> {
+            AccountServiceImpl service = new AccountServiceImpl();
+            service.setAccountDao(ctx.getBean(AccountDao.class));
+            service.setTransferLogService(ctx.getBean(TransferLogService.class));
+            service.setAccountIdResolver(ctx.getBean(AccountIdResolver.class));
+            service.setBalanceStore(ctx.getBean(BalanceStore.class));
+            service.setTransferAudit(ctx.getBean(TransferAudit.class));
+            return service;
+        });
+    }
+
+    /**
+     * 对应IngestConfig
+     */
+    private static void registerIngest(GenericApplicationContext ctx) {
+        ConfigurableEnvironment env = ctx.getEnvironment();
+        ctx.registerBean("transferFileIngester", TransferFileIngester.class, () -> new TransferFileIngester(
+                ctx.getBean(AccountIdResolver.class), ctx.getBean(BalanceStore.class),
+                ctx.getBean(SqlSessionFactory.class), ctx.getBean(PlatformTransactionManager.class),
+                env.getRequiredProperty("ingest.chunk-size", Integer.class),
+                env.getRequiredProperty("ingest.validation-threads", Integer.class),
+                env.getRequiredProperty("ingest.map-window-mb", Integer.class) << 20,
+                env.getRequiredProperty("ingest.skip-header", Boolean.class)));
+    }
+
+    /**
+     * 对应ScheduleConfig
+     */
+    private static void registerSchedule(GenericApplicationContext ctx) {
+        ConfigurableEnvironment env = ctx.getEnvironment();
+        ctx.registerBean("transferScheduler", TransferScheduler.class, () -> {
+            TransferScheduler scheduler = new TransferScheduler(ctx.getBean(ScheduleDao.class),
+                    ctx.getBean("accountServiceImpl", AccountService.class), ctx.getBean(AccountIdResolver.class),
+                    ctx.getBean(PlatformTransactionManager.class),
+                    env.getRequiredProperty("schedule.tick-millis", Long.class),
+                    env.getRequiredProperty("schedule.wheel-size", Integer.class),
+                    env.getRequiredProperty("schedule.window-seconds", Long.class),
+                    env.getRequiredProperty("schedule.load-interval-seconds", Long.class),
+                    env.getRequiredProperty("schedule.page-size", Integer.class),
+                    env.getRequiredProperty("schedule.max-in-memory", Integer.class),
+                    env.getRequiredProperty("schedule.execution-threads", Integer.class),
+                    env.getRequiredProperty("schedule.max-batch-size", Integer.class),
+                    env.getRequiredProperty("schedule.max-attempts", Integer.class),
+                    env.getRequiredProperty("schedule.retry-delay-seconds", Long.class));
+            if (env.getRequiredProperty("schedule.enabled", Boolean.class)) {
+                scheduler.start();
+            }
+            return scheduler;
+        });
+    }
+
+    /**
+     * 对应LaneConfig
+     */
+    private static void registerLanes(GenericApplicationContext ctx) {
+        ConfigurableEnvironment env = ctx.getEnvironment();
+        ctx.registerBean("transferLanes", TransferLanes.class, () -> {
+            int maxActive = ((DruidDataSource) ctx.getBean(DataSource.class)).getMaxActive();
+            TransferLanes lanes = new TransferLanes(ctx.getBean(AccountIdResolver.class), ctx.getBean(BalanceStore.class),
+                    ctx.getBean(PlatformTransactionManager.class),
+                    TransferLanes.laneCount(env.getRequiredProperty("lanes.count", Integer.class), maxActive,
+                            env.getRequiredProperty("lanes.reserved-connections", Integer.class)),
+                    env.getRequiredProperty("lanes.queue-capacity", Integer.class),
+                    env.getRequiredProperty("lanes.max-batch-size", Integer.class));
+            if (env.getRequiredProperty("lanes.enabled", Boolean.class)) {
+                lanes.start();
+            }
+            return lanes;
+        });
+    }
+
+    /**
+     * 对应@EnableTransactionManagement、@EnableAspectJAutoProxy和com.coder.aop中的@Component切面
+     */
+    private static void registerAop(GenericApplicationContext ctx) {
+        ctx.registerBean("transactionAttributeSource", TransactionAttributeSource.class,
+                () -> new AnnotationTransactionAttributeSource(), INFRASTRUCTURE);
+        ctx.registerBean("transactionInterceptor", TransactionInterceptor.class, () -> {
+            // 未指定事务管理器时，拦截器在第一次调用时按类型从容器中查找
+            TransactionInterceptor interceptor = new TransactionInterceptor();
+            interceptor.setTransactionAttributeSource(ctx.getBean(TransactionAttributeSource.class));
+            return interceptor;
+        }, INFRASTRUCTURE);
+        ctx.registerBean("transactionAdvisor", BeanFactoryTransactionAttributeSourceAdvisor.class, () -> {
+            BeanFactoryTransactionAttributeSourceAdvisor advisor = new BeanFactoryTransactionAttributeSourceAdvisor();
+            advisor.setTransactionAttributeSource(ctx.getBean(TransactionAttributeSource.class));
+            advisor.setAdvice(ctx.getBean(TransactionInterceptor.class));
+            return advisor;
+        }, INFRASTRUCTURE);
+
+        ctx.registerBean("bulkheadRegistry", BulkheadRegistry.class,
+                () -> new BulkheadRegistry(ctx.getEnvironment()));
+        ctx.registerBean("bulkheadAspect", BulkheadAspect.class,
+                () -> new BulkheadAspect(ctx.getBean(BulkheadRegistry.class)));
+        ctx.registerBean("batchedAspect", BatchedAspect.class, BatchedAspect::new);
+        ctx.registerBean("tracingAspect", TracingAspect.class,
+                () -> new TracingAspect(ctx.getBean(Tracer.class)));
+        ctx.registerBean("statementBudgetAspect", StatementBudgetAspect.class,
+                () -> new StatementBudgetAspect(ctx.getBean(StatementMonitor.class)));
+        ctx.registerBean("accountCheckAspect", AccountCheckAspect.class,
+                () -> new AccountCheckAspect(ctx.getBean(AccountNameFilter.class)));
+
+        // 与@EnableAspectJAutoProxy相同：最先执行的后处理器，默认使用JDK动态代理
+        ctx.registerBean("autoProxyCreator", AnnotationAwareAspectJAutoProxyCreator.class, () -> {
+            AnnotationAwareAspectJAutoProxyCreator creator = new AnnotationAwareAspectJAutoProxyCreator();
+            creator.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            return creator;
+        }, INFRASTRUCTURE);
+    }
+}
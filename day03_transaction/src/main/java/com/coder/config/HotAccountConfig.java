@@ -0,0 +1,43 @@
+package com.coder.config;
+
+import com.coder.hot.HotAccountInterceptor;
+import com.coder.hot.HotAccountTracker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 热点账户检测配置类（配置见hot.properties）
+ *
+ * - HotAccountTracker：按账户累计改余额语句的次数和耗时，由StatConfig的@EnableMBeanExport导出到JMX
+ * - HotAccountInterceptor：由MybatisConfig注册为MyBatis插件，为每条改余额的UPDATE计时
+ *
+ * 注意：此类不需要加@Configuration注解，因为它会被SpringConfig通过@Import导入
+ */
+public class HotAccountConfig {
+
+    /**
+     * @param width         Count-Min Sketch每行的计数器数
+     * @param depth         Count-Min Sketch的行数
+     * @param topK          每个窗口保留的候选账户数
+     * @param reportN       报告前几名
+     * @param windowSeconds 窗口长度（秒）
+     * @param log           每个窗口结束时输出前几名
+     */
+    @Bean
+    public HotAccountTracker hotAccountTracker(@Value("${hot.enabled}") boolean enabled,
+                                               @Value("${hot.width}") int width,
+                                               @Value("${hot.depth}") int depth,
+                                               @Value("${hot.top-k}") int topK,
+                                               @Value("${hot.report-n}") int reportN,
+                                               @Value("${hot.window-seconds}") long windowSeconds,
+                                               @Value("${hot.log}") boolean log) {
+        HotAccountTracker tracker = new HotAccountTracker(enabled, width, depth, topK, reportN, windowSeconds, log);
+        tracker.start();
+        return tracker;
+    }
+
+    @Bean
+    public HotAccountInterceptor hotAccountInterceptor(HotAccountTracker hotAccountTracker) {
+        return new HotAccountInterceptor(hotAccountTracker);
+    }
+}
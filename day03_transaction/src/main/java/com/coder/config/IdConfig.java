@@ -0,0 +1,25 @@
+package com.coder.config;
+
+import com.coder.id.SnowflakeIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * ID生成配置类（配置见id.properties）
+ *
+ * 注意：此类不需要加@Configuration注解，因为它会被SpringConfig通过@Import导入
+ */
+public class IdConfig {
+
+    /**
+     * transfer_log的主键生成器
+     *
+     * @param nodeId        本节点的节点号，所有同时写入的节点之间唯一
+     * @param maxLeadMillis 时钟回拨时最多继续使用多少毫秒的领先时间
+     */
+    @Bean
+    public SnowflakeIdGenerator transferLogIdGenerator(@Value("${id.node-id}") int nodeId,
+                                                       @Value("${id.max-lead-millis}") long maxLeadMillis) {
+        return new SnowflakeIdGenerator(nodeId, maxLeadMillis);
+    }
+}
@@ -0,0 +1,38 @@
+package com.coder.config;
+
+import com.coder.account.AccountIdResolver;
+import com.coder.ingest.TransferFileIngester;
+import com.coder.ledger.BalanceStore;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * 批量转账文件导入配置类（配置见ingest.properties）
+ *
+ * TransferFileIngester自己用SqlSessionFactory创建BATCH执行器的SqlSessionTemplate，
+ * 与注入给业务类的Mapper（SIMPLE执行器）互不影响
+ *
+ * 注意：此类不需要加@Configuration注解，因为它会被SpringConfig通过@Import导入
+ */
+public class IngestConfig {
+
+    /**
+     * @param chunkSize         每个分块（事务）的行数
+     * @param validationThreads 并行校验的线程数
+     * @param mapWindowMb       每次映射的文件大小（MB）
+     * @param skipHeader        第一行是表头
+     */
+    @Bean
+    public TransferFileIngester transferFileIngester(AccountIdResolver accountIdResolver, BalanceStore balanceStore,
+                                                     SqlSessionFactory sqlSessionFactory,
+                                                     PlatformTransactionManager transactionManager,
+                                                     @Value("${ingest.chunk-size}") int chunkSize,
+                                                     @Value("${ingest.validation-threads}") int validationThreads,
+                                                     @Value("${ingest.map-window-mb}") int mapWindowMb,
+                                                     @Value("${ingest.skip-header}") boolean skipHeader) {
+        return new TransferFileIngester(accountIdResolver, balanceStore, sqlSessionFactory, transactionManager,
+                chunkSize, validationThreads, mapWindowMb << 20, skipHeader);
+    }
+}
@@ -1,12 +1,18 @@
 package com.coder.config;
 
+import com.alibaba.druid.filter.Filter;
 import com.alibaba.druid.pool.DruidDataSource;
+import com.coder.stat.RollingFileStatLogger;
+import com.coder.trace.Tracer;
+import com.coder.trace.TracingTransactionManager;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import javax.sql.DataSource;
+import java.util.stream.Collectors;
 
 /**
  * JDBC数据源配置类
@@ -30,17 +36,26 @@ public class JdbcConfig {
      * - url: 数据库连接地址
      * - username: 数据库用户名
      * - password: 数据库密码
+     * - filters: 容器中所有Druid过滤器（如链路追踪的TracingDruidFilter、SQL统计的StatFilter），没有时为空
+     * - statLogger: 统计日志（导入了StatConfig时存在），设置后Druid按间隔定期输出连接池和SQL统计
      */
     @Bean
     public DataSource dataSource(@Value("${jdbc.driver}") String driver,
                                  @Value("${jdbc.url}") String url,
                                  @Value("${jdbc.username}") String username,
-                                 @Value("${jdbc.password}") String password) {
+                                 @Value("${jdbc.password}") String password,
+                                 ObjectProvider<Filter> filters,
+                                 ObjectProvider<RollingFileStatLogger> statLogger) {
         DruidDataSource ds = new DruidDataSource();
         ds.setDriverClassName(driver);
         ds.setUrl(url);
         ds.setUsername(username);
         ds.setPassword(password);
+        ds.setProxyFilters(filters.orderedStream().collect(Collectors.toList()));
+        statLogger.ifAvailable(logger -> {
+            ds.setStatLogger(logger);
+            ds.setTimeBetweenLogStatsMillis(logger.getIntervalMillis());
+        });
         return ds;
     }
 
@@ -61,10 +76,15 @@ public class JdbcConfig {
      * 事务管理器与数据源的关系：
      * - 事务管理器需要知道使用哪个数据源来管理事务
      * - 它通过数据源获取数据库连接，然后在这个连接上开启、提交或回滚事务
+     *
+     * 容器中有Tracer（导入了TraceConfig）时使用TracingTransactionManager，
+     * 在事务的开启、挂起、恢复、提交、回滚上记录链路Span
      */
     @Bean
-    public PlatformTransactionManager transactionManager(DataSource dataSource) {
-        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager();
+    public PlatformTransactionManager transactionManager(DataSource dataSource, ObjectProvider<Tracer> tracer) {
+        Tracer t = tracer.getIfAvailable();
+        DataSourceTransactionManager transactionManager =
+                t != null ? new TracingTransactionManager(t) : new DataSourceTransactionManager();
         transactionManager.setDataSource(dataSource);
         return transactionManager;
     }
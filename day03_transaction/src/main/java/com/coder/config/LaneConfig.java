@@ -0,0 +1,47 @@
+package com.coder.config;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.coder.account.AccountIdResolver;
+import com.coder.lane.TransferLanes;
+import com.coder.ledger.BalanceStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * 转账通道配置类（配置见lanes.properties）
+ *
+ * 通道数由TransferLanes.laneCount()根据CPU核数和连接池的maxActive计算；
+ * 写线程只在lanes.enabled=true时随容器启动（未启动时提交转账抛出IllegalStateException，也可以之后调用start()），容器关闭时停止
+ *
+ * 注意：此类不需要加@Configuration注解，因为它会被SpringConfig通过@Import导入
+ */
+public class LaneConfig {
+
+    /**
+     * @param enabled             创建时启动写线程
+     * @param count               通道数，0表示自动
+     * @param reservedConnections 自动计算时留给其他用途的连接数
+     * @param queueCapacity       每条通道的队列容量
+     * @param maxBatchSize        每个事务最多包含的转账笔数
+     */
+    @Bean
+    public TransferLanes transferLanes(AccountIdResolver accountIdResolver, BalanceStore balanceStore,
+                                       PlatformTransactionManager transactionManager, DataSource dataSource,
+                                       @Value("${lanes.enabled}") boolean enabled,
+                                       @Value("${lanes.count}") int count,
+                                       @Value("${lanes.reserved-connections}") int reservedConnections,
+                                       @Value("${lanes.queue-capacity}") int queueCapacity,
+                                       @Value("${lanes.max-batch-size}") int maxBatchSize) throws SQLException {
+        int maxActive = dataSource.unwrap(DruidDataSource.class).getMaxActive();
+        TransferLanes lanes = new TransferLanes(accountIdResolver, balanceStore, transactionManager,
+                TransferLanes.laneCount(count, maxActive, reservedConnections), queueCapacity, maxBatchSize);
+        if (enabled) {
+            lanes.start();
+        }
+        return lanes;
+    }
+}
@@ -0,0 +1,68 @@
+package com.coder.config;
+
+import com.coder.dao.AccountDao;
+import com.coder.dao.LedgerDao;
+import com.coder.ledger.BalanceStore;
+import com.coder.ledger.InPlaceBalanceStore;
+import com.coder.ledger.LedgerBalanceStore;
+import com.coder.ledger.LedgerCompactor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 余额存储配置类（配置见ledger.properties）
+ *
+ * - ledger.mode=balance：InPlaceBalanceStore，原地更新account.money
+ * - ledger.mode=ledger：LedgerBalanceStore，追加账本分录，并启动LedgerCompactor定期压缩
+ *
+ * 注意：此类不需要加@Configuration注解，因为它会被SpringConfig通过@Import导入
+ */
+public class LedgerConfig {
+
+    static final String MODE_BALANCE = "balance";
+
+    static final String MODE_LEDGER = "ledger";
+
+    /**
+     * @param mode         balance或ledger
+     * @param checkBalance 账本模式下转出前加锁检查余额
+     */
+    @Bean
+    public BalanceStore balanceStore(@Value("${ledger.mode}") String mode,
+                                     @Value("${ledger.check-balance}") boolean checkBalance,
+                                     AccountDao accountDao, LedgerDao ledgerDao) {
+        return createBalanceStore(mode, checkBalance, accountDao, ledgerDao);
+    }
+
+    /**
+     * 压缩任务只在账本模式下启动，容器关闭时停止
+     *
+     * @param intervalSeconds 压缩间隔，0表示不启动（仍可手动调用compact）
+     * @param lagSeconds      只合并早于"当前时间 - 延迟"的分录
+     */
+    @Bean
+    public LedgerCompactor ledgerCompactor(@Value("${ledger.mode}") String mode,
+                                           @Value("${ledger.compaction-interval-seconds}") long intervalSeconds,
+                                           @Value("${ledger.compaction-lag-seconds}") long lagSeconds,
+                                           LedgerDao ledgerDao) {
+        LedgerCompactor compactor = new LedgerCompactor(ledgerDao, lagSeconds);
+        if (MODE_LEDGER.equals(mode) && intervalSeconds > 0) {
+            compactor.start(intervalSeconds);
+        }
+        return compactor;
+    }
+
+    /**
+     * 与FunctionalBootstrap共用的选择逻辑
+     */
+    static BalanceStore createBalanceStore(String mode, boolean checkBalance, AccountDao accountDao, LedgerDao ledgerDao) {
+        switch (mode) {
+            case MODE_BALANCE:
+                return new InPlaceBalanceStore(accountDao);
+            case MODE_LEDGER:
+                return new LedgerBalanceStore(ledgerDao, checkBalance);
+            default:
+                throw new IllegalArgumentException("ledger.mode只能是balance或ledger：" + mode);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.coder.config;
 
+import org.apache.ibatis.plugin.Interceptor;
 import org.mybatis.spring.SqlSessionFactoryBean;
 import org.mybatis.spring.mapper.MapperScannerConfigurer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 
 import javax.sql.DataSource;
@@ -33,11 +35,12 @@ public class MybatisConfig {
      * - 在JdbcConfig中定义的dataSource方法返回的Bean会被注入到这里
      * - 这是Spring的方法参数依赖注入，不需要@Autowired注解
      *
-     * @param dataSource 数据源对象，由Spring自动注入
+     * @param dataSource   数据源对象，由Spring自动注入
+     * @param interceptors 容器中所有MyBatis插件（如链路追踪的TracingMybatisInterceptor），没有时为空
      * @return SqlSessionFactoryBean实例
      */
     @Bean
-    public SqlSessionFactoryBean sqlSessionFactory(DataSource dataSource) {
+    public SqlSessionFactoryBean sqlSessionFactory(DataSource dataSource, ObjectProvider<Interceptor> interceptors) {
         SqlSessionFactoryBean ssfb = new SqlSessionFactoryBean();
 
         // 设置数据源 - MyBatis需要通过数据源获取数据库连接
@@ -48,6 +51,9 @@ public class MybatisConfig {
         // 例如：可以使用Account代替com.coder.domain.Account
         ssfb.setTypeAliasesPackage("com.coder.domain");
 
+        // 注册MyBatis插件 - 插件会包装Executor，拦截每一次Mapper调用
+        ssfb.setPlugins(interceptors.orderedStream().toArray(Interceptor[]::new));
+
         return ssfb;
     }
 
@@ -0,0 +1,36 @@
+package com.coder.config;
+
+import com.coder.audit.TransferAudit;
+import com.coder.dao.ReconcileDao;
+import com.coder.ledger.BalanceStore;
+import com.coder.reconcile.Reconciler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * 对账任务配置类（配置见reconcile.properties）
+ *
+ * 注意：此类不需要加@Configuration注解，因为它会被SpringConfig通过@Import导入
+ */
+public class ReconcileConfig {
+
+    /**
+     * @param rangeSize         每个范围的账户ID个数（检查点和并行的单位）
+     * @param pageSize          每页账户数
+     * @param parallelism       ForkJoinPool并行度，即同时占用的连接数
+     * @param maxPagesPerSecond 所有线程合计每秒最多处理的页数
+     * @param tolerance         金额比较的误差
+     */
+    @Bean
+    public Reconciler reconciler(ReconcileDao reconcileDao, BalanceStore balanceStore, TransferAudit transferAudit,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${reconcile.range-size}") int rangeSize,
+                                 @Value("${reconcile.page-size}") int pageSize,
+                                 @Value("${reconcile.parallelism}") int parallelism,
+                                 @Value("${reconcile.max-pages-per-second}") int maxPagesPerSecond,
+                                 @Value("${reconcile.tolerance}") double tolerance) {
+        return new Reconciler(reconcileDao, balanceStore, transferAudit, transactionManager, rangeSize, pageSize, parallelism,
+                maxPagesPerSecond, tolerance);
+    }
+}
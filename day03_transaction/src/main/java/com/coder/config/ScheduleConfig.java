@@ -0,0 +1,48 @@
+package com.coder.config;
+
+import com.coder.account.AccountIdResolver;
+import com.coder.dao.ScheduleDao;
+import com.coder.schedule.TransferScheduler;
+import com.coder.service.AccountService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * 定时转账配置类（配置见schedule.properties）
+ *
+ * 调度线程只在schedule.enabled=true时启动（需要先执行init_schedule.sql），未启动时仍可新建和取消计划
+ *
+ * 注意：此类不需要加@Configuration注解，因为它会被SpringConfig通过@Import导入
+ */
+public class ScheduleConfig {
+
+    /**
+     * @param accountService 有两个AccountService实现，按名称注入正常的那个
+     */
+    @Bean
+    public TransferScheduler transferScheduler(ScheduleDao scheduleDao,
+                                               @Qualifier("accountServiceImpl") AccountService accountService,
+                                               AccountIdResolver accountIdResolver,
+                                               PlatformTransactionManager transactionManager,
+                                               @Value("${schedule.enabled}") boolean enabled,
+                                               @Value("${schedule.tick-millis}") long tickMillis,
+                                               @Value("${schedule.wheel-size}") int wheelSize,
+                                               @Value("${schedule.window-seconds}") long windowSeconds,
+                                               @Value("${schedule.load-interval-seconds}") long loadIntervalSeconds,
+                                               @Value("${schedule.page-size}") int pageSize,
+                                               @Value("${schedule.max-in-memory}") int maxInMemory,
+                                               @Value("${schedule.execution-threads}") int executionThreads,
+                                               @Value("${schedule.max-batch-size}") int maxBatchSize,
+                                               @Value("${schedule.max-attempts}") int maxAttempts,
+                                               @Value("${schedule.retry-delay-seconds}") long retryDelaySeconds) {
+        TransferScheduler scheduler = new TransferScheduler(scheduleDao, accountService, accountIdResolver,
+                transactionManager, tickMillis, wheelSize, windowSeconds, loadIntervalSeconds, pageSize, maxInMemory,
+                executionThreads, maxBatchSize, maxAttempts, retryDelaySeconds);
+        if (enabled) {
+            scheduler.start();
+        }
+        return scheduler;
+    }
+}
@@ -2,6 +2,7 @@ package com.coder.config;
 
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
@@ -13,17 +14,33 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
  * @Configuration - 标识这是一个Spring配置类，替代XML配置文件
  * @ComponentScan("com.coder") - 开启组件扫描，扫描com.coder包及其子包下的所有Spring组件
  *                              （包括@Service、@Repository、@Component等注解标记的类）
- * @PropertySource("classpath:jdbc.properties") - 加载类路径下的jdbc.properties配置文件
- *                                               将配置文件中的属性值注入到Spring环境中
- * @Import({JdbcConfig.class, MybatisConfig.class}) - 导入其他配置类
- *                                                    将数据源配置和MyBatis配置整合到主配置中
+ * @PropertySource({"classpath:jdbc.properties", "classpath:bulkhead.properties", "classpath:trace.properties",
+ *                  "classpath:stat.properties", "classpath:budget.properties", "classpath:ledger.properties",
+ *                  "classpath:reconcile.properties", "classpath:lanes.properties", "classpath:account-filter.properties",
+ *                  "classpath:audit.properties", "classpath:ingest.properties", "classpath:schedule.properties",
+ *                  "classpath:id.properties", "classpath:hot.properties"})
+ *                  - 加载类路径下的jdbc.properties配置文件
+ *                    将配置文件中的属性值注入到Spring环境中
+ * @Import({JdbcConfig.class, MybatisConfig.class, TraceConfig.class, StatConfig.class, BudgetConfig.class,
+ *          LedgerConfig.class, ReconcileConfig.class, LaneConfig.class, AccountFilterConfig.class, AuditConfig.class,
+ *          IngestConfig.class, ScheduleConfig.class, IdConfig.class, HotAccountConfig.class})
+ *                                                    - 导入其他配置类
+ *                                                    将数据源配置、MyBatis配置、链路追踪、SQL统计、语句预算、余额存储、对账、转账通道、账户名过滤器、转账审计、批量导入、定时转账、ID生成和热点账户配置整合到主配置中
  * @EnableTransactionManagement - 开启Spring注解式事务管理
  *                                使@Transactional注解生效，支持声明式事务
+ * @EnableAspectJAutoProxy - 开启AOP注解支持，使com.coder.aop包中的@Aspect切面（如舱壁BulkheadAspect）生效
  */
 @Configuration
 @ComponentScan("com.coder")
-@PropertySource("classpath:jdbc.properties")
-@Import({JdbcConfig.class, MybatisConfig.class})
+@PropertySource({"classpath:jdbc.properties", "classpath:bulkhead.properties", "classpath:trace.properties",
+        "classpath:stat.properties", "classpath:budget.properties", "classpath:ledger.properties",
+        "classpath:reconcile.properties", "classpath:lanes.properties", "classpath:account-filter.properties",
+        "classpath:audit.properties", "classpath:ingest.properties", "classpath:schedule.properties",
+        "classpath:id.properties", "classpath:hot.properties"})
+@Import({JdbcConfig.class, MybatisConfig.class, TraceConfig.class, StatConfig.class, BudgetConfig.class,
+        LedgerConfig.class, ReconcileConfig.class, LaneConfig.class, AccountFilterConfig.class, AuditConfig.class,
+        IngestConfig.class, ScheduleConfig.class, IdConfig.class, HotAccountConfig.class})
 @EnableTransactionManagement
+@EnableAspectJAutoProxy
 public class SpringConfig {
 }
\ No newline at end of file
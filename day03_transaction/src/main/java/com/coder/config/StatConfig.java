@@ -0,0 +1,61 @@
+package com.coder.config;
+
+import com.alibaba.druid.filter.stat.StatFilter;
+import com.alibaba.druid.pool.DruidDataSource;
+import com.coder.stat.RollingFileStatLogger;
+import com.coder.stat.SqlStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.EnableMBeanExport;
+import org.springframework.jmx.support.RegistrationPolicy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * SQL统计配置类
+ *
+ * - StatFilter：Druid自带的统计过滤器，由JdbcConfig加入过滤器链，按合并后的SQL统计执行次数、耗时分布、影响行数，
+ *   超过慢SQL阈值时记录参数
+ * - RollingFileStatLogger：JdbcConfig发现它时设置到数据源上，由Druid的后台线程定期输出到滚动文件
+ * - SqlStats：通过JMX暴露同样的数据
+ *
+ * @EnableMBeanExport - 把@ManagedResource标注的Bean注册到平台MBeanServer（jconsole可见）
+ *                      Bean已注册时忽略（同一个JVM中启动多个容器，如BootstrapBenchmark）
+ *
+ * 注意：此类不需要加@Configuration注解，因为它会被SpringConfig通过@Import导入
+ */
+@EnableMBeanExport(registration = RegistrationPolicy.IGNORE_EXISTING)
+public class StatConfig {
+
+    /**
+     * @param mergeSql      合并参数不同的同一条SQL
+     * @param slowSqlMillis 慢SQL阈值（毫秒）
+     * @param logSlowSql    是否打印慢SQL日志（带参数）
+     */
+    @Bean
+    public StatFilter statFilter(@Value("${stat.merge-sql}") boolean mergeSql,
+                                 @Value("${stat.slow-sql-millis}") long slowSqlMillis,
+                                 @Value("${stat.log-slow-sql}") boolean logSlowSql) {
+        StatFilter statFilter = new StatFilter();
+        statFilter.setMergeSql(mergeSql);
+        statFilter.setSlowSqlMillis(slowSqlMillis);
+        statFilter.setLogSlowSql(logSlowSql);
+        return statFilter;
+    }
+
+    @Bean
+    public RollingFileStatLogger statLogger(@Value("${stat.dump-file}") String file,
+                                            @Value("${stat.dump-max-file-size-mb}") long maxFileSizeMb,
+                                            @Value("${stat.dump-max-files}") int maxFiles,
+                                            @Value("${stat.dump-interval-seconds}") long intervalSeconds,
+                                            @Value("${stat.slow-sql-millis}") long slowSqlMillis) {
+        return new RollingFileStatLogger(file, maxFileSizeMb * 1024 * 1024, maxFiles,
+                intervalSeconds * 1000, slowSqlMillis);
+    }
+
+    @Bean
+    public SqlStats sqlStats(DataSource dataSource, RollingFileStatLogger statLogger) throws SQLException {
+        return new SqlStats(dataSource.unwrap(DruidDataSource.class), statLogger);
+    }
+}
@@ -0,0 +1,54 @@
+package com.coder.config;
+
+import com.coder.trace.Tracer;
+import com.coder.trace.TracingDruidFilter;
+import com.coder.trace.TracingMybatisInterceptor;
+import com.coder.trace.ZipkinFileExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 链路追踪配置类
+ *
+ * 注册追踪器及其在各层的"探针"：
+ * - Tracer：线程内的Span栈与头部采样，服务层切面TracingAspect通过它开启链路
+ * - TracingDruidFilter：由JdbcConfig加入Druid的过滤器链，记录借连接
+ * - TracingMybatisInterceptor：由MybatisConfig注册为MyBatis插件，记录Mapper调用
+ * - 事务管理器：JdbcConfig发现容器中有Tracer时，创建TracingTransactionManager
+ *
+ * 注意：此类不需要加@Configuration注解，因为它会被SpringConfig通过@Import导入
+ */
+public class TraceConfig {
+
+    /**
+     * 链路导出器，容器关闭时调用destroy写完剩余链路
+     *
+     * @param file          输出文件，每行一条链路（Zipkin v2 JSON数组）
+     * @param serviceName   Zipkin中显示的服务名
+     * @param queueCapacity 待写入链路的队列长度，满了直接丢弃
+     */
+    @Bean
+    public ZipkinFileExporter zipkinFileExporter(@Value("${trace.output-file}") String file,
+                                                 @Value("${trace.service-name}") String serviceName,
+                                                 @Value("${trace.queue-capacity}") int queueCapacity) {
+        return new ZipkinFileExporter(file, serviceName, queueCapacity);
+    }
+
+    /**
+     * @param sampleRate 采样率，0表示关闭追踪，1表示全部记录
+     */
+    @Bean
+    public Tracer tracer(@Value("${trace.sample-rate}") double sampleRate, ZipkinFileExporter exporter) {
+        return new Tracer(sampleRate, exporter);
+    }
+
+    @Bean
+    public TracingDruidFilter tracingDruidFilter(Tracer tracer) {
+        return new TracingDruidFilter(tracer);
+    }
+
+    @Bean
+    public TracingMybatisInterceptor tracingMybatisInterceptor(Tracer tracer) {
+        return new TracingMybatisInterceptor(tracer);
+    }
+}
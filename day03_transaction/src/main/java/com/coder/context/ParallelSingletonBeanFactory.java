@@ -0,0 +1,415 @@
+package com.coder.context;
+
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.AopInfrastructureBean;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.BeanCurrentlyInCreationException;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 并行初始化单例Bean的BeanFactory（可选启用）
+ *
+ * 默认的refresh在主线程上逐个创建单例：数据源、SqlSessionFactory、各个Mapper……即使它们互不依赖也要排队
+ * 本类重写preInstantiateSingletons，先分析Bean之间的依赖关系，再把互不依赖的Bean交给固定大小的线程池同时创建
+ *
+ * 依赖图的来源（创建前就能确定的依赖）：
+ * - @DependsOn / depends-on
+ * - 构造方法参数：XML的constructor-arg引用，以及唯一的（或标注@Autowired的）构造方法的参数类型
+ * - @Bean工厂方法：所在的配置类，以及方法参数的类型
+ * 字段上的@Autowired在创建前无法知道，这类依赖在创建过程中按需获取（可能由当前线程顺带创建）
+ *
+ * 并发安全：
+ * - Spring 5.3的getSingleton(beanName, factory)在创建整个Bean期间都持有全局锁singletonObjects，
+ *   原样使用时并行线程会被它串行化。并行阶段改为按Bean加锁：同一个Bean只有一个线程创建，
+ *   其他线程等它创建完成后直接取用，不同的Bean互不阻塞
+ * - 并行阶段关闭循环依赖：没有循环依赖时"线程持有A的锁等待B"只会沿依赖方向发生，不会形成环；
+ *   等锁超过lockTimeoutSeconds仍按"正在创建"报错，而不是永远卡住
+ * - Advisor和@Aspect切面先在主线程上串行创建：自动代理创建器查找Advisor时会跳过"正在创建"的Advisor，
+ *   如果它们与业务Bean并行创建，业务Bean可能拿不到事务代理
+ * - addSerialType登记的类型（如共享MyBatis Configuration的MapperFactoryBean）在一把公共的锁下创建，彼此不会并行
+ *
+ * 原子性：任何一个Bean创建失败，不再提交新的任务，等正在运行的任务结束后抛出BeanCreationException，
+ * refresh()捕获后会销毁所有已创建的单例，与串行启动失败时的效果相同
+ */
+public class ParallelSingletonBeanFactory extends DefaultListableBeanFactory {
+
+    private final int threads;
+
+    private long lockTimeoutSeconds = 30;
+
+    private final Set<Class<?>> serialTypes = new LinkedHashSet<>();
+
+    private final Set<String> serialBeans = new LinkedHashSet<>();
+
+    private final ReentrantLock serialLock = new ReentrantLock();
+
+    private final ConcurrentMap<String, ReentrantLock> creationLocks = new ConcurrentHashMap<>();
+
+    private volatile boolean parallelPhase;
+
+    /**
+     * @param threads 并行创建Bean的线程数
+     */
+    public ParallelSingletonBeanFactory(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads必须大于0：" + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * 登记需要互斥创建的Bean类型（按类型匹配，包括子类；FactoryBean按工厂本身的类型匹配，而不是产品类型）
+     */
+    public void addSerialType(Class<?> type) {
+        serialTypes.add(type);
+    }
+
+    public void setLockTimeoutSeconds(long lockTimeoutSeconds) {
+        this.lockTimeoutSeconds = lockTimeoutSeconds;
+    }
+
+    @Override
+    public void preInstantiateSingletons() throws BeansException {
+        long start = System.nanoTime();
+        Map<String, Set<String>> graph = dependencyGraph();
+
+        // 1. Advisor和切面在主线程上先创建
+        for (String beanName : new ArrayList<>(graph.keySet())) {
+            Class<?> type = getType(beanName, false);
+            if (type != null && (Advisor.class.isAssignableFrom(type)
+                    || AopInfrastructureBean.class.isAssignableFrom(type)
+                    || AnnotationUtils.findAnnotation(type, Aspect.class) != null)) {
+                instantiate(beanName);
+                graph.remove(beanName);
+            }
+        }
+        for (String beanName : graph.keySet()) {
+            // FactoryBean按工厂本身的类型匹配：getType返回的是产品类型（如AccountDao），匹配不到MapperFactoryBean
+            String name = isFactoryBean(beanName) ? FACTORY_BEAN_PREFIX + beanName : beanName;
+            for (Class<?> serialType : serialTypes) {
+                if (isTypeMatch(name, serialType)) {
+                    serialBeans.add(beanName);
+                }
+            }
+        }
+
+        // 2. 按依赖关系并行创建其余的Bean
+        boolean allowCircularReferences = isAllowCircularReferences();
+        setAllowCircularReferences(false);
+        parallelPhase = true;
+        int created;
+        try {
+            created = instantiateInParallel(graph);
+        } finally {
+            parallelPhase = false;
+            setAllowCircularReferences(allowCircularReferences);
+            creationLocks.clear();
+        }
+        System.out.println("【并行初始化】" + created + " 个单例，" + threads + " 个线程，耗时 "
+                + (System.nanoTime() - start) / 1_000_000 + " ms，互斥创建：" + serialBeans);
+
+        // 3. 剩下的工作交给父类：已创建的Bean直接跳过，SmartFactoryBean的提前初始化、
+        //    SmartInitializingSingleton回调仍在主线程上按原顺序执行
+        super.preInstantiateSingletons();
+    }
+
+    /**
+     * 需要在refresh时创建的单例 -> 它在这些单例中的已知依赖
+     */
+    private Map<String, Set<String>> dependencyGraph() {
+        Set<String> candidates = new LinkedHashSet<>();
+        for (String beanName : getBeanDefinitionNames()) {
+            RootBeanDefinition mbd = (RootBeanDefinition) getMergedBeanDefinition(beanName);
+            if (!mbd.isAbstract() && mbd.isSingleton() && !mbd.isLazyInit() && !containsSingleton(beanName)) {
+                candidates.add(beanName);
+            }
+        }
+        Map<String, Set<String>> graph = new LinkedHashMap<>();
+        for (String beanName : candidates) {
+            Set<String> dependencies = new LinkedHashSet<>();
+            collectDependencies(beanName, (RootBeanDefinition) getMergedBeanDefinition(beanName), dependencies);
+            dependencies.retainAll(candidates);
+            dependencies.remove(beanName);
+            graph.put(beanName, dependencies);
+        }
+        return graph;
+    }
+
+    private void collectDependencies(String beanName, RootBeanDefinition mbd, Set<String> dependencies) {
+        if (mbd.getDependsOn() != null) {
+            Collections.addAll(dependencies, mbd.getDependsOn());
+        }
+
+        ConstructorArgumentValues args = mbd.getConstructorArgumentValues();
+        for (ConstructorArgumentValues.ValueHolder holder : args.getIndexedArgumentValues().values()) {
+            addReference(holder.getValue(), dependencies);
+        }
+        for (ConstructorArgumentValues.ValueHolder holder : args.getGenericArgumentValues()) {
+            addReference(holder.getValue(), dependencies);
+        }
+
+        if (mbd.getFactoryMethodName() != null) {
+            Class<?> factoryClass;
+            if (mbd.getFactoryBeanName() != null) {
+                dependencies.add(mbd.getFactoryBeanName());
+                factoryClass = getType(mbd.getFactoryBeanName(), false);
+            } else {
+                factoryClass = mbd.hasBeanClass() ? mbd.getBeanClass() : null;
+            }
+            if (factoryClass != null) {
+                for (Method method : ReflectionUtils.getUniqueDeclaredMethods(ClassUtils.getUserClass(factoryClass))) {
+                    if (method.getName().equals(mbd.getFactoryMethodName())) {
+                        addParameterTypes(method, dependencies);
+                    }
+                }
+            }
+        } else if (mbd.hasBeanClass()) {
+            Constructor<?>[] constructors = mbd.getBeanClass().getDeclaredConstructors();
+            for (Constructor<?> constructor : constructors) {
+                if (constructors.length == 1 || constructor.isAnnotationPresent(Autowired.class)) {
+                    addParameterTypes(constructor, dependencies);
+                }
+            }
+        }
+    }
+
+    private void addReference(Object value, Set<String> dependencies) {
+        if (value instanceof RuntimeBeanReference) {
+            dependencies.add(((RuntimeBeanReference) value).getBeanName());
+        }
+    }
+
+    private void addParameterTypes(Executable executable, Set<String> dependencies) {
+        for (int i = 0; i < executable.getParameterCount(); i++) {
+            ResolvableType type = executable instanceof Method
+                    ? ResolvableType.forMethodParameter((Method) executable, i)
+                    : ResolvableType.forConstructorParameter((Constructor<?>) executable, i);
+            Class<?> raw = type.resolve();
+            if (raw == null) {
+                continue;
+            }
+            // ObjectProvider<Filter>、List<Interceptor>等按元素类型查找
+            if (ObjectProvider.class == raw || Optional.class == raw || Collection.class.isAssignableFrom(raw)) {
+                type = type.getGeneric(0);
+            } else if (Map.class.isAssignableFrom(raw)) {
+                type = type.getGeneric(1);
+            } else if (raw.isArray()) {
+                type = type.getComponentType();
+            }
+            Class<?> element = type.resolve();
+            if (element != null && !element.isPrimitive() && element != String.class) {
+                Collections.addAll(dependencies, getBeanNamesForType(element, true, false));
+            }
+        }
+    }
+
+    /**
+     * Kahn拓扑排序：依赖都已创建的Bean提交给线程池，每完成一个就检查依赖它的Bean是否可以开始
+     *
+     * @return 创建的Bean数量
+     */
+    private int instantiateInParallel(Map<String, Set<String>> graph) {
+        Map<String, Integer> pending = new HashMap<>();
+        Map<String, List<String>> dependents = new HashMap<>();
+        Deque<String> ready = new ArrayDeque<>();
+        for (Map.Entry<String, Set<String>> entry : graph.entrySet()) {
+            Set<String> dependencies = new HashSet<>(entry.getValue());
+            dependencies.retainAll(graph.keySet());
+            pending.put(entry.getKey(), dependencies.size());
+            for (String dependency : dependencies) {
+                dependents.computeIfAbsent(dependency, d -> new ArrayList<>()).add(entry.getKey());
+            }
+            if (dependencies.isEmpty()) {
+                ready.add(entry.getKey());
+            }
+        }
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "bean-init-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            t.setContextClassLoader(getBeanClassLoader());
+            return t;
+        });
+        ExecutorCompletionService<String> completion = new ExecutorCompletionService<>(executor);
+        BeansException failure = null;
+        int inFlight = 0;
+        int done = 0;
+        try {
+            for (String beanName : ready) {
+                submit(completion, beanName);
+                inFlight++;
+            }
+            while (inFlight > 0) {
+                Future<String> future = completion.take();
+                inFlight--;
+                try {
+                    String beanName = future.get();
+                    done++;
+                    if (failure != null) {
+                        continue;
+                    }
+                    for (String dependent : dependents.getOrDefault(beanName, Collections.emptyList())) {
+                        if (pending.merge(dependent, -1, Integer::sum) == 0) {
+                            submit(completion, dependent);
+                            inFlight++;
+                        }
+                    }
+                } catch (ExecutionException e) {
+                    // 只保留第一个失败，继续等待已经在运行的任务结束
+                    if (failure == null) {
+                        failure = (BeansException) e.getCause();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = new BeanCreationException("并行初始化被中断");
+        } finally {
+            executor.shutdownNow();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+
+        // 依赖图中有环（例如构造方法互相依赖）的Bean不会进入就绪队列，
+        // 交还主线程逐个创建，由Spring报告真实的错误
+        for (Map.Entry<String, Integer> entry : pending.entrySet()) {
+            if (entry.getValue() > 0) {
+                instantiate(entry.getKey());
+                done++;
+            }
+        }
+        return done;
+    }
+
+    private void submit(ExecutorCompletionService<String> completion, String beanName) {
+        completion.submit(() -> {
+            try {
+                instantiate(beanName);
+                return beanName;
+            } catch (BeansException ex) {
+                throw ex;
+            } catch (RuntimeException | Error ex) {
+                throw new BeanCreationException(beanName, "并行初始化失败", ex);
+            }
+        });
+    }
+
+    /**
+     * FactoryBean只创建工厂本身，与父类preInstantiateSingletons的行为一致
+     */
+    private void instantiate(String beanName) {
+        if (isFactoryBean(beanName)) {
+            getBean(FACTORY_BEAN_PREFIX + beanName);
+        } else {
+            getBean(beanName);
+        }
+    }
+
+    /**
+     * 并行阶段用"每个Bean一把锁"代替全局锁
+     */
+    @Override
+    public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
+        if (!parallelPhase) {
+            return super.getSingleton(beanName, singletonFactory);
+        }
+        ReentrantLock lock = creationLocks.computeIfAbsent(beanName, n -> new ReentrantLock());
+        lockOrFail(lock, beanName);
+        try {
+            Object existing = getSingleton(beanName, false);
+            if (existing != null) {
+                return existing;
+            }
+            boolean serial = serialBeans.contains(beanName);
+            if (serial) {
+                lockOrFail(serialLock, beanName);
+            }
+            try {
+                beforeSingletonCreation(beanName);
+                try {
+                    Object singleton = singletonFactory.getObject();
+                    addSingleton(beanName, singleton);
+                    return singleton;
+                } finally {
+                    afterSingletonCreation(beanName);
+                }
+            } finally {
+                if (serial) {
+                    serialLock.unlock();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 互斥类型的FactoryBean在getObject时（如MapperFactoryBean读取MyBatis Configuration）也要持有公共锁
+     */
+    @Override
+    protected Object getObjectForBeanInstance(Object beanInstance, String name, String beanName,
+                                              RootBeanDefinition mbd) {
+        if (!parallelPhase || !serialBeans.contains(beanName)) {
+            return super.getObjectForBeanInstance(beanInstance, name, beanName, mbd);
+        }
+        lockOrFail(serialLock, beanName);
+        try {
+            return super.getObjectForBeanInstance(beanInstance, name, beanName, mbd);
+        } finally {
+            serialLock.unlock();
+        }
+    }
+
+    private void lockOrFail(ReentrantLock lock, String beanName) {
+        try {
+            if (!lock.tryLock(lockTimeoutSeconds, TimeUnit.SECONDS)) {
+                throw new BeanCurrentlyInCreationException(beanName,
+                        "等待其他线程创建超过" + lockTimeoutSeconds + "秒，可能存在跨线程的循环依赖");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeanCreationException(beanName, "等待其他线程创建时被中断");
+        }
+    }
+}
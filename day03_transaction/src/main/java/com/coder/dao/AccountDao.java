@@ -1,13 +1,22 @@
 package com.coder.dao;
 
+import com.coder.domain.Account;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
+import java.util.List;
+
 /**
  * 账户数据访问层接口（DAO - Data Access Object）
  *
  * 职责说明：
  * - 负责与数据库进行交互，执行具体的CRUD操作
  * - 提供基础的账户操作：减钱（outMoney）和加钱（inMoney）
+ * - 按主键更新的版本（outMoneyById/inMoneyById），配合AccountIdResolver使用
+ * - 更新方法返回影响的行数：账户不存在时UPDATE不报错，只是更新0行，调用方据此抛出异常使事务回滚
  * - 使用MyBatis注解方式编写SQL语句
  *
  * MyBatis代理机制说明：
@@ -32,13 +41,15 @@ public interface AccountDao {
      * #{...} 是MyBatis的参数占位符语法：
      * - #{name} 表示方法参数name的值
      * - #{money} 表示方法参数money的值
+     * - 参数名由@Param指定，编译时不带-parameters也能正确绑定
      * - MyBatis会自动进行参数映射和SQL注入防护（预编译）
      *
      * @param name  账户名称（如"张三"）
      * @param money 转出金额（正数）
+     * @return 影响的行数，账户不存在时为0
      */
     @Update("UPDATE account SET money = money - #{money} WHERE name = #{name}")
-    void outMoney(String name, Double money);
+    int outMoney(@Param("name") String name, @Param("money") Double money);
 
     /**
      * 指定账户加钱（转入操作）
@@ -57,7 +68,79 @@ public interface AccountDao {
      *
      * @param name  账户名称（如"李四"）
      * @param money 转入金额（正数）
+     * @return 影响的行数，账户名拼错时为0
      */
     @Update("UPDATE account SET money = money + #{money} WHERE name = #{name}")
-    void inMoney(String name, Double money);
-}
\ No newline at end of file
+    int inMoney(@Param("name") String name, @Param("money") Double money);
+
+    /**
+     * 按主键减钱
+     *
+     * 与outMoney的区别（InnoDB）：
+     * - WHERE name = ?：先在name的唯一索引（二级索引）中找到主键，再回到聚簇索引定位行，两次B+树查找
+     * - WHERE id = ?：直接在聚簇索引中定位行，一次B+树查找
+     * 名称到id的转换由AccountIdResolver在内存中完成
+     *
+     * @param id    账户ID
+     * @param money 转出金额（正数）
+     * @return 影响的行数，账户不存在时为0
+     */
+    @Update("UPDATE account SET money = money - #{money} WHERE id = #{id}")
+    int outMoneyById(@Param("id") int id, @Param("money") Double money);
+
+    /**
+     * 按主键加钱，说明见outMoneyById
+     *
+     * @param id    账户ID
+     * @param money 转入金额（正数）
+     * @return 影响的行数，账户不存在时为0
+     */
+    @Update("UPDATE account SET money = money + #{money} WHERE id = #{id}")
+    int inMoneyById(@Param("id") int id, @Param("money") Double money);
+
+    /**
+     * 按主键增减余额（delta为负数时是减钱）
+     *
+     * 批量导入（TransferFileIngester）先把一个分块内同一账户的多笔转账合并为一个净额，
+     * 每个账户只更新一次；同一条SQL在BATCH执行器中连续调用，合并为一次executeBatch
+     *
+     * @param id    账户ID
+     * @param delta 余额变化量
+     * @return 影响的行数，账户不存在时为0（BATCH执行器中返回值无意义，需从flushStatements的结果中读取）
+     */
+    @Update("UPDATE account SET money = money + #{delta} WHERE id = #{id}")
+    int addMoneyById(@Param("id") int id, @Param("delta") double delta);
+
+    /**
+     * 按主键查询余额
+     *
+     * @return 余额，账户不存在时为null
+     */
+    @Select("SELECT money FROM account WHERE id = #{id}")
+    Double selectMoneyById(@Param("id") int id);
+
+    /**
+     * 查询全部账户的id和名称，AccountIdResolver启动加载时使用（不需要余额）
+     */
+    @Select("SELECT id, name FROM account")
+    List<Account> selectIdAndName();
+
+    /**
+     * 按名称查询账户id，缓存中没有时使用（如其他进程新开的账户）
+     *
+     * @return 账户ID，不存在时为null
+     */
+    @Select("SELECT id FROM account WHERE name = #{name}")
+    Integer selectIdByName(@Param("name") String name);
+
+    /**
+     * 开户
+     *
+     * @Options(useGeneratedKeys = true) - 插入后把数据库生成的自增主键回填到account.id
+     *
+     * @param account 账户名称和初始余额
+     */
+    @Insert("INSERT INTO account (name, money) VALUES (#{name}, #{money})")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    void insert(Account account);
+}
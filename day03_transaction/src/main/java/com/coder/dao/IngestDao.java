@@ -0,0 +1,39 @@
+package com.coder.dao;
+
+import com.coder.domain.IngestCheckpoint;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * 批量导入检查点数据访问层接口（表结构见init_ingest.sql）
+ *
+ * 导入时由BATCH执行器的SqlSessionTemplate获取，与余额更新在同一批中提交
+ *
+ * 列名与属性名不同的地方在SQL中用AS指定别名
+ */
+public interface IngestDao {
+
+    @Select("SELECT job_id AS jobId, file_name AS fileName, file_size AS fileSize, file_offset AS fileOffset, " +
+            "line_no AS lineNo, applied, rejected, reject_offset AS rejectOffset, done " +
+            "FROM ingest_checkpoint WHERE job_id = #{jobId}")
+    IngestCheckpoint selectCheckpoint(@Param("jobId") String jobId);
+
+    @Insert("INSERT INTO ingest_checkpoint (job_id, file_name, file_size, file_offset, line_no, applied, rejected, " +
+            "reject_offset, done) VALUES (#{jobId}, #{fileName}, #{fileSize}, #{fileOffset}, #{lineNo}, #{applied}, " +
+            "#{rejected}, #{rejectOffset}, #{done})")
+    void insertCheckpoint(IngestCheckpoint checkpoint);
+
+    /**
+     * 推进检查点，与本分块的余额更新在同一个事务中
+     *
+     * 条件中带上原来的位置（乐观锁）：另一个进程用同一个jobId导入并已推进时更新0行，调用方据此放弃
+     *
+     * @param expectedOffset 本分块开始时的fileOffset
+     */
+    @Update("UPDATE ingest_checkpoint SET file_offset = #{c.fileOffset}, line_no = #{c.lineNo}, " +
+            "applied = #{c.applied}, rejected = #{c.rejected}, reject_offset = #{c.rejectOffset}, done = #{c.done} " +
+            "WHERE job_id = #{c.jobId} AND file_offset = #{expectedOffset}")
+    int updateCheckpoint(@Param("c") IngestCheckpoint checkpoint, @Param("expectedOffset") long expectedOffset);
+}
@@ -0,0 +1,118 @@
+package com.coder.dao;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * 账本数据访问层接口（表结构见init_ledger.sql）
+ *
+ * - ledger_entry：只插入的分录表，转账时为转出方插入负数分录、为转入方插入正数分录
+ * - account_snapshot：余额快照，由压缩任务定期把分录合并进来
+ *
+ * 余额 = 快照余额（没有快照时取account.money）+ 快照之后的分录合计
+ */
+public interface LedgerDao {
+
+    /**
+     * 追加一条分录
+     *
+     * 只插入新行，不修改已有的行，并发转账之间不争抢同一行；
+     * 但另一个事务正在对该账户做余额检查（selectBalanceForUpdate锁住了分录范围）时，插入要等它结束
+     *
+     * @param accountId 账户ID
+     * @param amount    金额，转入为正，转出为负
+     */
+    @Insert("INSERT INTO ledger_entry (account_id, amount) VALUES (#{accountId}, #{amount})")
+    void insertEntry(@Param("accountId") int accountId, @Param("amount") double amount);
+
+    /**
+     * 查询余额（一致性读，不加锁）
+     *
+     * 通过LEFT JOIN在一条语句中完成"快照 + 之后的分录"，快照之后的分录走idx_account_entry索引
+     *
+     * @return 余额，账户不存在时为null
+     */
+    @Select("SELECT COALESCE(s.balance, a.money) + COALESCE(SUM(e.amount), 0) FROM account a " +
+            "LEFT JOIN account_snapshot s ON s.account_id = a.id " +
+            "LEFT JOIN ledger_entry e ON e.account_id = a.id AND e.id > COALESCE(s.last_entry_id, 0) " +
+            "WHERE a.id = #{accountId} GROUP BY a.id, a.money, s.balance")
+    Double selectBalance(@Param("accountId") int accountId);
+
+    /**
+     * 查询余额并加锁（转出前的余额检查）
+     *
+     * FOR UPDATE是加锁读，读到的是最新提交的数据，并锁住：
+     * - 账户行和快照行：同一账户的余额检查串行执行，压缩任务更新快照时也要等待
+     * - 该账户快照之后的分录范围（索引间隙）：其他事务给这个账户追加分录要等本事务结束
+     * 只在检查的转出账户上加锁，其他账户的转账不受影响
+     *
+     * @return 余额，账户不存在时为null
+     */
+    @Select("SELECT COALESCE(s.balance, a.money) + COALESCE(SUM(e.amount), 0) FROM account a " +
+            "LEFT JOIN account_snapshot s ON s.account_id = a.id " +
+            "LEFT JOIN ledger_entry e ON e.account_id = a.id AND e.id > COALESCE(s.last_entry_id, 0) " +
+            "WHERE a.id = #{accountId} GROUP BY a.id, a.money, s.balance FOR UPDATE")
+    Double selectBalanceForUpdate(@Param("accountId") int accountId);
+
+    /**
+     * 本次压缩的候选上限：早于"当前时间 - lagSeconds"的已提交的最大分录ID
+     *
+     * 只是候选：更小的id可能属于还没提交的事务，合并前要先用awaitEntries等它们结束
+     *
+     * @return 分录ID，没有可压缩的分录时为null
+     */
+    @Select("SELECT MAX(id) FROM ledger_entry WHERE create_time < NOW(3) - INTERVAL #{lagSeconds} SECOND")
+    Long selectCompactionWatermark(@Param("lagSeconds") long lagSeconds);
+
+    /**
+     * 已经合并到的分录ID：每次压缩都等过了这个ID及之前的全部分录，之前不会再有未提交的分录
+     */
+    @Select("SELECT COALESCE(MAX(last_entry_id), 0) FROM account_snapshot")
+    long selectCompactedUpTo();
+
+    /**
+     * 等待(afterId, upTo]范围内未提交的分录
+     *
+     * 加锁读遇到其他事务插入、尚未提交的行时，要等该事务提交或回滚（最长innodb_lock_wait_timeout，超时抛出异常）；
+     * 返回时范围内的分录都已确定，合并不会漏掉。聚簇索引的行在插入语句开始时就写入，
+     * 即使该事务随后在二级索引上等待余额检查的间隙锁，这里也能看到并等待它
+     *
+     * @return 范围内的分录数
+     */
+    @Select("SELECT COUNT(*) FROM ledger_entry WHERE id > #{afterId} AND id <= #{upTo} FOR SHARE")
+    long awaitEntries(@Param("afterId") long afterId, @Param("upTo") long upTo);
+
+    /**
+     * 为还没有快照的账户建立快照：余额取account.money，尚未合并任何分录
+     *
+     * @return 新建的快照数
+     */
+    @Insert("INSERT INTO account_snapshot (account_id, balance, last_entry_id) " +
+            "SELECT a.id, a.money, 0 FROM account a " +
+            "LEFT JOIN account_snapshot s ON s.account_id = a.id WHERE s.account_id IS NULL")
+    int insertMissingSnapshots();
+
+    /**
+     * 把(last_entry_id, upTo]范围内的分录按账户合计后加到快照上
+     *
+     * 一条UPDATE完成所有账户，读余额的事务看到的要么是压缩前，要么是压缩后，合计结果相同
+     *
+     * @param upTo 本次合并到的分录ID（含）
+     * @return 更新的快照数
+     */
+    @Update("UPDATE account_snapshot s JOIN (" +
+            "SELECT e.account_id, SUM(e.amount) AS delta FROM ledger_entry e " +
+            "JOIN account_snapshot s2 ON s2.account_id = e.account_id " +
+            "WHERE e.id > s2.last_entry_id AND e.id <= #{upTo} GROUP BY e.account_id" +
+            ") d ON d.account_id = s.account_id " +
+            "SET s.balance = s.balance + d.delta, s.last_entry_id = #{upTo}")
+    int compact(@Param("upTo") long upTo);
+
+    /**
+     * 分录总数
+     */
+    @Select("SELECT COUNT(*) FROM ledger_entry")
+    long countEntries();
+}
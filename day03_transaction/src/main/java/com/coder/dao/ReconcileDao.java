@@ -0,0 +1,122 @@
+package com.coder.dao;
+
+import com.coder.domain.AccountDelta;
+import com.coder.domain.ReconcileAccount;
+import com.coder.domain.ReconcileCheckpoint;
+import com.coder.domain.ReconcileDiscrepancy;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 对账数据访问层接口（表结构见init_reconcile.sql）
+ *
+ * 账户按ID做键集分页（WHERE id > 上一页最后的ID ORDER BY id LIMIT n），
+ * 不使用OFFSET，翻到多深都只读取本页的行
+ *
+ * 列名与属性名不同的地方在SQL中用AS指定别名
+ */
+public interface ReconcileDao {
+
+    @Delete("DELETE FROM reconcile_baseline")
+    int deleteBaseline();
+
+    /**
+     * 给所有账户行加共享锁，建立基线前调用
+     *
+     * 要等正在进行的转账（已经改过余额、持有行锁）全部提交或回滚，之后到本事务结束前，
+     * 新的转账改余额时要等待。读money走聚簇索引，锁住的是转账UPDATE修改的那些行
+     *
+     * @return 余额合计
+     */
+    @Select("SELECT COALESCE(SUM(money), 0) FROM account FOR SHARE")
+    double lockAccounts();
+
+    /**
+     * 以当前余额建立基线，一条语句同时记录transfer_log的最大ID
+     *
+     * 需要先在同一个事务中调用lockAccounts：否则正在进行的转账可能已经提交了完成日志（REQUIRES_NEW），
+     * 余额的修改却还没提交，基线包含日志却不包含余额变化
+     *
+     * @return 建立基线的账户数
+     */
+    @Insert("INSERT INTO reconcile_baseline (account_id, money, log_id) " +
+            "SELECT id, money, (SELECT COALESCE(MAX(id), 0) FROM transfer_log) FROM account")
+    int insertBaseline();
+
+    @Select("SELECT MAX(id) FROM account")
+    Integer selectMaxAccountId();
+
+    /**
+     * 读取范围内的一页账户及其基线
+     *
+     * @param afterId  上一页最后的账户ID
+     * @param rangeEnd 范围终点（含）
+     * @param limit    每页账户数
+     */
+    @Select("SELECT a.id, a.name, a.money, b.money AS baselineMoney, b.log_id AS baselineLogId " +
+            "FROM account a LEFT JOIN reconcile_baseline b ON b.account_id = a.id " +
+            "WHERE a.id > #{afterId} AND a.id <= #{rangeEnd} ORDER BY a.id LIMIT #{limit}")
+    List<ReconcileAccount> selectAccountPage(@Param("afterId") int afterId, @Param("rangeEnd") int rangeEnd,
+                                             @Param("limit") int limit);
+
+    /**
+     * 汇总(afterId, lastId]范围内各账户在基线之后已完成的转账
+     *
+     * 转入、转出分别按to_account、from_account关联（各自走索引），再用UNION ALL合并，
+     * 同一账户可能返回两行（转入合计和转出合计），由调用方相加
+     *
+     * @param message 已完成转账的日志内容，见TransferLogService.COMPLETED_MESSAGE
+     */
+    @Select("SELECT a.id AS accountId, SUM(l.amount) AS delta FROM account a " +
+            "JOIN reconcile_baseline b ON b.account_id = a.id " +
+            "JOIN transfer_log l ON l.to_account = a.name AND l.id > b.log_id " +
+            "WHERE a.id > #{afterId} AND a.id <= #{lastId} AND l.status = 'SUCCESS' AND l.message = #{message} " +
+            "GROUP BY a.id " +
+            "UNION ALL " +
+            "SELECT a.id AS accountId, -SUM(l.amount) AS delta FROM account a " +
+            "JOIN reconcile_baseline b ON b.account_id = a.id " +
+            "JOIN transfer_log l ON l.from_account = a.name AND l.id > b.log_id " +
+            "WHERE a.id > #{afterId} AND a.id <= #{lastId} AND l.status = 'SUCCESS' AND l.message = #{message} " +
+            "GROUP BY a.id")
+    List<AccountDelta> selectCompletedTransfers(@Param("afterId") int afterId, @Param("lastId") int lastId,
+                                                @Param("message") String message);
+
+    @Select("SELECT run_id AS runId, range_start AS rangeStart, range_end AS rangeEnd, last_id AS lastId, " +
+            "accounts, unbaselined, discrepancies, baseline_total AS baselineTotal, actual_total AS actualTotal, done " +
+            "FROM reconcile_checkpoint WHERE run_id = #{runId} ORDER BY range_start")
+    List<ReconcileCheckpoint> selectCheckpoints(@Param("runId") String runId);
+
+    @Insert("INSERT INTO reconcile_checkpoint (run_id, range_start, range_end, last_id) " +
+            "VALUES (#{runId}, #{rangeStart}, #{rangeEnd}, #{rangeStart})")
+    void insertCheckpoint(@Param("runId") String runId, @Param("rangeStart") int rangeStart,
+                          @Param("rangeEnd") int rangeEnd);
+
+    /**
+     * 保存一页的处理结果，与本页的读取在同一个事务中
+     */
+    @Update("UPDATE reconcile_checkpoint SET last_id = #{lastId}, accounts = #{accounts}, " +
+            "unbaselined = #{unbaselined}, discrepancies = #{discrepancies}, baseline_total = #{baselineTotal}, " +
+            "actual_total = #{actualTotal}, done = #{done} " +
+            "WHERE run_id = #{runId} AND range_start = #{rangeStart}")
+    void updateCheckpoint(ReconcileCheckpoint checkpoint);
+
+    /**
+     * 记录差异，重复对账同一批次时覆盖
+     */
+    @Insert("INSERT INTO reconcile_discrepancy (run_id, account_id, name, expected, actual) " +
+            "VALUES (#{runId}, #{accountId}, #{name}, #{expected}, #{actual}) " +
+            "ON DUPLICATE KEY UPDATE expected = VALUES(expected), actual = VALUES(actual)")
+    void upsertDiscrepancy(ReconcileDiscrepancy discrepancy);
+
+    @Delete("DELETE FROM reconcile_discrepancy WHERE run_id = #{runId} AND account_id = #{accountId}")
+    void deleteDiscrepancy(@Param("runId") String runId, @Param("accountId") int accountId);
+
+    @Select("SELECT run_id AS runId, account_id AS accountId, name, expected, actual " +
+            "FROM reconcile_discrepancy WHERE run_id = #{runId} ORDER BY account_id")
+    List<ReconcileDiscrepancy> selectDiscrepancies(@Param("runId") String runId);
+}
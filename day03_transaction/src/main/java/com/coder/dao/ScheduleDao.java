@@ -0,0 +1,88 @@
+package com.coder.dao;
+
+import com.coder.domain.ScheduledTransfer;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 定时转账数据访问层接口（表结构见init_schedule.sql）
+ *
+ * 状态更新的条件都带上state = 'PENDING'和加载时的due_at：
+ * 计划在加载之后被取消、已被其他进程执行或已推进到下一次时更新0行，调用方据此跳过
+ *
+ * 列名与属性名不同的地方在SQL中用AS指定别名
+ */
+public interface ScheduleDao {
+
+    @Insert("INSERT INTO scheduled_transfer (from_account, to_account, amount, due_at, interval_seconds, state) " +
+            "VALUES (#{fromAccount}, #{toAccount}, #{amount}, #{dueAt}, #{intervalSeconds}, 'PENDING')")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    void insert(ScheduledTransfer schedule);
+
+    @Select("SELECT id, from_account AS fromAccount, to_account AS toAccount, amount, due_at AS dueAt, " +
+            "interval_seconds AS intervalSeconds, state, attempts, executions, message, " +
+            "last_executed_at AS lastExecutedAt FROM scheduled_transfer WHERE id = #{id}")
+    ScheduledTransfer selectById(@Param("id") long id);
+
+    /**
+     * 按(due_at, id)键集分页加载一个时间窗口内的待执行计划
+     *
+     * @param afterDueAt 游标：上一页最后一行的due_at
+     * @param afterId    游标：上一页最后一行的id
+     * @param before     窗口终点（不含）
+     */
+    @Select("SELECT id, from_account AS fromAccount, to_account AS toAccount, amount, due_at AS dueAt, " +
+            "interval_seconds AS intervalSeconds, state, attempts, executions, message, " +
+            "last_executed_at AS lastExecutedAt FROM scheduled_transfer WHERE state = 'PENDING' " +
+            "AND (due_at > #{afterDueAt} OR (due_at = #{afterDueAt} AND id > #{afterId})) " +
+            "AND due_at < #{before} ORDER BY due_at, id LIMIT #{limit}")
+    List<ScheduledTransfer> selectDue(@Param("afterDueAt") LocalDateTime afterDueAt, @Param("afterId") long afterId,
+                                      @Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    /**
+     * 已过期仍未执行的计划：加载游标已经越过、却不在内存中的行（如其他进程新建的计划）
+     */
+    @Select("SELECT id, from_account AS fromAccount, to_account AS toAccount, amount, due_at AS dueAt, " +
+            "interval_seconds AS intervalSeconds, state, attempts, executions, message, " +
+            "last_executed_at AS lastExecutedAt FROM scheduled_transfer WHERE state = 'PENDING' AND due_at < #{before} " +
+            "ORDER BY due_at, id LIMIT #{limit}")
+    List<ScheduledTransfer> selectOverdue(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    /**
+     * 认领一次到期：一次性计划改为EXECUTED，定期计划推进到nextDueAt，与转账在同一个事务中
+     *
+     * @param nextDueAt 定期计划的下一次执行时间，一次性计划传入原来的dueAt
+     * @return 1表示认领成功，0表示计划已不是这次到期（被取消、已执行或已推进）
+     */
+    @Update("UPDATE scheduled_transfer SET " +
+            "state = CASE WHEN interval_seconds IS NULL THEN 'EXECUTED' ELSE 'PENDING' END, " +
+            "due_at = #{nextDueAt}, attempts = 0, executions = executions + 1, message = NULL, " +
+            "last_executed_at = #{executedAt} " +
+            "WHERE id = #{id} AND state = 'PENDING' AND due_at = #{dueAt}")
+    int claim(@Param("id") long id, @Param("dueAt") LocalDateTime dueAt, @Param("nextDueAt") LocalDateTime nextDueAt,
+              @Param("executedAt") LocalDateTime executedAt);
+
+    /**
+     * 执行失败，稍后重试
+     */
+    @Update("UPDATE scheduled_transfer SET due_at = #{retryAt}, attempts = attempts + 1, message = #{message} " +
+            "WHERE id = #{id} AND state = 'PENDING' AND due_at = #{dueAt}")
+    int reschedule(@Param("id") long id, @Param("dueAt") LocalDateTime dueAt,
+                   @Param("retryAt") LocalDateTime retryAt, @Param("message") String message);
+
+    /**
+     * 执行失败且重试次数用完
+     */
+    @Update("UPDATE scheduled_transfer SET state = 'FAILED', attempts = attempts + 1, message = #{message} " +
+            "WHERE id = #{id} AND state = 'PENDING' AND due_at = #{dueAt}")
+    int fail(@Param("id") long id, @Param("dueAt") LocalDateTime dueAt, @Param("message") String message);
+
+    @Update("UPDATE scheduled_transfer SET state = 'CANCELLED' WHERE id = #{id} AND state = 'PENDING'")
+    int cancel(@Param("id") long id);
+}
@@ -0,0 +1,74 @@
+package com.coder.dao;
+
+import com.coder.domain.TransferAuditRecord;
+import com.coder.domain.TransferLog;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 转账审计数据访问层接口（表结构见init_audit.sql）
+ *
+ * 紧凑审计模式：每笔转账在开始时INSERT一行，之后按主键UPDATE推进状态
+ * 状态推进的UPDATE都带 AND state = 'STARTED'：只能从STARTED推进一次，返回0行说明状态已经变过
+ */
+public interface TransferAuditDao {
+
+    /**
+     * 转账开始，插入一行（STARTED）
+     *
+     * @Options(useGeneratedKeys = true) - 插入后把自增主键回填到record.id，作为转账ID
+     */
+    @Insert("INSERT INTO transfer_audit (from_account, to_account, amount, state, started_at) " +
+            "VALUES (#{fromAccount}, #{toAccount}, #{amount}, #{state}, #{startedAt})")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    void insert(TransferAuditRecord record);
+
+    /**
+     * STARTED -> COMPLETED
+     *
+     * @return 影响的行数，记录不是STARTED状态时为0
+     */
+    @Update("UPDATE transfer_audit SET state = 'COMPLETED', debited_at = #{debitedAt}, completed_at = #{completedAt} " +
+            "WHERE id = #{id} AND state = 'STARTED'")
+    int complete(TransferAuditRecord record);
+
+    /**
+     * STARTED -> FAILED
+     *
+     * @return 影响的行数，记录不是STARTED状态时为0
+     */
+    @Update("UPDATE transfer_audit SET state = 'FAILED', message = #{message}, debited_at = #{debitedAt}, " +
+            "failed_at = #{failedAt} WHERE id = #{id} AND state = 'STARTED'")
+    int fail(TransferAuditRecord record);
+
+    @Select("SELECT id, from_account AS fromAccount, to_account AS toAccount, amount, state, message, " +
+            "started_at AS startedAt, debited_at AS debitedAt, completed_at AS completedAt, failed_at AS failedAt " +
+            "FROM transfer_audit WHERE id = #{id}")
+    TransferAuditRecord selectById(@Param("id") long id);
+
+    /**
+     * 按原来的多行格式还原一笔转账的日志（视图transfer_audit_log）
+     *
+     * 每个已记录时间戳的状态还原为一行，message与逐行日志模式相同；
+     * 还原出的各行id都是转账ID
+     */
+    @Select("SELECT transfer_id AS id, from_account AS fromAccount, to_account AS toAccount, amount, status, message, " +
+            "create_time AS createTime FROM transfer_audit_log WHERE transfer_id = #{transferId} ORDER BY seq")
+    List<TransferLog> selectLogs(@Param("transferId") long transferId);
+
+    /**
+     * 按原来的多行格式还原最近的转账日志，对应TransferLogDao.selectAll
+     *
+     * @param limit 最多还原的转账笔数（行数是它的2到3倍）
+     */
+    @Select("SELECT v.transfer_id AS id, v.from_account AS fromAccount, v.to_account AS toAccount, v.amount, v.status, " +
+            "v.message, v.create_time AS createTime FROM transfer_audit_log v " +
+            "JOIN (SELECT id FROM transfer_audit ORDER BY id DESC LIMIT #{limit}) t ON t.id = v.transfer_id " +
+            "ORDER BY v.transfer_id DESC, v.seq DESC")
+    List<TransferLog> selectRecentLogs(@Param("limit") int limit);
+}
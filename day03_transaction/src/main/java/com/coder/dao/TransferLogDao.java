@@ -1,7 +1,9 @@
 package com.coder.dao;
 
 import com.coder.domain.TransferLog;
+import com.coder.domain.TransferLogQuery;
 import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
 import java.util.List;
@@ -41,26 +43,46 @@ public interface TransferLogDao {
      *
      * SQL语句说明：
      * - INSERT INTO transfer_log: 向transfer_log表插入数据
-     * - (from_account, to_account, amount, status, message): 要插入的字段列表
+     * - (id, from_account, to_account, amount, status, message): 要插入的字段列表
      * - VALUES (...): 对应的值，使用#{...}引用方法参数
      *
      * 字段映射说明：
+     * - #{id}: 对应TransferLog对象的id属性，由SnowflakeIdGenerator在插入前生成
      * - #{fromAccount}: 对应TransferLog对象的fromAccount属性
      * - #{toAccount}: 对应TransferLog对象的toAccount属性
      * - #{amount}: 对应TransferLog对象的amount属性
      * - #{status}: 对应TransferLog对象的status属性
      * - #{message}: 对应TransferLog对象的message属性
      *
-     * 注意：id和create_time字段不需要插入
-     * - id是自增主键，数据库自动生成
-     * - create_time有默认值CURRENT_TIMESTAMP
+     * 注意：
+     * - id不再是自增主键，调用方插入前必须设置（见TransferLogServiceImpl）
+     * - create_time字段不需要插入，有默认值CURRENT_TIMESTAMP
      *
      * @param log 转账日志对象，包含转账的详细信息
      */
-    @Insert("INSERT INTO transfer_log (from_account, to_account, amount, status, message) " +
-            "VALUES (#{fromAccount}, #{toAccount}, #{amount}, #{status}, #{message})")
+    @Insert("INSERT INTO transfer_log (id, from_account, to_account, amount, status, message) " +
+            "VALUES (#{id}, #{fromAccount}, #{toAccount}, #{amount}, #{status}, #{message})")
     void insert(TransferLog log);
 
+    /**
+     * 批量插入转账日志
+     *
+     * 使用MyBatis动态SQL的<foreach>拼接成一条多行INSERT语句：
+     * INSERT INTO transfer_log (...) VALUES (...), (...), (...)
+     * 一次网络往返插入多条记录，供微批处理（@Batched）使用
+     * 每条日志的id在插入前已经生成，不需要再从数据库取回
+     *
+     * @param logs 日志列表，不能为空，id都已设置
+     * @return 插入的行数
+     */
+    @Insert({"<script>",
+            "INSERT INTO transfer_log (id, from_account, to_account, amount, status, message) VALUES ",
+            "<foreach collection='logs' item='log' separator=','>",
+            "(#{log.id}, #{log.fromAccount}, #{log.toAccount}, #{log.amount}, #{log.status}, #{log.message})",
+            "</foreach>",
+            "</script>"})
+    int insertAll(@Param("logs") List<TransferLog> logs);
+
     /**
      * 查询所有转账日志记录
      *
@@ -96,4 +118,48 @@ public interface TransferLogDao {
      */
     @Select("SELECT * FROM transfer_log WHERE status = #{status} ORDER BY create_time DESC")
     List<TransferLog> selectByStatus(String status);
+
+    /**
+     * 查询一个账户的转账历史（一页）
+     *
+     * 依赖init_log_search.sql中的两个索引：
+     * - idx_log_from_time (from_account, create_time, id, status, amount)
+     * - idx_log_to_time   (to_account, create_time, id, status, amount)
+     *
+     * 执行方式（延迟关联）：
+     * 1. 每个方向一个子查询，只读索引：账户等值定位，索引中账户之后就是(create_time, id)，
+     *    ORDER BY create_time DESC, id DESC直接倒序扫描索引，不需要排序，读够LIMIT条就停；
+     *    状态、金额也在索引中，过滤不需要回表（EXPLAIN中为Using where; Using index）
+     * 2. 转出、转入两个分支用UNION ALL合并，再取前LIMIT条，只对这些id回表读取完整的行
+     * 按对方账户过滤时，对方账户不在索引中，子查询需要回表读取这一列
+     *
+     * 翻页条件写成 create_time < ? OR (create_time = ? AND id < ?)，优化器可以把它转换为索引上的范围；
+     * create_time只精确到秒，同一秒内的多条日志靠id区分先后
+     *
+     * 动态SQL说明：
+     * - foreach遍历TransferLogQuery.getBranches()，每个分支的列名用${}拼入（只能是固定的几个列名）
+     * - if：条件为null时不拼接对应的过滤，XML中的 < > 要写成 &lt; &gt;
+     *
+     * @param query 查询条件，调用前已通过validate()检查
+     * @return 按create_time、id倒序的日志，最多query.limit条
+     */
+    @Select({"<script>",
+            "SELECT l.id, l.from_account AS fromAccount, l.to_account AS toAccount, l.amount, l.status, l.message, ",
+            "l.create_time AS createTime FROM (",
+            "<foreach collection='q.branches' item='b' separator=' UNION ALL '>",
+            "(SELECT id, create_time FROM transfer_log WHERE ${b.column} = #{q.account}",
+            "<if test='b.excludeSelf'> AND ${b.otherColumn} &lt;&gt; #{q.account}</if>",
+            "<if test='q.counterparty != null'> AND ${b.otherColumn} = #{q.counterparty}</if>",
+            "<if test='q.status != null'> AND status = #{q.status}</if>",
+            "<if test='q.createdFrom != null'> AND create_time &gt;= #{q.createdFrom}</if>",
+            "<if test='q.createdTo != null'> AND create_time &lt; #{q.createdTo}</if>",
+            "<if test='q.minAmount != null'> AND amount &gt;= #{q.minAmount}</if>",
+            "<if test='q.maxAmount != null'> AND amount &lt;= #{q.maxAmount}</if>",
+            "<if test='q.afterId != null'> AND (create_time &lt; #{q.afterCreateTime} ",
+            "OR (create_time = #{q.afterCreateTime} AND id &lt; #{q.afterId}))</if>",
+            " ORDER BY create_time DESC, id DESC LIMIT #{q.limit})",
+            "</foreach>",
+            ") k JOIN transfer_log l ON l.id = k.id ORDER BY k.create_time DESC, k.id DESC LIMIT #{q.limit}",
+            "</script>"})
+    List<TransferLog> search(@Param("q") TransferLogQuery query);
 }
@@ -0,0 +1,14 @@
+package com.coder.domain;
+
+import lombok.Data;
+
+/**
+ * 按账户汇总的转账金额：转入为正，转出为负
+ */
+@Data
+public class AccountDelta {
+
+    private Integer accountId;
+
+    private Double delta;
+}
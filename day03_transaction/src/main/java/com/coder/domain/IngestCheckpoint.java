@@ -0,0 +1,36 @@
+package com.coder.domain;
+
+import lombok.Data;
+
+/**
+ * 批量导入检查点实体类
+ * 对应数据库表 ingest_checkpoint，一行是一次导入任务（jobId）
+ *
+ * 计数都是截至fileOffset的累计值，每提交一个分块与余额更新在同一个事务中更新，
+ * 中断后以相同的jobId再次导入，从fileOffset继续，已提交的行不会重复入账
+ */
+@Data
+public class IngestCheckpoint {
+
+    private String jobId;
+
+    private String fileName;
+
+    /** 文件大小，继续导入时用来确认是同一个文件 */
+    private Long fileSize;
+
+    /** 已处理到的字节位置（下一行的起点） */
+    private Long fileOffset;
+
+    /** 已处理的行数（含表头和空行） */
+    private Long lineNo;
+
+    private Long applied;
+
+    private Long rejected;
+
+    /** 拒绝文件中已提交的字节数，继续导入时把拒绝文件截断到这里，去掉上次未提交分块写入的内容 */
+    private Long rejectOffset;
+
+    private Boolean done;
+}
@@ -0,0 +1,25 @@
+package com.coder.domain;
+
+import lombok.Data;
+
+/**
+ * 对账时读取的账户：account表的余额及其在reconcile_baseline中的基线
+ *
+ * 基线之后新开的账户没有基线，baselineMoney和baselineLogId为null
+ */
+@Data
+public class ReconcileAccount {
+
+    private Integer id;
+
+    private String name;
+
+    /** 当前余额（account.money） */
+    private Double money;
+
+    /** 基线余额 */
+    private Double baselineMoney;
+
+    /** 基线对应的transfer_log最大ID，之后的日志计入期望余额 */
+    private Long baselineLogId;
+}
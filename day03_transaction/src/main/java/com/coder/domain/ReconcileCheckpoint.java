@@ -0,0 +1,34 @@
+package com.coder.domain;
+
+import lombok.Data;
+
+/**
+ * 对账检查点实体类
+ * 对应数据库表 reconcile_checkpoint，一行是一次对账（runId）中的一个账户ID范围 (rangeStart, rangeEnd]
+ *
+ * 计数和合计都是截至lastId的累计值，每处理完一页与lastId在同一个事务中更新
+ */
+@Data
+public class ReconcileCheckpoint {
+
+    private String runId;
+
+    private Integer rangeStart;
+
+    private Integer rangeEnd;
+
+    /** 已处理到的账户ID，初始为rangeStart */
+    private Integer lastId;
+
+    private Integer accounts;
+
+    private Integer unbaselined;
+
+    private Integer discrepancies;
+
+    private Double baselineTotal;
+
+    private Double actualTotal;
+
+    private Boolean done;
+}
@@ -0,0 +1,21 @@
+package com.coder.domain;
+
+import lombok.Data;
+
+/**
+ * 对账差异实体类
+ * 对应数据库表 reconcile_discrepancy：实际余额与期望余额（基线 + 已完成转账）不一致的账户
+ */
+@Data
+public class ReconcileDiscrepancy {
+
+    private String runId;
+
+    private Integer accountId;
+
+    private String name;
+
+    private Double expected;
+
+    private Double actual;
+}
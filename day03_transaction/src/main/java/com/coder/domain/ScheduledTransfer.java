@@ -0,0 +1,50 @@
+package com.coder.domain;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 定时转账实体类
+ * 对应数据库表 scheduled_transfer，一行是一个转账计划（一次性或定期）
+ */
+@Data
+public class ScheduledTransfer {
+
+    public static final String PENDING = "PENDING";
+
+    public static final String EXECUTED = "EXECUTED";
+
+    public static final String FAILED = "FAILED";
+
+    public static final String CANCELLED = "CANCELLED";
+
+    private Long id;
+
+    private String fromAccount;
+
+    private String toAccount;
+
+    private Double amount;
+
+    /** 下一次执行时间，定期转账每执行一次向后推进 */
+    private LocalDateTime dueAt;
+
+    /** 重复间隔（秒），null表示只执行一次 */
+    private Integer intervalSeconds;
+
+    private String state;
+
+    /** 本次到期已失败的次数，执行成功后清零 */
+    private Integer attempts;
+
+    private Integer executions;
+
+    private String message;
+
+    private LocalDateTime lastExecutedAt;
+
+    public boolean isRepeating() {
+        return intervalSeconds != null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.coder.domain;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 转账审计记录实体类
+ * 对应数据库表 transfer_audit：紧凑审计模式下每笔转账一行，状态在这一行上原地推进
+ *
+ * 状态：STARTED（已开始） -> COMPLETED（已完成） 或 FAILED（已失败）
+ * 每个状态一个时间戳列；转出完成的时间记在debitedAt上，随完成/失败一起写入
+ */
+@Data
+public class TransferAuditRecord {
+
+    public static final String STARTED = "STARTED";
+
+    public static final String COMPLETED = "COMPLETED";
+
+    public static final String FAILED = "FAILED";
+
+    /** 转账ID（自增主键） */
+    private Long id;
+
+    private String fromAccount;
+
+    private String toAccount;
+
+    private Double amount;
+
+    private String state;
+
+    /** 失败原因 */
+    private String message;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime debitedAt;
+
+    private LocalDateTime completedAt;
+
+    private LocalDateTime failedAt;
+}
@@ -38,9 +38,9 @@ public class TransferLog {
     /**
      * 日志ID
      * 对应数据库字段：id
-     * 类型：INT，主键，自增
+     * 类型：BIGINT，主键，插入前由SnowflakeIdGenerator生成（按时间大致有序）
      */
-    private Integer id;
+    private Long id;
 
     /**
      * 转出方账户
@@ -0,0 +1,35 @@
+package com.coder.domain;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 转账历史的一页结果（TransferLogService.searchLogs）
+ *
+ * 本页已满时，nextCreateTime/nextId为最后一条的create_time和id，
+ * 通过TransferLogQuery.after(page)设置到查询条件上即可取下一页；不满一页说明已经到底，两者为null
+ */
+@Data
+public class TransferLogPage {
+
+    private List<TransferLog> logs;
+
+    private LocalDateTime nextCreateTime;
+
+    private Long nextId;
+
+    public TransferLogPage(List<TransferLog> logs, int limit) {
+        this.logs = logs;
+        if (logs.size() >= limit) {
+            TransferLog last = logs.get(logs.size() - 1);
+            this.nextCreateTime = last.getCreateTime();
+            this.nextId = last.getId();
+        }
+    }
+
+    public boolean hasMore() {
+        return nextId != null;
+    }
+}
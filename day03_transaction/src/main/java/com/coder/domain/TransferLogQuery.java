@@ -0,0 +1,144 @@
+package com.coder.domain;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 账户转账历史的查询条件（TransferLogService.searchLogs）
+ *
+ * 必须指定账户，只在该账户的日志里查找，由(账户, create_time)索引定位，不做全表扫描；
+ * 其余条件都是可选的，为null时不参与过滤
+ *
+ * 结果按create_time、id倒序（最新的在前），用键集分页：
+ * 下一页把上一页最后一条的create_time和id设置为afterCreateTime/afterId，
+ * 翻到多深都只读取本页的索引项，不像OFFSET那样先读再丢弃前面的行
+ */
+@Data
+public class TransferLogQuery {
+
+    /** 每页最多条数的上限 */
+    public static final int MAX_LIMIT = 1000;
+
+    /**
+     * 查询方向
+     */
+    public enum Direction {
+        /** 只查转出（from_account = 账户） */
+        OUT,
+        /** 只查转入（to_account = 账户） */
+        IN,
+        /** 转出和转入 */
+        BOTH
+    }
+
+    /** 账户名称（必填） */
+    private String account;
+
+    private Direction direction = Direction.BOTH;
+
+    /** 对方账户：转出时为转入方，转入时为转出方 */
+    private String counterparty;
+
+    /** 状态（SUCCESS/FAILED） */
+    private String status;
+
+    /** 起始时间（含） */
+    private LocalDateTime createdFrom;
+
+    /** 结束时间（不含） */
+    private LocalDateTime createdTo;
+
+    /** 最小金额（含） */
+    private Double minAmount;
+
+    /** 最大金额（含） */
+    private Double maxAmount;
+
+    /** 上一页最后一条的create_time，第一页为null */
+    private LocalDateTime afterCreateTime;
+
+    /** 上一页最后一条的id，与afterCreateTime一起设置 */
+    private Long afterId;
+
+    /** 每页条数 */
+    private int limit = 20;
+
+    /**
+     * 要查询的索引分支，供TransferLogDao.search中的foreach使用：
+     * BOTH时转出、转入各一个分支，分别走各自的索引，再用UNION ALL合并
+     */
+    public List<Branch> getBranches() {
+        switch (direction) {
+            case OUT:
+                return Collections.singletonList(Branch.OUT);
+            case IN:
+                return Collections.singletonList(Branch.IN);
+            default:
+                return Arrays.asList(Branch.OUT, Branch.IN_EXCLUDING_SELF);
+        }
+    }
+
+    /**
+     * 设置为下一页的查询条件
+     *
+     * @param page 上一页的查询结果
+     */
+    public void after(TransferLogPage page) {
+        this.afterCreateTime = page.getNextCreateTime();
+        this.afterId = page.getNextId();
+    }
+
+    /**
+     * @throws IllegalArgumentException 没有指定账户、每页条数超出范围或翻页条件不完整
+     */
+    public void validate() {
+        if (account == null || account.isEmpty()) {
+            throw new IllegalArgumentException("查询转账历史必须指定账户");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("每页条数必须在1到" + MAX_LIMIT + "之间：" + limit);
+        }
+        if ((afterCreateTime == null) != (afterId == null)) {
+            throw new IllegalArgumentException("afterCreateTime和afterId必须同时设置");
+        }
+    }
+
+    /**
+     * 一个索引分支：按哪一列定位账户，对方账户在哪一列
+     *
+     * 列名直接拼进SQL（${}），只能取这里的几个常量，不接受外部输入
+     */
+    public static final class Branch {
+
+        static final Branch OUT = new Branch("from_account", "to_account", false);
+        static final Branch IN = new Branch("to_account", "from_account", false);
+        /** BOTH的转入分支：自己转给自己的日志已在转出分支中，这里排除，避免重复 */
+        static final Branch IN_EXCLUDING_SELF = new Branch("to_account", "from_account", true);
+
+        private final String column;
+        private final String otherColumn;
+        private final boolean excludeSelf;
+
+        private Branch(String column, String otherColumn, boolean excludeSelf) {
+            this.column = column;
+            this.otherColumn = otherColumn;
+            this.excludeSelf = excludeSelf;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public String getOtherColumn() {
+            return otherColumn;
+        }
+
+        public boolean isExcludeSelf() {
+            return excludeSelf;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.coder.hot;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min Sketch：用固定大小的计数器表估计每个账户的语句次数和耗时
+ *
+ * depth行、每行width个计数器，一个键在每行各落到一个计数器上，估计值取各行中最小的一个：
+ * 只会高估（与其他键共用计数器），不会低估；热点账户的值远大于平均值，高估的部分可以忽略
+ *
+ * 每个计数器同时保存两个量：高40位是耗时（微秒），低24位是次数，
+ * 一次addAndGet同时累加两者，每行只有一次原子操作。
+ * 一个窗口内单个计数器最多累计约1677万次（2^24），超过后次数进位到耗时，按每秒数万次的行更新计算远够用
+ */
+final class CountMinSketch {
+
+    static final int COUNT_BITS = 24;
+
+    static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final AtomicLongArray cells;
+
+    private final int depth;
+
+    private final int widthBits;
+
+    private final int mask;
+
+    /**
+     * @param width 每行的计数器数（向上取整为2的幂）
+     * @param depth 行数
+     */
+    CountMinSketch(int width, int depth) {
+        this.widthBits = 32 - Integer.numberOfLeadingZeros(Math.max(2, width) - 1);
+        this.mask = (1 << widthBits) - 1;
+        this.depth = Math.max(1, depth);
+        this.cells = new AtomicLongArray(this.depth << widthBits);
+    }
+
+    /**
+     * 累加一次语句
+     *
+     * @param key    账户键
+     * @param micros 语句耗时（微秒）
+     * @return 累加后的估计值：高40位耗时（微秒），低24位次数
+     */
+    long add(long key, long micros) {
+        long increment = (micros << COUNT_BITS) + 1;
+        long hash = mix(key);
+        // 双重哈希：第i行的位置为 h1 + i * h2，各行相互独立，只需要算一次哈希
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long minMicros = Long.MAX_VALUE;
+        long minCount = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            long value = cells.addAndGet((row << widthBits) + ((h1 + row * h2) & mask), increment);
+            minMicros = Math.min(minMicros, value >>> COUNT_BITS);
+            minCount = Math.min(minCount, value & COUNT_MASK);
+        }
+        return minMicros << COUNT_BITS | minCount;
+    }
+
+    static long micros(long estimate) {
+        return estimate >>> COUNT_BITS;
+    }
+
+    static long count(long estimate) {
+        return estimate & COUNT_MASK;
+    }
+
+    /**
+     * 64位混合函数（SplitMix64的最后一步），连续的账户id也能均匀分散
+     */
+    private static long mix(long key) {
+        long z = key * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
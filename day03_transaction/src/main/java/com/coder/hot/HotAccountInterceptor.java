@@ -0,0 +1,69 @@
+package com.coder.hot;
+
+import com.coder.dao.AccountDao;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MyBatis拦截器 - 为HotAccountTracker提供每条改余额语句的账户和耗时
+ *
+ * 只处理AccountDao中改余额的UPDATE，其他语句直接放行（一次HashMap查找）：
+ * - outMoney/inMoney：按账户名
+ * - outMoneyById/inMoneyById/addMoneyById：按账户id
+ *
+ * 耗时从执行前到执行后（包括等待行锁的时间），在finally中记录：
+ * 等锁超时（Lock wait timeout）的语句正是最热的账户，也要计入。
+ * BATCH执行器下update只是把语句加入批次，耗时接近0，这时只有次数有参考意义
+ */
+@Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+public class HotAccountInterceptor implements Interceptor {
+
+    /** 语句id -> 账户参数名（@Param） */
+    private static final Map<String, String> STATEMENTS = new HashMap<>();
+
+    static {
+        String prefix = AccountDao.class.getName() + ".";
+        STATEMENTS.put(prefix + "outMoney", "name");
+        STATEMENTS.put(prefix + "inMoney", "name");
+        STATEMENTS.put(prefix + "outMoneyById", "id");
+        STATEMENTS.put(prefix + "inMoneyById", "id");
+        STATEMENTS.put(prefix + "addMoneyById", "id");
+    }
+
+    private final HotAccountTracker tracker;
+
+    public HotAccountInterceptor(HotAccountTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!tracker.isEnabled()) {
+            return invocation.proceed();
+        }
+        Object[] args = invocation.getArgs();
+        String param = STATEMENTS.get(((MappedStatement) args[0]).getId());
+        if (param == null || !(args[1] instanceof Map)) {
+            return invocation.proceed();
+        }
+        Object account = ((Map<?, ?>) args[1]).get(param);
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            long nanos = System.nanoTime() - start;
+            if (account instanceof Integer) {
+                tracker.recordById((Integer) account, nanos);
+            } else if (account != null) {
+                tracker.recordByName(account.toString(), nanos);
+            }
+        }
+    }
+}
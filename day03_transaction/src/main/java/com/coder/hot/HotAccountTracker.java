@@ -0,0 +1,203 @@
+package com.coder.hot;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 热点账户检测（配置见hot.properties，JMX中为com.coder -> HotAccounts）
+ *
+ * 吞吐量突然下降时，往往是少数账户的行锁上排起了长队，但从SQL统计只能看到"UPDATE account变慢了"。
+ * HotAccountInterceptor在每条改余额的UPDATE前后计时，交给这里按账户累计：
+ * - 语句耗时包含等待行锁的时间，热点账户的耗时远高于其他账户，按累计耗时排序就是争用最严重的账户
+ * - 不为每个账户建Map：Count-Min Sketch（固定大小的计数器表）估计每个账户的次数和耗时，
+ *   前K名由小顶堆（TopKeys）保留，内存与账户数无关
+ * - 每windowSeconds秒换一个新窗口，把刚结束的窗口的前N名输出到日志并保留供JMX查看；
+ *   当前窗口的前N名可以随时通过JMX查看
+ *
+ * 开销：每条语句两次System.nanoTime、depth次原子加和一次volatile读，
+ * 只有进入前K名的账户才需要加锁，与一条UPDATE的耗时（通常几十微秒以上）相比可以忽略
+ *
+ * 按名称和按id更新的语句分别统计（outMoney/inMoney与outMoneyById/inMoneyById/addMoneyById），
+ * 按id更新的账户显示为"账户#id"
+ */
+@ManagedResource(objectName = "com.coder:type=HotAccounts,name=accountDao", description = "热点账户（按语句耗时）")
+public class HotAccountTracker implements DisposableBean {
+
+    private final boolean enabled;
+
+    private final int width;
+
+    private final int depth;
+
+    private final int tracked;
+
+    private final int reportSize;
+
+    private final long windowSeconds;
+
+    private final boolean logWindows;
+
+    private volatile Window current;
+
+    private volatile String[] lastWindow = new String[0];
+
+    private ScheduledExecutorService rotator;
+
+    /**
+     * @param width         Count-Min Sketch每行的计数器数
+     * @param depth         Count-Min Sketch的行数
+     * @param tracked       每个窗口保留的候选账户数，应大于reportSize，减少排名边缘的误差
+     * @param reportSize    输出前几名
+     * @param windowSeconds 窗口长度（秒）
+     * @param logWindows    每个窗口结束时输出前几名到日志
+     */
+    public HotAccountTracker(boolean enabled, int width, int depth, int tracked, int reportSize, long windowSeconds,
+                             boolean logWindows) {
+        this.enabled = enabled;
+        this.width = width;
+        this.depth = depth;
+        this.tracked = Math.max(tracked, reportSize);
+        this.reportSize = reportSize;
+        this.windowSeconds = Math.max(1, windowSeconds);
+        this.logWindows = logWindows;
+        this.current = new Window();
+    }
+
+    /**
+     * 启动窗口切换线程（后台守护线程）；未开启时什么也不做
+     */
+    public synchronized void start() {
+        if (!enabled || rotator != null) {
+            return;
+        }
+        rotator = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "hot-account-window");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rotator.scheduleAtFixedRate(this::rotate, windowSeconds, windowSeconds, TimeUnit.SECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 记录一条按id更新余额的语句
+     */
+    public void recordById(int id, long nanos) {
+        record(id, id, nanos);
+    }
+
+    /**
+     * 记录一条按账户名更新余额的语句；名称的64位哈希设置最高位，与id区分开
+     */
+    public void recordByName(String name, long nanos) {
+        record(hash(name) | Long.MIN_VALUE, name, nanos);
+    }
+
+    private void record(long key, Object label, long nanos) {
+        Window window = current;
+        window.top.offer(key, label, window.sketch.add(key, nanos / 1000));
+    }
+
+    /**
+     * FNV-1a 64位哈希，账户数到百万级也几乎不会冲突（String.hashCode只有32位）
+     */
+    private static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * 换一个新窗口，刚结束的窗口的前N名保留下来并输出到日志
+     */
+    private void rotate() {
+        Window finished = current;
+        current = new Window();
+        lastWindow = format(finished);
+        if (logWindows && lastWindow.length > 0) {
+            StringBuilder report = new StringBuilder("【热点账户】").append(finished.start).append("起")
+                    .append(windowSeconds).append("秒内按语句耗时排序的前").append(lastWindow.length).append("个账户：");
+            for (String line : lastWindow) {
+                report.append(System.lineSeparator()).append("  ").append(line);
+            }
+            System.out.println(report);
+        }
+    }
+
+    private String[] format(Window window) {
+        List<TopKeys.Entry> top = window.top.top(reportSize);
+        String[] lines = new String[top.size()];
+        for (int i = 0; i < lines.length; i++) {
+            TopKeys.Entry entry = top.get(i);
+            double millis = entry.micros() / 1000.0;
+            lines[i] = String.format("%s：%d次，耗时%.1fms，平均%.3fms", label(entry.label), entry.count(), millis,
+                    millis / Math.max(1, entry.count()));
+        }
+        return lines;
+    }
+
+    private static String label(Object label) {
+        return label instanceof Integer ? "账户#" + label : String.valueOf(label);
+    }
+
+    @ManagedAttribute(description = "是否开启")
+    public boolean getEnabled() {
+        return enabled;
+    }
+
+    @ManagedAttribute(description = "窗口长度（秒）")
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    @ManagedAttribute(description = "上一个完整窗口内按语句耗时排序的前N个账户：次数、累计耗时、平均耗时")
+    public String[] getLastWindow() {
+        return lastWindow;
+    }
+
+    @ManagedOperation(description = "当前窗口（尚未结束）内按语句耗时排序的前N个账户")
+    public String[] currentWindow() {
+        return format(current);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (rotator != null) {
+            rotator.shutdownNow();
+            rotator = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "【热点账户】当前窗口：" + String.join("；", currentWindow());
+    }
+
+    /**
+     * 一个统计窗口：窗口切换时整体替换，正在记录的线程写完旧窗口即可，不需要加锁
+     */
+    private final class Window {
+
+        final LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        final CountMinSketch sketch = new CountMinSketch(width, depth);
+
+        final TopKeys top = new TopKeys(tracked);
+    }
+}
@@ -0,0 +1,103 @@
+package com.coder.hot;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 按估计值保留前K个键（小顶堆，堆顶是第K名）
+ *
+ * 估计值是CountMinSketch.add的返回值（高位耗时、低位次数），直接比较就是先按耗时、耗时相同再按次数排序。
+ * 堆满后把第K名的估计值记在volatile的threshold中：不超过它的键直接返回，不加锁；
+ * 同一窗口内估计值只增不减，绝大多数语句走这条路径，只有进入或已在前K名的键才需要加锁调整堆
+ */
+final class TopKeys {
+
+    private static final Comparator<Entry> BY_ESTIMATE = Comparator.comparingLong(e -> e.estimate);
+
+    private final int capacity;
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>(BY_ESTIMATE);
+
+    /** 堆满时第K名的估计值，未满时为-1 */
+    private volatile long threshold = -1;
+
+    TopKeys(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * @param label    显示用的账户名或id，只在键进入前K名时保存
+     * @param estimate CountMinSketch.add的返回值
+     */
+    void offer(long key, Object label, long estimate) {
+        if (estimate <= threshold) {
+            return;
+        }
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                // 并发时后到的估计值可能更小，只保留较大的
+                if (estimate > entry.estimate) {
+                    heap.remove(entry);
+                    entry.estimate = estimate;
+                    heap.add(entry);
+                }
+            } else if (heap.size() < capacity) {
+                add(key, label, estimate);
+            } else if (estimate > heap.peek().estimate) {
+                entries.remove(heap.poll().key);
+                add(key, label, estimate);
+            }
+            if (heap.size() == capacity) {
+                threshold = heap.peek().estimate;
+            }
+        }
+    }
+
+    private void add(long key, Object label, long estimate) {
+        Entry entry = new Entry(key, label, estimate);
+        entries.put(key, entry);
+        heap.add(entry);
+    }
+
+    /**
+     * 按估计值倒序的前n个
+     */
+    synchronized List<Entry> top(int n) {
+        List<Entry> sorted = new ArrayList<>(heap.size());
+        for (Entry entry : heap) {
+            sorted.add(new Entry(entry.key, entry.label, entry.estimate));
+        }
+        sorted.sort(BY_ESTIMATE.reversed());
+        return sorted.subList(0, Math.min(n, sorted.size()));
+    }
+
+    static final class Entry {
+
+        final long key;
+
+        final Object label;
+
+        long estimate;
+
+        Entry(long key, Object label, long estimate) {
+            this.key = key;
+            this.label = label;
+            this.estimate = estimate;
+        }
+
+        long micros() {
+            return CountMinSketch.micros(estimate);
+        }
+
+        long count() {
+            return CountMinSketch.count(estimate);
+        }
+    }
+}
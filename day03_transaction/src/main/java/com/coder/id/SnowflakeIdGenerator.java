@@ -0,0 +1,127 @@
+package com.coder.id;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 本地生成的64位时间有序ID（雪花算法，配置见id.properties）
+ *
+ * AUTO_INCREMENT的问题：多个应用节点同时大量插入时，自增锁和B+树最右边的页都是争用点；
+ * 批量插入后也不容易拿回每一行的ID。这里在应用内生成ID，插入前就已知道：
+ *
+ * <pre>
+ * | 1位符号(0) | 41位毫秒时间戳（从EPOCH起，约69年） | 10位节点号 | 12位序号 |
+ * </pre>
+ *
+ * - 不加锁：时间戳和序号合在一个AtomicLong中（state = 时间戳 << 12 | 序号），CAS更新
+ * - 同一毫秒内序号递增，4096个用完后直接借用下一毫秒，不等待；
+ *   持续超过每毫秒4096个、ID中的时间领先系统时钟达到maxLeadMillis时，才等待系统时钟追上
+ * - 时钟回拨（NTP校时等）：继续使用上次的时间戳递增，生成的ID仍然单调、不重复，
+ *   只是ID中的时间暂时领先于系统时钟；回拨超过maxLeadMillis时抛出IllegalStateException，
+ *   不再生成ID，避免时钟大幅回拨后长时间使用"未来"的时间
+ * - 同一节点内ID严格递增；不同节点之间按毫秒大致有序，新插入的行仍集中在索引的右侧
+ *
+ * 注意：
+ * - 节点号必须在所有同时写入的节点之间唯一，由配置指定
+ * - 进程重启不保留上次的时间戳：如果停机期间时钟回拨，重启后可能生成重复的ID，
+ *   插入时由主键约束拒绝（DuplicateKeyException），不会静默覆盖
+ */
+public class SnowflakeIdGenerator {
+
+    /** 时间戳起点：2024-01-01T00:00:00Z，修改后已生成的ID不再按时间有序 */
+    public static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    public static final int NODE_BITS = 10;
+
+    public static final int SEQUENCE_BITS = 12;
+
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final long WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final long nodeBits;
+
+    private final long maxLeadMillis;
+
+    /** 上一次生成的（时间戳 << 12 | 序号） */
+    private final AtomicLong state = new AtomicLong();
+
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder borrowed = new LongAdder();
+
+    /**
+     * @param nodeId        节点号，0 ~ MAX_NODE_ID
+     * @param maxLeadMillis ID中的时间最多领先系统时钟多少毫秒（时钟回拨或序号用完时）
+     */
+    public SnowflakeIdGenerator(int nodeId, long maxLeadMillis) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("节点号必须在0到" + MAX_NODE_ID + "之间：" + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.maxLeadMillis = maxLeadMillis;
+    }
+
+    /**
+     * 生成一个ID
+     *
+     * @throws IllegalStateException 系统时钟回拨超过maxLeadMillis
+     */
+    public long nextId() {
+        while (true) {
+            long now = System.currentTimeMillis() - EPOCH;
+            long last = state.get();
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                if (lastTimestamp - now > maxLeadMillis) {
+                    throw new IllegalStateException("系统时钟比上次生成ID时落后" + (lastTimestamp - now) + "毫秒，超过"
+                            + maxLeadMillis + "毫秒，暂停生成ID");
+                }
+                // 同一毫秒、时钟回拨：序号加1，序号用完时进位到下一毫秒
+                next = last + 1;
+                if ((next >>> SEQUENCE_BITS) - now > maxLeadMillis) {
+                    // 借用的时间已到上限，等系统时钟前进
+                    LockSupport.parkNanos(WAIT_NANOS);
+                    continue;
+                }
+            }
+            if (state.compareAndSet(last, next)) {
+                generated.increment();
+                if (next >>> SEQUENCE_BITS > now) {
+                    borrowed.increment();
+                }
+                return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public int getNodeId() {
+        return (int) (nodeBits >>> SEQUENCE_BITS);
+    }
+
+    /**
+     * ID中的时间（毫秒时间戳）
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    /**
+     * ID中的节点号
+     */
+    public static int nodeOf(long id) {
+        return (int) (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+
+    @Override
+    public String toString() {
+        return "节点" + getNodeId() + "，已生成" + generated.sum() + "个ID，其中" + borrowed.sum() + "个使用了领先于系统时钟的时间";
+    }
+}
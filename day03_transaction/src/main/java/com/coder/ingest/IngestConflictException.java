@@ -0,0 +1,11 @@
+package com.coder.ingest;
+
+/**
+ * 检查点已被其他进程推进（同一个导入任务在两处同时运行），本次导入放弃，已提交的分块不受影响
+ */
+public class IngestConflictException extends IllegalStateException {
+
+    public IngestConflictException(String message) {
+        super(message);
+    }
+}
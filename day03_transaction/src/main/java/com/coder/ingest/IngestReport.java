@@ -0,0 +1,77 @@
+package com.coder.ingest;
+
+import com.coder.domain.IngestCheckpoint;
+
+/**
+ * 一次导入的结果
+ *
+ * 行数、入账数、拒绝数取自检查点，是整个任务的累计值（含以前中断的运行）；
+ * 分块数、逐行重试数和耗时只统计本次运行
+ */
+public class IngestReport {
+
+    private final IngestCheckpoint checkpoint;
+
+    private final long resumedFrom;
+
+    private final int chunks;
+
+    private final int fallbackChunks;
+
+    private final long elapsedMillis;
+
+    IngestReport(IngestCheckpoint checkpoint, long resumedFrom, int chunks, int fallbackChunks, long elapsedMillis) {
+        this.checkpoint = checkpoint;
+        this.resumedFrom = resumedFrom;
+        this.chunks = chunks;
+        this.fallbackChunks = fallbackChunks;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getJobId() {
+        return checkpoint.getJobId();
+    }
+
+    public long getLines() {
+        return checkpoint.getLineNo();
+    }
+
+    public long getApplied() {
+        return checkpoint.getApplied();
+    }
+
+    public long getRejected() {
+        return checkpoint.getRejected();
+    }
+
+    public boolean isDone() {
+        return checkpoint.getDone();
+    }
+
+    /**
+     * 本次运行开始时的文件位置，大于0表示从检查点继续
+     */
+    public long getResumedFrom() {
+        return resumedFrom;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public int getFallbackChunks() {
+        return fallbackChunks;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("【导入结果】任务%s（%s）：%s，共%d行，入账%d行，拒绝%d行；"
+                        + "本次从第%d字节开始，提交%d个分块（逐行重试%d个），耗时%dms",
+                getJobId(), checkpoint.getFileName(), isDone() ? "已完成" : "未完成", getLines(), getApplied(),
+                getRejected(), resumedFrom, chunks, fallbackChunks, elapsedMillis);
+    }
+}
@@ -0,0 +1,115 @@
+package com.coder.ingest;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 一个分块：连续的若干行，在一个事务中入账并推进检查点
+ *
+ * 行的位置在读取线程中扫描换行符得到，解析和账户名校验由校验线程并行完成，
+ * 每个线程只写自己负责的下标，结果都放在数组中
+ */
+final class TransferChunk {
+
+    /** 分块所在的映射窗口 */
+    final ByteBuffer buffer;
+
+    /** 窗口起点在文件中的位置 */
+    final long base;
+
+    /** 分块起点在文件中的位置 */
+    final long startOffset;
+
+    /** 分块之前已处理的行数，第i行的行号为firstLineNo + i + 1 */
+    final long firstLineNo;
+
+    /** 分块终点（下一个分块的起点） */
+    long endOffset;
+
+    int count;
+
+    /** 行首、行尾（不含换行符）在窗口中的位置 */
+    final int[] starts;
+    final int[] ends;
+
+    /** TransferLineParser.BLANK/VALID/INVALID，解析通过但账户校验失败的也是INVALID */
+    final byte[] status;
+    final int[] fromIds;
+    final int[] toIds;
+    final double[] amounts;
+    final String[] errors;
+
+    TransferChunk(ByteBuffer buffer, long base, long startOffset, long firstLineNo, int capacity) {
+        this.buffer = buffer;
+        this.base = base;
+        this.startOffset = startOffset;
+        this.firstLineNo = firstLineNo;
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+        this.status = new byte[capacity];
+        this.fromIds = new int[capacity];
+        this.toIds = new int[capacity];
+        this.amounts = new double[capacity];
+        this.errors = new String[capacity];
+    }
+
+    void add(int start, int end) {
+        starts[count] = start;
+        ends[count] = end;
+        count++;
+    }
+
+    long lineNo(int i) {
+        return firstLineNo + i + 1;
+    }
+
+    /**
+     * 第i行之后（下一行的起点）在文件中的位置
+     */
+    long nextOffset(int i) {
+        return i == count - 1 ? endOffset : base + starts[i + 1];
+    }
+
+    int count(byte lineStatus) {
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (status[i] == lineStatus) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * 合并同一账户的多笔转账：账户id -> 净额，按id排序
+     *
+     * 代发工资时一个转出账户对应成千上万行，合并后每个分块只更新它一次；
+     * 按id顺序更新，多个导入同时运行时加锁顺序一致
+     */
+    Map<Integer, Double> netDeltas() {
+        Map<Integer, Double> deltas = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            if (status[i] == TransferLineParser.VALID) {
+                deltas.merge(fromIds[i], -amounts[i], Double::sum);
+                deltas.merge(toIds[i], amounts[i], Double::sum);
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * 第i行的原始字节（不含行尾的\r\n），写入拒绝文件
+     */
+    byte[] rawLine(int i) {
+        int end = ends[i];
+        if (end > starts[i] && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        byte[] line = new byte[end - starts[i]];
+        ByteBuffer view = buffer.duplicate();
+        view.position(starts[i]);
+        view.get(line);
+        return line;
+    }
+}
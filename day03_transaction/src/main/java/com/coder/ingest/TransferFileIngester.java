@@ -0,0 +1,463 @@
+package com.coder.ingest;
+
+import com.coder.account.AccountIdResolver;
+import com.coder.account.AccountNotFoundException;
+import com.coder.dao.AccountDao;
+import com.coder.dao.IngestDao;
+import com.coder.domain.IngestCheckpoint;
+import com.coder.ledger.BalanceStore;
+import com.coder.ledger.InPlaceBalanceStore;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量转账文件导入（配置见ingest.properties）
+ *
+ * 代发工资等场景一次提交几十万行转账，逐行调用AccountService.transfer要开几十万个事务。这里按分块流水线处理：
+ * 1. 读取：文件按窗口（mapWindowBytes）映射到内存，读取线程只扫描换行符，记下每行的起止位置
+ * 2. 校验：一个分块的行分给多个校验线程并行解析（TransferLineParser，不创建整行String），
+ *    账户名经AccountIdResolver解析为id，不存在的账户多数由布隆过滤器直接判定
+ * 3. 提交：同一账户的转账合并为净额，用BATCH执行器的AccountDao.addMoneyById按id顺序更新，
+ *    与检查点的推进放在同一个事务中，一次提交
+ *    读取线程提交当前分块时，下一个分块已经在校验
+ * - 不合格的行（格式错误、账户不存在、金额非法）写入拒绝文件：行号,原因,原始内容，不中断导入
+ * - 分块整体提交失败（如更新时账户已不存在）：回滚后逐行各自一个事务重试，因数据错误失败的行写入拒绝文件；
+ *   锁等待超时、死锁、连接中断等其他错误不拒绝这一行，而是中止导入，以相同的jobId再次导入时从检查点继续
+ * - 中断后以相同的jobId再次导入：从检查点的位置继续，拒绝文件截断到检查点记录的长度，
+ *   已提交的行不会重复入账，拒绝文件中也不会重复
+ *
+ * 注意：
+ * - 直接更新account.money，只支持ledger.mode=balance
+ * - 导入的转账不写transfer_log，对账任务会把涉及的账户报告为差异，导入前后应重新建立对账基线
+ * - 与AccountService.transfer一样不检查余额
+ */
+public class TransferFileIngester {
+
+    private final AccountIdResolver accountIdResolver;
+
+    private final BalanceStore balanceStore;
+
+    /** BATCH执行器：同一条SQL连续调用时只加入批次，flushStatements或提交时一次executeBatch */
+    private final SqlSessionTemplate batchSession;
+
+    private final TransactionTemplate transaction;
+
+    private final int chunkSize;
+
+    private final int validationThreads;
+
+    private final int mapWindowBytes;
+
+    private final boolean skipHeader;
+
+    /**
+     * @param chunkSize         每个分块（事务）的行数
+     * @param validationThreads 并行校验的线程数，账户名缓存未命中时会占用数据库连接
+     * @param mapWindowBytes    每次映射的文件大小，一行不能超过它
+     * @param skipHeader        第一行是表头，不导入
+     */
+    public TransferFileIngester(AccountIdResolver accountIdResolver, BalanceStore balanceStore,
+                                SqlSessionFactory sqlSessionFactory, PlatformTransactionManager transactionManager,
+                                int chunkSize, int validationThreads, int mapWindowBytes, boolean skipHeader) {
+        this.accountIdResolver = accountIdResolver;
+        this.balanceStore = balanceStore;
+        this.batchSession = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setName("TransferFileIngester.chunk");
+        this.chunkSize = Math.max(1, chunkSize);
+        this.validationThreads = Math.max(1, validationThreads);
+        this.mapWindowBytes = Math.max(1024, mapWindowBytes);
+        this.skipHeader = skipHeader;
+    }
+
+    /**
+     * 导入（或继续导入）一个文件
+     *
+     * @param jobId      导入任务，相同的jobId从检查点继续
+     * @param file       转账文件
+     * @param rejectFile 拒绝文件，不存在时创建
+     * @throws IngestConflictException 同一个任务正在别处导入
+     * @throws IllegalStateException   文件与检查点记录的大小不一致，或余额存储不是balance模式
+     */
+    public IngestReport ingest(String jobId, Path file, Path rejectFile) throws IOException {
+        if (!(balanceStore instanceof InPlaceBalanceStore)) {
+            throw new IllegalStateException("批量导入直接更新account.money，只支持ledger.mode=balance");
+        }
+        try (FileChannel input = FileChannel.open(file, StandardOpenOption.READ);
+             FileChannel rejects = FileChannel.open(rejectFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            return new Run(jobId, file, input, rejects).execute();
+        }
+    }
+
+    /**
+     * 一次导入的状态，只由读取线程访问
+     */
+    private final class Run {
+
+        private final String jobId;
+
+        private final FileChannel input;
+
+        private final long fileSize;
+
+        private final FileChannel rejects;
+
+        /** 注解方式启动时Mapper由MapperFactoryBean登记，创建本类时可能还没登记，所以每次导入时再获取 */
+        private final AccountDao batchAccountDao = batchSession.getMapper(AccountDao.class);
+
+        private final IngestDao batchIngestDao = batchSession.getMapper(IngestDao.class);
+
+        private IngestCheckpoint checkpoint;
+
+        private MappedByteBuffer window;
+
+        private long windowStart;
+
+        private long windowEnd;
+
+        private int chunks;
+
+        private int fallbackChunks;
+
+        Run(String jobId, Path file, FileChannel input, FileChannel rejects) throws IOException {
+            this.jobId = jobId;
+            this.input = input;
+            this.fileSize = input.size();
+            this.rejects = rejects;
+            this.checkpoint = loadOrCreateCheckpoint(file.toString());
+        }
+
+        private IngestCheckpoint loadOrCreateCheckpoint(String fileName) {
+            IngestCheckpoint existing = batchIngestDao.selectCheckpoint(jobId);
+            if (existing != null) {
+                if (existing.getFileSize() != fileSize) {
+                    throw new IllegalStateException("导入任务" + jobId + "的文件大小为" + existing.getFileSize()
+                            + "字节，当前文件为" + fileSize + "字节，不是同一个文件");
+                }
+                return existing;
+            }
+            IngestCheckpoint created = new IngestCheckpoint();
+            created.setJobId(jobId);
+            created.setFileName(fileName);
+            created.setFileSize(fileSize);
+            created.setFileOffset(0L);
+            created.setLineNo(0L);
+            created.setApplied(0L);
+            created.setRejected(0L);
+            created.setRejectOffset(0L);
+            created.setDone(fileSize == 0);
+            transaction.executeWithoutResult(status -> batchIngestDao.insertCheckpoint(created));
+            return created;
+        }
+
+        IngestReport execute() throws IOException {
+            long start = System.currentTimeMillis();
+            long resumedFrom = checkpoint.getFileOffset();
+            if (checkpoint.getDone()) {
+                System.out.println("【批量导入】任务" + jobId + "已完成，跳过");
+                return new IngestReport(checkpoint, resumedFrom, 0, 0, 0);
+            }
+            // 去掉上次中断时未提交分块写入的拒绝行
+            rejects.truncate(checkpoint.getRejectOffset());
+            rejects.position(checkpoint.getRejectOffset());
+            System.out.println("【批量导入】任务" + jobId + "：文件" + fileSize + "字节，从第" + resumedFrom + "字节（第"
+                    + checkpoint.getLineNo() + "行之后）开始，每块" + chunkSize + "行，" + validationThreads + "个校验线程");
+
+            ExecutorService validators = Executors.newFixedThreadPool(validationThreads, new ValidatorThreadFactory());
+            try {
+                CompletableFuture<TransferChunk> next = submit(validators, resumedFrom, checkpoint.getLineNo());
+                while (next != null) {
+                    TransferChunk chunk = join(next);
+                    // 提交这一块之前先把下一块交给校验线程
+                    next = chunk.endOffset < fileSize
+                            ? submit(validators, chunk.endOffset, chunk.firstLineNo + chunk.count) : null;
+                    commit(chunk);
+                    if (++chunks % 100 == 0) {
+                        System.out.println("【批量导入】已处理" + checkpoint.getLineNo() + "行，入账"
+                                + checkpoint.getApplied() + "行，拒绝" + checkpoint.getRejected() + "行");
+                    }
+                }
+            } finally {
+                validators.shutdownNow();
+            }
+            return new IngestReport(checkpoint, resumedFrom, chunks, fallbackChunks,
+                    System.currentTimeMillis() - start);
+        }
+
+        // ==================== 读取与校验 ====================
+
+        /**
+         * 在读取线程中扫描出一个分块的行位置，再交给校验线程并行解析
+         */
+        private CompletableFuture<TransferChunk> submit(ExecutorService validators, long offset, long lineNo)
+                throws IOException {
+            TransferChunk chunk = scan(offset, lineNo);
+            int slice = Math.max(1, (chunk.count + validationThreads - 1) / validationThreads);
+            CompletableFuture<?>[] slices = new CompletableFuture<?>[(chunk.count + slice - 1) / slice];
+            for (int i = 0; i < slices.length; i++) {
+                int from = i * slice;
+                int to = Math.min(chunk.count, from + slice);
+                slices[i] = CompletableFuture.runAsync(() -> validate(chunk, from, to), validators);
+            }
+            return CompletableFuture.allOf(slices).thenApply(done -> chunk);
+        }
+
+        /**
+         * 从offset开始找出最多chunkSize行；跨越映射窗口末尾的行留给下一个分块，它会从行首重新映射
+         */
+        private TransferChunk scan(long offset, long lineNo) throws IOException {
+            if (window == null || offset < windowStart || offset >= windowEnd) {
+                map(offset);
+            }
+            TransferChunk chunk = new TransferChunk(window, windowStart, offset, lineNo, chunkSize);
+            int limit = (int) (windowEnd - windowStart);
+            int position = (int) (offset - windowStart);
+            while (chunk.count < chunkSize && position < limit) {
+                int newline = indexOfNewline(position, limit);
+                if (newline < 0) {
+                    if (windowEnd == fileSize) {
+                        // 最后一行没有换行符
+                        newline = limit;
+                    } else if (chunk.count > 0) {
+                        break;
+                    } else if (windowStart < offset) {
+                        map(offset);
+                        return scan(offset, lineNo);
+                    } else {
+                        throw new IllegalStateException("第" + (lineNo + 1) + "行超过映射窗口大小" + mapWindowBytes + "字节");
+                    }
+                }
+                chunk.add(position, newline);
+                position = newline + 1;
+            }
+            chunk.endOffset = Math.min(windowStart + position, fileSize);
+            return chunk;
+        }
+
+        private void map(long offset) throws IOException {
+            windowStart = offset;
+            windowEnd = Math.min(fileSize, offset + mapWindowBytes);
+            window = input.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+        }
+
+        private int indexOfNewline(int from, int limit) {
+            for (int i = from; i < limit; i++) {
+                if (window.get(i) == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * 校验线程：解析[from, to)行并把账户名解析为id，结果写回分块的数组
+         */
+        private void validate(TransferChunk chunk, int from, int to) {
+            TransferLineParser parser = new TransferLineParser(chunk.buffer);
+            for (int i = from; i < to; i++) {
+                if (skipHeader && chunk.lineNo(i) == 1) {
+                    chunk.status[i] = TransferLineParser.BLANK;
+                    continue;
+                }
+                byte status = parser.parse(chunk.starts[i], chunk.ends[i]);
+                if (status == TransferLineParser.VALID) {
+                    try {
+                        chunk.fromIds[i] = accountIdResolver.resolve(parser.from);
+                        chunk.toIds[i] = accountIdResolver.resolve(parser.to);
+                        chunk.amounts[i] = parser.amount;
+                        if (chunk.fromIds[i] == chunk.toIds[i]) {
+                            status = TransferLineParser.INVALID;
+                            chunk.errors[i] = "转出与转入是同一账户";
+                        }
+                    } catch (AccountNotFoundException e) {
+                        status = TransferLineParser.INVALID;
+                        chunk.errors[i] = e.getMessage();
+                    }
+                } else if (status == TransferLineParser.INVALID) {
+                    chunk.errors[i] = parser.error;
+                }
+                chunk.status[i] = status;
+            }
+        }
+
+        private TransferChunk join(CompletableFuture<TransferChunk> future) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        // ==================== 提交 ====================
+
+        /**
+         * 整块提交：拒绝行先写入拒绝文件，再在一个事务中更新净额和检查点
+         */
+        private void commit(TransferChunk chunk) throws IOException {
+            long rejectStart = rejects.position();
+            ByteArrayOutputStream rejected = new ByteArrayOutputStream();
+            for (int i = 0; i < chunk.count; i++) {
+                if (chunk.status[i] == TransferLineParser.INVALID) {
+                    appendReject(rejected, chunk, i, chunk.errors[i]);
+                }
+            }
+            writeRejects(rejected);
+            IngestCheckpoint next = advance(chunk.endOffset, chunk.firstLineNo + chunk.count,
+                    chunk.count(TransferLineParser.VALID), chunk.count(TransferLineParser.INVALID));
+            try {
+                commit(next, () -> chunk.netDeltas().forEach(batchAccountDao::addMoneyById));
+            } catch (IngestConflictException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                fallback(chunk, rejectStart, e);
+            }
+        }
+
+        /**
+         * 逐行重试：每个合格的行一个事务，因数据错误失败的行写入拒绝文件
+         *
+         * 只有账户不存在和违反约束是这一行本身的问题；其他异常（锁等待超时、死锁、连接中断）重试可能成功，
+         * 如果也写入拒绝文件，下一行提交后检查点越过它，这一行就永远不会入账，所以直接抛出，中止导入。
+         * 已提交的行由检查点记录，之后写入的拒绝行在再次导入时按检查点截断
+         */
+        private void fallback(TransferChunk chunk, long rejectStart, RuntimeException cause) throws IOException {
+            fallbackChunks++;
+            System.out.println("【批量导入】第" + chunk.lineNo(0) + "~" + chunk.lineNo(chunk.count - 1)
+                    + "行整块提交失败，逐行重试：" + cause.getMessage());
+            rejects.truncate(rejectStart);
+            rejects.position(rejectStart);
+            int pendingRejected = 0;
+            for (int i = 0; i < chunk.count; i++) {
+                if (chunk.status[i] == TransferLineParser.INVALID) {
+                    writeReject(chunk, i, chunk.errors[i]);
+                    pendingRejected++;
+                } else if (chunk.status[i] == TransferLineParser.VALID) {
+                    int line = i;
+                    IngestCheckpoint next = advance(chunk.nextOffset(i), chunk.lineNo(i), 1, pendingRejected);
+                    try {
+                        commit(next, () -> {
+                            batchAccountDao.addMoneyById(chunk.fromIds[line], -chunk.amounts[line]);
+                            batchAccountDao.addMoneyById(chunk.toIds[line], chunk.amounts[line]);
+                        });
+                        pendingRejected = 0;
+                    } catch (AccountNotFoundException | DataIntegrityViolationException e) {
+                        writeReject(chunk, i, e.getMessage());
+                        pendingRejected++;
+                    }
+                }
+            }
+            commit(advance(chunk.endOffset, chunk.firstLineNo + chunk.count, 0, pendingRejected), () -> {
+            });
+        }
+
+        /**
+         * 在一个事务中执行余额更新并推进检查点，成功后才替换内存中的检查点
+         */
+        private void commit(IngestCheckpoint next, Runnable updates) throws IOException {
+            // 拒绝行必须先于检查点落盘，否则崩溃后检查点记录的长度可能超过拒绝文件
+            rejects.force(false);
+            long expectedOffset = checkpoint.getFileOffset();
+            transaction.executeWithoutResult(status -> {
+                updates.run();
+                batchIngestDao.updateCheckpoint(next, expectedOffset);
+                verify(batchSession.flushStatements());
+            });
+            checkpoint = next;
+        }
+
+        /**
+         * BATCH执行器中Mapper方法的返回值没有意义，影响的行数在flushStatements的结果中
+         */
+        private void verify(List<BatchResult> results) {
+            for (BatchResult result : results) {
+                int[] counts = result.getUpdateCounts();
+                boolean isCheckpoint = result.getMappedStatement().getId().endsWith(".updateCheckpoint");
+                for (int i = 0; i < counts.length; i++) {
+                    // 驱动改写批量语句后可能返回SUCCESS_NO_INFO（-2），不是0就视为成功
+                    if (counts[i] != 0) {
+                        continue;
+                    }
+                    if (isCheckpoint) {
+                        throw new IngestConflictException("导入任务" + jobId + "的检查点已被其他进程推进");
+                    }
+                    Object parameter = result.getParameterObjects().get(i);
+                    throw new AccountNotFoundException(parameter instanceof Map ? ((Map<?, ?>) parameter).get("id")
+                            : parameter);
+                }
+            }
+        }
+
+        private IngestCheckpoint advance(long offset, long lineNo, long applied, long rejected) throws IOException {
+            IngestCheckpoint next = new IngestCheckpoint();
+            next.setJobId(checkpoint.getJobId());
+            next.setFileName(checkpoint.getFileName());
+            next.setFileSize(checkpoint.getFileSize());
+            next.setFileOffset(offset);
+            next.setLineNo(lineNo);
+            next.setApplied(checkpoint.getApplied() + applied);
+            next.setRejected(checkpoint.getRejected() + rejected);
+            next.setRejectOffset(rejects.position());
+            next.setDone(offset >= fileSize);
+            return next;
+        }
+
+        // ==================== 拒绝文件 ====================
+
+        private void writeReject(TransferChunk chunk, int i, String reason) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            appendReject(out, chunk, i, reason);
+            writeRejects(out);
+        }
+
+        private void appendReject(ByteArrayOutputStream out, TransferChunk chunk, int i, String reason) {
+            String prefix = chunk.lineNo(i) + "," + String.valueOf(reason).replace(',', '，').replace('\n', ' ') + ",";
+            out.writeBytes(prefix.getBytes(StandardCharsets.UTF_8));
+            out.writeBytes(chunk.rawLine(i));
+            out.write('\n');
+        }
+
+        private void writeRejects(ByteArrayOutputStream out) throws IOException {
+            ByteBuffer bytes = ByteBuffer.wrap(out.toByteArray());
+            while (bytes.hasRemaining()) {
+                rejects.write(bytes);
+            }
+        }
+    }
+
+    private static final class ValidatorThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "ingest-validator-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.coder.ingest;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 转账文件的行解析器：直接在映射的字节上查找分隔符，不为整行创建String，也不做split
+ *
+ * 行格式：转出账户,转入账户,金额（UTF-8，行尾可以是\n或\r\n，字段两端的空格和制表符忽略）
+ * - 只有两个账户名会解码为String（账户名解析需要），金额直接由字节计算
+ * - 不支持带引号的字段：账户名中不会出现逗号
+ * - 金额最多两位小数，按"整数 / 10^小数位数"计算，与Double.parseDouble的结果相同
+ *
+ * 每个校验线程使用自己的实例（内部有ByteBuffer视图和缓冲区），不是线程安全的
+ */
+final class TransferLineParser {
+
+    static final byte BLANK = 0;
+    static final byte VALID = 1;
+    static final byte INVALID = 2;
+
+    /** 账户名的最大字节数 */
+    static final int MAX_NAME_BYTES = 200;
+
+    private static final int MAX_AMOUNT_DIGITS = 15;
+
+    private static final int MAX_AMOUNT_SCALE = 2;
+
+    private static final double[] POW10 = {1, 10, 100};
+
+    private final ByteBuffer buffer;
+
+    private final byte[] scratch = new byte[MAX_NAME_BYTES];
+
+    String from;
+
+    String to;
+
+    double amount;
+
+    String error;
+
+    /**
+     * @param buffer 分块所在的映射窗口，这里使用它的独立视图，不影响其他线程
+     */
+    TransferLineParser(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate();
+    }
+
+    /**
+     * 解析一行，结果放在from、to、amount中，INVALID时原因放在error中
+     *
+     * @param start 行首在窗口中的位置
+     * @param end   行尾（换行符）在窗口中的位置，不含换行符
+     * @return BLANK、VALID或INVALID
+     */
+    byte parse(int start, int end) {
+        from = null;
+        to = null;
+        error = null;
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        if (skipBlanks(start, end) == end) {
+            return BLANK;
+        }
+        int comma1 = indexOf(',', start, end);
+        int comma2 = comma1 < 0 ? -1 : indexOf(',', comma1 + 1, end);
+        if (comma2 < 0 || indexOf(',', comma2 + 1, end) >= 0) {
+            return invalid("字段数不是3个（转出账户,转入账户,金额）");
+        }
+        if (indexOf('"', start, end) >= 0) {
+            return invalid("不支持带引号的字段");
+        }
+        from = name(start, comma1, "转出账户");
+        if (from == null) {
+            return INVALID;
+        }
+        to = name(comma1 + 1, comma2, "转入账户");
+        if (to == null) {
+            return INVALID;
+        }
+        return amount(comma2 + 1, end);
+    }
+
+    private String name(int start, int end, String field) {
+        start = skipBlanks(start, end);
+        end = trimBlanks(start, end);
+        int length = end - start;
+        if (length == 0) {
+            invalid(field + "为空");
+            return null;
+        }
+        if (length > MAX_NAME_BYTES) {
+            invalid(field + "超过" + MAX_NAME_BYTES + "字节");
+            return null;
+        }
+        buffer.position(start);
+        buffer.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private byte amount(int start, int end) {
+        start = skipBlanks(start, end);
+        end = trimBlanks(start, end);
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                if (++digits > MAX_AMOUNT_DIGITS) {
+                    return invalid("金额超过" + MAX_AMOUNT_DIGITS + "位");
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (scale >= 0 && ++scale > MAX_AMOUNT_SCALE) {
+                    return invalid("金额最多" + MAX_AMOUNT_SCALE + "位小数");
+                }
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return invalid("金额格式错误");
+            }
+        }
+        if (digits == 0) {
+            return invalid("金额为空");
+        }
+        if (mantissa == 0) {
+            return invalid("金额必须大于0");
+        }
+        amount = mantissa / POW10[Math.max(scale, 0)];
+        return VALID;
+    }
+
+    private byte invalid(String reason) {
+        error = reason;
+        return INVALID;
+    }
+
+    private int indexOf(char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int skipBlanks(int start, int end) {
+        while (start < end && isBlank(buffer.get(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimBlanks(int start, int end) {
+        while (end > start && isBlank(buffer.get(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+}
@@ -0,0 +1,53 @@
+package com.coder.lane;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 一笔提交给通道执行的转账
+ *
+ * 账户名在调用线程中已解析为id，通道号在提交时算好，写线程只按id操作余额
+ */
+final class LaneCommand {
+
+    final int fromId;
+
+    final int toId;
+
+    final Double money;
+
+    final int fromLane;
+
+    final int toLane;
+
+    /** 事务提交后完成；失败时以异常完成 */
+    final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    /** 跨通道转账已放入执行通道的队列，由对方完成（只由接收通道的写线程读写） */
+    boolean handedOff;
+
+    LaneCommand(int fromId, int toId, Double money, int fromLane, int toLane) {
+        this.fromId = fromId;
+        this.toId = toId;
+        this.money = money;
+        this.fromLane = fromLane;
+        this.toLane = toLane;
+    }
+
+    boolean crossLane() {
+        return fromLane != toLane;
+    }
+
+    /**
+     * 执行（提交）这笔转账的通道：同通道为所在通道，跨通道为编号较小的一个
+     */
+    int commitLane() {
+        return Math.min(fromLane, toLane);
+    }
+
+    /**
+     * 接收这笔转账的通道：同通道为所在通道，跨通道为编号较大的一个（第一步）
+     */
+    int entryLane() {
+        return Math.max(fromLane, toLane);
+    }
+}
@@ -0,0 +1,14 @@
+package com.coder.lane;
+
+/**
+ * 转账通道拒绝异常
+ *
+ * 接收通道的队列已满时抛出，转账没有进入队列，也就不会执行
+ * 与舱壁的BulkheadFullException一样，由调用方决定重试还是直接返回"系统繁忙"
+ */
+public class LaneFullException extends RuntimeException {
+
+    public LaneFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,90 @@
+package com.coder.lane;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界无锁队列 - 多个生产者，一个消费者（每条通道的写线程）
+ *
+ * 环形数组 + 两个序号：
+ * - tail：生产者用CAS抢占下一个位置，抢到后再把元素写进槽位（写入带release语义）
+ * - head：只有消费者线程修改，取走元素后把槽位置空
+ * 生产者抢到位置到写入元素之间有一个很短的窗口，消费者看到槽位还是null时稍等即可
+ *
+ * 队列满时offer直接返回false，不阻塞、不加锁，由调用方决定拒绝还是重试
+ */
+final class LaneQueue<E> {
+
+    private final AtomicReferenceArray<E> slots;
+
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    /** 只由消费者写，生产者读它判断队列是否已满 */
+    private volatile long head;
+
+    /**
+     * @param capacity 容量，向上取整为2的幂
+     */
+    LaneQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * 放入一个元素（任意线程）
+     *
+     * @return 队列已满时返回false
+     */
+    boolean offer(E element) {
+        long current;
+        do {
+            current = tail.get();
+            if (current - head >= slots.length()) {
+                return false;
+            }
+        } while (!tail.compareAndSet(current, current + 1));
+        slots.lazySet((int) current & mask, element);
+        return true;
+    }
+
+    /**
+     * 取出最多max个元素追加到to中（只能由消费者线程调用）
+     *
+     * @return 取出的个数
+     */
+    int drain(List<? super E> to, int max) {
+        long current = head;
+        int count = 0;
+        while (count < max && current < tail.get()) {
+            int index = (int) current & mask;
+            E element;
+            // 生产者已抢到这个位置但还没写入
+            while ((element = slots.get(index)) == null) {
+                Thread.onSpinWait();
+            }
+            slots.lazySet(index, null);
+            to.add(element);
+            current++;
+            count++;
+            // 及时让出位置，生产者看到的剩余容量不会落后整批
+            head = current;
+        }
+        return count;
+    }
+
+    boolean isEmpty() {
+        return head >= tail.get();
+    }
+
+    int size() {
+        return (int) (tail.get() - head);
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+}
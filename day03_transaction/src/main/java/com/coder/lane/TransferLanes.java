@@ -0,0 +1,399 @@
+package com.coder.lane;
+
+import com.coder.account.AccountIdResolver;
+import com.coder.ledger.BalanceStore;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 分区单写者转账通道（配置见lanes.properties）
+ *
+ * 普通方式下每个请求线程各自开事务、各自UPDATE，热门账户的行锁上排着长队，还可能互相死锁。
+ * 这里把账户按id分到N条通道，每条通道只有一个写线程，通道内的账户只由它修改：
+ * - 请求线程解析账户名后把转账放进通道的有界无锁队列（LaneQueue），队列满时抛出LaneFullException
+ * - 同通道转账：写线程一次取出最多maxBatchSize笔，在一个事务中执行，一次提交；
+ *   修改的行只有它自己会碰，不会等锁，也不会死锁
+ * - 跨通道转账：两步交接，只有一个提交点
+ *   1. 先进入编号较大的通道：写线程提交手头的批次后，把转账交给编号较小的通道，并等它完成，
+ *      等待期间不修改自己的账户，相当于把转出/转入账户暂时"借"给对方
+ *   2. 编号较小的通道把它与自己的转账放在同一批，转出和转入在同一个事务中提交
+ *   总是由大编号等小编号，等待链上的编号严格递减，不会形成环，也就不会互相等死
+ * - 一批中有一笔失败（如余额不足）：整批回滚，再逐笔各自一个事务重试，每笔得到自己的结果；
+ *   Error（如OutOfMemoryError、驱动中的AssertionError）同样逐笔以异常完成，写线程继续运行
+ * - 写线程仍然意外退出时，通道标记为失效：手头和队列中的转账以异常完成，之后提交到这条通道的转账直接失败，
+ *   调用方和等待交接的通道都不会一直等下去
+ *
+ * 通道数 = min(CPU核数, 连接池maxActive - 预留连接数)：每条通道同一时刻最多占用一个连接，
+ * 通道多于核数只会增加切换，多于连接数则写线程要等连接
+ *
+ * 注意：
+ * - 转账在写线程自己的事务中执行，不会加入调用方当前的事务
+ * - 账户的独占只在通道之间成立，AccountService等其他途径同时修改这些账户时仍靠数据库行锁保证正确
+ */
+public class TransferLanes implements DisposableBean {
+
+    /** 队列为空时写线程的最长休眠时间，生产者放入后会立即唤醒它，这只是兜底 */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AccountIdResolver accountIdResolver;
+
+    private final BalanceStore balanceStore;
+
+    private final TransactionTemplate transaction;
+
+    private final Lane[] lanes;
+
+    private final int maxBatchSize;
+
+    private final LongAdder sameLane = new LongAdder();
+    private final LongAdder crossLane = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder committed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile boolean running;
+
+    /**
+     * @param laneCount     通道数，见laneCount()
+     * @param queueCapacity 每条通道的队列容量（向上取整为2的幂）
+     * @param maxBatchSize  每个事务最多包含的转账笔数
+     */
+    public TransferLanes(AccountIdResolver accountIdResolver, BalanceStore balanceStore,
+                         PlatformTransactionManager transactionManager,
+                         int laneCount, int queueCapacity, int maxBatchSize) {
+        this.accountIdResolver = accountIdResolver;
+        this.balanceStore = balanceStore;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setName("TransferLanes.batch");
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.lanes = new Lane[Math.max(1, laneCount)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(i, queueCapacity);
+        }
+    }
+
+    /**
+     * 通道数：配置了正数时直接使用，否则取CPU核数与可用连接数中较小的一个
+     *
+     * @param configured          lanes.count，0表示自动
+     * @param maxConnections      连接池maxActive
+     * @param reservedConnections 留给查询、对账等其他用途的连接数
+     */
+    public static int laneCount(int configured, int maxConnections, int reservedConnections) {
+        if (configured > 0) {
+            return configured;
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(cores, maxConnections - reservedConnections));
+    }
+
+    /**
+     * 启动各通道的写线程（后台守护线程）
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (Lane lane : lanes) {
+            lane.thread.start();
+        }
+        System.out.println("【转账通道】已启动" + lanes.length + "条通道，每条队列容量" + lanes[0].queue.capacity()
+                + "，每批最多" + maxBatchSize + "笔");
+    }
+
+    /**
+     * 提交一笔转账，不等待执行
+     *
+     * @return 事务提交后完成的Future，失败时以对应的异常完成
+     * @throws LaneFullException        接收通道的队列已满，转账没有提交
+     * @throws IllegalArgumentException 账户不存在
+     * @throws IllegalStateException    通道未启动、已关闭，或接收通道的写线程已意外退出
+     */
+    public CompletableFuture<Void> submit(String from, String to, Double money) {
+        if (!running) {
+            throw new IllegalStateException("转账通道未启动或已关闭");
+        }
+        int fromId = accountIdResolver.resolve(from);
+        int toId = accountIdResolver.resolve(to);
+        LaneCommand command = new LaneCommand(fromId, toId, money, laneOf(fromId), laneOf(toId));
+        Lane lane = lanes[command.entryLane()];
+        lane.requireAlive();
+        if (!lane.queue.offer(command)) {
+            rejected.increment();
+            throw new LaneFullException("转账通道" + lane.index + "已满（容量" + lane.queue.capacity() + "）");
+        }
+        lane.signal();
+        lane.failIfDead(command);
+        (command.crossLane() ? crossLane : sameLane).increment();
+        return command.result;
+    }
+
+    /**
+     * 提交一笔转账并等待事务提交
+     *
+     * @throws LaneFullException 接收通道的队列已满
+     * @throws RuntimeException  转账失败时的原始异常（如InsufficientBalanceException）
+     */
+    public void transfer(String from, String to, Double money) {
+        try {
+            submit(from, to, money).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 账户所属的通道；id是自增主键，取模就能均匀分布
+     */
+    public int laneOf(int accountId) {
+        return Math.floorMod(accountId, lanes.length);
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * 当前排队中的转账笔数（各通道合计）
+     */
+    public int getQueued() {
+        int queued = 0;
+        for (Lane lane : lanes) {
+            queued += lane.queue.size();
+        }
+        return queued;
+    }
+
+    /**
+     * 停止接收新转账，各通道执行完已排队的转账后退出
+     *
+     * 从编号最大的通道开始停止：它交接出去的跨通道转账还需要编号更小的通道来执行
+     */
+    @Override
+    public synchronized void destroy() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (int i = lanes.length - 1; i >= 0; i--) {
+            lanes[i].stopping = true;
+            LockSupport.unpark(lanes[i].thread);
+            lanes[i].thread.join();
+        }
+        // 与关闭同时提交、写线程退出后才放入的转账，不再执行
+        List<LaneCommand> stranded = new ArrayList<>();
+        for (Lane lane : lanes) {
+            lane.queue.drain(stranded, Integer.MAX_VALUE);
+        }
+        stranded.forEach(command -> command.result.completeExceptionally(new IllegalStateException("转账通道已关闭")));
+        System.out.println("【转账通道】" + this);
+    }
+
+    @Override
+    public String toString() {
+        long batchCount = batches.sum();
+        return "通道" + lanes.length + "条，同通道" + sameLane.sum() + "笔，跨通道" + crossLane.sum()
+                + "笔，提交" + committed.sum() + "笔/" + batchCount + "批（平均每批"
+                + String.format("%.1f", batchCount == 0 ? 0.0 : (double) committed.sum() / batchCount)
+                + "笔），逐笔重试" + retried.sum() + "批，失败" + failed.sum() + "笔，队列满拒绝" + rejected.sum() + "笔";
+    }
+
+    /**
+     * 一条通道：一个有界队列和唯一的写线程
+     */
+    private final class Lane implements Runnable {
+
+        private final int index;
+
+        private final LaneQueue<LaneCommand> queue;
+
+        private final Thread thread;
+
+        /** 写线程准备休眠，生产者放入后需要唤醒它 */
+        private volatile boolean waiting;
+
+        private volatile boolean stopping;
+
+        /** 写线程意外退出的原因，为null表示正常 */
+        private volatile Throwable dead;
+
+        Lane(int index, int queueCapacity) {
+            this.index = index;
+            this.queue = new LaneQueue<>(queueCapacity);
+            this.thread = new Thread(this, "transfer-lane-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * 生产者放入后调用：先放入再读waiting，写线程先写waiting再检查队列，
+         * 两边都是volatile访问，至少有一方能看到对方，不会出现"已放入但写线程一直睡着"
+         */
+        void signal() {
+            if (waiting) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        void requireAlive() {
+            if (dead != null) {
+                throw new IllegalStateException("转账通道" + index + "的写线程已意外退出：" + dead, dead);
+            }
+        }
+
+        /**
+         * 放入后调用：先放入再读dead，写线程先写dead再清空队列，
+         * 与signal()同样的道理，放入的转账要么被写线程清空时看到，要么在这里以异常完成
+         */
+        void failIfDead(LaneCommand command) {
+            Throwable cause = dead;
+            if (cause != null && command.result.completeExceptionally(
+                    new IllegalStateException("转账通道" + index + "的写线程已意外退出：" + cause, cause))) {
+                failed.increment();
+            }
+        }
+
+        @Override
+        public void run() {
+            List<LaneCommand> drained = new ArrayList<>(maxBatchSize);
+            List<LaneCommand> batch = new ArrayList<>(maxBatchSize);
+            try {
+                loop(drained, batch);
+            } catch (Throwable e) {
+                dead = e;
+                System.err.println("【转账通道】通道" + index + "的写线程意外退出：" + e);
+                IllegalStateException failure = new IllegalStateException(
+                        "转账通道" + index + "的写线程已意外退出：" + e, e);
+                // 已交接给其他通道的转账由对方完成；已完成的Future不受影响
+                List<LaneCommand> abandoned = new ArrayList<>();
+                for (LaneCommand command : drained) {
+                    if (!command.handedOff) {
+                        abandoned.add(command);
+                    }
+                }
+                queue.drain(abandoned, Integer.MAX_VALUE);
+                for (LaneCommand command : abandoned) {
+                    if (command.result.completeExceptionally(failure)) {
+                        failed.increment();
+                    }
+                }
+            }
+        }
+
+        private void loop(List<LaneCommand> drained, List<LaneCommand> batch) {
+            while (true) {
+                drained.clear();
+                if (queue.drain(drained, maxBatchSize) == 0) {
+                    if (stopping) {
+                        return;
+                    }
+                    idle();
+                    continue;
+                }
+                for (LaneCommand command : drained) {
+                    if (command.commitLane() == index) {
+                        batch.add(command);
+                    } else {
+                        // 跨通道的第一步：先提交手头的批次，再把转账交给编号较小的通道
+                        execute(batch);
+                        handOff(command);
+                    }
+                }
+                execute(batch);
+            }
+        }
+
+        private void idle() {
+            waiting = true;
+            if (queue.isEmpty() && !stopping) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            waiting = false;
+        }
+
+        /**
+         * 交给执行通道并等待它提交，等待期间本通道不执行任何转账
+         */
+        private void handOff(LaneCommand command) {
+            Lane target = lanes[command.commitLane()];
+            // 内部交接不能拒绝，目标通道的等待链最终一定会推进，满了就稍后重试
+            while (!target.queue.offer(command)) {
+                if (target.dead != null) {
+                    target.failIfDead(command);
+                    return;
+                }
+                Thread.yield();
+            }
+            command.handedOff = true;
+            target.signal();
+            target.failIfDead(command);
+            try {
+                command.result.join();
+            } catch (CompletionException e) {
+                // 结果由提交转账的调用方处理
+            }
+        }
+
+        /**
+         * 在一个事务中执行一批转账，失败时逐笔重试
+         */
+        private void execute(List<LaneCommand> batch) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                transaction.executeWithoutResult(status -> batch.forEach(TransferLanes.this::apply));
+                batches.increment();
+                committed.add(batch.size());
+                batch.forEach(command -> command.result.complete(null));
+            } catch (Throwable e) {
+                if (batch.size() == 1) {
+                    fail(batch.get(0), e);
+                } else {
+                    retried.increment();
+                    batch.forEach(this::executeOne);
+                }
+            }
+            batch.clear();
+        }
+
+        private void executeOne(LaneCommand command) {
+            try {
+                transaction.executeWithoutResult(status -> apply(command));
+                batches.increment();
+                committed.increment();
+                command.result.complete(null);
+            } catch (Throwable e) {
+                fail(command, e);
+            }
+        }
+
+        private void fail(LaneCommand command, Throwable e) {
+            failed.increment();
+            command.result.completeExceptionally(e);
+        }
+    }
+
+    private void apply(LaneCommand command) {
+        balanceStore.debit(command.fromId, command.money);
+        balanceStore.credit(command.toId, command.money);
+    }
+}
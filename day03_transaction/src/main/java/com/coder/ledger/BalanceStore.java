@@ -0,0 +1,31 @@
+package com.coder.ledger;
+
+/**
+ * 余额存储方式（由ledger.mode选择，见LedgerConfig）
+ *
+ * - InPlaceBalanceStore：原地更新account.money
+ * - LedgerBalanceStore：追加账本分录，余额由快照 + 分录计算
+ *
+ * 方法都在调用方的事务中执行，转出和转入要么都生效，要么都回滚
+ */
+public interface BalanceStore {
+
+    /**
+     * 转出（减钱）
+     *
+     * @throws InsufficientBalanceException 开启余额检查且余额不足
+     */
+    void debit(int accountId, Double money);
+
+    /**
+     * 转入（加钱）
+     */
+    void credit(int accountId, Double money);
+
+    /**
+     * 当前余额
+     *
+     * @throws IllegalArgumentException 账户不存在
+     */
+    double balance(int accountId);
+}
@@ -0,0 +1,46 @@
+package com.coder.ledger;
+
+import com.coder.account.AccountNotFoundException;
+import com.coder.dao.AccountDao;
+
+/**
+ * 原地更新余额（ledger.mode=balance）
+ *
+ * 每次转出/转入都UPDATE account.money，行锁持有到事务结束：
+ * 同一账户的并发转账（无论转出还是转入）都在这一行上排队
+ *
+ * UPDATE影响0行说明账户不存在（如解析之后被删除），抛出AccountNotFoundException使整个转账回滚
+ */
+public class InPlaceBalanceStore implements BalanceStore {
+
+    private final AccountDao accountDao;
+
+    public InPlaceBalanceStore(AccountDao accountDao) {
+        this.accountDao = accountDao;
+    }
+
+    @Override
+    public void debit(int accountId, Double money) {
+        requireUpdated(accountDao.outMoneyById(accountId, money), accountId);
+    }
+
+    @Override
+    public void credit(int accountId, Double money) {
+        requireUpdated(accountDao.inMoneyById(accountId, money), accountId);
+    }
+
+    @Override
+    public double balance(int accountId) {
+        Double money = accountDao.selectMoneyById(accountId);
+        if (money == null) {
+            throw new AccountNotFoundException(accountId);
+        }
+        return money;
+    }
+
+    private static void requireUpdated(int rows, int accountId) {
+        if (rows == 0) {
+            throw new AccountNotFoundException(accountId);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.coder.ledger;
+
+/**
+ * 余额不足 - 账本模式开启余额检查时，转出金额超过当前余额
+ *
+ * 运行时异常，抛出后@Transactional方法的事务回滚，已追加的分录一起撤销
+ */
+public class InsufficientBalanceException extends RuntimeException {
+
+    public InsufficientBalanceException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,66 @@
+package com.coder.ledger;
+
+import com.coder.account.AccountNotFoundException;
+import com.coder.dao.LedgerDao;
+
+/**
+ * 账本方式存储余额（ledger.mode=ledger）
+ *
+ * 转出/转入都只是向ledger_entry追加一行（转出为负数），不修改任何已有的行：
+ * - 转入不锁账户行，热门收款账户不再成为瓶颈
+ * - 关闭余额检查时转出也不加锁；开启时只锁转出账户（见LedgerDao.selectBalanceForUpdate），
+ *   同一账户的转出串行执行，保证不透支；这个锁也包括该账户的分录范围，
+ *   这时转入该账户的分录要等检查它的事务结束
+ *
+ * 余额 = 快照 + 快照之后的分录合计，由LedgerCompactor定期合并分录，控制每次查询要累加的行数
+ *
+ * 注意：account.money只在建立快照时读取一次（开户时的初始余额），之后不再更新，不能当作余额读取。
+ * 直接读写account.money的组件在本模式下不可用，调用时抛出IllegalStateException：
+ * Reconciler、TransferFileIngester、AccountServiceImplWithError中会提交余额修改的方法
+ */
+public class LedgerBalanceStore implements BalanceStore {
+
+    private final LedgerDao ledgerDao;
+
+    private final boolean checkBalance;
+
+    /**
+     * @param checkBalance 转出前加锁检查余额
+     */
+    public LedgerBalanceStore(LedgerDao ledgerDao, boolean checkBalance) {
+        this.ledgerDao = ledgerDao;
+        this.checkBalance = checkBalance;
+    }
+
+    @Override
+    public void debit(int accountId, Double money) {
+        if (checkBalance) {
+            Double balance = ledgerDao.selectBalanceForUpdate(accountId);
+            if (balance == null) {
+                throw new AccountNotFoundException(accountId);
+            }
+            if (balance < money) {
+                throw new InsufficientBalanceException("账户" + accountId + "余额不足：余额" + balance + "元，转出" + money + "元");
+            }
+        }
+        ledgerDao.insertEntry(accountId, -money);
+    }
+
+    @Override
+    public void credit(int accountId, Double money) {
+        ledgerDao.insertEntry(accountId, money);
+    }
+
+    @Override
+    public double balance(int accountId) {
+        Double balance = ledgerDao.selectBalance(accountId);
+        if (balance == null) {
+            throw new AccountNotFoundException(accountId);
+        }
+        return balance;
+    }
+
+    public boolean isCheckBalance() {
+        return checkBalance;
+    }
+}
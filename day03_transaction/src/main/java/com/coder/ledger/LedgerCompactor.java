@@ -0,0 +1,89 @@
+package com.coder.ledger;
+
+import com.coder.dao.LedgerDao;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 账本压缩任务 - 定期把分录合并进余额快照
+ *
+ * 每次执行：
+ * 1. 为新开的账户建立快照（期初余额取account.money）
+ * 2. 取早于"当前时间 - lagSeconds"的已提交的最大分录ID作为上限
+ * 3. 对上次合并到的ID和上限之间的分录做加锁读，等其中未提交的事务提交或回滚
+ * 4. 一条UPDATE把各账户快照之后、上限之前的分录合计加到快照上
+ *
+ * 分录本身不删除，ledger_entry始终是完整的流水；压缩只是让查询余额时需要累加的分录保持很少
+ *
+ * 为什么要等待：自增id在插入时分配，事务提交后才可见。一个还没提交的较小id如果被跳过，
+ * 提交后它又小于快照的last_entry_id，永远不会被计入余额。插入时间早于延迟也不代表已经提交：
+ * 转入可能在等余额检查的锁（最长innodb_lock_wait_timeout），所以不能只靠延迟，第3步保证不漏。
+ * 延迟只是让上限避开刚插入的分录，压缩通常不需要等待；等待超时则本次压缩失败，下次再试
+ */
+public class LedgerCompactor implements DisposableBean {
+
+    private final LedgerDao ledgerDao;
+
+    private final long lagSeconds;
+
+    private ScheduledExecutorService scheduler;
+
+    public LedgerCompactor(LedgerDao ledgerDao, long lagSeconds) {
+        this.ledgerDao = ledgerDao;
+        this.lagSeconds = lagSeconds;
+    }
+
+    /**
+     * 启动定期压缩（后台守护线程）
+     */
+    public synchronized void start(long intervalSeconds) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ledger-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                compact();
+            } catch (RuntimeException e) {
+                // 压缩失败不影响转账，下次再试
+                System.out.println("【账本压缩】失败：" + e.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 立即执行一次压缩
+     *
+     * @return 更新的快照数
+     */
+    public int compact() {
+        int created = ledgerDao.insertMissingSnapshots();
+        Long upTo = ledgerDao.selectCompactionWatermark(lagSeconds);
+        int compacted = 0;
+        if (upTo != null) {
+            long compactedUpTo = ledgerDao.selectCompactedUpTo();
+            if (upTo > compactedUpTo) {
+                ledgerDao.awaitEntries(compactedUpTo, upTo);
+            }
+            compacted = ledgerDao.compact(upTo);
+        }
+        if (created > 0 || compacted > 0) {
+            System.out.println("【账本压缩】新建快照" + created + "个，合并到分录" + upTo + "，更新快照" + compacted + "个");
+        }
+        return compacted;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.coder.reconcile;
+
+/**
+ * 页限速器 - 所有对账线程合计每秒最多处理maxPagesPerSecond页
+ *
+ * 每页预约一个时间片（间隔 = 1秒 / maxPagesPerSecond），时间未到就睡眠到预约的时刻，
+ * 对账再多线程并行，对数据库的压力也有上限，在线转账不会被挤占
+ */
+public class PageThrottle {
+
+    private final long intervalNanos;
+
+    private long nextSlot = System.nanoTime();
+
+    /**
+     * @param maxPagesPerSecond 每秒最多页数，0表示不限速
+     */
+    public PageThrottle(int maxPagesPerSecond) {
+        this.intervalNanos = maxPagesPerSecond <= 0 ? 0 : 1_000_000_000L / maxPagesPerSecond;
+    }
+
+    /**
+     * 等待下一个时间片
+     */
+    public void acquire() throws InterruptedException {
+        if (intervalNanos == 0) {
+            return;
+        }
+        long slot;
+        synchronized (this) {
+            long now = System.nanoTime();
+            // 空闲之后不积攒额度，最多从现在开始
+            slot = Math.max(nextSlot, now);
+            nextSlot = slot + intervalNanos;
+        }
+        long waitNanos = slot - System.nanoTime();
+        if (waitNanos > 0) {
+            Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        }
+    }
+}
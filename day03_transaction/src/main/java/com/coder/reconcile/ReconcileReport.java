@@ -0,0 +1,88 @@
+package com.coder.reconcile;
+
+import com.coder.domain.ReconcileCheckpoint;
+import com.coder.domain.ReconcileDiscrepancy;
+
+import java.util.List;
+
+/**
+ * 一次对账的结果，由各范围检查点的累计值汇总而来
+ *
+ * - 差异：实际余额 != 基线余额 + 基线之后已完成的转账
+ * - 总额守恒：转账只在账户之间转移金额，有基线的账户实际余额合计应等于基线余额合计；
+ *   与基线之后新开的账户之间的转账会打破这一等式，此时unbaselined大于0
+ */
+public class ReconcileReport {
+
+    private final String runId;
+
+    private final int accounts;
+
+    private final int unbaselined;
+
+    private final double baselineTotal;
+
+    private final double actualTotal;
+
+    private final List<ReconcileDiscrepancy> discrepancies;
+
+    private final long elapsedMillis;
+
+    ReconcileReport(String runId, List<ReconcileCheckpoint> checkpoints, List<ReconcileDiscrepancy> discrepancies,
+                    long elapsedMillis) {
+        this.runId = runId;
+        this.accounts = checkpoints.stream().mapToInt(ReconcileCheckpoint::getAccounts).sum();
+        this.unbaselined = checkpoints.stream().mapToInt(ReconcileCheckpoint::getUnbaselined).sum();
+        this.baselineTotal = checkpoints.stream().mapToDouble(ReconcileCheckpoint::getBaselineTotal).sum();
+        this.actualTotal = checkpoints.stream().mapToDouble(ReconcileCheckpoint::getActualTotal).sum();
+        this.discrepancies = discrepancies;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public int getAccounts() {
+        return accounts;
+    }
+
+    public int getUnbaselined() {
+        return unbaselined;
+    }
+
+    public double getBaselineTotal() {
+        return baselineTotal;
+    }
+
+    public double getActualTotal() {
+        return actualTotal;
+    }
+
+    public List<ReconcileDiscrepancy> getDiscrepancies() {
+        return discrepancies;
+    }
+
+    /**
+     * 实际余额合计 - 基线余额合计，总额守恒时为0（允许舍入误差）
+     */
+    public double getConservationDelta() {
+        return actualTotal - baselineTotal;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("【对账结果】批次%s：核对账户%d个（无基线%d个），耗时%dms%n",
+                runId, accounts, unbaselined, elapsedMillis));
+        out.append(String.format("【总额守恒】基线合计%.2f元，实际合计%.2f元，差额%.2f元%n",
+                baselineTotal, actualTotal, getConservationDelta()));
+        out.append("【差异】").append(discrepancies.size()).append("个账户").append(discrepancies.isEmpty() ? "" : "：")
+                .append('\n');
+        for (ReconcileDiscrepancy d : discrepancies) {
+            out.append(String.format("  账户%d（%s）：期望%.2f元，实际%.2f元，相差%.2f元%n",
+                    d.getAccountId(), d.getName(), d.getExpected(), d.getActual(), d.getActual() - d.getExpected()));
+        }
+        return out.toString();
+    }
+}
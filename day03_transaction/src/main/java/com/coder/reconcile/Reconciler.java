@@ -0,0 +1,316 @@
+package com.coder.reconcile;
+
+import com.coder.audit.RowsTransferAudit;
+import com.coder.audit.TransferAudit;
+import com.coder.dao.ReconcileDao;
+import com.coder.domain.AccountDelta;
+import com.coder.domain.ReconcileAccount;
+import com.coder.domain.ReconcileCheckpoint;
+import com.coder.domain.ReconcileDiscrepancy;
+import com.coder.ledger.BalanceStore;
+import com.coder.ledger.InPlaceBalanceStore;
+import com.coder.service.TransferLogService;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 对账任务 - 核对account余额与transfer_log记录的转账是否一致
+ *
+ * 期望余额 = 基线余额 + 基线之后已完成转账（日志为TransferLogService.COMPLETED_MESSAGE）的转入 - 转出
+ * 基线由captureBaseline()建立，记录当时的余额和transfer_log的最大ID：
+ * 先锁住所有账户行，等正在进行的转账结束，并让新的转账在基线建立期间等待，
+ * 这样基线之前的完成日志都已提交，对应的余额变化也都已提交，不会留下复核也消除不了的差异
+ *
+ * 执行方式：
+ * - 账户ID空间按rangeSize切分为多个范围，每个范围一行检查点（reconcile_checkpoint）
+ * - 范围交给ForkJoinPool（并行度 = parallelism）递归拆分处理，每个工作线程使用自己的数据库连接
+ * - 范围内按ID键集分页，每页在一个REPEATABLE READ事务中读取账户和日志汇总，并更新检查点，
+ *   中断后以相同的runId再次执行，已完成的范围跳过，未完成的从last_id继续
+ * - 每页之前经过PageThrottle限速，并行度决定同时占用的连接数，两者一起保证不挤占在线转账
+ * - 扫描结束后逐个复核差异账户：REQUIRES_NEW日志先于转账事务提交等情况会造成暂时的差异，复核时已一致的删除
+ *
+ * 注意：期望余额只来自transfer_log中的完成日志，不经过它的余额变化都会报告为差异
+ * - 不写日志的转账（AccountService.transfer）
+ * - 批量导入（TransferFileIngester）：导入前后应重新建立基线
+ * - audit.mode=compact：转账记录在transfer_audit中，不写transfer_log，captureBaseline和run直接抛出IllegalStateException
+ * - 实际余额取account.money，只支持ledger.mode=balance：账本模式下account.money不再更新，
+ *   captureBaseline和run直接抛出IllegalStateException
+ */
+public class Reconciler {
+
+    private final ReconcileDao reconcileDao;
+
+    private final BalanceStore balanceStore;
+
+    private final TransferAudit transferAudit;
+
+    private final TransactionTemplate pageTransaction;
+
+    private final int rangeSize;
+
+    private final int pageSize;
+
+    private final int parallelism;
+
+    private final PageThrottle throttle;
+
+    private final double tolerance;
+
+    public Reconciler(ReconcileDao reconcileDao, BalanceStore balanceStore, TransferAudit transferAudit,
+                      PlatformTransactionManager transactionManager,
+                      int rangeSize, int pageSize, int parallelism, int maxPagesPerSecond, double tolerance) {
+        this.reconcileDao = reconcileDao;
+        this.balanceStore = balanceStore;
+        this.transferAudit = transferAudit;
+        this.pageTransaction = new TransactionTemplate(transactionManager);
+        // 同一页的账户和日志汇总来自同一个一致性读视图
+        this.pageTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.pageTransaction.setName("Reconciler.page");
+        this.rangeSize = rangeSize;
+        this.pageSize = pageSize;
+        this.parallelism = parallelism;
+        this.throttle = new PageThrottle(maxPagesPerSecond);
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * 以当前余额重新建立基线
+     *
+     * 期间转账会等待（最长为建立基线的时间），应在业务低峰时执行；
+     * 与正在进行的转账形成死锁时由数据库回滚其中一方，基线失败时重新执行即可
+     *
+     * @return 建立基线的账户数
+     * @throws IllegalStateException 余额存储不是balance模式，或审计不是rows模式
+     */
+    public int captureBaseline() {
+        requireSupportedModes();
+        Integer count = pageTransaction.execute(status -> {
+            reconcileDao.lockAccounts();
+            reconcileDao.deleteBaseline();
+            return reconcileDao.insertBaseline();
+        });
+        System.out.println("【对账基线】已建立" + count + "个账户的基线");
+        return count;
+    }
+
+    /**
+     * 执行（或继续）一次对账
+     *
+     * @param runId 对账批次，相同的runId从检查点继续
+     * @throws IllegalStateException 余额存储不是balance模式，或审计不是rows模式
+     */
+    public ReconcileReport run(String runId) {
+        requireSupportedModes();
+        long start = System.currentTimeMillis();
+        List<ReconcileCheckpoint> checkpoints = loadOrCreateCheckpoints(runId);
+        List<ReconcileCheckpoint> pending = new ArrayList<>();
+        for (ReconcileCheckpoint checkpoint : checkpoints) {
+            if (!checkpoint.getDone()) {
+                pending.add(checkpoint);
+            }
+        }
+        System.out.println("【对账】批次" + runId + "：共" + checkpoints.size() + "个范围，待处理" + pending.size() + "个");
+
+        if (!pending.isEmpty()) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new RangeTask(pending, 0, pending.size()));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        for (ReconcileDiscrepancy discrepancy : reconcileDao.selectDiscrepancies(runId)) {
+            recheck(discrepancy);
+        }
+        List<ReconcileDiscrepancy> discrepancies = reconcileDao.selectDiscrepancies(runId);
+        return new ReconcileReport(runId, recount(runId, discrepancies), discrepancies,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 复核删除了差异后，检查点中的差异数按剩下的差异重新统计
+     */
+    private List<ReconcileCheckpoint> recount(String runId, List<ReconcileDiscrepancy> discrepancies) {
+        List<ReconcileCheckpoint> checkpoints = reconcileDao.selectCheckpoints(runId);
+        for (ReconcileCheckpoint checkpoint : checkpoints) {
+            int count = 0;
+            for (ReconcileDiscrepancy discrepancy : discrepancies) {
+                if (discrepancy.getAccountId() > checkpoint.getRangeStart()
+                        && discrepancy.getAccountId() <= checkpoint.getRangeEnd()) {
+                    count++;
+                }
+            }
+            if (count != checkpoint.getDiscrepancies()) {
+                checkpoint.setDiscrepancies(count);
+                reconcileDao.updateCheckpoint(checkpoint);
+            }
+        }
+        return checkpoints;
+    }
+
+    private void requireSupportedModes() {
+        if (!(balanceStore instanceof InPlaceBalanceStore)) {
+            throw new IllegalStateException("对账比较的是account.money，只支持ledger.mode=balance");
+        }
+        if (!(transferAudit instanceof RowsTransferAudit)) {
+            throw new IllegalStateException("对账读取transfer_log中的完成日志，只支持audit.mode=rows");
+        }
+    }
+
+    private List<ReconcileCheckpoint> loadOrCreateCheckpoints(String runId) {
+        List<ReconcileCheckpoint> checkpoints = reconcileDao.selectCheckpoints(runId);
+        if (!checkpoints.isEmpty()) {
+            return checkpoints;
+        }
+        pageTransaction.executeWithoutResult(status -> {
+            Integer maxId = reconcileDao.selectMaxAccountId();
+            for (int rangeStart = 0; maxId != null && rangeStart < maxId; rangeStart += rangeSize) {
+                reconcileDao.insertCheckpoint(runId, rangeStart, rangeStart + rangeSize);
+            }
+        });
+        return reconcileDao.selectCheckpoints(runId);
+    }
+
+    /**
+     * 一组范围，多于一个时对半拆分，由ForkJoinPool的工作线程并行处理
+     */
+    private final class RangeTask extends RecursiveAction {
+
+        private final List<ReconcileCheckpoint> ranges;
+        private final int from;
+        private final int to;
+
+        RangeTask(List<ReconcileCheckpoint> ranges, int from, int to) {
+            this.ranges = ranges;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                processRange(ranges.get(from));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(ranges, from, mid), new RangeTask(ranges, mid, to));
+        }
+    }
+
+    private void processRange(ReconcileCheckpoint checkpoint) {
+        ReconcileCheckpoint current = checkpoint;
+        while (!current.getDone()) {
+            try {
+                throttle.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("对账被中断，可用相同的runId继续", e);
+            }
+            // 每页返回新的检查点对象，事务回滚时手里的仍是与数据库一致的上一个
+            ReconcileCheckpoint page = current;
+            current = pageTransaction.execute(status -> processPage(page));
+        }
+        System.out.println("【对账】范围(" + current.getRangeStart() + ", " + current.getRangeEnd() + "]完成：账户"
+                + current.getAccounts() + "个，差异" + current.getDiscrepancies() + "个（"
+                + Thread.currentThread().getName() + "）");
+    }
+
+    /**
+     * 在事务中处理一页，返回新的检查点（已写入数据库）
+     */
+    private ReconcileCheckpoint processPage(ReconcileCheckpoint checkpoint) {
+        ReconcileCheckpoint next = copy(checkpoint);
+        List<ReconcileAccount> page = reconcileDao.selectAccountPage(checkpoint.getLastId(), checkpoint.getRangeEnd(),
+                pageSize);
+        if (!page.isEmpty()) {
+            int lastId = page.get(page.size() - 1).getId();
+            Map<Integer, Double> deltas = deltas(checkpoint.getLastId(), lastId);
+            for (ReconcileAccount account : page) {
+                if (account.getBaselineMoney() == null) {
+                    next.setUnbaselined(next.getUnbaselined() + 1);
+                    continue;
+                }
+                next.setAccounts(next.getAccounts() + 1);
+                next.setBaselineTotal(next.getBaselineTotal() + account.getBaselineMoney());
+                next.setActualTotal(next.getActualTotal() + account.getMoney());
+                ReconcileDiscrepancy discrepancy = compare(checkpoint.getRunId(), account,
+                        deltas.getOrDefault(account.getId(), 0.0));
+                if (discrepancy != null) {
+                    reconcileDao.upsertDiscrepancy(discrepancy);
+                    next.setDiscrepancies(next.getDiscrepancies() + 1);
+                }
+            }
+            next.setLastId(lastId);
+        }
+        next.setDone(page.size() < pageSize);
+        reconcileDao.updateCheckpoint(next);
+        return next;
+    }
+
+    private Map<Integer, Double> deltas(int afterId, int lastId) {
+        Map<Integer, Double> deltas = new HashMap<>();
+        for (AccountDelta delta : reconcileDao.selectCompletedTransfers(afterId, lastId,
+                TransferLogService.COMPLETED_MESSAGE)) {
+            deltas.merge(delta.getAccountId(), delta.getDelta(), Double::sum);
+        }
+        return deltas;
+    }
+
+    /**
+     * @return 不一致时返回差异，否则返回null
+     */
+    private ReconcileDiscrepancy compare(String runId, ReconcileAccount account, double delta) {
+        double expected = account.getBaselineMoney() + delta;
+        if (Math.abs(account.getMoney() - expected) <= tolerance) {
+            return null;
+        }
+        ReconcileDiscrepancy discrepancy = new ReconcileDiscrepancy();
+        discrepancy.setRunId(runId);
+        discrepancy.setAccountId(account.getId());
+        discrepancy.setName(account.getName());
+        discrepancy.setExpected(expected);
+        discrepancy.setActual(account.getMoney());
+        return discrepancy;
+    }
+
+    /**
+     * 复核一个差异账户：已一致的删除，仍不一致的更新为最新的值
+     */
+    private void recheck(ReconcileDiscrepancy previous) {
+        pageTransaction.executeWithoutResult(status -> {
+            int id = previous.getAccountId();
+            List<ReconcileAccount> page = reconcileDao.selectAccountPage(id - 1, id, 1);
+            ReconcileDiscrepancy current = page.isEmpty() || page.get(0).getBaselineMoney() == null ? null
+                    : compare(previous.getRunId(), page.get(0), deltas(id - 1, id).getOrDefault(id, 0.0));
+            if (current == null) {
+                reconcileDao.deleteDiscrepancy(previous.getRunId(), id);
+            } else {
+                reconcileDao.upsertDiscrepancy(current);
+            }
+        });
+    }
+
+    private static ReconcileCheckpoint copy(ReconcileCheckpoint checkpoint) {
+        ReconcileCheckpoint copy = new ReconcileCheckpoint();
+        copy.setRunId(checkpoint.getRunId());
+        copy.setRangeStart(checkpoint.getRangeStart());
+        copy.setRangeEnd(checkpoint.getRangeEnd());
+        copy.setLastId(checkpoint.getLastId());
+        copy.setAccounts(checkpoint.getAccounts());
+        copy.setUnbaselined(checkpoint.getUnbaselined());
+        copy.setDiscrepancies(checkpoint.getDiscrepancies());
+        copy.setBaselineTotal(checkpoint.getBaselineTotal());
+        copy.setActualTotal(checkpoint.getActualTotal());
+        copy.setDone(checkpoint.getDone());
+        return copy;
+    }
+}
@@ -0,0 +1,122 @@
+package com.coder.schedule;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 哈希时间轮 - 内存中保存即将到期的定时任务
+ *
+ * 一圈wheelSize个槽，每个槽对应tickMillis毫秒，到期时间换算成第几个刻度（tick），放进tick % wheelSize号槽：
+ * - 超过一圈的任务记下还要转几圈（rounds），每经过一次所在的槽减1，减到0的那一圈到期
+ * - 加入、到期都是O(1)，不像优先队列那样需要O(log n)，适合几十万个任务同时在内存中
+ * - 精度是一个刻度：任务在到期时间所在刻度的结束时刻被取出，最多晚tickMillis
+ *
+ * 线程模型：
+ * - add()可由任意线程调用，任务先放入无锁队列
+ * - advance()只由时钟线程调用，先把队列中的任务放进槽，再逐个刻度推进到当前时间，取出到期的任务
+ */
+final class TimingWheel<T> {
+
+    private final long startMillis;
+
+    private final long tickMillis;
+
+    private final List<Entry<T>>[] slots;
+
+    private final int mask;
+
+    private final ConcurrentLinkedQueue<Entry<T>> incoming = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    /** 下一个要处理的刻度，只由时钟线程访问 */
+    private long tick;
+
+    /**
+     * @param tickMillis 每个刻度的毫秒数
+     * @param wheelSize  槽数，向上取整为2的幂
+     */
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        int length = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.tickMillis = Math.max(1, tickMillis);
+        this.startMillis = startMillis;
+        this.slots = new List[length];
+        for (int i = 0; i < length; i++) {
+            slots[i] = new LinkedList<>();
+        }
+        this.mask = length - 1;
+    }
+
+    /**
+     * 加入一个任务（任意线程）
+     *
+     * @param deadlineMillis 到期时间（毫秒时间戳），早于当前时间的在下一次advance()时立即取出
+     */
+    void add(T task, long deadlineMillis) {
+        incoming.add(new Entry<>(task, deadlineMillis));
+        size.incrementAndGet();
+    }
+
+    /**
+     * 推进到nowMillis，返回期间到期的任务（只能由时钟线程调用）
+     */
+    List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        for (Entry<T> entry; (entry = incoming.poll()) != null; ) {
+            place(entry, expired);
+        }
+        while (startMillis + tick * tickMillis <= nowMillis) {
+            Iterator<Entry<T>> slot = slots[(int) (tick & mask)].iterator();
+            while (slot.hasNext()) {
+                Entry<T> entry = slot.next();
+                if (entry.rounds <= 0) {
+                    slot.remove();
+                    expired.add(entry.task);
+                } else {
+                    entry.rounds--;
+                }
+            }
+            tick++;
+        }
+        size.addAndGet(-expired.size());
+        return expired;
+    }
+
+    /**
+     * 时间轮中的任务数（含还在队列中的）
+     */
+    int size() {
+        return size.get();
+    }
+
+    private void place(Entry<T> entry, List<T> expired) {
+        // 到期时间所在刻度的结束时刻：向上取整
+        long deadlineTick = Math.floorDiv(entry.deadlineMillis - startMillis + tickMillis - 1, tickMillis);
+        if (deadlineTick < tick) {
+            expired.add(entry.task);
+            return;
+        }
+        entry.rounds = (deadlineTick - tick) / slots.length;
+        slots[(int) (deadlineTick & mask)].add(entry);
+    }
+
+    private static final class Entry<T> {
+
+        final T task;
+
+        final long deadlineMillis;
+
+        /** 还要经过所在的槽几次才到期 */
+        long rounds;
+
+        Entry(T task, long deadlineMillis) {
+            this.task = task;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+}
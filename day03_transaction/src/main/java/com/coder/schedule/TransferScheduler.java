@@ -0,0 +1,458 @@
+package com.coder.schedule;
+
+import com.coder.account.AccountIdResolver;
+import com.coder.dao.ScheduleDao;
+import com.coder.domain.ScheduledTransfer;
+import com.coder.service.AccountService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 定时转账调度器（配置见schedule.properties）
+ *
+ * 每秒轮询一次表找出到期的计划，计划多到几百万行时轮询本身就是负担，到期时刻（如零点发工资）又集中在一起。这里：
+ * - 计划持久化在scheduled_transfer中，按(state, due_at)建索引
+ * - 加载线程每loadIntervalSeconds按(due_at, id)键集分页，把"当前时间 + windowSeconds"之前到期的计划
+ *   放进内存中的哈希时间轮（TimingWheel），内存中最多maxInMemory个，满了就等下一次再接着加载
+ * - 时钟线程每tickMillis推进一次时间轮，到期的计划按maxBatchSize分批交给执行线程
+ * - 执行线程在一个事务中逐个认领（ScheduleDao.claim，条件带上due_at）并调用AccountService.transfer，
+ *   认领与转账一起提交：同一次到期最多执行一次，多个进程同时运行也一样；
+ *   批次中有一个失败时整批回滚，再逐个各自一个事务重试
+ * - 执行失败的计划在retryDelaySeconds后重试，失败maxAttempts次后标记为FAILED
+ * - 定期计划执行后due_at推进到下一个未来的时刻（停机期间错过的多次只补执行一次）
+ *
+ * 重启恢复：内存中的时间轮不需要持久化，启动后游标从头开始加载，
+ * 停机期间到期的计划（due_at已过）排在最前面，加载后立即执行
+ *
+ * 加载游标越过之后才出现的计划（本进程新建的、重试的、定期推进的）直接放进时间轮；
+ * 其他进程新建的由每次加载时对过期计划的补扫发现，最多晚一个加载间隔
+ */
+public class TransferScheduler implements DisposableBean {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final int MAX_MESSAGE_LENGTH = 500;
+
+    private final ScheduleDao scheduleDao;
+
+    private final AccountService accountService;
+
+    private final AccountIdResolver accountIdResolver;
+
+    private final TransactionTemplate transaction;
+
+    private final TimingWheel<ScheduledTransfer> wheel;
+
+    private final long tickMillis;
+
+    private final long windowSeconds;
+
+    private final long loadIntervalSeconds;
+
+    private final int pageSize;
+
+    private final int maxInMemory;
+
+    private final int executionThreads;
+
+    private final int maxBatchSize;
+
+    private final int maxAttempts;
+
+    private final long retryDelaySeconds;
+
+    /** 时间轮中和正在执行的计划：id -> 加载时的due_at，避免重复加载 */
+    private final Map<Long, LocalDateTime> inMemory = new ConcurrentHashMap<>();
+
+    /** 加载游标，只由加载线程推进；其他线程读取due_at判断新计划是否已被越过 */
+    private volatile LocalDateTime cursorDueAt = EPOCH;
+
+    private long cursorId;
+
+    private final LongAdder loaded = new LongAdder();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    private ScheduledExecutorService clock;
+
+    private ExecutorService executors;
+
+    /**
+     * @param tickMillis          时间轮每个刻度的毫秒数（执行精度）
+     * @param wheelSize           时间轮的槽数
+     * @param windowSeconds       每次加载未来多少秒内到期的计划
+     * @param loadIntervalSeconds 加载间隔，要小于windowSeconds，计划才能在到期前进入内存
+     * @param pageSize            每次查询的行数
+     * @param maxInMemory         内存中最多保存的计划数
+     * @param executionThreads    执行线程数，同时占用的连接数
+     * @param maxBatchSize        每个事务最多执行的计划数
+     * @param maxAttempts         每次到期最多执行几次
+     * @param retryDelaySeconds   失败后多久重试
+     */
+    public TransferScheduler(ScheduleDao scheduleDao, AccountService accountService,
+                             AccountIdResolver accountIdResolver, PlatformTransactionManager transactionManager,
+                             long tickMillis, int wheelSize, long windowSeconds, long loadIntervalSeconds,
+                             int pageSize, int maxInMemory, int executionThreads, int maxBatchSize,
+                             int maxAttempts, long retryDelaySeconds) {
+        this.scheduleDao = scheduleDao;
+        this.accountService = accountService;
+        this.accountIdResolver = accountIdResolver;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setName("TransferScheduler.batch");
+        this.tickMillis = Math.max(1, tickMillis);
+        this.wheel = new TimingWheel<>(this.tickMillis, wheelSize, System.currentTimeMillis());
+        this.windowSeconds = windowSeconds;
+        this.loadIntervalSeconds = Math.max(1, loadIntervalSeconds);
+        this.pageSize = Math.max(1, pageSize);
+        this.maxInMemory = maxInMemory;
+        this.executionThreads = Math.max(1, executionThreads);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelaySeconds = retryDelaySeconds;
+    }
+
+    /**
+     * 启动加载线程、时钟线程和执行线程（后台守护线程）
+     */
+    public synchronized void start() {
+        if (clock != null) {
+            return;
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        executors = Executors.newFixedThreadPool(executionThreads, r -> daemon(r,
+                "transfer-scheduler-exec-" + sequence.incrementAndGet()));
+        clock = Executors.newScheduledThreadPool(2, r -> daemon(r, "transfer-scheduler-" + sequence.incrementAndGet()));
+        clock.scheduleWithFixedDelay(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                // 加载失败不影响已在内存中的计划，下次再试
+                System.out.println("【定时转账】加载失败：" + e.getMessage());
+            }
+        }, 0, loadIntervalSeconds, TimeUnit.SECONDS);
+        clock.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        System.out.println("【定时转账】已启动：刻度" + tickMillis + "ms，加载窗口" + windowSeconds + "秒，每"
+                + loadIntervalSeconds + "秒加载一次，" + executionThreads + "个执行线程");
+    }
+
+    private static Thread daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    // ==================== 新建与取消 ====================
+
+    /**
+     * 新建一次性定时转账
+     *
+     * @return 计划ID
+     * @throws com.coder.account.AccountNotFoundException 账户不存在
+     */
+    public long schedule(String from, String to, Double amount, LocalDateTime dueAt) {
+        return schedule(from, to, amount, dueAt, null);
+    }
+
+    /**
+     * 新建定时转账
+     *
+     * @param intervalSeconds 重复间隔（秒），null表示只执行一次
+     * @return 计划ID
+     */
+    public long schedule(String from, String to, Double amount, LocalDateTime dueAt, Integer intervalSeconds) {
+        if (amount == null || amount <= 0) {
+            throw new IllegalArgumentException("转账金额必须大于0：" + amount);
+        }
+        if (dueAt == null) {
+            throw new IllegalArgumentException("执行时间不能为空");
+        }
+        if (intervalSeconds != null && intervalSeconds <= 0) {
+            throw new IllegalArgumentException("重复间隔必须大于0：" + intervalSeconds);
+        }
+        // 账户名写错时现在就报错，不等到期
+        accountIdResolver.resolve(from);
+        accountIdResolver.resolve(to);
+
+        ScheduledTransfer schedule = new ScheduledTransfer();
+        schedule.setFromAccount(from);
+        schedule.setToAccount(to);
+        schedule.setAmount(amount);
+        schedule.setDueAt(toColumnPrecision(dueAt));
+        schedule.setIntervalSeconds(intervalSeconds);
+        schedule.setState(ScheduledTransfer.PENDING);
+        schedule.setAttempts(0);
+        schedule.setExecutions(0);
+        scheduleDao.insert(schedule);
+
+        // 在调用方的事务中新建时，提交后才放进时间轮，否则到期时可能还看不到这一行
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offerIfPassed(schedule);
+                }
+            });
+        } else {
+            offerIfPassed(schedule);
+        }
+        return schedule.getId();
+    }
+
+    /**
+     * 取消一个待执行的计划；已在时间轮中的不需要移除，到期时认领失败就会跳过
+     *
+     * @return 是否取消成功（已执行、已失败或已取消时返回false）
+     */
+    public boolean cancel(long id) {
+        return scheduleDao.cancel(id) == 1;
+    }
+
+    // ==================== 加载 ====================
+
+    /**
+     * 加载一个时间窗口内到期的计划，并补扫游标已越过却不在内存中的过期计划
+     */
+    synchronized void load() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plusSeconds(windowSeconds);
+        int added = 0;
+        while (inMemory.size() < maxInMemory) {
+            List<ScheduledTransfer> page = scheduleDao.selectDue(cursorDueAt, cursorId, horizon, pageSize);
+            for (ScheduledTransfer schedule : page) {
+                if (offer(schedule)) {
+                    added++;
+                }
+                cursorId = schedule.getId();
+                cursorDueAt = schedule.getDueAt();
+            }
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+        int recovered = 0;
+        for (ScheduledTransfer schedule : scheduleDao.selectOverdue(now.minusSeconds(loadIntervalSeconds), pageSize)) {
+            if (offer(schedule)) {
+                recovered++;
+            }
+        }
+        if (added > 0 || recovered > 0) {
+            System.out.println("【定时转账】加载" + added + "个（到" + horizon + "为止），补扫过期计划" + recovered
+                    + "个，内存中" + inMemory.size() + "个");
+        }
+    }
+
+    /**
+     * 放进时间轮
+     *
+     * @return 是否放入（已在内存中时返回false）
+     */
+    private boolean offer(ScheduledTransfer schedule) {
+        if (inMemory.putIfAbsent(schedule.getId(), schedule.getDueAt()) != null) {
+            return false;
+        }
+        loaded.increment();
+        wheel.add(schedule, schedule.getDueAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        return true;
+    }
+
+    /**
+     * 加载游标已经越过的计划直接放进时间轮，否则留给加载线程
+     */
+    private void offerIfPassed(ScheduledTransfer schedule) {
+        if (clock != null && !schedule.getDueAt().isAfter(cursorDueAt)) {
+            offer(schedule);
+        }
+    }
+
+    // ==================== 执行 ====================
+
+    private void tick() {
+        try {
+            List<ScheduledTransfer> due = wheel.advance(System.currentTimeMillis());
+            for (int from = 0; from < due.size(); from += maxBatchSize) {
+                List<ScheduledTransfer> batch = due.subList(from, Math.min(due.size(), from + maxBatchSize));
+                executors.execute(() -> executeBatch(batch));
+            }
+        } catch (RuntimeException e) {
+            // 异常会让scheduleAtFixedRate停止后续执行
+            System.out.println("【定时转账】时钟异常：" + e);
+        }
+    }
+
+    /**
+     * 在一个事务中执行一批到期的计划，失败时逐个重试
+     */
+    private void executeBatch(List<ScheduledTransfer> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            boolean[] claimed = new boolean[batch.size()];
+            transaction.executeWithoutResult(status -> {
+                for (int i = 0; i < batch.size(); i++) {
+                    claimed[i] = claimAndTransfer(batch.get(i), now);
+                }
+            });
+            batches.increment();
+            for (int i = 0; i < batch.size(); i++) {
+                finish(batch.get(i), claimed[i], now);
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                retryOrFail(batch.get(0), e);
+            } else {
+                batch.forEach(schedule -> executeOne(schedule, now));
+            }
+        }
+    }
+
+    private void executeOne(ScheduledTransfer schedule, LocalDateTime now) {
+        try {
+            Boolean claimed = transaction.execute(status -> claimAndTransfer(schedule, now));
+            batches.increment();
+            finish(schedule, Boolean.TRUE.equals(claimed), now);
+        } catch (RuntimeException e) {
+            retryOrFail(schedule, e);
+        }
+    }
+
+    /**
+     * 认领这次到期并转账（在调用方的事务中）
+     *
+     * @return 认领失败（已取消、已被其他进程执行）时返回false，不转账
+     */
+    private boolean claimAndTransfer(ScheduledTransfer schedule, LocalDateTime now) {
+        if (scheduleDao.claim(schedule.getId(), schedule.getDueAt(), nextDueAt(schedule, now), now) == 0) {
+            return false;
+        }
+        accountService.transfer(schedule.getFromAccount(), schedule.getToAccount(), schedule.getAmount());
+        return true;
+    }
+
+    /**
+     * 一次性计划不推进；定期计划推进到第一个晚于现在的时刻
+     */
+    private static LocalDateTime nextDueAt(ScheduledTransfer schedule, LocalDateTime now) {
+        if (!schedule.isRepeating()) {
+            return schedule.getDueAt();
+        }
+        LocalDateTime next = schedule.getDueAt().plusSeconds(schedule.getIntervalSeconds());
+        while (!next.isAfter(now)) {
+            next = next.plusSeconds(schedule.getIntervalSeconds());
+        }
+        return next;
+    }
+
+    /**
+     * 事务提交后：移出内存，定期计划的下一次如果游标已越过则直接放回时间轮
+     */
+    private void finish(ScheduledTransfer schedule, boolean claimed, LocalDateTime now) {
+        inMemory.remove(schedule.getId(), schedule.getDueAt());
+        if (!claimed) {
+            skipped.increment();
+            return;
+        }
+        executed.increment();
+        if (schedule.isRepeating()) {
+            offerIfPassed(copy(schedule, nextDueAt(schedule, now), 0));
+        }
+    }
+
+    /**
+     * 执行失败：在新的事务中推迟重试，或在次数用完后标记为FAILED
+     */
+    private void retryOrFail(ScheduledTransfer schedule, RuntimeException cause) {
+        String message = String.valueOf(cause.getMessage());
+        if (message.length() > MAX_MESSAGE_LENGTH) {
+            message = message.substring(0, MAX_MESSAGE_LENGTH);
+        }
+        int attempts = schedule.getAttempts() + 1;
+        try {
+            if (attempts < maxAttempts) {
+                LocalDateTime retryAt = toColumnPrecision(LocalDateTime.now().plusSeconds(retryDelaySeconds));
+                if (scheduleDao.reschedule(schedule.getId(), schedule.getDueAt(), retryAt, message) == 1) {
+                    retried.increment();
+                    inMemory.remove(schedule.getId(), schedule.getDueAt());
+                    offerIfPassed(copy(schedule, retryAt, attempts));
+                    return;
+                }
+            } else if (scheduleDao.fail(schedule.getId(), schedule.getDueAt(), message) == 1) {
+                failed.increment();
+                System.out.println("【定时转账】计划" + schedule.getId() + "失败" + attempts + "次，不再重试：" + message);
+            }
+        } catch (RuntimeException e) {
+            // 状态没有更新，仍是这次到期的PENDING，过期补扫会重新加载
+            System.out.println("【定时转账】计划" + schedule.getId() + "记录失败状态时出错：" + e.getMessage());
+        }
+        inMemory.remove(schedule.getId(), schedule.getDueAt());
+    }
+
+    /**
+     * due_at列只保存到毫秒（MySQL会四舍五入多余的位数），写入前先截断，
+     * 直接放进时间轮的计划与表中的due_at完全相同，认领时的due_at条件才能匹配
+     */
+    private static LocalDateTime toColumnPrecision(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private static ScheduledTransfer copy(ScheduledTransfer schedule, LocalDateTime dueAt, int attempts) {
+        ScheduledTransfer copy = new ScheduledTransfer();
+        copy.setId(schedule.getId());
+        copy.setFromAccount(schedule.getFromAccount());
+        copy.setToAccount(schedule.getToAccount());
+        copy.setAmount(schedule.getAmount());
+        copy.setDueAt(dueAt);
+        copy.setIntervalSeconds(schedule.getIntervalSeconds());
+        copy.setState(ScheduledTransfer.PENDING);
+        copy.setAttempts(attempts);
+        copy.setExecutions(schedule.getExecutions());
+        return copy;
+    }
+
+    /**
+     * 内存中（时间轮中和正在执行）的计划数
+     */
+    public int getInMemory() {
+        return inMemory.size();
+    }
+
+    /**
+     * 停止加载和推进时间轮，等待正在执行的批次提交；内存中未执行的计划仍是PENDING，下次启动时重新加载
+     */
+    @Override
+    public synchronized void destroy() throws InterruptedException {
+        if (clock == null) {
+            return;
+        }
+        clock.shutdownNow();
+        clock.awaitTermination(10, TimeUnit.SECONDS);
+        executors.shutdown();
+        executors.awaitTermination(30, TimeUnit.SECONDS);
+        System.out.println("【定时转账】" + this);
+    }
+
+    @Override
+    public String toString() {
+        long batchCount = batches.sum();
+        return "内存中" + inMemory.size() + "个（时间轮" + wheel.size() + "个），加载" + loaded.sum() + "个，执行"
+                + executed.sum() + "个/" + batchCount + "批，跳过" + skipped.sum() + "个，重试" + retried.sum()
+                + "个，失败" + failed.sum() + "个";
+    }
+}
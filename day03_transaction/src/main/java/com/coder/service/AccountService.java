@@ -72,4 +72,16 @@ public interface AccountService {
      */
     @Transactional
     void transferWithLogRequiresNew(String from, String to, Double money);
-}
\ No newline at end of file
+
+    /**
+     * 开户
+     *
+     * 新账户在事务提交后登记到AccountIdResolver，之后的转账可以直接按主键更新
+     *
+     * @param name  账户名称（唯一）
+     * @param money 初始余额
+     * @return 新账户的ID
+     */
+    @Transactional
+    int openAccount(String name, Double money);
+}
@@ -1,6 +1,8 @@
 package com.coder.service;
 
 import com.coder.domain.TransferLog;
+import com.coder.domain.TransferLogPage;
+import com.coder.domain.TransferLogQuery;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -57,6 +59,11 @@ import java.util.List;
  */
 public interface TransferLogService {
 
+    /**
+     * 转账全部成功时最后一条日志的message，对账任务（Reconciler）以它识别已完成的转账
+     */
+    String COMPLETED_MESSAGE = "转账完成 - 全部成功";
+
     /**
      * 记录转账日志 - 使用REQUIRED传播行为（默认）
      *
@@ -126,6 +133,18 @@ public interface TransferLogService {
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     void logTransferRequiresNew(String from, String to, Double amount, String status, String message);
 
+    /**
+     * 批量记录转账日志 - 使用REQUIRES_NEW传播行为
+     *
+     * logTransferRequiresNew()对应的批量方法，由微批处理切面（@Batched）调用：
+     * - 多个线程并发调用logTransferRequiresNew()时，参数会被攒成一批交给这个方法
+     * - 整批日志在一个独立事务中用一条多行INSERT写入，减少事务提交和网络往返次数
+     *
+     * @param calls 每个元素是一次logTransferRequiresNew调用的参数：from, to, amount, status, message
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    void logTransfersRequiresNew(List<Object[]> calls);
+
     /**
      * 查询所有转账日志
      *
@@ -140,4 +159,15 @@ public interface TransferLogService {
      * @return 符合条件的转账日志列表
      */
     List<TransferLog> getLogsByStatus(String status);
+
+    /**
+     * 查询一个账户的转账历史（键集分页）
+     *
+     * 与上面两个方法不同，只按账户索引读取一页，日志再多也不做全表扫描
+     *
+     * @param query 查询条件，必须指定账户
+     * @return 一页结果，hasMore()为true时用query.after(page)取下一页
+     * @throws IllegalArgumentException 查询条件不合法
+     */
+    TransferLogPage searchLogs(TransferLogQuery query);
 }
@@ -1,6 +1,14 @@
 package com.coder.service.impl;
 
+import com.coder.account.AccountIdResolver;
+import com.coder.audit.TransferAudit;
+import com.coder.aop.Bulkhead;
+import com.coder.aop.CheckAccounts;
+import com.coder.aop.StatementBudget;
 import com.coder.dao.AccountDao;
+import com.coder.domain.Account;
+import com.coder.domain.TransferAuditRecord;
+import com.coder.ledger.BalanceStore;
 import com.coder.service.AccountService;
 import com.coder.service.TransferLogService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -52,6 +60,52 @@ public class AccountServiceImpl implements AccountService {
     @Autowired
     private TransferLogService transferLogService;
 
+    /**
+     * 账户名解析器 - 转账时先在内存中把账户名转换为id，再按主键更新
+     *
+     * 第一次解析时会从数据库加载全部账户（一条额外的SELECT，计入当次的语句预算），
+     * 严格预算模式下应在启动后先调用AccountIdResolver.load()
+     */
+    @Autowired
+    private AccountIdResolver accountIdResolver;
+
+    /**
+     * 余额存储 - 转出/转入通过它完成，由ledger.mode选择原地更新account.money还是追加账本分录
+     */
+    @Autowired
+    private BalanceStore balanceStore;
+
+    /**
+     * 转账审计 - transferWithLogRequiresNew通过它记录开始、转出、完成/失败，
+     * 由audit.mode选择逐行写transfer_log还是每笔转账一行的transfer_audit
+     */
+    @Autowired
+    private TransferAudit transferAudit;
+
+    /**
+     * setter注入 - 供FunctionalBootstrap在不开启注解扫描时手动装配
+     * 注解方式启动时仍由@Autowired直接注入字段，这两个方法不会被调用
+     */
+    public void setAccountDao(AccountDao accountDao) {
+        this.accountDao = accountDao;
+    }
+
+    public void setTransferLogService(TransferLogService transferLogService) {
+        this.transferLogService = transferLogService;
+    }
+
+    public void setAccountIdResolver(AccountIdResolver accountIdResolver) {
+        this.accountIdResolver = accountIdResolver;
+    }
+
+    public void setBalanceStore(BalanceStore balanceStore) {
+        this.balanceStore = balanceStore;
+    }
+
+    public void setTransferAudit(TransferAudit transferAudit) {
+        this.transferAudit = transferAudit;
+    }
+
     /**
      * 转账操作实现 - 基础版本（不带日志记录）
      *
@@ -68,28 +122,41 @@ public class AccountServiceImpl implements AccountService {
      * - 如果当前没有事务，则创建一个新的事务
      *
      * 转账业务逻辑：
-     * 1. 调用accountDao.outMoney(from, money) - 转出方减钱
-     * 2. 调用accountDao.inMoney(to, money) - 转入方加钱
+     * 1. 调用balanceStore.debit(fromId, money) - 转出方减钱
+     * 2. 调用balanceStore.credit(toId, money) - 转入方加钱
+     * 账户名先由accountIdResolver在内存中转换为id；默认（ledger.mode=balance）两条UPDATE都按主键定位行，
+     * 账本模式下改为追加两条分录
      *
      * 事务保障：
      * - 两个操作在同一个数据库连接中执行
      * - 如果outMoney成功但inMoney失败，事务会回滚，outMoney的操作也会被撤销
      * - 确保数据的一致性（ACID特性中的原子性）
      *
+     * 语句预算：outMoney + inMoney，共2条；账本模式开启余额检查时转出前多一条加锁查询，共3条
+     *
+     * 账户检查（@CheckAccounts）：布隆过滤器判定一定不存在的账户在开启事务之前就被拒绝；
+     * 其余情况由解析（AccountIdResolver）和UPDATE的影响行数把关，不存在时抛出AccountNotFoundException，事务回滚
+     *
      * @param from  转出方账户名称
      * @param to    转入方账户名称
      * @param money 转账金额
      */
     @Override
+    @Bulkhead("transfer")
+    @StatementBudget(max = 3)
+    @CheckAccounts
     public void transfer(String from, String to, Double money) {
+        int fromId = accountIdResolver.resolve(from);
+        int toId = accountIdResolver.resolve(to);
+
         // 步骤1：转出方减钱
-        // 调用DAO层的outMoney方法，执行UPDATE account SET money = money - ? WHERE name = ?
-        accountDao.outMoney(from, money);
+        // 默认执行UPDATE account SET money = money - ? WHERE id = ?，账本模式下追加一条负数分录
+        balanceStore.debit(fromId, money);
         System.out.println("【转账日志】" + from + " 转出 " + money + " 元");
 
         // 步骤2：转入方加钱
-        // 调用DAO层的inMoney方法，执行UPDATE account SET money = money + ? WHERE name = ?
-        accountDao.inMoney(to, money);
+        // 默认执行UPDATE account SET money = money + ? WHERE id = ?，账本模式下追加一条正数分录
+        balanceStore.credit(toId, money);
         System.out.println("【转账日志】" + to + " 转入 " + money + " 元");
 
         System.out.println("【转账成功】" + from + " 向 " + to + " 转账 " + money + " 元完成！");
@@ -116,18 +183,25 @@ public class AccountServiceImpl implements AccountService {
      * - 转账失败时，日志也会被回滚，数据库中没有记录
      * - 适用于日志与业务强关联的场景
      *
+     * 语句预算：outMoney + inMoney + 2条日志，共4条（账本模式的余额检查再加1条）
+     *
      * @param from  转出方账户名称
      * @param to    转入方账户名称
      * @param money 转账金额
      */
     @Override
+    @Bulkhead("transfer")
+    @StatementBudget(max = 5)
+    @CheckAccounts
     public void transferWithLogRequired(String from, String to, Double money) {
         System.out.println("\n========== 开始转账（REQUIRED日志模式） ==========");
         System.out.println("转账信息：" + from + " -> " + to + ", 金额：" + money);
+        int fromId = accountIdResolver.resolve(from);
+        int toId = accountIdResolver.resolve(to);
 
         try {
             // 步骤1：转出方减钱
-            accountDao.outMoney(from, money);
+            balanceStore.debit(fromId, money);
             System.out.println("【业务】" + from + " 转出 " + money + " 元");
 
             // 步骤2：记录日志（使用REQUIRED传播行为）
@@ -135,11 +209,11 @@ public class AccountServiceImpl implements AccountService {
             transferLogService.logTransferRequired(from, to, money, "SUCCESS", "转账进行中 - 转出成功");
 
             // 步骤3：转入方加钱
-            accountDao.inMoney(to, money);
+            balanceStore.credit(toId, money);
             System.out.println("【业务】" + to + " 转入 " + money + " 元");
 
             // 步骤4：更新日志状态为成功
-            transferLogService.logTransferRequired(from, to, money, "SUCCESS", "转账完成 - 全部成功");
+            transferLogService.logTransferRequired(from, to, money, "SUCCESS", TransferLogService.COMPLETED_MESSAGE);
 
             System.out.println("【转账成功】" + from + " 向 " + to + " 转账 " + money + " 元完成！");
 
@@ -176,33 +250,51 @@ public class AccountServiceImpl implements AccountService {
      * - 即使转账失败回滚，日志仍然会保存到数据库
      * - 这就是审计日志的实现原理！
      *
+     * 审计方式由audit.mode决定（见TransferAudit）：
+     * - rows（默认）：上面的流程，开始、转出成功、完成各一条日志，每条一个独立事务
+     *   日志方法带@Batched：没有并发时每条日志一个事务，主事务2条语句 + 3条日志，加上4次提交，与数据库往返9次；
+     *   并发时同一时刻的日志合并为一条多行INSERT、一次提交，k笔转账共用一批时每笔只分摊1/k，
+     *   往返约为 3 + 6/k 次；代价是有并发时每条日志最多等待maxDelayMillis，
+     *   其中"转出成功"和"完成"两条等待时分别持有转出账户、两个账户的行锁。
+     *   语句预算：outMoney + inMoney + 3条日志，共5条（账本模式的余额检查再加1条）；
+     *   一批的多行INSERT由其中一个调用方的线程执行，只计入它的预算，计1条
+     * - compact：开始时在独立事务中插入一行审计记录（状态STARTED），转出成功只记在内存中，
+     *   完成时在主事务T1中按主键把这一行更新为COMPLETED，与转账一起提交；
+     *   失败时T1回滚，再在独立事务中更新为FAILED。
+     *   一次成功的转账：1次INSERT + outMoney + inMoney + 1次UPDATE，共4条语句、2次提交
+     *
      * @param from  转出方账户名称
      * @param to    转入方账户名称
      * @param money 转账金额
      */
     @Override
+    @Bulkhead("transfer")
+    @StatementBudget(max = 6)
+    @CheckAccounts
     public void transferWithLogRequiresNew(String from, String to, Double money) {
         System.out.println("\n========== 开始转账（REQUIRES_NEW日志模式） ==========");
         System.out.println("转账信息：" + from + " -> " + to + ", 金额：" + money);
+        int fromId = accountIdResolver.resolve(from);
+        int toId = accountIdResolver.resolve(to);
 
-        // 记录转账开始日志（在独立事务中）
-        // 这个日志会立即提交，不受后续异常影响
-        transferLogService.logTransferRequiresNew(from, to, money, "SUCCESS", "转账开始 - 记录审计日志");
+        // 记录转账开始（在独立事务中）
+        // 这条审计记录会立即提交，不受后续异常影响
+        TransferAuditRecord record = transferAudit.start(from, to, money);
 
         try {
             // 步骤1：转出方减钱
-            accountDao.outMoney(from, money);
+            balanceStore.debit(fromId, money);
             System.out.println("【业务】" + from + " 转出 " + money + " 元");
 
-            // 步骤2：记录中间状态日志（在独立事务中）
-            transferLogService.logTransferRequiresNew(from, to, money, "SUCCESS", "转出成功 - 等待转入");
+            // 步骤2：记录中间状态（rows模式在独立事务中写一条日志，compact模式只记在内存中）
+            transferAudit.debited(record);
 
             // 步骤3：转入方加钱
-            accountDao.inMoney(to, money);
+            balanceStore.credit(toId, money);
             System.out.println("【业务】" + to + " 转入 " + money + " 元");
 
-            // 步骤4：记录成功日志（在独立事务中）
-            transferLogService.logTransferRequiresNew(from, to, money, "SUCCESS", "转账完成 - 全部成功");
+            // 步骤4：记录完成（rows模式在独立事务中，compact模式随主事务提交）
+            transferAudit.completed(record);
 
             System.out.println("【转账成功】" + from + " 向 " + to + " 转账 " + money + " 元完成！");
 
@@ -210,11 +302,29 @@ public class AccountServiceImpl implements AccountService {
             System.out.println("【转账失败】发生异常：" + e.getMessage());
             System.out.println("【REQUIRES_NEW特性】虽然转账失败，但之前的审计日志已独立提交，不会回滚！");
 
-            // 记录失败日志（在独立事务中）
-            transferLogService.logTransferRequiresNew(from, to, money, "FAILED", "转账失败：" + e.getMessage());
+            // 记录失败（在独立事务中）
+            transferAudit.failed(record, e.getMessage());
 
             // 抛出异常，触发主事务回滚（转账操作回滚）
             throw new RuntimeException("转账失败：" + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 开户实现
+     *
+     * insert通过useGeneratedKeys回填自增id，事务提交后登记到accountIdResolver；
+     * 事务回滚时不登记，缓存中不会出现不存在的账户
+     */
+    @Override
+    @Transactional
+    public int openAccount(String name, Double money) {
+        Account account = new Account();
+        account.setName(name);
+        account.setMoney(money);
+        accountDao.insert(account);
+        accountIdResolver.registerAfterCommit(account);
+        System.out.println("【开户】" + name + "，账户ID：" + account.getId() + "，初始余额：" + money + " 元");
+        return account.getId();
+    }
+}
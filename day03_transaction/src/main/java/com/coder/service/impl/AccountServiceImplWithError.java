@@ -1,6 +1,10 @@
 package com.coder.service.impl;
 
+import com.coder.account.AccountNotFoundException;
 import com.coder.dao.AccountDao;
+import com.coder.domain.Account;
+import com.coder.ledger.BalanceStore;
+import com.coder.ledger.InPlaceBalanceStore;
 import com.coder.service.AccountService;
 import com.coder.service.TransferLogService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +18,13 @@ import org.springframework.transaction.annotation.Transactional;
  * 设计目的：
  * - 通过模拟各种错误场景，演示REQUIRED和REQUIRES_NEW的区别
  * - 让学生直观理解事务传播行为的效果
+ *
+ * 按账户名更新，账户名拼错时UPDATE只是影响0行，不会报错：
+ * 每次更新后检查影响行数，为0时抛出AccountNotFoundException，已执行的转出随事务回滚
+ *
+ * 直接更新account.money，不经过BalanceStore：ledger.mode=ledger时余额由账本计算，不再读取account.money，
+ * 会提交余额修改的方法（transfer、transferWithLogRequired、transferWithLogRequiresNew）抛出IllegalStateException；
+ * 两个...AndFail方法的余额修改总是随事务回滚，仍可使用
  */
 @Service
 public class AccountServiceImplWithError implements AccountService {
@@ -24,14 +35,18 @@ public class AccountServiceImplWithError implements AccountService {
     @Autowired
     private TransferLogService transferLogService;
 
+    @Autowired
+    private BalanceStore balanceStore;
+
     /**
      * 基础转账方法（与原版相同）
      */
     @Override
     public void transfer(String from, String to, Double money) {
-        accountDao.outMoney(from, money);
+        requireBalanceMode();
+        requireUpdated(accountDao.outMoney(from, money), from);
         System.out.println("【转账日志】" + from + " 转出 " + money + " 元");
-        accountDao.inMoney(to, money);
+        requireUpdated(accountDao.inMoney(to, money), to);
         System.out.println("【转账日志】" + to + " 转入 " + money + " 元");
         System.out.println("【转账成功】" + from + " 向 " + to + " 转账 " + money + " 元完成！");
     }
@@ -42,18 +57,19 @@ public class AccountServiceImplWithError implements AccountService {
     @Override
     @Transactional
     public void transferWithLogRequired(String from, String to, Double money) {
+        requireBalanceMode();
         System.out.println("\n========== 开始转账（REQUIRED日志模式 - 成功场景） ==========");
         System.out.println("转账信息：" + from + " -> " + to + ", 金额：" + money);
 
         // 转出
-        accountDao.outMoney(from, money);
+        requireUpdated(accountDao.outMoney(from, money), from);
         System.out.println("【业务】" + from + " 转出 " + money + " 元");
 
         // 记录日志（加入当前事务）
         transferLogService.logTransferRequired(from, to, money, "SUCCESS", "转账成功-REQUIRED模式");
 
         // 转入
-        accountDao.inMoney(to, money);
+        requireUpdated(accountDao.inMoney(to, money), to);
         System.out.println("【业务】" + to + " 转入 " + money + " 元");
 
         System.out.println("【转账成功】" + from + " 向 " + to + " 转账 " + money + " 元完成！");
@@ -69,7 +85,7 @@ public class AccountServiceImplWithError implements AccountService {
         System.out.println("转账信息：" + from + " -> " + to + ", 金额：" + money);
 
         // 转出
-        accountDao.outMoney(from, money);
+        requireUpdated(accountDao.outMoney(from, money), from);
         System.out.println("【业务】" + from + " 转出 " + money + " 元");
 
         // 记录日志（加入当前事务）
@@ -90,6 +106,7 @@ public class AccountServiceImplWithError implements AccountService {
     @Override
     @Transactional
     public void transferWithLogRequiresNew(String from, String to, Double money) {
+        requireBalanceMode();
         System.out.println("\n========== 开始转账（REQUIRES_NEW日志模式 - 成功场景） ==========");
         System.out.println("转账信息：" + from + " -> " + to + ", 金额：" + money);
 
@@ -97,18 +114,18 @@ public class AccountServiceImplWithError implements AccountService {
         transferLogService.logTransferRequiresNew(from, to, money, "SUCCESS", "转账开始-REQUIRES_NEW模式");
 
         // 转出
-        accountDao.outMoney(from, money);
+        requireUpdated(accountDao.outMoney(from, money), from);
         System.out.println("【业务】" + from + " 转出 " + money + " 元");
 
         // 记录中间日志（独立事务）
         transferLogService.logTransferRequiresNew(from, to, money, "SUCCESS", "转出成功-等待转入");
 
         // 转入
-        accountDao.inMoney(to, money);
+        requireUpdated(accountDao.inMoney(to, money), to);
         System.out.println("【业务】" + to + " 转入 " + money + " 元");
 
         // 记录完成日志（独立事务）
-        transferLogService.logTransferRequiresNew(from, to, money, "SUCCESS", "转账完成-全部成功");
+        transferLogService.logTransferRequiresNew(from, to, money, "SUCCESS", TransferLogService.COMPLETED_MESSAGE);
 
         System.out.println("【转账成功】" + from + " 向 " + to + " 转账 " + money + " 元完成！");
     }
@@ -127,7 +144,7 @@ public class AccountServiceImplWithError implements AccountService {
         System.out.println("【REQUIRES_NEW】开始日志已在独立事务中提交！");
 
         // 转出
-        accountDao.outMoney(from, money);
+        requireUpdated(accountDao.outMoney(from, money), from);
         System.out.println("【业务】" + from + " 转出 " + money + " 元");
 
         // 记录中间日志（独立事务，立即提交）
@@ -146,4 +163,29 @@ public class AccountServiceImplWithError implements AccountService {
         // 这行代码不会执行
         // accountDao.inMoney(to, money);
     }
+
+    /**
+     * 开户（不登记到AccountIdResolver，此实现的转账仍按名称更新）
+     */
+    @Override
+    @Transactional
+    public int openAccount(String name, Double money) {
+        Account account = new Account();
+        account.setName(name);
+        account.setMoney(money);
+        accountDao.insert(account);
+        return account.getId();
+    }
+
+    private void requireBalanceMode() {
+        if (!(balanceStore instanceof InPlaceBalanceStore)) {
+            throw new IllegalStateException("AccountServiceImplWithError直接更新account.money，只支持ledger.mode=balance");
+        }
+    }
+
+    private static void requireUpdated(int rows, String name) {
+        if (rows == 0) {
+            throw new AccountNotFoundException(name);
+        }
+    }
 }
@@ -1,13 +1,19 @@
 package com.coder.service.impl;
 
+import com.coder.aop.Batched;
+import com.coder.aop.Bulkhead;
 import com.coder.dao.TransferLogDao;
 import com.coder.domain.TransferLog;
+import com.coder.domain.TransferLogPage;
+import com.coder.domain.TransferLogQuery;
+import com.coder.id.SnowflakeIdGenerator;
 import com.coder.service.TransferLogService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -49,6 +55,23 @@ public class TransferLogServiceImpl implements TransferLogService {
     @Autowired
     private TransferLogDao transferLogDao;
 
+    /**
+     * setter注入 - 供FunctionalBootstrap在不开启注解扫描时手动装配
+     */
+    public void setTransferLogDao(TransferLogDao transferLogDao) {
+        this.transferLogDao = transferLogDao;
+    }
+
+    /**
+     * 日志ID生成器：transfer_log.id不是自增主键，插入前在本地生成
+     */
+    @Autowired
+    private SnowflakeIdGenerator transferLogIdGenerator;
+
+    public void setTransferLogIdGenerator(SnowflakeIdGenerator transferLogIdGenerator) {
+        this.transferLogIdGenerator = transferLogIdGenerator;
+    }
+
     /**
      * 记录转账日志 - 使用REQUIRED传播行为
      *
@@ -84,6 +107,7 @@ public class TransferLogServiceImpl implements TransferLogService {
     public void logTransferRequired(String from, String to, Double amount, String status, String message) {
         // 创建日志对象
         TransferLog log = new TransferLog();
+        log.setId(transferLogIdGenerator.nextId());
         log.setFromAccount(from);
         log.setToAccount(to);
         log.setAmount(amount);
@@ -118,6 +142,10 @@ public class TransferLogServiceImpl implements TransferLogService {
      * - 这就是审计日志的实现原理
      * ============================================================================
      *
+     * 微批处理（@Batched）：
+     * - 并发调用时，BatchedAspect会把多次调用攒成一批，交给logTransfersRequiresNew()在一个独立事务中写入
+     * - 调用方仍然会等到自己的日志提交后才返回，REQUIRES_NEW"独立提交"的语义不变
+     *
      * @param from    转出方账户
      * @param to      转入方账户
      * @param amount  转账金额
@@ -125,10 +153,12 @@ public class TransferLogServiceImpl implements TransferLogService {
      * @param message 日志信息
      */
     @Override
+    @Batched(batchMethod = "logTransfersRequiresNew")
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void logTransferRequiresNew(String from, String to, Double amount, String status, String message) {
         // 创建日志对象
         TransferLog log = new TransferLog();
+        log.setId(transferLogIdGenerator.nextId());
         log.setFromAccount(from);
         log.setToAccount(to);
         log.setAmount(amount);
@@ -143,12 +173,42 @@ public class TransferLogServiceImpl implements TransferLogService {
         System.out.println("【REQUIRES_NEW日志】此日志在独立事务中已提交，不受主业务事务影响！");
     }
 
+    /**
+     * 批量记录转账日志 - 使用REQUIRES_NEW传播行为
+     *
+     * 把每次单条调用的参数转换为TransferLog，用一条多行INSERT写入
+     * 如果这里抛出异常，整批回滚，微批处理器会改为逐条调用logTransferRequiresNew()，
+     * 让每个调用方拿到各自的结果或异常
+     *
+     * @param calls 每个元素是一次logTransferRequiresNew调用的参数
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void logTransfersRequiresNew(List<Object[]> calls) {
+        List<TransferLog> logs = new ArrayList<>(calls.size());
+        for (Object[] args : calls) {
+            TransferLog log = new TransferLog();
+            log.setId(transferLogIdGenerator.nextId());
+            log.setFromAccount((String) args[0]);
+            log.setToAccount((String) args[1]);
+            log.setAmount((Double) args[2]);
+            log.setStatus((String) args[3]);
+            log.setMessage((String) args[4]);
+            logs.add(log);
+        }
+
+        transferLogDao.insertAll(logs);
+
+        System.out.println("【REQUIRES_NEW日志】批量记录转账日志 " + logs.size() + " 条，已在独立事务中提交");
+    }
+
     /**
      * 查询所有转账日志
      *
      * @return 所有日志记录列表
      */
     @Override
+    @Bulkhead("logQuery")
     public List<TransferLog> getAllLogs() {
         return transferLogDao.selectAll();
     }
@@ -160,7 +220,21 @@ public class TransferLogServiceImpl implements TransferLogService {
      * @return 符合条件的日志记录列表
      */
     @Override
+    @Bulkhead("logQuery")
     public List<TransferLog> getLogsByStatus(String status) {
         return transferLogDao.selectByStatus(status);
     }
+
+    /**
+     * 查询账户的转账历史
+     *
+     * @param query 查询条件
+     * @return 一页结果
+     */
+    @Override
+    @Bulkhead("logQuery")
+    public TransferLogPage searchLogs(TransferLogQuery query) {
+        query.validate();
+        return new TransferLogPage(transferLogDao.search(query), query.getLimit());
+    }
 }
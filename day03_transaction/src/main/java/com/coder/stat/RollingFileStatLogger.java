@@ -0,0 +1,154 @@
+package com.coder.stat;
+
+import com.alibaba.druid.pool.DruidDataSourceStatLoggerAdapter;
+import com.alibaba.druid.pool.DruidDataSourceStatValue;
+import com.alibaba.druid.stat.JdbcSqlStatValue;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Druid统计日志 - 定期把连接池和SQL统计写入本地滚动文件
+ *
+ * DruidDataSource设置了timeBetweenLogStatsMillis后，会启动一个后台线程按间隔调用log，
+ * 传入的是"取值并清零"的统计（getStatValueAndReset），所以每段输出都是这个间隔内的增量：
+ * - 连接池：活跃/空闲连接数及峰值，借连接等待的次数、总耗时和等待线程峰值
+ * - SQL统计：合并后的SQL（参数化，不同参数算同一条），按总耗时倒序，包含执行次数、最大耗时、
+ *   影响行数、读取行数、错误次数、耗时分布，以及最近一次慢SQL的参数
+ *
+ * 文件超过maxFileBytes时滚动：druid-stat.log -> druid-stat.log.1 -> ... -> druid-stat.log.{maxFiles}，最旧的删除
+ */
+public class RollingFileStatLogger extends DruidDataSourceStatLoggerAdapter {
+
+    /** 耗时分布的区间，与Druid的直方图对应 */
+    private static final String HISTOGRAM_RANGES = "[0-1,1-10,10-100,100-1000,1-10s,10-100s,100-1000s,>1000s]ms";
+
+    private final Path file;
+
+    private final long maxFileBytes;
+
+    private final int maxFiles;
+
+    private final long intervalMillis;
+
+    private final long slowSqlMillis;
+
+    private volatile String lastDump = "";
+
+    public RollingFileStatLogger(String file, long maxFileBytes, int maxFiles, long intervalMillis, long slowSqlMillis) {
+        this.file = Paths.get(file);
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        this.intervalMillis = intervalMillis;
+        this.slowSqlMillis = slowSqlMillis;
+    }
+
+    @Override
+    public synchronized void log(DruidDataSourceStatValue stat) {
+        String dump = format(stat);
+        lastDump = dump;
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+            rollIfNeeded();
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(dump);
+            }
+        } catch (IOException e) {
+            // 统计输出失败不能影响业务，只打印原因
+            System.out.println("【SQL统计】写入" + file + "失败：" + e.getMessage());
+        }
+    }
+
+    private void rollIfNeeded() throws IOException {
+        if (!Files.exists(file) || Files.size(file) < maxFileBytes) {
+            return;
+        }
+        Files.deleteIfExists(rolled(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path from = rolled(i);
+            if (Files.exists(from)) {
+                Files.move(from, rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rolled(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    String format(DruidDataSourceStatValue stat) {
+        StringBuilder out = new StringBuilder();
+        out.append("========== ").append(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()))
+                .append(" ").append(stat.getName()).append(" ==========\n");
+        out.append(String.format("连接池：活跃%d（峰值%d），空闲%d（峰值%d），最大%d，借出%d次，归还%d次，物理连接%d次（失败%d）%n",
+                stat.getActiveCount(), stat.getActivePeak(), stat.getPoolingCount(), stat.getPoolingPeak(),
+                stat.getMaxActive(), stat.getConnectCount(), stat.getCloseCount(),
+                stat.getPhysicalConnectCount(), stat.getPhysicalConnectErrorCount()));
+        out.append(String.format("借连接等待：%d次，共%dms，当前等待线程%d%n",
+                stat.getNotEmptyWaitCount(), stat.getNotEmptyWaitMillis(), stat.getWaitThreadCount()));
+        out.append(String.format("事务：开启%d，提交%d，回滚%d；执行%d次，错误%d次%n",
+                stat.getStartTransactionCount(), stat.getCommitCount(), stat.getRollbackCount(),
+                stat.getExecuteCount(), stat.getErrorCount()));
+
+        List<JdbcSqlStatValue> sqlList = new ArrayList<>(stat.getSqlList());
+        sqlList.sort(Comparator.comparingLong(JdbcSqlStatValue::getExecuteMillisTotal).reversed());
+        out.append(String.format("%8s %10s %8s %8s %8s %6s  %-44s %s%n",
+                "次数", "总耗时ms", "最大ms", "影响行", "读取行", "错误", "耗时分布" + HISTOGRAM_RANGES, "SQL"));
+        for (JdbcSqlStatValue sql : sqlList) {
+            out.append(String.format("%8d %10d %8d %8d %8d %6d  %-44s %s%n",
+                    sql.getExecuteCount(), sql.getExecuteMillisTotal(), sql.getExecuteMillisMax(),
+                    sql.getUpdateCount(), sql.getFetchRowCount(), sql.getExecuteErrorCount(),
+                    Arrays.toString(sql.getHistogramValues()), oneLine(sql.getSql())));
+            if (sql.getExecuteMillisMax() >= slowSqlMillis && sql.getLastSlowParameters() != null) {
+                out.append(String.format("%8s 慢SQL参数：%s%n", "", sql.getLastSlowParameters()));
+            }
+        }
+        if (stat.getSqlSkipCount() > 0) {
+            out.append("（SQL种类超出上限，另有").append(stat.getSqlSkipCount()).append("条未统计）\n");
+        }
+        return out.toString();
+    }
+
+    static String oneLine(String sql) {
+        return sql == null ? "" : sql.replaceAll("\\s+", " ").trim();
+    }
+
+    /**
+     * 统计输出间隔，由JdbcConfig设置到DruidDataSource的timeBetweenLogStatsMillis
+     */
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public long getSlowSqlMillis() {
+        return slowSqlMillis;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * 最近一次输出的内容
+     */
+    public String getLastDump() {
+        return lastDump;
+    }
+}
@@ -0,0 +1,120 @@
+package com.coder.stat;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.alibaba.druid.stat.JdbcSqlStat;
+import com.alibaba.druid.stat.JdbcSqlStatValue;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 通过JMX查看SQL统计（jconsole/VisualVM中的com.coder -> SqlStats）
+ *
+ * 与RollingFileStatLogger输出的是同一份数据：
+ * - 属性：连接池当前状态和借连接等待
+ * - 操作：按总耗时排序的SQL统计、慢SQL及参数、立即输出一次统计
+ *
+ * 注意统计输出时会清零（每段输出是间隔内的增量），所以这里看到的是"上次输出以来"的数据，
+ * 上一个完整间隔的结果可通过lastDump查看
+ */
+@ManagedResource(objectName = "com.coder:type=SqlStats,name=dataSource", description = "Druid连接池与SQL统计")
+public class SqlStats {
+
+    private final DruidDataSource dataSource;
+
+    private final RollingFileStatLogger statLogger;
+
+    public SqlStats(DruidDataSource dataSource, RollingFileStatLogger statLogger) {
+        this.dataSource = dataSource;
+        this.statLogger = statLogger;
+    }
+
+    @ManagedAttribute(description = "活跃连接数")
+    public int getActiveCount() {
+        return dataSource.getActiveCount();
+    }
+
+    @ManagedAttribute(description = "活跃连接峰值")
+    public int getActivePeak() {
+        return dataSource.getActivePeak();
+    }
+
+    @ManagedAttribute(description = "空闲连接数")
+    public int getPoolingCount() {
+        return dataSource.getPoolingCount();
+    }
+
+    @ManagedAttribute(description = "借连接等待次数")
+    public long getNotEmptyWaitCount() {
+        return dataSource.getNotEmptyWaitCount();
+    }
+
+    @ManagedAttribute(description = "借连接等待总耗时（毫秒）")
+    public long getNotEmptyWaitMillis() {
+        return dataSource.getNotEmptyWaitMillis();
+    }
+
+    @ManagedAttribute(description = "借连接等待线程峰值")
+    public int getNotEmptyWaitThreadPeak() {
+        return dataSource.getNotEmptyWaitThreadPeak();
+    }
+
+    @ManagedAttribute(description = "慢SQL阈值（毫秒）")
+    public long getSlowSqlMillis() {
+        return statLogger.getSlowSqlMillis();
+    }
+
+    @ManagedAttribute(description = "上一次输出到文件的统计")
+    public String getLastDump() {
+        return statLogger.getLastDump();
+    }
+
+    @ManagedOperation(description = "按总耗时倒序的SQL统计：次数/总耗时ms/最大ms/影响行/读取行/错误 SQL")
+    public String[] sqlStats() {
+        List<String> rows = new ArrayList<>();
+        for (JdbcSqlStatValue sql : currentSqlStats()) {
+            rows.add(String.format("%d/%d/%d/%d/%d/%d %s", sql.getExecuteCount(), sql.getExecuteMillisTotal(),
+                    sql.getExecuteMillisMax(), sql.getUpdateCount(), sql.getFetchRowCount(),
+                    sql.getExecuteErrorCount(), RollingFileStatLogger.oneLine(sql.getSql())));
+        }
+        return rows.toArray(new String[0]);
+    }
+
+    @ManagedOperation(description = "最大耗时超过慢SQL阈值的SQL及最近一次慢执行的参数")
+    public String[] slowSql() {
+        List<String> rows = new ArrayList<>();
+        for (JdbcSqlStatValue sql : currentSqlStats()) {
+            if (sql.getExecuteMillisMax() >= statLogger.getSlowSqlMillis()) {
+                rows.add(sql.getExecuteMillisMax() + "ms " + RollingFileStatLogger.oneLine(sql.getSql())
+                        + " 参数：" + sql.getLastSlowParameters());
+            }
+        }
+        return rows.toArray(new String[0]);
+    }
+
+    @ManagedOperation(description = "立即输出一次统计到文件（会清零当前统计）")
+    public String dumpNow() {
+        // 数据源在第一次获取连接时才初始化，此前没有统计对象
+        if (!dataSource.isInited()) {
+            return "数据源尚未初始化（还没有获取过连接）";
+        }
+        statLogger.log(dataSource.getStatValueAndReset());
+        return statLogger.getLastDump();
+    }
+
+    private List<JdbcSqlStatValue> currentSqlStats() {
+        List<JdbcSqlStatValue> values = new ArrayList<>();
+        if (!dataSource.isInited()) {
+            return values;
+        }
+        for (JdbcSqlStat stat : dataSource.getSqlStatMap().values()) {
+            values.add(stat.getValue(false));
+        }
+        values.sort(Comparator.comparingLong(JdbcSqlStatValue::getExecuteMillisTotal).reversed());
+        return values;
+    }
+}
@@ -0,0 +1,114 @@
+package com.coder.trace;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 调用链中的一个片段（Span）
+ *
+ * - 同一条链路的所有Span共享traceId和finished列表，根Span结束时整条链路交给导出器
+ * - parent指向外层Span，结束时把线程的"当前Span"恢复成parent，形成嵌套关系
+ * - 只在创建它的线程上使用，内部没有加锁
+ *
+ * NOOP表示"不记录"：没有被采样的链路、或者没有外层链路的基础设施调用（如定时线程借连接）都返回它，
+ * 它的所有方法都是空操作，不产生任何对象
+ */
+public final class Span {
+
+    /** 空Span，所有操作都被忽略 */
+    public static final Span NOOP = new Span();
+
+    final Tracer tracer;
+    final String traceId;
+    final String id;
+    final Span parent;
+    final String name;
+    final long startNanos;
+    final long timestampMicros;
+    /** 整条链路已经结束的Span，由根Span创建，子Span共享 */
+    final List<Span> finished;
+
+    String kind;
+    long durationMicros;
+    Map<String, String> tags;
+    List<Object[]> annotations;
+
+    private Span() {
+        this.tracer = null;
+        this.traceId = null;
+        this.id = null;
+        this.parent = null;
+        this.name = null;
+        this.startNanos = 0;
+        this.timestampMicros = 0;
+        this.finished = null;
+    }
+
+    Span(Tracer tracer, String traceId, String id, Span parent, String name) {
+        this.tracer = tracer;
+        this.traceId = traceId;
+        this.id = id;
+        this.parent = parent;
+        this.name = name;
+        this.startNanos = System.nanoTime();
+        this.timestampMicros = Tracer.epochMicros(startNanos);
+        this.finished = parent == null ? new ArrayList<>() : parent.finished;
+    }
+
+    public boolean isNoop() {
+        return tracer == null;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Zipkin中的kind：CLIENT表示对外部系统（数据库）的调用，其余留空
+     */
+    public Span kind(String kind) {
+        if (tracer != null) {
+            this.kind = kind;
+        }
+        return this;
+    }
+
+    public Span tag(String key, Object value) {
+        if (tracer != null && value != null) {
+            if (tags == null) {
+                tags = new LinkedHashMap<>();
+            }
+            tags.put(key, String.valueOf(value));
+        }
+        return this;
+    }
+
+    /**
+     * 记录一个时间点事件（Zipkin annotation），如外层事务被挂起/恢复
+     */
+    public Span annotate(String value) {
+        if (tracer != null) {
+            if (annotations == null) {
+                annotations = new ArrayList<>(2);
+            }
+            annotations.add(new Object[]{Tracer.epochMicros(System.nanoTime()), value});
+        }
+        return this;
+    }
+
+    public Span error(Throwable ex) {
+        return tag("error", ex.getClass().getSimpleName()
+                + (ex.getMessage() == null ? "" : ": " + ex.getMessage()));
+    }
+
+    /**
+     * 结束Span：计算耗时，恢复当前Span为parent；根Span结束时导出整条链路
+     */
+    public void finish() {
+        if (tracer != null) {
+            tracer.finish(this);
+        }
+    }
+}
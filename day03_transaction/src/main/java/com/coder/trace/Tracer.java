@@ -0,0 +1,109 @@
+package com.coder.trace;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 调用链追踪器
+ *
+ * 每个线程保存一个"当前Span"，新Span以它为parent，结束时再恢复回去，
+ * 服务方法 -> 事务 -> 借连接 / Mapper调用 就自然形成了一棵树
+ *
+ * 头部采样（head-based sampling）：
+ * - 只在创建根Span时决定整条链路是否记录，子Span沿用这个决定，不会出现"半条链路"
+ * - 没被采样的链路只在线程里放一个共享的UNSAMPLED标记，子Span全部返回Span.NOOP，不分配对象
+ *
+ * 只有服务层切面可以开启新链路（startSpan），事务管理器、连接池、Mapper拦截器使用startChild：
+ * 没有外层链路时（如后台定时线程借连接）直接返回NOOP，不会产生大量孤立的根Span
+ */
+public class Tracer {
+
+    /** 纳秒时钟与墙上时钟的换算基准：nanoTime精度高，但只有差值有意义 */
+    private static final long EPOCH_MICROS_BASE = System.currentTimeMillis() * 1000 - System.nanoTime() / 1000;
+
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+
+    /** 未采样链路的标记，所有线程共享 */
+    private final Span unsampled;
+
+    private final double sampleRate;
+
+    private final ZipkinFileExporter exporter;
+
+    public Tracer(double sampleRate, ZipkinFileExporter exporter) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("trace.sample-rate必须在0到1之间：" + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+        this.exporter = exporter;
+        this.unsampled = new Span(this, null, null, null, "unsampled");
+    }
+
+    /**
+     * 开启一个Span：当前线程已有链路时作为子Span，否则按采样率决定是否开启新链路
+     */
+    public Span startSpan(String name) {
+        Span parent = current.get();
+        if (parent != null) {
+            return child(parent, name);
+        }
+        if (sampleRate == 0 || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            current.set(unsampled);
+            return unsampled;
+        }
+        Span root = new Span(this, newId(), newId(), null, name);
+        current.set(root);
+        return root;
+    }
+
+    /**
+     * 只在已有链路中开启子Span，没有外层链路时返回NOOP
+     */
+    public Span startChild(String name) {
+        Span parent = current.get();
+        return parent == null ? Span.NOOP : child(parent, name);
+    }
+
+    /**
+     * 当前线程正在进行的Span，没有时返回NOOP
+     */
+    public Span currentSpan() {
+        Span span = current.get();
+        return span == null || span == unsampled ? Span.NOOP : span;
+    }
+
+    private Span child(Span parent, String name) {
+        if (parent == unsampled) {
+            return Span.NOOP;
+        }
+        Span span = new Span(this, parent.traceId, newId(), parent, name);
+        current.set(span);
+        return span;
+    }
+
+    void finish(Span span) {
+        if (span == unsampled) {
+            current.remove();
+            return;
+        }
+        // Zipkin中duration为0会被当作"未结束"，至少记1微秒
+        span.durationMicros = Math.max(1, (System.nanoTime() - span.startNanos) / 1000);
+        if (span.parent == null) {
+            current.remove();
+            span.finished.add(span);
+            exporter.export(span.finished);
+        } else {
+            current.set(span.parent);
+            span.finished.add(span);
+        }
+    }
+
+    static long epochMicros(long nanoTime) {
+        return EPOCH_MICROS_BASE + nanoTime / 1000;
+    }
+
+    private static String newId() {
+        long id = ThreadLocalRandom.current().nextLong();
+        String hex = Long.toHexString(id);
+        return hex.length() == 16 ? hex : "0000000000000000".substring(hex.length()) + hex;
+    }
+}
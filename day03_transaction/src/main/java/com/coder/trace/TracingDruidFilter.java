@@ -0,0 +1,41 @@
+package com.coder.trace;
+
+import com.alibaba.druid.filter.FilterAdapter;
+import com.alibaba.druid.filter.FilterChain;
+import com.alibaba.druid.pool.DruidDataSource;
+import com.alibaba.druid.pool.DruidPooledConnection;
+
+import java.sql.SQLException;
+
+/**
+ * Druid连接池过滤器 - 记录借连接的耗时
+ *
+ * 连接池耗尽时线程会在getConnection上排队，这段等待在"db.getConnection"中一目了然；
+ * pool.active标签记录借到连接时池中已借出的连接数，便于判断是否需要调大maxActive
+ *
+ * 只在已有链路中记录（startChild），定时线程等没有外层链路的借连接不产生Span
+ */
+public class TracingDruidFilter extends FilterAdapter {
+
+    private final Tracer tracer;
+
+    public TracingDruidFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public DruidPooledConnection dataSource_getConnection(FilterChain chain, DruidDataSource dataSource,
+                                                          long maxWaitMillis) throws SQLException {
+        Span span = tracer.startChild("db.getConnection").kind("CLIENT");
+        try {
+            DruidPooledConnection connection = super.dataSource_getConnection(chain, dataSource, maxWaitMillis);
+            span.tag("pool.active", dataSource.getActiveCount());
+            return connection;
+        } catch (SQLException | RuntimeException ex) {
+            span.error(ex);
+            throw ex;
+        } finally {
+            span.finish();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.coder.trace;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.List;
+
+/**
+ * MyBatis拦截器 - 为每次Mapper调用记录一个Span
+ *
+ * 拦截Executor的update和query：
+ * - Span名为Mapper方法，如"AccountDao.outMoney"
+ * - mybatis.statement标签为完整的语句id，sql.command为INSERT/UPDATE/DELETE/SELECT
+ * - update记录影响行数（rows），query记录返回条数（rows）
+ *
+ * query同时拦截4参数和6参数两个重载：CachingExecutor的4参数版本内部直接调用自己的6参数版本，
+ * 不会再经过插件代理，所以不会重复记录
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class,
+                        CacheKey.class, BoundSql.class})
+})
+public class TracingMybatisInterceptor implements Interceptor {
+
+    private final Tracer tracer;
+
+    public TracingMybatisInterceptor(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (tracer.currentSpan().isNoop()) {
+            return invocation.proceed();
+        }
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        Span span = tracer.startChild(shortName(ms.getId()));
+        span.kind("CLIENT")
+                .tag("mybatis.statement", ms.getId())
+                .tag("sql.command", ms.getSqlCommandType());
+        try {
+            Object result = invocation.proceed();
+            span.tag("rows", result instanceof List ? ((List<?>) result).size() : result);
+            return result;
+        } catch (Throwable ex) {
+            span.error(ex);
+            throw ex;
+        } finally {
+            span.finish();
+        }
+    }
+
+    /**
+     * com.coder.dao.AccountDao.outMoney -> AccountDao.outMoney
+     */
+    private static String shortName(String statementId) {
+        int method = statementId.lastIndexOf('.');
+        int type = method > 0 ? statementId.lastIndexOf('.', method - 1) : -1;
+        return type >= 0 ? statementId.substring(type + 1) : statementId;
+    }
+}
@@ -0,0 +1,136 @@
+package com.coder.trace;
+
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 带链路追踪的事务管理器
+ *
+ * 在DataSourceTransactionManager的各个阶段上记录Span：
+ * - "tx"：从doBegin（借连接、关闭自动提交）到doCleanupAfterCompletion（归还连接），
+ *         事务内的Mapper调用都是它的子Span
+ * - "tx.commit" / "tx.rollback"：提交/回滚本身的耗时（REQUIRES_NEW日志事务的提交就在这里）
+ * - "tx.suspend" / "tx.resume"：REQUIRES_NEW挂起、恢复外层事务的耗时
+ *
+ * REQUIRES_NEW的关联：
+ * - 挂起时在外层"tx"上记录suspend事件，新事务的"tx"打上tx.outer标签，值为外层"tx"的Span id
+ * - 恢复时在外层"tx"上记录resume事件
+ * - 这样在一条链路里就能看清：外层事务在哪一刻被挂起、内层事务占了多久、何时恢复
+ */
+public class TracingTransactionManager extends DataSourceTransactionManager {
+
+    private static final String[] PROPAGATION_NAMES = {
+            "REQUIRED", "SUPPORTS", "MANDATORY", "REQUIRES_NEW", "NOT_SUPPORTED", "NEVER", "NESTED"
+    };
+
+    private final Tracer tracer;
+
+    /** 当前线程上仍在进行的"tx" Span，栈顶是最内层的事务 */
+    private final ThreadLocal<Deque<Span>> txSpans = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /** 刚被挂起的外层事务Span，供紧接着的doBegin打关联标签 */
+    private final ThreadLocal<Span> suspended = new ThreadLocal<>();
+
+    public TracingTransactionManager(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        Span span = tracer.startChild("tx");
+        if (!span.isNoop()) {
+            int propagation = definition.getPropagationBehavior();
+            span.tag("tx.name", definition.getName())
+                    .tag("tx.propagation", propagation >= 0 && propagation < PROPAGATION_NAMES.length
+                            ? PROPAGATION_NAMES[propagation] : String.valueOf(propagation));
+            if (definition.isReadOnly()) {
+                span.tag("tx.readOnly", true);
+            }
+            Span outer = suspended.get();
+            if (outer != null) {
+                span.tag("tx.outer", outer.id());
+                suspended.remove();
+            }
+        }
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException | Error ex) {
+            span.error(ex).finish();
+            throw ex;
+        }
+        // NOOP也入栈，保证与doCleanupAfterCompletion一一对应
+        txSpans.get().push(span);
+    }
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        Span outer = txSpans.get().peek();
+        Span span = tracer.startChild("tx.suspend");
+        try {
+            return super.doSuspend(transaction);
+        } finally {
+            span.finish();
+            if (outer != null && !outer.isNoop()) {
+                outer.annotate("suspend");
+                suspended.set(outer);
+            }
+        }
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        suspended.remove();
+        Span outer = txSpans.get().peek();
+        Span span = tracer.startChild("tx.resume");
+        try {
+            super.doResume(transaction, suspendedResources);
+        } finally {
+            span.finish();
+            if (outer != null) {
+                outer.annotate("resume");
+            }
+        }
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        Span span = tracer.startChild("tx.commit");
+        try {
+            super.doCommit(status);
+        } catch (RuntimeException | Error ex) {
+            span.error(ex);
+            throw ex;
+        } finally {
+            span.finish();
+        }
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        Span span = tracer.startChild("tx.rollback");
+        try {
+            super.doRollback(status);
+        } catch (RuntimeException | Error ex) {
+            span.error(ex);
+            throw ex;
+        } finally {
+            span.finish();
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            Span span = txSpans.get().poll();
+            if (span != null) {
+                span.finish();
+            }
+        }
+    }
+}
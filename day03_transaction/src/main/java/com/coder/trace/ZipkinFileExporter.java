@@ -0,0 +1,190 @@
+package com.coder.trace;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 链路导出器 - 以Zipkin v2 JSON格式写入本地文件
+ *
+ * - 每条链路写成一行JSON数组（[span, span, ...]），可以直接粘贴到Zipkin UI的"Upload JSON"中查看
+ * - 业务线程只把结束的链路放进有界队列，写文件由后台线程完成，不阻塞业务
+ * - 队列满时直接丢弃并计数，追踪永远不能拖慢转账本身
+ */
+public class ZipkinFileExporter implements DisposableBean {
+
+    private final BlockingQueue<List<Span>> queue;
+
+    private final Path file;
+
+    private final String serviceName;
+
+    private final Thread writer;
+
+    private final AtomicLong exported = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    public ZipkinFileExporter(String file, String serviceName, int queueCapacity) {
+        this.file = Paths.get(file);
+        this.serviceName = serviceName;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::writeLoop, "trace-exporter");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    void export(List<Span> trace) {
+        if (!queue.offer(trace)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void writeLoop() {
+        List<List<Span>> batch = new ArrayList<>();
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                while (running || !queue.isEmpty()) {
+                    List<Span> first = queue.poll(200, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch);
+                    for (List<Span> trace : batch) {
+                        writeTrace(out, trace);
+                        out.newLine();
+                    }
+                    out.flush();
+                    exported.addAndGet(batch.size());
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("【链路追踪】写入" + file + "失败，停止导出：" + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeTrace(BufferedWriter out, List<Span> trace) throws IOException {
+        StringBuilder sb = new StringBuilder(256 * trace.size());
+        sb.append('[');
+        for (int i = 0; i < trace.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            writeSpan(sb, trace.get(i));
+        }
+        sb.append(']');
+        out.write(sb.toString());
+    }
+
+    private void writeSpan(StringBuilder sb, Span span) {
+        sb.append("{\"traceId\":\"").append(span.traceId).append('"');
+        sb.append(",\"id\":\"").append(span.id).append('"');
+        if (span.parent != null) {
+            sb.append(",\"parentId\":\"").append(span.parent.id).append('"');
+        }
+        sb.append(",\"name\":");
+        quote(sb, span.name);
+        if (span.kind != null) {
+            sb.append(",\"kind\":\"").append(span.kind).append('"');
+        }
+        sb.append(",\"timestamp\":").append(span.timestampMicros);
+        sb.append(",\"duration\":").append(span.durationMicros);
+        sb.append(",\"localEndpoint\":{\"serviceName\":");
+        quote(sb, serviceName);
+        sb.append('}');
+        if (span.annotations != null) {
+            sb.append(",\"annotations\":[");
+            for (int i = 0; i < span.annotations.size(); i++) {
+                Object[] annotation = span.annotations.get(i);
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append("{\"timestamp\":").append(annotation[0]).append(",\"value\":");
+                quote(sb, (String) annotation[1]);
+                sb.append('}');
+            }
+            sb.append(']');
+        }
+        if (span.tags != null) {
+            sb.append(",\"tags\":{");
+            boolean first = true;
+            for (Map.Entry<String, String> tag : span.tags.entrySet()) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                quote(sb, tag.getKey());
+                sb.append(':');
+                quote(sb, tag.getValue());
+            }
+            sb.append('}');
+        }
+        sb.append('}');
+    }
+
+    private static void quote(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * 容器关闭时写完队列中剩余的链路
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        writer.join(5000);
+        System.out.println("【链路追踪】已导出 " + exported.get() + " 条链路到 " + file.toAbsolutePath()
+                + "，队列已满丢弃 " + dropped.get() + " 条");
+    }
+}
@@ -0,0 +1,42 @@
+-- ============================================
+-- 紧凑审计模式（audit.mode=compact） - 数据库初始化脚本
+-- ============================================
+
+-- 每笔转账一行，状态原地推进：
+-- id: 转账ID，自增主键
+-- state: STARTED（已开始）、COMPLETED（已完成）、FAILED（已失败）
+-- message: 失败原因
+-- started_at/debited_at/completed_at/failed_at: 各状态的时间，没有经过的状态为NULL
+CREATE TABLE IF NOT EXISTS transfer_audit (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '转账ID',
+    from_account VARCHAR(50) NOT NULL COMMENT '转出方账户',
+    to_account VARCHAR(50) NOT NULL COMMENT '转入方账户',
+    amount DOUBLE NOT NULL COMMENT '转账金额',
+    state VARCHAR(20) NOT NULL COMMENT '状态：STARTED/COMPLETED/FAILED',
+    message VARCHAR(500) COMMENT '失败原因',
+    started_at DATETIME(3) NOT NULL COMMENT '开始时间',
+    debited_at DATETIME(3) NULL COMMENT '转出完成时间',
+    completed_at DATETIME(3) NULL COMMENT '完成时间',
+    failed_at DATETIME(3) NULL COMMENT '失败时间',
+    INDEX idx_audit_from_time (from_account, started_at),
+    INDEX idx_audit_to_time (to_account, started_at)
+) COMMENT='转账审计表（每笔转账一行）';
+
+-- 还原为逐行日志模式（transfer_log）的格式：每个有时间戳的状态一行，message与逐行模式写入的相同
+-- seq为同一笔转账内的先后顺序
+CREATE OR REPLACE VIEW transfer_audit_log AS
+SELECT id AS transfer_id, 1 AS seq, from_account, to_account, amount, 'SUCCESS' AS status,
+       '转账开始 - 记录审计日志' AS message, started_at AS create_time
+FROM transfer_audit
+UNION ALL
+SELECT id, 2, from_account, to_account, amount, 'SUCCESS', '转出成功 - 等待转入', debited_at
+FROM transfer_audit WHERE debited_at IS NOT NULL
+UNION ALL
+SELECT id, 3, from_account, to_account, amount, 'SUCCESS', '转账完成 - 全部成功', completed_at
+FROM transfer_audit WHERE completed_at IS NOT NULL
+UNION ALL
+SELECT id, 3, from_account, to_account, amount, 'FAILED', CONCAT('转账失败：', message), failed_at
+FROM transfer_audit WHERE failed_at IS NOT NULL;
+
+-- 验证数据
+SELECT * FROM transfer_audit_log ORDER BY transfer_id, seq;
@@ -0,0 +1,22 @@
+-- ============================================
+-- 批量转账文件导入（TransferFileIngester） - 数据库初始化脚本
+-- 需要先执行init.sql
+-- ============================================
+
+-- 导入检查点：一次导入任务（job_id）一行，每提交一个分块与余额更新在同一个事务中推进
+-- 中断后以相同的job_id再次导入，从file_offset继续
+CREATE TABLE IF NOT EXISTS ingest_checkpoint (
+    job_id VARCHAR(64) PRIMARY KEY COMMENT '导入任务',
+    file_name VARCHAR(500) NOT NULL COMMENT '导入文件',
+    file_size BIGINT NOT NULL COMMENT '文件大小（字节），继续导入时校验',
+    file_offset BIGINT NOT NULL DEFAULT 0 COMMENT '已处理到的字节位置',
+    line_no BIGINT NOT NULL DEFAULT 0 COMMENT '已处理行数',
+    applied BIGINT NOT NULL DEFAULT 0 COMMENT '已入账行数',
+    rejected BIGINT NOT NULL DEFAULT 0 COMMENT '已拒绝行数',
+    reject_offset BIGINT NOT NULL DEFAULT 0 COMMENT '拒绝文件已提交的字节数',
+    done TINYINT NOT NULL DEFAULT 0 COMMENT '是否导入完成',
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '最后推进时间'
+) COMMENT='批量导入检查点表';
+
+-- 验证数据
+SELECT * FROM ingest_checkpoint;
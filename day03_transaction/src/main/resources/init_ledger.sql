@@ -0,0 +1,37 @@
+-- ============================================
+-- 账本模式（ledger.mode=ledger） - 数据库初始化脚本
+-- 需要先执行init.sql创建account表
+-- ============================================
+
+-- 账本分录表（只插入，不更新、不删除）
+-- id: 主键，自增，同时作为分录的先后顺序
+-- account_id: 账户ID
+-- amount: 金额，转入为正（credit），转出为负（debit）
+-- create_time: 记录时间，压缩任务只合并早于"当前时间 - 延迟"的分录
+-- idx_account_entry: 按账户读取某个id之后的分录（查余额、余额检查加锁的范围都依赖这个索引）
+CREATE TABLE IF NOT EXISTS ledger_entry (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '分录ID',
+    account_id INT NOT NULL COMMENT '账户ID',
+    amount DOUBLE NOT NULL COMMENT '金额：转入为正，转出为负',
+    create_time TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '记录时间',
+    INDEX idx_account_entry (account_id, id)
+) COMMENT='账本分录表';
+
+-- 余额快照表（由压缩任务维护）
+-- account_id: 账户ID
+-- balance: 截至last_entry_id（含）的余额
+-- last_entry_id: 已合并进快照的最后一条分录ID
+-- 没有快照的账户以account.money作为期初余额
+CREATE TABLE IF NOT EXISTS account_snapshot (
+    account_id INT PRIMARY KEY COMMENT '账户ID',
+    balance DOUBLE NOT NULL COMMENT '快照余额',
+    last_entry_id BIGINT NOT NULL COMMENT '已合并的最后一条分录ID',
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '快照更新时间'
+) COMMENT='余额快照表';
+
+-- 清空表数据（如果存在）
+TRUNCATE TABLE ledger_entry;
+TRUNCATE TABLE account_snapshot;
+
+-- 验证数据
+SELECT * FROM account_snapshot;
@@ -3,7 +3,8 @@
 -- ============================================
 
 -- 创建转账日志表
--- id: 主键，自增
+-- id: 主键，BIGINT，不自增：由应用的SnowflakeIdGenerator在插入前生成（毫秒时间戳 + 节点号 + 序号）
+--     多个节点同时插入时不争用自增锁，批量插入前就知道每行的ID
 -- from_account: 转出方账户
 -- to_account: 转入方账户
 -- amount: 转账金额
@@ -11,7 +12,7 @@
 -- message: 日志信息
 -- create_time: 记录创建时间
 CREATE TABLE IF NOT EXISTS transfer_log (
-    id INT PRIMARY KEY AUTO_INCREMENT COMMENT '日志ID',
+    id BIGINT PRIMARY KEY COMMENT '日志ID（SnowflakeIdGenerator生成）',
     from_account VARCHAR(50) NOT NULL COMMENT '转出方账户',
     to_account VARCHAR(50) NOT NULL COMMENT '转入方账户',
     amount DOUBLE NOT NULL COMMENT '转账金额',
@@ -20,6 +21,9 @@ CREATE TABLE IF NOT EXISTS transfer_log (
     create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '记录创建时间'
 ) COMMENT='转账日志表';
 
+-- 已有的表（INT自增主键）改为BIGINT并去掉自增；原有的ID都远小于生成的ID，顺序不变
+ALTER TABLE transfer_log MODIFY id BIGINT NOT NULL COMMENT '日志ID（SnowflakeIdGenerator生成）';
+
 -- 清空表数据（如果存在）
 TRUNCATE TABLE transfer_log;
 
@@ -0,0 +1,52 @@
+-- ============================================
+-- 转账历史查询 - 索引和测试数据（MySQL 8）
+-- 在init_log.sql之后执行
+-- ============================================
+
+-- 账户历史查询的两个索引（TransferLogDao.search）
+-- 列顺序：账户（等值定位） -> create_time, id（排序和键集翻页） -> status, amount（过滤条件，查询只读索引）
+-- id是主键，InnoDB的二级索引本来就会在末尾带上主键；这里显式写在create_time之后，
+-- 使索引顺序正好是 ORDER BY create_time DESC, id DESC，后面的status、amount才能一起放进索引
+-- 这两个索引同时服务于对账任务中按from_account/to_account关联transfer_log的查询
+ALTER TABLE transfer_log
+    ADD INDEX idx_log_from_time (from_account, create_time, id, status, amount),
+    ADD INDEX idx_log_to_time (to_account, create_time, id, status, amount);
+
+-- ============================================
+-- 生成测试数据：CALL fill_transfer_log(10) 插入1000万条（每批100万条，每批一个事务）
+-- 转出、转入账户从acct-0000000到acct-0009999中随机选择（与压测模块的账户名相同），
+-- 每个账户平均约2000条（转出、转入各约1000条），时间分布在最近一年内，约5%为FAILED
+-- id按SnowflakeIdGenerator的格式生成，节点号固定为1023（应用节点不使用），不会与应用生成的ID重复：
+-- 时间戳部分取"当前时间 - batches * 100万毫秒"起，每行加1毫秒，序号为0
+-- ============================================
+DROP TABLE IF EXISTS digits;
+CREATE TABLE digits (d INT PRIMARY KEY);
+INSERT INTO digits VALUES (0), (1), (2), (3), (4), (5), (6), (7), (8), (9);
+
+DROP PROCEDURE IF EXISTS fill_transfer_log;
+DELIMITER //
+CREATE PROCEDURE fill_transfer_log(IN batches INT)
+BEGIN
+    DECLARE i INT DEFAULT 0;
+    -- 1704067200000为SnowflakeIdGenerator.EPOCH（2024-01-01T00:00:00Z）
+    DECLARE base BIGINT DEFAULT CAST(UNIX_TIMESTAMP(NOW(3)) * 1000 AS SIGNED) - 1704067200000 - batches * 1000000;
+    WHILE i < batches DO
+        INSERT INTO transfer_log (id, from_account, to_account, amount, status, message, create_time)
+        SELECT ((base + i * 1000000 + d1.d + d2.d * 10 + d3.d * 100 + d4.d * 1000 + d5.d * 10000 + d6.d * 100000) << 22)
+                   | (1023 << 12),
+               CONCAT('acct-', LPAD(FLOOR(RAND() * 10000), 7, '0')),
+               CONCAT('acct-', LPAD(FLOOR(RAND() * 10000), 7, '0')),
+               ROUND(RAND() * 1000, 2),
+               IF(RAND() < 0.05, 'FAILED', 'SUCCESS'),
+               '转账完成 - 全部成功',
+               NOW() - INTERVAL FLOOR(RAND() * 365 * 86400) SECOND
+        FROM digits d1 CROSS JOIN digits d2 CROSS JOIN digits d3
+             CROSS JOIN digits d4 CROSS JOIN digits d5 CROSS JOIN digits d6;
+        COMMIT;
+        SET i = i + 1;
+    END WHILE;
+END //
+DELIMITER ;
+
+-- CALL fill_transfer_log(10);
+-- ANALYZE TABLE transfer_log;
@@ -0,0 +1,47 @@
+-- ============================================
+-- 对账任务（Reconciler） - 数据库初始化脚本
+-- 需要先执行init.sql和init_log.sql
+-- ============================================
+
+-- 转账日志按账户名查找（对账时按账户分页汇总转入、转出），不建索引时每页都要全表扫描transfer_log
+ALTER TABLE transfer_log ADD INDEX idx_from_account (from_account, id);
+ALTER TABLE transfer_log ADD INDEX idx_to_account (to_account, id);
+
+-- 对账基线：建立基线时各账户的余额，以及当时transfer_log的最大ID
+-- 期望余额 = 基线余额 + 基线之后已完成转账的转入 - 转出
+-- 建立基线时锁住所有账户行（见ReconcileDao.lockAccounts），正在进行的转账结束后才读取，新的转账等基线建立完成；
+-- transfer_log.id由各节点按本机时钟生成，还要确认各节点的时钟已同步，
+-- 否则时钟落后的节点在基线之后写入的日志ID可能小于log_id，不会计入
+CREATE TABLE IF NOT EXISTS reconcile_baseline (
+    account_id INT PRIMARY KEY COMMENT '账户ID',
+    money DOUBLE NOT NULL COMMENT '基线余额',
+    log_id BIGINT NOT NULL COMMENT '基线对应的transfer_log最大ID'
+) COMMENT='对账基线表';
+
+-- 已有的基线表：transfer_log.id改为BIGINT后，log_id也要改为BIGINT
+ALTER TABLE reconcile_baseline MODIFY log_id BIGINT NOT NULL COMMENT '基线对应的transfer_log最大ID';
+
+-- 对账检查点：一次对账（run_id）按账户ID切分为多个范围，每处理完一页更新一次，中断后从last_id继续
+CREATE TABLE IF NOT EXISTS reconcile_checkpoint (
+    run_id VARCHAR(64) NOT NULL COMMENT '对账批次',
+    range_start INT NOT NULL COMMENT '范围起点（不含）',
+    range_end INT NOT NULL COMMENT '范围终点（含）',
+    last_id INT NOT NULL COMMENT '已处理到的账户ID',
+    accounts INT NOT NULL DEFAULT 0 COMMENT '已核对账户数',
+    unbaselined INT NOT NULL DEFAULT 0 COMMENT '没有基线的账户数（基线之后新开的户）',
+    discrepancies INT NOT NULL DEFAULT 0 COMMENT '不一致账户数',
+    baseline_total DOUBLE NOT NULL DEFAULT 0 COMMENT '已核对账户的基线余额合计',
+    actual_total DOUBLE NOT NULL DEFAULT 0 COMMENT '已核对账户的实际余额合计',
+    done TINYINT NOT NULL DEFAULT 0 COMMENT '范围是否处理完',
+    PRIMARY KEY (run_id, range_start)
+) COMMENT='对账检查点表';
+
+-- 对账差异：实际余额与期望余额不一致的账户
+CREATE TABLE IF NOT EXISTS reconcile_discrepancy (
+    run_id VARCHAR(64) NOT NULL COMMENT '对账批次',
+    account_id INT NOT NULL COMMENT '账户ID',
+    name VARCHAR(50) NOT NULL COMMENT '账户名称',
+    expected DOUBLE NOT NULL COMMENT '期望余额',
+    actual DOUBLE NOT NULL COMMENT '实际余额',
+    PRIMARY KEY (run_id, account_id)
+) COMMENT='对账差异表';
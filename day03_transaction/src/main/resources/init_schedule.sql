@@ -0,0 +1,28 @@
+-- ============================================
+-- 定时转账（TransferScheduler） - 数据库初始化脚本
+-- 需要先执行init.sql
+-- ============================================
+
+-- 定时转账：每行一个计划，到期时由TransferScheduler通过AccountService.transfer执行
+-- interval_seconds为NULL时只执行一次（EXECUTED），否则执行后due_at推进到下一次，仍为PENDING（定期转账）
+-- 执行与状态更新在同一个事务中，条件带上due_at，同一次到期最多执行一次（多个进程同时运行也一样）
+CREATE TABLE IF NOT EXISTS scheduled_transfer (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '计划ID',
+    from_account VARCHAR(50) NOT NULL COMMENT '转出方账户',
+    to_account VARCHAR(50) NOT NULL COMMENT '转入方账户',
+    amount DOUBLE NOT NULL COMMENT '转账金额',
+    due_at DATETIME(3) NOT NULL COMMENT '下一次执行时间',
+    interval_seconds INT NULL COMMENT '重复间隔（秒），NULL表示只执行一次',
+    state VARCHAR(20) NOT NULL DEFAULT 'PENDING' COMMENT '状态：PENDING/EXECUTED/FAILED/CANCELLED',
+    attempts INT NOT NULL DEFAULT 0 COMMENT '本次到期已失败的次数',
+    executions INT NOT NULL DEFAULT 0 COMMENT '已执行次数',
+    message VARCHAR(500) NULL COMMENT '最近一次失败的原因',
+    last_executed_at DATETIME(3) NULL COMMENT '最近一次执行时间',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    -- 加载到期计划：WHERE state = 'PENDING' AND (due_at, id) > 游标 AND due_at < 窗口终点 ORDER BY due_at, id
+    -- InnoDB二级索引的叶子节点带有主键，(state, due_at)的索引上按(due_at, id)有序，不需要排序
+    INDEX idx_schedule_due (state, due_at)
+) COMMENT='定时转账表';
+
+-- 验证数据
+SELECT * FROM scheduled_transfer;
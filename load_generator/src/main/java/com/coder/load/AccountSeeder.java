@@ -0,0 +1,68 @@
+package com.coder.load;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 准备压测数据：重建表（schema.sql）并插入账户
+ *
+ * 账户名为acct-0000000、acct-0000001……，排名越靠前越热门（与ZipfianPicker的排名一致）
+ */
+public class AccountSeeder {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final DataSource dataSource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean ledger;
+
+    /**
+     * @param ledger 被压测应用是否为账本模式（ledger.mode=ledger），决定余额合计的算法
+     */
+    public AccountSeeder(DataSource dataSource, boolean ledger) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.ledger = ledger;
+    }
+
+    public void seed(int accounts, double initialMoney) {
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int rank = 0; rank < accounts; rank++) {
+            batch.add(new Object[]{LoadSettings.accountName(rank), initialMoney});
+            if (batch.size() == BATCH_SIZE || rank == accounts - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO account (name, money) VALUES (?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 所有账户的余额合计，压测前后应当相等（转账只在账户之间转移金额）
+     *
+     * 账本模式下account.money不再更新，余额 = 快照（没有快照时取account.money）+ 快照之后的分录，
+     * 与LedgerDao.selectBalance的算法相同，只是对所有账户求和
+     */
+    public double totalMoney() {
+        String sql = !ledger ? "SELECT SUM(money) FROM account"
+                : "SELECT (SELECT SUM(COALESCE(s.balance, a.money)) FROM account a "
+                + "LEFT JOIN account_snapshot s ON s.account_id = a.id) "
+                + "+ (SELECT COALESCE(SUM(e.amount), 0) FROM ledger_entry e "
+                + "LEFT JOIN account_snapshot s ON s.account_id = e.account_id "
+                + "WHERE e.id > COALESCE(s.last_entry_id, 0))";
+        Double total = jdbcTemplate.queryForObject(sql, Double.class);
+        return total == null ? 0 : total;
+    }
+
+    public long countLogs() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transfer_log", Long.class);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,21 @@
+package com.coder.load;
+
+import com.coder.config.SpringConfig;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+
+/**
+ * 压测容器配置：在被压测应用的SpringConfig基础上
+ *
+ * @EnableAspectJAutoProxy(proxyTargetClass = true) - 改用CGLIB代理
+ *     注入失败要调用AccountServiceImplWithError.transferWithLogRequiredAndFail，它不在AccountService接口中，
+ *     JDK动态代理只暴露接口方法，按类获取Bean也会失败
+ *
+ * 数据源等配置由AppForLoadGenerator加入的load.properties覆盖（指向内嵌H2）
+ */
+@Configuration
+@Import(SpringConfig.class)
+@EnableAspectJAutoProxy(proxyTargetClass = true)
+public class LoadGeneratorConfig {
+}
@@ -0,0 +1,99 @@
+package com.coder.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 压测结果（只统计预热之后计划发出的请求）
+ */
+public class LoadReport {
+
+    private final LoadSettings settings;
+    private final long issued;
+    private final long elapsedNanos;
+    private final Histogram successLatency;
+    private final Histogram allLatency;
+    private final Map<Outcome, LongAdder> outcomes;
+    private final int maxInFlight;
+
+    private double moneyBefore;
+    private double moneyAfter;
+
+    LoadReport(LoadSettings settings, long issued, long elapsedNanos, Histogram successLatency, Histogram allLatency,
+               Map<Outcome, LongAdder> outcomes, int maxInFlight) {
+        this.settings = settings;
+        this.issued = issued;
+        this.elapsedNanos = elapsedNanos;
+        this.successLatency = successLatency;
+        this.allLatency = allLatency;
+        this.outcomes = outcomes;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * 记录压测前后的余额合计，用于总额守恒检查
+     */
+    public void conservation(double before, double after) {
+        this.moneyBefore = before;
+        this.moneyAfter = after;
+    }
+
+    public long count(Outcome outcome) {
+        return outcomes.get(outcome).sum();
+    }
+
+    public long rollbacks() {
+        long rollbacks = 0;
+        for (Outcome outcome : Outcome.values()) {
+            if (outcome.rolledBack()) {
+                rollbacks += count(outcome);
+            }
+        }
+        return rollbacks;
+    }
+
+    public boolean isMoneyConserved() {
+        return Math.abs(moneyAfter - moneyBefore) < 1e-6;
+    }
+
+    @Override
+    public String toString() {
+        double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        StringBuilder out = new StringBuilder();
+        out.append("========== 压测结果 ==========\n");
+        out.append(settings).append('\n');
+        out.append(String.format("发起%d次（含预热），统计%d次，统计时长%.1fs，最大并发（含排队）%d%n",
+                issued, allLatency.getTotalCount(), seconds, maxInFlight));
+        out.append(String.format("吞吐量：成功%.1f次/秒，全部%.1f次/秒%n",
+                count(Outcome.SUCCESS) / seconds, allLatency.getTotalCount() / seconds));
+        appendLatency(out, "成功请求延迟", successLatency);
+        appendLatency(out, "全部请求延迟", allLatency);
+        out.append("结果：");
+        for (Outcome outcome : Outcome.values()) {
+            out.append(outcome.label).append(' ').append(count(outcome)).append("  ");
+        }
+        out.append('\n');
+        out.append(String.format("回滚%d次（其中死锁%d次，锁超时%d次）%n",
+                rollbacks(), count(Outcome.DEADLOCK), count(Outcome.LOCK_TIMEOUT)));
+        out.append(String.format("总额守恒：压测前%.2f元，压测后%.2f元 -> %s%n", moneyBefore, moneyAfter,
+                isMoneyConserved() ? "一致" : "不一致，差额" + (moneyAfter - moneyBefore) + "元"));
+        return out.toString();
+    }
+
+    /**
+     * 延迟单位：毫秒（直方图以微秒记录）
+     */
+    private static void appendLatency(StringBuilder out, String title, Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            out.append(title).append("：无\n");
+            return;
+        }
+        out.append(String.format("%s（ms）：p50 %.2f  p99 %.2f  p999 %.2f  max %.2f  mean %.2f%n", title,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0,
+                histogram.getMean() / 1000.0));
+    }
+}
@@ -0,0 +1,116 @@
+package com.coder.load;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * 压测参数，来自load.properties（可用同名系统属性覆盖），含义见配置文件
+ */
+public class LoadSettings {
+
+    /** 转账交给AccountServiceImpl，由请求线程各自开事务执行 */
+    public static final String MODE_SERVICE = "service";
+
+    /** 转账交给TransferLanes，由各通道的写线程攒批执行 */
+    public static final String MODE_LANES = "lanes";
+
+    private final String mode;
+
+    private final int accounts;
+
+    private final double zipfExponent;
+
+    private final double rate;
+
+    private final int durationSeconds;
+
+    private final int warmupSeconds;
+
+    private final int threads;
+
+    private final boolean virtualThreads;
+
+    private final double failureRate;
+
+    private final double amount;
+
+    private final double initialMoney;
+
+    public LoadSettings(Environment env) {
+        mode = env.getRequiredProperty("load.mode");
+        accounts = env.getRequiredProperty("load.accounts", Integer.class);
+        zipfExponent = env.getRequiredProperty("load.zipf-exponent", Double.class);
+        rate = env.getRequiredProperty("load.rate", Double.class);
+        durationSeconds = env.getRequiredProperty("load.duration-seconds", Integer.class);
+        warmupSeconds = env.getRequiredProperty("load.warmup-seconds", Integer.class);
+        threads = env.getRequiredProperty("load.threads", Integer.class);
+        virtualThreads = env.getRequiredProperty("load.virtual-threads", Boolean.class);
+        failureRate = env.getRequiredProperty("load.failure-rate", Double.class);
+        amount = env.getRequiredProperty("load.amount", Double.class);
+        initialMoney = env.getRequiredProperty("load.initial-money", Double.class);
+        if (!MODE_SERVICE.equals(mode) && !MODE_LANES.equals(mode)) {
+            throw new IllegalArgumentException("load.mode只能是service或lanes：" + mode);
+        }
+        if (rate <= 0) {
+            throw new IllegalArgumentException("load.rate必须大于0：" + rate);
+        }
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public boolean isLanes() {
+        return MODE_LANES.equals(mode);
+    }
+
+    public int getAccounts() {
+        return accounts;
+    }
+
+    public double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public double getFailureRate() {
+        return failureRate;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public double getInitialMoney() {
+        return initialMoney;
+    }
+
+    static String accountName(int rank) {
+        return String.format("acct-%07d", rank);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("执行方式%s，账户%d个（Zipf s=%.2f），目标速率%.0f次/秒，时长%ds（预热%ds），%s%d，失败比例%.0f%%",
+                mode, accounts, zipfExponent, rate, durationSeconds, warmupSeconds,
+                virtualThreads ? "虚拟线程，并发上限" : "线程", threads, failureRate * 100);
+    }
+}
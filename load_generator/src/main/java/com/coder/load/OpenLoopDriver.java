@@ -0,0 +1,168 @@
+package com.coder.load;
+
+import com.coder.lane.TransferLanes;
+import com.coder.service.AccountService;
+import com.coder.service.impl.AccountServiceImplWithError;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 开环压测驱动
+ *
+ * 闭环压测（每个线程"发一个、等返回、再发下一个"）在系统变慢时会自动少发请求，
+ * 卡住的那段时间本该发出的请求根本没有被测量，延迟被严重低估，即"协调遗漏"（coordinated omission）
+ *
+ * 这里按目标速率计算每个请求的计划发出时间 t0 + i / rate：
+ * - 发起线程睡到计划时间就把请求交给执行线程池，不等待前一个请求完成
+ * - 延迟 = 完成时间 - 计划发出时间，包含在线程池队列中排队的时间；
+ *   发起线程自身被耽误（如GC）时会立即补发，计划时间不变，耽误的时间同样计入延迟
+ * - 同时执行的转账不超过load.threads：平台线程池本身就是这个大小；虚拟线程每个请求一个，
+ *   先在信号量上等待许可再转账，等待许可相当于在线程池队列中排队，同样计入延迟
+ *
+ * load.mode=lanes时正常转账改为提交给TransferLanes并等待提交完成，注入的失败仍走AccountServiceImplWithError
+ */
+public class OpenLoopDriver {
+
+    /** 延迟直方图的上限（微秒）和精度（有效数字位数） */
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final LoadSettings settings;
+    private final AccountService accountService;
+    private final AccountServiceImplWithError failingService;
+    /** 为null时使用accountService */
+    private final TransferLanes lanes;
+    private final ZipfianPicker picker;
+
+    private final Histogram successLatency = new ConcurrentHistogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+    private final Histogram allLatency = new ConcurrentHistogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+    private final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    /** 使用虚拟线程时限制同时执行的转账数，平台线程池时为null */
+    private Semaphore permits;
+
+    public OpenLoopDriver(LoadSettings settings, AccountService accountService,
+                          AccountServiceImplWithError failingService, TransferLanes lanes, ZipfianPicker picker) {
+        this.settings = settings;
+        this.accountService = accountService;
+        this.failingService = failingService;
+        this.lanes = lanes;
+        this.picker = picker;
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    public LoadReport run() throws InterruptedException {
+        ExecutorService executor = createExecutor();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / settings.getRate());
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(settings.getWarmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(settings.getDurationSeconds());
+
+        long issued = 0;
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = intended >= measureFrom;
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            executor.execute(() -> execute(intended, measured));
+            issued++;
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+        long elapsedNanos = System.nanoTime() - measureFrom;
+        return new LoadReport(settings, issued, elapsedNanos, successLatency, allLatency, outcomes,
+                maxInFlight.get());
+    }
+
+    /**
+     * 固定大小的平台线程池；请求虚拟线程时通过反射调用JDK 21的Executors.newVirtualThreadPerTaskExecutor，
+     * 这样本模块仍可按Java 11编译，并发数由permits限制为load.threads
+     */
+    private ExecutorService createExecutor() {
+        if (settings.isVirtualThreads()) {
+            try {
+                ExecutorService executor = (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                permits = new Semaphore(settings.getThreads());
+                return executor;
+            } catch (ReflectiveOperationException e) {
+                System.err.println("【压测】当前JDK " + Runtime.version() + " 不支持虚拟线程，改用" + settings.getThreads()
+                        + "个平台线程");
+            }
+        }
+        return Executors.newFixedThreadPool(settings.getThreads(), r -> {
+            Thread thread = new Thread(r, "load-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void execute(long intended, boolean measured) {
+        if (permits == null) {
+            transfer(intended, measured);
+            return;
+        }
+        permits.acquireUninterruptibly();
+        try {
+            transfer(intended, measured);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void transfer(long intended, boolean measured) {
+        Outcome outcome;
+        boolean injectFailure = ThreadLocalRandom.current().nextDouble() < settings.getFailureRate();
+        try {
+            int from = picker.next();
+            int to = picker.next();
+            while (to == from) {
+                to = picker.next();
+            }
+            String fromName = LoadSettings.accountName(from);
+            String toName = LoadSettings.accountName(to);
+            if (injectFailure) {
+                failingService.transferWithLogRequiredAndFail(fromName, toName, settings.getAmount());
+            } else if (lanes != null) {
+                lanes.transfer(fromName, toName, settings.getAmount());
+            } else {
+                accountService.transfer(fromName, toName, settings.getAmount());
+            }
+            outcome = Outcome.SUCCESS;
+        } catch (RuntimeException e) {
+            Outcome classified = Outcome.of(e);
+            outcome = injectFailure && classified == Outcome.ERROR ? Outcome.INJECTED_FAILURE : classified;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        if (measured) {
+            long micros = Math.max(0, (System.nanoTime() - intended) / 1000);
+            allLatency.recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+            if (outcome == Outcome.SUCCESS) {
+                successLatency.recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+            }
+            outcomes.get(outcome).increment();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.coder.load;
+
+import com.coder.bulkhead.BulkheadFullException;
+import com.coder.lane.LaneFullException;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+
+import java.sql.SQLException;
+
+/**
+ * 一次转账的结果分类
+ */
+enum Outcome {
+
+    /** 成功提交 */
+    SUCCESS("成功"),
+    /** AccountServiceImplWithError模拟的失败，事务回滚 */
+    INJECTED_FAILURE("注入失败"),
+    /** 数据库检测到死锁，本事务被选为牺牲者回滚 */
+    DEADLOCK("死锁"),
+    /** 等待行锁超时，事务回滚 */
+    LOCK_TIMEOUT("锁超时"),
+    /** 舱壁或转账通道的队列已满，转账没有开始 */
+    REJECTED("排队已满拒绝"),
+    /** 其他异常 */
+    ERROR("其他错误");
+
+    /** H2的死锁和锁超时错误码 */
+    private static final int H2_DEADLOCK = 40001;
+    private static final int H2_LOCK_TIMEOUT = 50200;
+
+    final String label;
+
+    Outcome(String label) {
+        this.label = label;
+    }
+
+    /**
+     * 是否开启过事务（需要回滚）
+     */
+    boolean rolledBack() {
+        return this != SUCCESS && this != REJECTED;
+    }
+
+    /**
+     * 按异常链分类：Spring翻译后的异常类型，或者原始SQLException的错误码
+     */
+    static Outcome of(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof BulkheadFullException || t instanceof LaneFullException) {
+                return REJECTED;
+            }
+            if (t instanceof DeadlockLoserDataAccessException) {
+                return DEADLOCK;
+            }
+            if (t instanceof CannotAcquireLockException) {
+                return LOCK_TIMEOUT;
+            }
+            if (t instanceof SQLException) {
+                int code = ((SQLException) t).getErrorCode();
+                if (code == H2_DEADLOCK || "40001".equals(((SQLException) t).getSQLState())) {
+                    return DEADLOCK;
+                }
+                if (code == H2_LOCK_TIMEOUT) {
+                    return LOCK_TIMEOUT;
+                }
+            }
+        }
+        return ERROR;
+    }
+}
@@ -0,0 +1,55 @@
+package com.coder.load;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Zipf分布的账户选择器：排名第k的账户被选中的概率与 1 / k^s 成正比
+ *
+ * s = 1左右时，前1%的账户承担了大部分转账（热门商户），其余是长长的尾部（普通用户），
+ * 与线上的热点分布相近；s = 0时退化为均匀分布
+ *
+ * 构造时计算累积分布（n个double），每次选择做一次二分查找，O(log n)，无锁，多线程共用
+ */
+public class ZipfianPicker {
+
+    private final double[] cdf;
+
+    /**
+     * @param n        账户数
+     * @param exponent 指数s
+     */
+    public ZipfianPicker(int n, double exponent) {
+        cdf = new double[n];
+        double sum = 0;
+        for (int k = 1; k <= n; k++) {
+            sum += 1.0 / Math.pow(k, exponent);
+            cdf[k - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+    }
+
+    /**
+     * @return 排名（0表示最热门）
+     */
+    public int next() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        int i = Arrays.binarySearch(cdf, u);
+        // 没有精确命中时返回(-(插入点) - 1)，插入点即第一个大于u的位置
+        i = i >= 0 ? i : -i - 1;
+        return Math.min(i, cdf.length - 1);
+    }
+
+    /**
+     * 排名前top个账户合计被选中的概率
+     */
+    public double share(int top) {
+        return top <= 0 ? 0 : cdf[Math.min(top, cdf.length) - 1];
+    }
+
+    public int size() {
+        return cdf.length;
+    }
+}
@@ -0,0 +1,41 @@
+-- 压测用的表结构（H2，MySQL兼容模式），与init.sql、init_log.sql、init_ledger.sql对应
+DROP TABLE IF EXISTS transfer_log;
+DROP TABLE IF EXISTS ledger_entry;
+DROP TABLE IF EXISTS account_snapshot;
+DROP TABLE IF EXISTS account;
+
+CREATE TABLE account (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    name VARCHAR(50) NOT NULL UNIQUE,
+    money DOUBLE NOT NULL DEFAULT 0
+);
+
+CREATE TABLE transfer_log (
+    id BIGINT PRIMARY KEY,
+    from_account VARCHAR(50) NOT NULL,
+    to_account VARCHAR(50) NOT NULL,
+    amount DOUBLE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    message VARCHAR(500),
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 账户历史查询的索引，与init_log_search.sql相同
+CREATE INDEX idx_log_from_time ON transfer_log (from_account, create_time, id, status, amount);
+CREATE INDEX idx_log_to_time ON transfer_log (to_account, create_time, id, status, amount);
+
+-- 账本模式（-Dledger.mode=ledger）使用的表
+CREATE TABLE ledger_entry (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    account_id INT NOT NULL,
+    amount DOUBLE NOT NULL,
+    create_time TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+);
+CREATE INDEX idx_account_entry ON ledger_entry (account_id, id);
+
+CREATE TABLE account_snapshot (
+    account_id INT PRIMARY KEY,
+    balance DOUBLE NOT NULL,
+    last_entry_id BIGINT NOT NULL,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
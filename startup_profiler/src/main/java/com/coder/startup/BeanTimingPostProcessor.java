@@ -0,0 +1,124 @@
+package com.coder.startup;
+
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 计时用的Bean后处理器 - 把每个Bean的创建拆成三段
+ *
+ * Bean的生命周期钩子依次是：
+ * 1. postProcessBeforeInstantiation  -> 调用构造方法/工厂方法
+ * 2. postProcessAfterInstantiation   -> 属性注入（@Autowired、@Value、XML的property）
+ * 3. postProcessBeforeInitialization -> 初始化（@PostConstruct、InitializingBean、init-method）
+ * 4. postProcessAfterInitialization
+ * 相邻两个钩子的时间差就是实例化、注入、初始化各自的耗时
+ *
+ * 注意：
+ * - 注入阶段包含依赖Bean的创建时间，"自身耗时"请看ApplicationStartup的步骤树
+ * - 本处理器在其他后处理器之前执行，AOP代理的创建（发生在其他后处理器的AfterInitialization中）不计入初始化耗时
+ * - 同名Bean只记录第一次创建（原型Bean后续的创建不属于启动过程）
+ */
+public class BeanTimingPostProcessor implements InstantiationAwareBeanPostProcessor {
+
+    private final Map<String, BeanTiming> timings = new LinkedHashMap<>();
+
+    @Override
+    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+        synchronized (timings) {
+            timings.putIfAbsent(beanName, new BeanTiming(beanName, beanClass));
+        }
+        return null;
+    }
+
+    @Override
+    public boolean postProcessAfterInstantiation(Object bean, String beanName) {
+        BeanTiming timing = timing(beanName);
+        if (timing != null && timing.instantiatedNanos == 0) {
+            timing.instantiatedNanos = System.nanoTime();
+        }
+        return true;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        BeanTiming timing = timing(beanName);
+        if (timing != null && timing.populatedNanos == 0) {
+            timing.populatedNanos = System.nanoTime();
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        BeanTiming timing = timing(beanName);
+        // FactoryBean生产的对象也会以FactoryBean的名字回调这里，只认第一次
+        if (timing != null && timing.populatedNanos != 0 && timing.initializedNanos == 0) {
+            timing.initializedNanos = System.nanoTime();
+        }
+        return bean;
+    }
+
+    private BeanTiming timing(String beanName) {
+        synchronized (timings) {
+            return timings.get(beanName);
+        }
+    }
+
+    /**
+     * 按创建顺序返回所有Bean的计时
+     */
+    public List<BeanTiming> getTimings() {
+        synchronized (timings) {
+            return new ArrayList<>(timings.values());
+        }
+    }
+
+    public BeanTiming getTiming(String beanName) {
+        return timing(beanName);
+    }
+
+    /**
+     * 一个Bean的分段计时
+     */
+    public static class BeanTiming {
+
+        private final String beanName;
+        private final Class<?> beanClass;
+        private final long startNanos = System.nanoTime();
+        private volatile long instantiatedNanos;
+        private volatile long populatedNanos;
+        private volatile long initializedNanos;
+
+        BeanTiming(String beanName, Class<?> beanClass) {
+            this.beanName = beanName;
+            this.beanClass = beanClass;
+        }
+
+        public String getBeanName() {
+            return beanName;
+        }
+
+        public Class<?> getBeanClass() {
+            return beanClass;
+        }
+
+        /** 构造方法/工厂方法耗时 */
+        public long getInstantiateNanos() {
+            return instantiatedNanos == 0 ? 0 : instantiatedNanos - startNanos;
+        }
+
+        /** 属性注入耗时（包含依赖Bean的创建） */
+        public long getPopulateNanos() {
+            return populatedNanos == 0 || instantiatedNanos == 0 ? 0 : populatedNanos - instantiatedNanos;
+        }
+
+        /** 初始化回调耗时 */
+        public long getInitializeNanos() {
+            return initializedNanos == 0 ? 0 : initializedNanos - populatedNanos;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.coder.startup;
+
+import org.springframework.core.metrics.StartupStep;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 一个启动步骤的记录
+ *
+ * Spring在启动的各个阶段调用ApplicationStartup.start(name)，例如：
+ * - spring.context.refresh：整个refresh过程
+ * - spring.context.config-classes.parse：解析配置类（含@ComponentScan扫描、@PropertySource加载）
+ * - spring.context.beandef-registry.post-process：BeanDefinitionRegistryPostProcessor（如MapperScannerConfigurer）
+ * - spring.beans.instantiate：创建一个Bean（tag beanName），依赖的Bean会嵌套在里面
+ *
+ * 步骤在同一线程上后进先出，parent就是开始时线程上正在进行的步骤
+ */
+public class ProfiledStep implements StartupStep {
+
+    private final StartupProfiler profiler;
+    private final long id;
+    private final ProfiledStep parent;
+    private final String name;
+    private final long startNanos;
+    private final List<Tag> tags = new ArrayList<>(2);
+    private final List<ProfiledStep> children = new ArrayList<>();
+    private long endNanos;
+
+    ProfiledStep(StartupProfiler profiler, long id, ProfiledStep parent, String name) {
+        this.profiler = profiler;
+        this.id = id;
+        this.parent = parent;
+        this.name = name;
+        this.startNanos = System.nanoTime();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public Long getParentId() {
+        return parent == null ? null : parent.id;
+    }
+
+    @Override
+    public StartupStep tag(String key, String value) {
+        tags.add(new SimpleTag(key, value));
+        return this;
+    }
+
+    @Override
+    public StartupStep tag(String key, Supplier<String> value) {
+        return tag(key, value.get());
+    }
+
+    @Override
+    public Tags getTags() {
+        List<Tag> copy = tags;
+        return new Tags() {
+            @Override
+            public Iterator<Tag> iterator() {
+                return copy.iterator();
+            }
+        };
+    }
+
+    @Override
+    public void end() {
+        endNanos = System.nanoTime();
+        profiler.end(this);
+    }
+
+    public ProfiledStep getParent() {
+        return parent;
+    }
+
+    public List<ProfiledStep> getChildren() {
+        return children;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public boolean isEnded() {
+        return endNanos != 0;
+    }
+
+    /**
+     * 步骤总耗时（包含子步骤），尚未结束的步骤返回0
+     */
+    public long getDurationNanos() {
+        return isEnded() ? endNanos - startNanos : 0;
+    }
+
+    /**
+     * 自身耗时 = 总耗时 - 子步骤耗时之和，火焰图中每一格的宽度
+     */
+    public long getSelfNanos() {
+        long self = getDurationNanos();
+        for (ProfiledStep child : children) {
+            self -= child.getDurationNanos();
+        }
+        return Math.max(0, self);
+    }
+
+    /**
+     * 带上最能说明问题的标签，如"spring.beans.instantiate[dataSource]"
+     */
+    public String getLabel() {
+        for (Tag tag : tags) {
+            String key = tag.getKey();
+            if ("beanName".equals(key) || "postProcessor".equals(key) || "packages".equals(key)
+                    || "classCount".equals(key)) {
+                return name + "[" + tag.getValue() + "]";
+            }
+        }
+        return name;
+    }
+
+    public String getTag(String key) {
+        for (Tag tag : tags) {
+            if (tag.getKey().equals(key)) {
+                return tag.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static final class SimpleTag implements Tag {
+
+        private final String key;
+        private final String value;
+
+        SimpleTag(String key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public String getValue() {
+            return value;
+        }
+    }
+}
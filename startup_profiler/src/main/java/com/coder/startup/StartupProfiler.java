@@ -0,0 +1,178 @@
+package com.coder.startup;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 容器启动耗时分析器
+ *
+ * 由两部分数据组成：
+ * - ApplicationStartup：Spring在refresh的各个阶段主动上报步骤，得到"阶段 -> Bean"的步骤树
+ * - BeanTimingPostProcessor：把每个Bean的创建拆成实例化、属性注入、初始化三段
+ *
+ * 使用方式（必须在refresh之前挂上，所以不能用带参数的构造方法直接启动容器）：
+ * <pre>
+ * StartupProfiler profiler = new StartupProfiler();
+ * AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+ * profiler.attach(ctx);
+ * ctx.register(SpringConfig.class);
+ * ctx.refresh();
+ * profiler.report("day03_transaction");
+ * </pre>
+ *
+ * 回归检查通过系统属性配置（都不配置时只输出报告）：
+ * - -Dstartup.max-millis=2000：启动总耗时超过2秒即失败
+ * - -Dstartup.baseline-file=startup-baseline.txt：与基线文件中的耗时比较
+ * - -Dstartup.max-regression-percent=20：比基线慢20%以上即失败（默认20）
+ * - -Dstartup.update-baseline=true：把本次耗时写入基线文件
+ * - -Dstartup.report-dir=target/startup-profile：报告输出目录
+ */
+public class StartupProfiler implements ApplicationStartup {
+
+    private final long createdNanos = System.nanoTime();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final ThreadLocal<ProfiledStep> current = new ThreadLocal<>();
+
+    private final List<ProfiledStep> roots = new ArrayList<>();
+
+    private final BeanTimingPostProcessor beanTiming = new BeanTimingPostProcessor();
+
+    /**
+     * 挂到容器上，必须在refresh之前调用
+     *
+     * 计时后处理器通过BeanFactoryPostProcessor注册：XML容器在refresh之前还没有BeanFactory，
+     * 而BeanFactoryPostProcessor执行时BeanFactory已经就绪，普通Bean都还没有创建
+     *
+     * XML容器（AbstractRefreshableApplicationContext）在refresh中新建的BeanFactory不会继承容器的ApplicationStartup，
+     * 这里顺便补上，之后的Bean创建步骤才能被记录
+     */
+    public void attach(ConfigurableApplicationContext context) {
+        context.setApplicationStartup(this);
+        context.addBeanFactoryPostProcessor(beanFactory -> {
+            beanFactory.setApplicationStartup(this);
+            beanFactory.addBeanPostProcessor(beanTiming);
+        });
+    }
+
+    @Override
+    public StartupStep start(String name) {
+        ProfiledStep parent = current.get();
+        ProfiledStep step = new ProfiledStep(this, ids.incrementAndGet(), parent, name);
+        synchronized (roots) {
+            if (parent == null) {
+                roots.add(step);
+            } else {
+                parent.getChildren().add(step);
+            }
+        }
+        current.set(step);
+        return step;
+    }
+
+    void end(ProfiledStep step) {
+        if (current.get() == step) {
+            if (step.getParent() == null) {
+                current.remove();
+            } else {
+                current.set(step.getParent());
+            }
+        }
+    }
+
+    /**
+     * 从创建分析器到最后一个顶层步骤结束的总耗时
+     */
+    public long getTotalNanos() {
+        long end = createdNanos;
+        synchronized (roots) {
+            for (ProfiledStep root : roots) {
+                end = Math.max(end, root.getStartNanos() + root.getDurationNanos());
+            }
+        }
+        return end - createdNanos;
+    }
+
+    public List<ProfiledStep> getRoots() {
+        synchronized (roots) {
+            return new ArrayList<>(roots);
+        }
+    }
+
+    public BeanTimingPostProcessor getBeanTiming() {
+        return beanTiming;
+    }
+
+    long getCreatedNanos() {
+        return createdNanos;
+    }
+
+    /**
+     * 输出报告并执行回归检查
+     * - 控制台：阶段时间线 + 最慢的Bean
+     * - {report-dir}/{name}.collapsed：折叠栈格式，可用flamegraph.pl或speedscope生成火焰图
+     *
+     * @param name 报告名称，一般为模块名
+     * @throws IllegalStateException 启动耗时超过阈值或比基线退化太多
+     */
+    public void report(String name) throws IOException {
+        StartupReport report = new StartupReport(this);
+        report.printTimeline(System.out);
+
+        Path dir = Paths.get(System.getProperty("startup.report-dir", "target/startup-profile"));
+        Files.createDirectories(dir);
+        Path collapsed = dir.resolve(name + ".collapsed");
+        report.writeCollapsedStacks(collapsed);
+        System.out.println("火焰图数据：" + collapsed.toAbsolutePath()
+                + "（flamegraph.pl " + collapsed.getFileName() + " > " + name + ".svg，或拖入speedscope.app）");
+
+        check(name);
+    }
+
+    private void check(String name) throws IOException {
+        long totalMillis = getTotalNanos() / 1_000_000;
+
+        String maxMillis = System.getProperty("startup.max-millis");
+        if (maxMillis != null && totalMillis > Long.parseLong(maxMillis)) {
+            throw new IllegalStateException("【启动检查失败】" + name + "启动耗时" + totalMillis
+                    + "ms，超过阈值" + maxMillis + "ms");
+        }
+
+        String baselineFile = System.getProperty("startup.baseline-file");
+        if (baselineFile == null) {
+            return;
+        }
+        Path baseline = Paths.get(baselineFile);
+        if (Boolean.getBoolean("startup.update-baseline")) {
+            Files.write(baseline, String.valueOf(totalMillis).getBytes(StandardCharsets.UTF_8));
+            System.out.println("【启动检查】已将" + totalMillis + "ms写入基线文件" + baseline.toAbsolutePath());
+            return;
+        }
+        if (!Files.exists(baseline)) {
+            System.out.println("【启动检查】基线文件" + baseline.toAbsolutePath()
+                    + "不存在，跳过回归检查（加-Dstartup.update-baseline=true生成）");
+            return;
+        }
+        long baselineMillis = Long.parseLong(
+                new String(Files.readAllBytes(baseline), StandardCharsets.UTF_8).trim());
+        int percent = Integer.getInteger("startup.max-regression-percent", 20);
+        long limit = baselineMillis + baselineMillis * percent / 100;
+        if (totalMillis > limit) {
+            throw new IllegalStateException("【启动检查失败】" + name + "启动耗时" + totalMillis
+                    + "ms，基线" + baselineMillis + "ms，退化超过" + percent + "%（上限" + limit + "ms）");
+        }
+        System.out.println("【启动检查】通过：" + totalMillis + "ms，基线" + baselineMillis
+                + "ms，上限" + limit + "ms");
+    }
+}
@@ -0,0 +1,132 @@
+package com.coder.startup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 启动报告
+ *
+ * - 时间线：除Bean创建以外的阶段步骤（配置类解析、包扫描、各个后处理器……），带开始偏移和耗时
+ * - 最慢的Bean：按自身耗时排序（不含依赖Bean的创建），附带实例化/注入/初始化三段耗时
+ * - 折叠栈：每个步骤一行"父步骤;子步骤;... 自身微秒数"，即Brendan Gregg火焰图的输入格式
+ */
+public class StartupReport {
+
+    private static final String BEAN_STEP = "spring.beans.instantiate";
+
+    private static final int TOP_BEANS = 15;
+
+    private final StartupProfiler profiler;
+
+    public StartupReport(StartupProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public void printTimeline(PrintStream out) {
+        out.println("========== 启动时间线（总耗时 " + millis(profiler.getTotalNanos()) + " ms） ==========");
+        out.println(String.format("%10s %10s  %s", "开始(ms)", "耗时(ms)", "阶段"));
+        for (ProfiledStep root : profiler.getRoots()) {
+            printPhase(out, root, 0);
+        }
+
+        List<ProfiledStep> beans = new ArrayList<>();
+        for (ProfiledStep root : profiler.getRoots()) {
+            collectBeans(root, beans);
+        }
+        beans.sort(Comparator.comparingLong(ProfiledStep::getSelfNanos).reversed());
+
+        out.println("========== 最慢的Bean（共创建 " + beans.size() + " 个） ==========");
+        out.println(String.format("%10s %10s %10s %10s %10s  %s",
+                "自身(ms)", "总计(ms)", "实例化", "注入", "初始化", "Bean"));
+        for (int i = 0; i < Math.min(TOP_BEANS, beans.size()); i++) {
+            ProfiledStep bean = beans.get(i);
+            String beanName = bean.getTag("beanName");
+            // FactoryBean本身以"&名称"创建，计时按原名称记录
+            BeanTimingPostProcessor.BeanTiming timing = profiler.getBeanTiming().getTiming(
+                    beanName.startsWith("&") ? beanName.substring(1) : beanName);
+            out.println(String.format("%10s %10s %10s %10s %10s  %s",
+                    millis(bean.getSelfNanos()), millis(bean.getDurationNanos()),
+                    timing == null ? "-" : millis(timing.getInstantiateNanos()),
+                    timing == null ? "-" : millis(timing.getPopulateNanos()),
+                    timing == null ? "-" : millis(timing.getInitializeNanos()),
+                    beanName + (timing == null ? "" : " (" + timing.getBeanClass().getSimpleName() + ")")));
+        }
+    }
+
+    /**
+     * 阶段树中跳过Bean创建步骤（它们在下面单独排名），只展开其中嵌套的非Bean步骤
+     */
+    private void printPhase(PrintStream out, ProfiledStep step, int depth) {
+        if (!BEAN_STEP.equals(step.getName())) {
+            StringBuilder indent = new StringBuilder();
+            for (int i = 0; i < depth; i++) {
+                indent.append("  ");
+            }
+            out.println(String.format("%10s %10s  %s%s",
+                    millis(step.getStartNanos() - profiler.getCreatedNanos()),
+                    step.isEnded() ? millis(step.getDurationNanos()) : "未结束",
+                    indent, sanitize(step.getLabel())));
+            depth++;
+        }
+        for (ProfiledStep child : step.getChildren()) {
+            printPhase(out, child, depth);
+        }
+    }
+
+    private void collectBeans(ProfiledStep step, List<ProfiledStep> beans) {
+        if (BEAN_STEP.equals(step.getName())) {
+            beans.add(step);
+        }
+        for (ProfiledStep child : step.getChildren()) {
+            collectBeans(child, beans);
+        }
+    }
+
+    /**
+     * 写出折叠栈，相同调用路径合并，单位为微秒
+     */
+    public void writeCollapsedStacks(Path file) throws IOException {
+        Map<String, Long> stacks = new LinkedHashMap<>();
+        for (ProfiledStep root : profiler.getRoots()) {
+            collapse(root, "", stacks);
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Long> stack : stacks.entrySet()) {
+                if (stack.getValue() > 0) {
+                    out.write(stack.getKey() + " " + stack.getValue());
+                    out.newLine();
+                }
+            }
+        }
+    }
+
+    private void collapse(ProfiledStep step, String prefix, Map<String, Long> stacks) {
+        String path = prefix.isEmpty() ? sanitize(step.getLabel()) : prefix + ";" + sanitize(step.getLabel());
+        stacks.merge(path, step.getSelfNanos() / 1000, Long::sum);
+        for (ProfiledStep child : step.getChildren()) {
+            collapse(child, path, stacks);
+        }
+    }
+
+    /**
+     * 折叠栈格式中分号是层级分隔符、空格是数值分隔符；
+     * 后处理器的标签是对象的toString，去掉"@哈希值"和lambda的编号才能让多次运行的报告可以对比
+     */
+    private static String sanitize(String label) {
+        return label.replaceAll("@[0-9a-f]+", "").replaceAll("\\$\\$Lambda\\$[0-9]+/0x[0-9a-f]+", "\\$\\$Lambda")
+                .replace(';', ',').replace(' ', '_');
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+}